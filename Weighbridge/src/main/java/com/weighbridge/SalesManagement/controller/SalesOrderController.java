@@ -3,9 +3,10 @@ package com.weighbridge.SalesManagement.controller;
 import com.weighbridge.SalesManagement.payloads.*;
 import com.weighbridge.SalesManagement.repositories.SalesOrderRespository;
 import com.weighbridge.SalesManagement.service.SalesOrderService;
-import com.weighbridge.admin.entities.UserMaster;
 import com.weighbridge.admin.exceptions.ResourceNotFoundException;
 import com.weighbridge.admin.repsitories.UserMasterRepository;
+import com.weighbridge.admin.payloads.UserContext;
+import com.weighbridge.admin.services.UserContextService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -26,6 +27,9 @@ public class SalesOrderController {
     @Autowired
     private UserMasterRepository userMasterRepository;
 
+    @Autowired
+    private UserContextService userContextService;
+
     @PostMapping("/add/salesdetail")
     public ResponseEntity<String> addSalesDetail(@RequestBody SalesOrderRequest salesOrderRequest){
         String str = salesOrderService.AddSalesDetails(salesOrderRequest);
@@ -47,9 +51,9 @@ public class SalesOrderController {
         else{
             pageable = PageRequest.of(page,size);
         }
-        UserMaster byId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("userId doesnt exist"));
+        UserContext byId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("userId doesnt exist"));
         System.out.println(byId);
-        SalesUserPageResponse allSalesDetails = salesOrderService.getAllSalesDetails(byId.getCompany().getCompanyId(),byId.getSite().getSiteId(),pageable);
+        SalesUserPageResponse allSalesDetails = salesOrderService.getAllSalesDetails(byId.getCompanyId(),byId.getSiteId(),pageable);
         return ResponseEntity.ok(allSalesDetails);
     }
 
@@ -86,8 +90,8 @@ public class SalesOrderController {
 
     @GetMapping("/searchBySo")
     public ResponseEntity<SalesDashboardResponse> searchBySaleOrderNo(@RequestParam String saleOrderNo,@RequestParam String userId){
-        UserMaster byUserId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("userId doesnt exist"));
-        SalesDashboardResponse salesDashboardResponse = salesOrderService.searchBySaleOrderNo(saleOrderNo,byUserId.getSite().getSiteId(),byUserId.getCompany().getCompanyId());
+        UserContext byUserId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("userId doesnt exist"));
+        SalesDashboardResponse salesDashboardResponse = salesOrderService.searchBySaleOrderNo(saleOrderNo,byUserId.getSiteId(),byUserId.getCompanyId());
         return ResponseEntity.ok(salesDashboardResponse);
     }
 }
\ No newline at end of file
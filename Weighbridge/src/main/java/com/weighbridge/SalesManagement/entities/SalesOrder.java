@@ -25,9 +25,9 @@ public class SalesOrder {
     private long customerId;
     @NotNull
     private String productName;
-    private double orderedQuantity;
-    private double progressiveQuantity=0.0;
-    private double balanceQuantity;
+    private long orderedQuantity;
+    private long progressiveQuantity;
+    private long balanceQuantity;
     private String brokerName;
     private String brokerAddress;
     @NotNull
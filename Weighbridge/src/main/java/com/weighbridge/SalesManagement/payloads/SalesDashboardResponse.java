@@ -9,6 +9,7 @@ public class SalesDashboardResponse {
   private String customerName;
   private String productName;
   private String brokerName;
+  // Tonnes
   private double orderedQty;
   private double progressiveQty;
   private double balanceQty;
@@ -6,5 +6,6 @@ import lombok.Data;
 public class SalesDetailResponse {
     private String saleOrderNo;
     private String productName;
+    // Tonnes
     private double balanceWeight;
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ public class SalesOrderRequest {
     @NotBlank
     private String productName;
 
+    // Tonnes, to the kilogram
     private double orderedQuantity;
 
     private String brokerName;
@@ -4,7 +4,10 @@ import com.weighbridge.SalesManagement.entities.SalesOrder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
@@ -19,10 +22,22 @@ public interface SalesOrderRespository extends JpaRepository<SalesOrder,String>
 
     SalesOrder findBySaleOrderNo(String s);
 
-    List<SalesOrder> findAllByBalanceQuantityBetween(Double startRange,Double endRange);
+    List<SalesOrder> findAllByBalanceQuantityBetween(Long startRange,Long endRange);
 
 
     Page<SalesOrder> findAllBySiteIdAndCompanyId(String siteId,String companyId, Pageable pageable);
 
     SalesOrder findBySaleOrderNoAndSiteIdAndCompanyId(String saleOrderNo,String siteId,String companyId);
+
+    /**
+     * Adds a dispatched quantity to the order in one update statement, so concurrent weighments of the order
+     * never overwrite each other's quantities.
+     * @param quantity The net weight dispatched, in kilograms.
+     * @return The number of orders updated, 0 if there is no such order.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SalesOrder so SET so.progressiveQuantity = so.progressiveQuantity + :quantity, " +
+            "so.balanceQuantity = so.balanceQuantity - :quantity WHERE so.saleOrderNo = :saleOrderNo")
+    int addDispatchedQuantity(@Param("saleOrderNo") String saleOrderNo, @Param("quantity") long quantity);
 }
\ No newline at end of file
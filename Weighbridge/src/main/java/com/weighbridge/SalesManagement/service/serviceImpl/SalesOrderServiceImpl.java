@@ -8,12 +8,14 @@ import com.weighbridge.SalesManagement.repositories.SalesProcessRepository;
 import com.weighbridge.SalesManagement.service.SalesOrderService;
 import com.weighbridge.admin.entities.CustomerMaster;
 import com.weighbridge.admin.entities.MaterialMaster;
-import com.weighbridge.admin.entities.UserMaster;
 import com.weighbridge.admin.exceptions.ResourceNotFoundException;
 import com.weighbridge.admin.repsitories.CustomerMasterRepository;
 import com.weighbridge.admin.repsitories.MaterialMasterRepository;
 import com.weighbridge.admin.repsitories.UserMasterRepository;
 import com.weighbridge.weighbridgeoperator.entities.WeighmentTransaction;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import com.weighbridge.admin.payloads.UserContext;
+import com.weighbridge.admin.services.UserContextService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +25,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -30,6 +33,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.StringJoiner;
 
+import static com.weighbridge.weighbridgeoperator.payloads.WeightUnits.toTonnes;
+
 @Service
 public class SalesOrderServiceImpl implements SalesOrderService {
     @Autowired
@@ -50,6 +55,12 @@ public class SalesOrderServiceImpl implements SalesOrderService {
     @Autowired
     private HttpServletRequest httpServletRequest;
 
+    @Autowired
+    private MasterDataCacheService masterDataCacheService;
+
+    @Autowired
+    private UserContextService userContextService;
+
     private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
 
 
@@ -64,11 +75,12 @@ public class SalesOrderServiceImpl implements SalesOrderService {
         if(salesOrder1){
             throw new ResponseStatusException(HttpStatus.CONFLICT,"this salesNumber already exists");
         }*/
+        long orderedQuantity = toKilograms(salesOrderRequest.getOrderedQuantity());
         SalesOrder salesOrder=new SalesOrder();
         salesOrder.setPurchaseOrderNo(salesOrderRequest.getPurchaseOrderNo());
         salesOrder.setSaleOrderNo(salesOrderRequest.getSaleOrderNo());
         salesOrder.setPurchaseOrderedDate(salesOrderRequest.getPurchaseOrderedDate());
-        salesOrder.setOrderedQuantity(salesOrderRequest.getOrderedQuantity());
+        salesOrder.setOrderedQuantity(orderedQuantity);
         salesOrder.setBrokerName(salesOrderRequest.getBrokerName());
 
       //Added customer to CustomerMaster if customer doesnot exist
@@ -107,10 +119,10 @@ public class SalesOrderServiceImpl implements SalesOrderService {
 */
         salesOrder.setProductName(salesOrderRequest.getProductName());
        // salesOrder.setProgressiveQuantity(salesOrderRequest.getProgressiveQuantity());
-        salesOrder.setBalanceQuantity(salesOrderRequest.getOrderedQuantity());
-        UserMaster userMaster = userMasterRepository.findById(salesOrderRequest.getUserId()).orElseThrow(() -> new ResourceNotFoundException("userId not found."));
-        salesOrder.setCompanyId(userMaster.getCompany().getCompanyId());
-        salesOrder.setSiteId(userMaster.getSite().getSiteId());
+        salesOrder.setBalanceQuantity(orderedQuantity);
+        UserContext userContext = userContextService.findUserContext(salesOrderRequest.getUserId()).orElseThrow(() -> new ResourceNotFoundException("userId not found."));
+        salesOrder.setCompanyId(userContext.getCompanyId());
+        salesOrder.setSiteId(userContext.getSiteId());
         salesOrderRespository.save(salesOrder);
         return "Sales details added";
     }
@@ -123,14 +135,14 @@ public class SalesOrderServiceImpl implements SalesOrderService {
         for(SalesOrder salesOrder : allUsers) {
             SalesDashboardResponse salesDashboardResponse = new SalesDashboardResponse();
             salesDashboardResponse.setPurchaseOrderNo(salesOrder.getPurchaseOrderNo());
-            salesDashboardResponse.setOrderedQty(salesOrder.getOrderedQuantity());
+            salesDashboardResponse.setOrderedQty(toTonnes(salesOrder.getOrderedQuantity()));
             CustomerMaster byId = customerMasterRepository.findById(salesOrder.getCustomerId()).get();
             salesDashboardResponse.setCustomerName(byId.getCustomerName());
             salesDashboardResponse.setSaleOrderNo(salesOrder.getSaleOrderNo());
             salesDashboardResponse.setProductName(salesOrder.getProductName());
             salesDashboardResponse.setBrokerName(salesOrder.getBrokerName());
-            salesDashboardResponse.setProgressiveQty(salesOrder.getProgressiveQuantity());
-            salesDashboardResponse.setBalanceQty(salesOrder.getBalanceQuantity());
+            salesDashboardResponse.setProgressiveQty(toTonnes(salesOrder.getProgressiveQuantity()));
+            salesDashboardResponse.setBalanceQty(toTonnes(salesOrder.getBalanceQuantity()));
             // Assuming getPurchasePassNo() is a method of SalesProcess, not List<SalesProcess>
             list.add(salesDashboardResponse);
         }
@@ -152,7 +164,7 @@ public class SalesOrderServiceImpl implements SalesOrderService {
         SalesDetailResponse salesDetailResponse=new SalesDetailResponse();
         salesDetailResponse.setProductName(byPurchaseOrderNo.getProductName());
         salesDetailResponse.setSaleOrderNo(byPurchaseOrderNo.getSaleOrderNo());
-        salesDetailResponse.setBalanceWeight(byPurchaseOrderNo.getBalanceQuantity());
+        salesDetailResponse.setBalanceWeight(toTonnes(byPurchaseOrderNo.getBalanceQuantity()));
         return salesDetailResponse;
     }
 
@@ -168,8 +180,8 @@ public class SalesOrderServiceImpl implements SalesOrderService {
         } else {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session Expired, Login again !");
         }*/
-        UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("user not found with site and company."));
-        Page<SalesProcess> allVehiclesDetails= salesProcessRepository.findAllByStatusAndPurchaseSaleSiteIdAndPurchaseSaleCompanyId(true,userMaster.getSite().getSiteId(),userMaster.getCompany().getCompanyId(),pageable);
+        UserContext userContext = userContextService.findUserContext(userId).orElseThrow(() -> new ResourceNotFoundException("user not found with site and company."));
+        Page<SalesProcess> allVehiclesDetails= salesProcessRepository.findAllByStatusAndPurchaseSaleSiteIdAndPurchaseSaleCompanyId(true,userContext.getSiteId(),userContext.getCompanyId(),pageable);
         List<SalesProcess> allUsers = allVehiclesDetails.getContent();
         List<VehicleAndTransporterDetail> listOfVehicle=new ArrayList<>();
         for (SalesProcess salesProcess:allUsers) {
@@ -180,8 +192,7 @@ public class SalesOrderServiceImpl implements SalesOrderService {
             vehicleAndTransporterDetail.setProductName(salesProcess.getProductName());
             vehicleAndTransporterDetail.setProductType(salesProcess.getProductType());
             vehicleAndTransporterDetail.setConsignmentWeight(salesProcess.getConsignmentWeight());
-            Object[] customerNameAndAddressBycustomerId = customerMasterRepository.findCustomerNameAndAddressBycustomerId(salesProcess.getPurchaseSale().getCustomerId());
-            Object[] customerData = (Object[]) customerNameAndAddressBycustomerId[0];
+            Object[] customerData = masterDataCacheService.getCustomerNameAndAddress(salesProcess.getPurchaseSale().getCustomerId());
             if (customerData != null && customerData.length >= 2) {
                 String customerName = (String) customerData[0];
                 String customerAddress1 = (String) customerData[1];
@@ -240,18 +251,30 @@ public class SalesOrderServiceImpl implements SalesOrderService {
         if(bySaleOrderNo!=null){
             SalesDashboardResponse salesDashboardResponse = new SalesDashboardResponse();
             salesDashboardResponse.setPurchaseOrderNo(bySaleOrderNo.getPurchaseOrderNo());
-            salesDashboardResponse.setOrderedQty(bySaleOrderNo.getOrderedQuantity());
+            salesDashboardResponse.setOrderedQty(toTonnes(bySaleOrderNo.getOrderedQuantity()));
             CustomerMaster byId = customerMasterRepository.findById(bySaleOrderNo.getCustomerId()).get();
             salesDashboardResponse.setCustomerName(byId.getCustomerName());
             salesDashboardResponse.setSaleOrderNo(bySaleOrderNo.getSaleOrderNo());
             salesDashboardResponse.setProductName(bySaleOrderNo.getProductName());
             salesDashboardResponse.setBrokerName(bySaleOrderNo.getBrokerName());
-            salesDashboardResponse.setProgressiveQty(bySaleOrderNo.getProgressiveQuantity());
-            salesDashboardResponse.setBalanceQty(bySaleOrderNo.getBalanceQuantity());
+            salesDashboardResponse.setProgressiveQty(toTonnes(bySaleOrderNo.getProgressiveQuantity()));
+            salesDashboardResponse.setBalanceQty(toTonnes(bySaleOrderNo.getBalanceQuantity()));
             return salesDashboardResponse;
         }
         else {
             throw new ResourceNotFoundException("no match found.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Sales orders are entered and shown in tonnes and kept in whole kilograms.
+     * @return The quantity in kilograms.
+     */
+    private static long toKilograms(double tonnes) {
+        BigDecimal kilograms = BigDecimal.valueOf(tonnes).movePointRight(3);
+        if (kilograms.signum() <= 0 || kilograms.stripTrailingZeros().scale() > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ordered quantity must be a positive number of tonnes with at most 3 decimals");
+        }
+        return kilograms.longValueExact();
+    }
+}
@@ -3,11 +3,18 @@ package com.weighbridge;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Map;
+
 @SpringBootApplication
 public class WeighbridgeApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(WeighbridgeApplication.class, args);
+		SpringApplication application = new SpringApplication(WeighbridgeApplication.class);
+		// Defaults for settings the properties files of a site do not set, any of them can still override these
+		application.setDefaultProperties(Map.of(
+				// The cache and camera metrics are read over HTTP from the actuator metrics endpoint
+				"management.endpoints.web.exposure.include", "health,metrics,caches"));
+		application.run(args);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package com.weighbridge.admin.configs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import com.weighbridge.admin.services.UserContextService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process caches for master data and user context lookups. Hit and miss counts are recorded so they show up
+ * under the cache.gets metric of the actuator metrics endpoint.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    @Value("${weighbridge.cache.master-data.maximum-size:10000}")
+    private long masterDataMaximumSize;
+
+    @Value("${weighbridge.cache.master-data.expire-after-write:12h}")
+    private Duration masterDataExpireAfterWrite;
+
+    @Value("${weighbridge.cache.user-context.maximum-size:1000}")
+    private long userContextMaximumSize;
+
+    @Value("${weighbridge.cache.user-context.expire-after-write:5m}")
+    private Duration userContextExpireAfterWrite;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(masterDataMaximumSize)
+                .expireAfterWrite(masterDataExpireAfterWrite)
+                .recordStats());
+        cacheManager.setCacheNames(List.of(
+                MasterDataCacheService.VEHICLE_NOS,
+                MasterDataCacheService.TRANSPORTER_NAMES,
+                MasterDataCacheService.SUPPLIERS,
+                MasterDataCacheService.CUSTOMERS,
+                MasterDataCacheService.MATERIAL_NAMES,
+                MasterDataCacheService.PRODUCT_NAMES));
+        // User contexts only live for a few minutes, in case a user is changed outside the admin services
+        cacheManager.registerCustomCache(UserContextService.USER_CONTEXTS, Caffeine.newBuilder()
+                .maximumSize(userContextMaximumSize)
+                .expireAfterWrite(userContextExpireAfterWrite)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
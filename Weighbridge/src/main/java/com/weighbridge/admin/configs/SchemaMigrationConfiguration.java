@@ -0,0 +1,31 @@
+package com.weighbridge.admin.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Defaults for the Flyway migration Spring Boot runs at startup while spring.flyway.enabled is true, before the
+ * entities read the tables. Hibernate only adds missing tables and columns, it never converts existing ones, so
+ * deployments that disable Flyway apply the scripts in db/migration themselves.
+ *
+ * Databases built by Hibernate before any script was applied are baselined at the last script they were built
+ * from, so only the later scripts run on them. Both defaults give way to the spring.flyway properties when set.
+ */
+@Configuration
+public class SchemaMigrationConfiguration {
+
+    @Value("${spring.flyway.baseline-on-migrate:true}")
+    private boolean baselineOnMigrate;
+
+    @Value("${spring.flyway.baseline-version:26}")
+    private String baselineVersion;
+
+    @Bean
+    public FlywayConfigurationCustomizer schemaBaselineCustomizer() {
+        return configuration -> configuration
+                .baselineOnMigrate(baselineOnMigrate)
+                .baselineVersion(baselineVersion);
+    }
+}
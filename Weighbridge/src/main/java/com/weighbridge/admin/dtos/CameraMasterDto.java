@@ -16,6 +16,12 @@ public class CameraMasterDto {
     private String backCamUrl4;
     private String leftCamUrl5;
     private String rightCamUrl6;
+    private String topCamSubstreamUrl1;
+    private String bottomCamSubstreamUrl2;
+    private String frontCamSubstreamUrl3;
+    private String backCamSubstreamUrl4;
+    private String leftCamSubstreamUrl5;
+    private String rightCamSubstreamUrl6;
     private String createdBy;
     private String modifiedBy;
     private LocalDateTime createdDate;
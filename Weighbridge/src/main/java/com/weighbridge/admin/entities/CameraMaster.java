@@ -26,6 +26,13 @@ public class CameraMaster {
     private String backCamUrl4;
     private String leftCamUrl5;
     private String RightCamUrl6;
+    // Low resolution streams of the same cameras for previews, optional
+    private String topCamSubstreamUrl1;
+    private String bottomCamSubstreamUrl2;
+    private String frontCamSubstreamUrl3;
+    private String backCamSubstreamUrl4;
+    private String leftCamSubstreamUrl5;
+    private String rightCamSubstreamUrl6;
     private String createdBy;
     private String modifiedBy;
     private LocalDateTime createdDate;
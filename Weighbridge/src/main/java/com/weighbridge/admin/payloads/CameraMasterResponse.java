@@ -17,4 +17,10 @@ public class CameraMasterResponse {
     private String backCamUrl4;
     private String leftCamUrl5;
     private String RightCamUrl6;
+    private String topCamSubstreamUrl1;
+    private String bottomCamSubstreamUrl2;
+    private String frontCamSubstreamUrl3;
+    private String backCamSubstreamUrl4;
+    private String leftCamSubstreamUrl5;
+    private String rightCamSubstreamUrl6;
 }
@@ -0,0 +1,31 @@
+package com.weighbridge.admin.payloads;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Site, company and roles of a logged-in user, as resolved by
+ * {@link com.weighbridge.admin.services.UserContextService}. Instances are shared through a cache and are
+ * therefore immutable.
+ */
+@Getter
+@AllArgsConstructor
+public class UserContext {
+
+    private final String userId;
+    private final String siteId;
+    private final String siteName;
+    private final String companyId;
+    private final String companyName;
+    private final String userStatus;
+    private final Set<String> roles;
+
+    /**
+     * @return The first role of the user, or null if the user has no roles.
+     */
+    public String getRole() {
+        return roles.stream().findFirst().orElse(null);
+    }
+}
@@ -3,5 +3,9 @@ package com.weighbridge.admin.repsitories;
 import com.weighbridge.admin.entities.CameraMaster;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface CameraMasterRepository extends JpaRepository<CameraMaster,Long> {
+
+    Optional<CameraMaster> findFirstByCompanyIdAndSiteIdAndRoleId(String companyId, String siteId, Integer roleId);
 }
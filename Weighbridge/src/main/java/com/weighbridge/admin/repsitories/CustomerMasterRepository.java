@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Collection;
 
 public interface CustomerMasterRepository extends JpaRepository<CustomerMaster, Long> {
     boolean existsByCustomerContactNoOrCustomerEmail(String customerContactNo, String customerEmail);
@@ -46,4 +47,7 @@ public interface CustomerMasterRepository extends JpaRepository<CustomerMaster,
 
     @Query("SELECT c.customerName, c.customerAddressLine1, c.customerAddressLine2 FROM CustomerMaster c where c.customerId =:customerId")
     Object[] findCustomerNameAndCustomerAddressesByCustomerId(@Param("customerId") long customerId);
+
+    @Query("SELECT c.customerId, c.customerName, c.customerAddressLine1 FROM CustomerMaster c WHERE c.customerId IN :customerIds")
+    List<Object[]> findCustomerNameAndAddressByCustomerIdIn(@Param("customerIds") Collection<Long> customerIds);
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Collection;
 
 public interface MaterialMasterRepository extends JpaRepository<MaterialMaster, Long> {
     boolean existsByMaterialName(String materialName);
@@ -31,4 +32,7 @@ public interface MaterialMasterRepository extends JpaRepository<MaterialMaster,
     List<String> findAllMaterialNameByMaterialStatus(@Param("status")String status);
 
 	MaterialMaster findByMaterialId(long materialId);
+
+    @Query("SELECT m.materialId, m.materialName FROM MaterialMaster m WHERE m.materialId IN :materialIds")
+    List<Object[]> findMaterialNamesByMaterialIdIn(@Param("materialIds") Collection<Long> materialIds);
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Collection;
 
 public interface ProductMasterRepository extends JpaRepository<ProductMaster, Long> {
     @Query("SELECT pm FROM ProductMaster pm WHERE pm.productName = :productName")
@@ -19,4 +20,7 @@ public interface ProductMasterRepository extends JpaRepository<ProductMaster, Lo
 
     @Query("SELECT pm.productName FROM ProductMaster pm WHERE pm.productId = :productId")
     String findProductNameByProductId(@Param("productId") long productId);
+
+    @Query("SELECT pm.productId, pm.productName FROM ProductMaster pm WHERE pm.productId IN :productIds")
+    List<Object[]> findProductNamesByProductIdIn(@Param("productIds") Collection<Long> productIds);
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Collection;
 
 public interface SupplierMasterRepository extends JpaRepository<SupplierMaster,Long> {
 
@@ -52,4 +53,7 @@ public interface SupplierMasterRepository extends JpaRepository<SupplierMaster,L
 
     @Query("SELECT s.supplierName, s.supplierAddressLine1, s.supplierAddressLine2 FROM SupplierMaster s where s.supplierId =:supplierId")
     Object[] findSupplierNameAndSupplierAddressesBySupplierId(@Param("supplierId") long supplierId);
+
+    @Query("SELECT s.supplierId, s.supplierName, s.supplierAddressLine1 FROM SupplierMaster s WHERE s.supplierId IN :supplierIds")
+    List<Object[]> findSupplierNameAndAddressBySupplierIdIn(@Param("supplierIds") Collection<Long> supplierIds);
 }
\ No newline at end of file
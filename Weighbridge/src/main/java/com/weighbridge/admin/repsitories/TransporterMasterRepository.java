@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Collection;
 
 public interface TransporterMasterRepository extends JpaRepository<TransporterMaster, Long> {
     Boolean existsByTransporterName(String transporterName);
@@ -21,4 +22,7 @@ public interface TransporterMasterRepository extends JpaRepository<TransporterMa
 
     @Query("SELECT t.transporterName FROM TransporterMaster t WHERE t.status = 'ACTIVE' ")
     List<String> findAllByTransporterStatus();
+
+    @Query("SELECT t.id, t.transporterName FROM TransporterMaster t WHERE t.id IN :ids")
+    List<Object[]> findTransporterNamesByTransporterIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -12,6 +12,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Collection;
 
 public interface VehicleMasterRepository extends JpaRepository<VehicleMaster,Long> {
 
@@ -47,4 +48,10 @@ public interface VehicleMasterRepository extends JpaRepository<VehicleMaster,Lon
 
     @Query("SELECT vm.vehicleFitnessUpTo FROM VehicleMaster vm WHERE vm.id = :vehicleId")
     LocalDate findVehicleFitnessById(@Param("vehicleId") long vehicleId);
-}
\ No newline at end of file
+
+    @Query("SELECT v.id, v.vehicleNo, v.vehicleType, v.vehicleWheelsNo FROM VehicleMaster v WHERE v.id IN :ids")
+    List<Object[]> findVehicleInfoByVehicleIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT v.id, v.vehicleNo FROM VehicleMaster v")
+    List<Object[]> findAllVehicleIdsAndNos();
+}
@@ -0,0 +1,52 @@
+package com.weighbridge.admin.services;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Resolves master data ids to the names shown on screens, prints and reports.
+ *
+ * Results are kept in bounded in-process caches. The admin master services evict the matching cache
+ * whenever a master record is created, updated, activated or deactivated.
+ */
+public interface MasterDataCacheService {
+
+    String VEHICLE_NOS = "vehicleNos";
+    String TRANSPORTER_NAMES = "transporterNames";
+    String SUPPLIERS = "suppliers";
+    String CUSTOMERS = "customers";
+    String MATERIAL_NAMES = "materialNames";
+    String PRODUCT_NAMES = "productNames";
+
+    String getVehicleNo(long vehicleId);
+
+    String getTransporterName(long transporterId);
+
+    Map<Long, String> getTransporterNames(Collection<Long> transporterIds);
+
+    String getSupplierName(long supplierId);
+
+    /**
+     * @return The supplier name and address line 1, or null if the supplier does not exist.
+     */
+    Object[] getSupplierNameAndAddress(long supplierId);
+
+    Map<Long, Object[]> getSupplierNamesAndAddresses(Collection<Long> supplierIds);
+
+    String getCustomerName(long customerId);
+
+    /**
+     * @return The customer name and address line 1, or null if the customer does not exist.
+     */
+    Object[] getCustomerNameAndAddress(long customerId);
+
+    Map<Long, Object[]> getCustomerNamesAndAddresses(Collection<Long> customerIds);
+
+    String getMaterialName(long materialId);
+
+    Map<Long, String> getMaterialNames(Collection<Long> materialIds);
+
+    String getProductName(long productId);
+
+    Map<Long, String> getProductNames(Collection<Long> productIds);
+}
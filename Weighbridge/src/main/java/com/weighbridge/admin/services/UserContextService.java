@@ -0,0 +1,24 @@
+package com.weighbridge.admin.services;
+
+import com.weighbridge.admin.payloads.UserContext;
+
+import java.util.Optional;
+
+/**
+ * Resolves a user id to the site, company and roles of the user.
+ *
+ * A context is resolved at most once per HTTP request and is kept in a short lived cache between requests.
+ * {@link UserMasterService} evicts the cached context whenever a user is updated, deactivated or activated.
+ */
+public interface UserContextService {
+
+    String USER_CONTEXTS = "userContexts";
+
+    /**
+     * @param userId The id of the user.
+     * @return The context of the user, or an empty optional if the user, its site or its company does not exist.
+     */
+    Optional<UserContext> findUserContext(String userId);
+
+    void evict(String userId);
+}
@@ -15,6 +15,7 @@ import com.weighbridge.admin.repsitories.CompanyMasterRepository;
 import com.weighbridge.admin.repsitories.RoleMasterRepository;
 import com.weighbridge.admin.repsitories.SiteMasterRepository;
 import com.weighbridge.admin.services.CameraMasterService;
+import com.weighbridge.camera.services.CameraStreamRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -42,6 +43,9 @@ public class CameraMasterServiceImpl implements CameraMasterService {
     @Autowired
     private RoleMasterRepository roleMasterRepository;
 
+    @Autowired
+    private CameraStreamRegistry cameraStreamRegistry;
+
 
 
     @Override
@@ -74,12 +78,19 @@ public class CameraMasterServiceImpl implements CameraMasterService {
         cameraMaster.setTopCamUrl1(cameraMasterDto.getTopCamUrl1());
         cameraMaster.setLeftCamUrl5(cameraMasterDto.getLeftCamUrl5());
         cameraMaster.setRightCamUrl6(cameraMasterDto.getRightCamUrl6());
+        cameraMaster.setTopCamSubstreamUrl1(cameraMasterDto.getTopCamSubstreamUrl1());
+        cameraMaster.setBottomCamSubstreamUrl2(cameraMasterDto.getBottomCamSubstreamUrl2());
+        cameraMaster.setFrontCamSubstreamUrl3(cameraMasterDto.getFrontCamSubstreamUrl3());
+        cameraMaster.setBackCamSubstreamUrl4(cameraMasterDto.getBackCamSubstreamUrl4());
+        cameraMaster.setLeftCamSubstreamUrl5(cameraMasterDto.getLeftCamSubstreamUrl5());
+        cameraMaster.setRightCamSubstreamUrl6(cameraMasterDto.getRightCamSubstreamUrl6());
         LocalDateTime localDateTime=LocalDateTime.now();
         cameraMaster.setCreatedBy(userId);
         cameraMaster.setModifiedBy(userId);
         cameraMaster.setCreatedDate(localDateTime);
         cameraMaster.setModifiedDate(localDateTime);
         CameraMaster save = cameraMasterRepository.save(cameraMaster);
+        cameraStreamRegistry.update(save);
         return "Camera Details saved for "+cameraMasterDto.getRole()+" with Id "+save.getId();
     }
 
@@ -109,6 +120,12 @@ public class CameraMasterServiceImpl implements CameraMasterService {
             cameraMasterDto1.setRightCamUrl6(cameraMasterDto.getRightCamUrl6());
             cameraMasterDto1.setTopCamUrl1(cameraMasterDto.getTopCamUrl1());
             cameraMasterDto1.setBottomCamUrl2(cameraMasterDto.getBottomCamUrl2());
+            cameraMasterDto1.setTopCamSubstreamUrl1(cameraMasterDto.getTopCamSubstreamUrl1());
+            cameraMasterDto1.setBottomCamSubstreamUrl2(cameraMasterDto.getBottomCamSubstreamUrl2());
+            cameraMasterDto1.setFrontCamSubstreamUrl3(cameraMasterDto.getFrontCamSubstreamUrl3());
+            cameraMasterDto1.setBackCamSubstreamUrl4(cameraMasterDto.getBackCamSubstreamUrl4());
+            cameraMasterDto1.setLeftCamSubstreamUrl5(cameraMasterDto.getLeftCamSubstreamUrl5());
+            cameraMasterDto1.setRightCamSubstreamUrl6(cameraMasterDto.getRightCamSubstreamUrl6());
             list.add(cameraMasterDto1);
         }
         return list;
@@ -141,6 +158,12 @@ public class CameraMasterServiceImpl implements CameraMasterService {
         cameraMasterResponse.setBackCamUrl4(cameraMaster.getBackCamUrl4());
         cameraMasterResponse.setLeftCamUrl5(cameraMaster.getLeftCamUrl5());
         cameraMasterResponse.setRightCamUrl6(cameraMaster.getRightCamUrl6());
+        cameraMasterResponse.setTopCamSubstreamUrl1(cameraMaster.getTopCamSubstreamUrl1());
+        cameraMasterResponse.setBottomCamSubstreamUrl2(cameraMaster.getBottomCamSubstreamUrl2());
+        cameraMasterResponse.setFrontCamSubstreamUrl3(cameraMaster.getFrontCamSubstreamUrl3());
+        cameraMasterResponse.setBackCamSubstreamUrl4(cameraMaster.getBackCamSubstreamUrl4());
+        cameraMasterResponse.setLeftCamSubstreamUrl5(cameraMaster.getLeftCamSubstreamUrl5());
+        cameraMasterResponse.setRightCamSubstreamUrl6(cameraMaster.getRightCamSubstreamUrl6());
         return cameraMasterResponse;
     }
 
@@ -152,6 +175,12 @@ public class CameraMasterServiceImpl implements CameraMasterService {
         cameraMaster.setBottomCamUrl2(cameraMasterDto.getBottomCamUrl2());
         cameraMaster.setFrontCamUrl3(cameraMasterDto.getFrontCamUrl3());
         cameraMaster.setBackCamUrl4(cameraMasterDto.getBackCamUrl4());
+        cameraMaster.setTopCamSubstreamUrl1(cameraMasterDto.getTopCamSubstreamUrl1());
+        cameraMaster.setBottomCamSubstreamUrl2(cameraMasterDto.getBottomCamSubstreamUrl2());
+        cameraMaster.setFrontCamSubstreamUrl3(cameraMasterDto.getFrontCamSubstreamUrl3());
+        cameraMaster.setBackCamSubstreamUrl4(cameraMasterDto.getBackCamSubstreamUrl4());
+        cameraMaster.setLeftCamSubstreamUrl5(cameraMasterDto.getLeftCamSubstreamUrl5());
+        cameraMaster.setRightCamSubstreamUrl6(cameraMasterDto.getRightCamSubstreamUrl6());
         String companyId = companyMasterRepository.findCompanyIdByCompanyName(cameraMasterDto.getCompanyName());
         String[] siteInfoParts = cameraMasterDto.getSiteName().split(",", 2);
         String siteName=null;
@@ -176,7 +205,7 @@ public class CameraMasterServiceImpl implements CameraMasterService {
         LocalDateTime localDateTime=LocalDateTime.now();
         cameraMaster.setModifiedBy(userId);
         cameraMaster.setModifiedDate(localDateTime);
-        cameraMasterRepository.save(cameraMaster);
+        cameraStreamRegistry.update(cameraMasterRepository.save(cameraMaster));
         return "camera details updated Successfully";
     }
 
@@ -185,6 +214,7 @@ public class CameraMasterServiceImpl implements CameraMasterService {
 
         if(cameraMasterRepository.existsById(id)){
             cameraMasterRepository.deleteById(id);
+            cameraStreamRegistry.remove(id);
             return "record deleted with id "+id;
         }
         else{
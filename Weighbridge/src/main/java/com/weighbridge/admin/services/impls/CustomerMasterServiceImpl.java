@@ -6,6 +6,7 @@ import com.weighbridge.admin.exceptions.SessionExpiredException;
 import com.weighbridge.admin.payloads.CustomerRequest;
 import com.weighbridge.admin.repsitories.CustomerMasterRepository;
 import com.weighbridge.admin.services.CustomerMasterService;
+import com.weighbridge.admin.services.MasterDataCacheService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.hibernate.sql.Update;
@@ -14,6 +15,7 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.cache.annotation.CacheEvict;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -30,6 +32,7 @@ public class CustomerMasterServiceImpl implements CustomerMasterService {
         this.httpServletRequest = httpServletRequest;
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.CUSTOMERS, allEntries = true)
     @Override
     public String createCustomer(CustomerMasterDto customerMasterDto,String userId) {
         boolean exists = customerMasterRepository.existsByCustomerContactNoOrCustomerEmail(
@@ -116,6 +119,7 @@ public class CustomerMasterServiceImpl implements CustomerMasterService {
         return customerMasterDto;
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.CUSTOMERS, allEntries = true)
     @Override
     public String updateCustomerById(CustomerRequest customerRequest, long id,String userId) {
         try{
@@ -150,6 +154,7 @@ public class CustomerMasterServiceImpl implements CustomerMasterService {
         }
 
     }
+    @CacheEvict(cacheNames = MasterDataCacheService.CUSTOMERS, allEntries = true)
     @Override
     public String deleteCustomerById(long id) {
         CustomerMaster byCustomerId = customerMasterRepository.findByCustomerId(id);
@@ -161,6 +166,7 @@ public class CustomerMasterServiceImpl implements CustomerMasterService {
         return "Deleted Succesfully";
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.CUSTOMERS, allEntries = true)
     @Override
     public String activeCustomerId(Long customerId) {
         CustomerMaster byCustomerId = customerMasterRepository.findByCustomerId(customerId);
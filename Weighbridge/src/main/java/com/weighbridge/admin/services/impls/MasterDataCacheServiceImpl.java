@@ -0,0 +1,152 @@
+package com.weighbridge.admin.services.impls;
+
+import com.weighbridge.admin.repsitories.CustomerMasterRepository;
+import com.weighbridge.admin.repsitories.MaterialMasterRepository;
+import com.weighbridge.admin.repsitories.ProductMasterRepository;
+import com.weighbridge.admin.repsitories.SupplierMasterRepository;
+import com.weighbridge.admin.repsitories.TransporterMasterRepository;
+import com.weighbridge.admin.repsitories.VehicleMasterRepository;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+@Service
+public class MasterDataCacheServiceImpl implements MasterDataCacheService {
+
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private VehicleMasterRepository vehicleMasterRepository;
+    @Autowired
+    private TransporterMasterRepository transporterMasterRepository;
+    @Autowired
+    private SupplierMasterRepository supplierMasterRepository;
+    @Autowired
+    private CustomerMasterRepository customerMasterRepository;
+    @Autowired
+    private MaterialMasterRepository materialMasterRepository;
+    @Autowired
+    private ProductMasterRepository productMasterRepository;
+
+    @Override
+    public String getVehicleNo(long vehicleId) {
+        return get(VEHICLE_NOS, vehicleId, () -> vehicleMasterRepository.findVehicleNoById(vehicleId));
+    }
+
+    @Override
+    public String getTransporterName(long transporterId) {
+        return get(TRANSPORTER_NAMES, transporterId, () -> transporterMasterRepository.findTransporterNameByTransporterId(transporterId));
+    }
+
+    @Override
+    public Map<Long, String> getTransporterNames(Collection<Long> transporterIds) {
+        return getAll(TRANSPORTER_NAMES, transporterIds, transporterMasterRepository::findTransporterNamesByTransporterIdIn, row -> (String) row[1]);
+    }
+
+    @Override
+    public String getSupplierName(long supplierId) {
+        Object[] supplier = getSupplierNameAndAddress(supplierId);
+        return supplier != null ? (String) supplier[0] : null;
+    }
+
+    @Override
+    public Object[] getSupplierNameAndAddress(long supplierId) {
+        return get(SUPPLIERS, supplierId, () -> firstRow(supplierMasterRepository.findSupplierNameAndAddressBySupplierId(supplierId)));
+    }
+
+    @Override
+    public Map<Long, Object[]> getSupplierNamesAndAddresses(Collection<Long> supplierIds) {
+        return getAll(SUPPLIERS, supplierIds, supplierMasterRepository::findSupplierNameAndAddressBySupplierIdIn, row -> new Object[]{row[1], row[2]});
+    }
+
+    @Override
+    public String getCustomerName(long customerId) {
+        Object[] customer = getCustomerNameAndAddress(customerId);
+        return customer != null ? (String) customer[0] : null;
+    }
+
+    @Override
+    public Object[] getCustomerNameAndAddress(long customerId) {
+        return get(CUSTOMERS, customerId, () -> firstRow(customerMasterRepository.findCustomerNameAndAddressBycustomerId(customerId)));
+    }
+
+    @Override
+    public Map<Long, Object[]> getCustomerNamesAndAddresses(Collection<Long> customerIds) {
+        return getAll(CUSTOMERS, customerIds, customerMasterRepository::findCustomerNameAndAddressByCustomerIdIn, row -> new Object[]{row[1], row[2]});
+    }
+
+    @Override
+    public String getMaterialName(long materialId) {
+        return get(MATERIAL_NAMES, materialId, () -> materialMasterRepository.findMaterialNameByMaterialId(materialId));
+    }
+
+    @Override
+    public Map<Long, String> getMaterialNames(Collection<Long> materialIds) {
+        return getAll(MATERIAL_NAMES, materialIds, materialMasterRepository::findMaterialNamesByMaterialIdIn, row -> (String) row[1]);
+    }
+
+    @Override
+    public String getProductName(long productId) {
+        return get(PRODUCT_NAMES, productId, () -> productMasterRepository.findProductNameByProductId(productId));
+    }
+
+    @Override
+    public Map<Long, String> getProductNames(Collection<Long> productIds) {
+        return getAll(PRODUCT_NAMES, productIds, productMasterRepository::findProductNamesByProductIdIn, row -> (String) row[1]);
+    }
+
+    // The name and address queries return the selected columns wrapped in an outer array
+    private Object[] firstRow(Object[] result) {
+        return result != null && result.length > 0 ? (Object[]) result[0] : null;
+    }
+
+    private <V> V get(String cacheName, long id, Callable<V> loader) {
+        return getCache(cacheName).get(id, loader);
+    }
+
+    /**
+     * Returns the cached values for the given ids and loads all misses with a single IN query.
+     * Null ids and ids that do not exist in the master table are left out of the result.
+     */
+    @SuppressWarnings("unchecked")
+    private <V> Map<Long, V> getAll(String cacheName, Collection<Long> ids, Function<Collection<Long>, List<Object[]>> loader,
+                                    Function<Object[], V> valueOf) {
+        Cache cache = getCache(cacheName);
+        Map<Long, V> values = new HashMap<>();
+        Set<Long> misses = new HashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                continue;
+            }
+            Cache.ValueWrapper cached = cache.get(id);
+            if (cached == null) {
+                misses.add(id);
+            } else if (cached.get() != null) {
+                values.put(id, (V) cached.get());
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Object[] row : loader.apply(misses)) {
+                Long id = ((Number) row[0]).longValue();
+                V value = valueOf.apply(row);
+                cache.put(id, value);
+                values.put(id, value);
+            }
+        }
+        return values;
+    }
+
+    private Cache getCache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            throw new IllegalStateException("Cache is not configured: " + cacheName);
+        }
+        return cache;
+    }
+}
@@ -12,6 +12,7 @@ import com.weighbridge.admin.repsitories.MaterialMasterRepository;
 import com.weighbridge.admin.repsitories.MaterialTypeMasterRepository;
 import com.weighbridge.admin.repsitories.QualityRangeMasterRepository;
 import com.weighbridge.admin.services.MaterialMasterService;
+import com.weighbridge.admin.services.MasterDataCacheService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +20,7 @@ import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.cache.annotation.CacheEvict;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -68,6 +70,7 @@ public class MaterialMasterServiceImpl implements MaterialMasterService {
         return materialMasterRepository.findAllMaterialNameByMaterialStatus("ACTIVE");
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.MATERIAL_NAMES, allEntries = true)
     @Override
     public void deleteMaterial(String materialName) {
         MaterialMaster materialMaster = materialMasterRepository.findByMaterialName(materialName);
@@ -77,6 +80,7 @@ public class MaterialMasterServiceImpl implements MaterialMasterService {
         materialMasterRepository.save(materialMaster);
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.MATERIAL_NAMES, allEntries = true)
     @Override
     public String createMaterialWithParameterAndRange(MaterialWithParameters request) {
 //        HttpSession session = httpServletRequest.getSession();
@@ -118,6 +122,7 @@ public class MaterialMasterServiceImpl implements MaterialMasterService {
         return mapQualityRangesToMaterialWithParameters(qualityRangeMasters, supplierName, supplierAddress);
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.MATERIAL_NAMES, allEntries = true)
     @Override
     public String saveMaterialAndMaterialType(MaterialAndTypeRequest request,String userId) {
 
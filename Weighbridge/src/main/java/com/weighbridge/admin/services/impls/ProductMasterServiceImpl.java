@@ -11,12 +11,14 @@ import com.weighbridge.admin.repsitories.ProductMasterRepository;
 import com.weighbridge.admin.repsitories.ProductTypeMasterRepository;
 import com.weighbridge.admin.repsitories.QualityRangeMasterRepository;
 import com.weighbridge.admin.services.ProductMasterService;
+import com.weighbridge.admin.services.MasterDataCacheService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.cache.annotation.CacheEvict;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -41,6 +43,7 @@ public class ProductMasterServiceImpl implements ProductMasterService {
         this.modelMapper = modelMapper;
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.PRODUCT_NAMES, allEntries = true)
     @Override
     public String createProductWithParameterAndRange(ProductWithParameters request) {
 //        HttpSession session = httpServletRequest.getSession();
@@ -99,6 +102,7 @@ public class ProductMasterServiceImpl implements ProductMasterService {
         return allProductTypeNames;
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.PRODUCT_NAMES, allEntries = true)
     @Override
     public void deleteProduct(String productName) {
         ProductMaster productMaster = productMasterRepository.findByProductName(productName);
@@ -111,6 +115,7 @@ public class ProductMasterServiceImpl implements ProductMasterService {
         return mapQualityRangesToProductWithParameters(qualityRangeMasters);
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.PRODUCT_NAMES, allEntries = true)
     @Override
     public String saveProductAndProductType(ProductAndTypeRequest request,String userId) {
         if(userId==null){
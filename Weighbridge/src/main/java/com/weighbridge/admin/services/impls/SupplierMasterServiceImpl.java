@@ -9,6 +9,7 @@ import com.weighbridge.admin.repsitories.SupplierMasterRepository;
 import com.weighbridge.admin.services.SupplierMasterService;
 import com.weighbridge.admin.dtos.SupplierMasterDto;
 import com.weighbridge.admin.exceptions.ResourceNotFoundException;
+import com.weighbridge.admin.services.MasterDataCacheService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.modelmapper.ModelMapper;
@@ -16,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.cache.annotation.CacheEvict;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,6 +34,7 @@ public class SupplierMasterServiceImpl implements SupplierMasterService {
 
     @Autowired
     private ModelMapper modelMapper;
+    @CacheEvict(cacheNames = MasterDataCacheService.SUPPLIERS, allEntries = true)
     @Override
     public SupplierMasterDto createSupplier(SupplierMasterDto supplierMasterDto,String userId) {
         try {
@@ -109,6 +112,7 @@ public class SupplierMasterServiceImpl implements SupplierMasterService {
         return supplierMasterDto;
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.SUPPLIERS, allEntries = true)
     @Override
     public String updateSupplierById(SupplierRequest supplierRequest, long id,String userId) {
         try {
@@ -148,6 +152,7 @@ public class SupplierMasterServiceImpl implements SupplierMasterService {
 
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.SUPPLIERS, allEntries = true)
     @Override
     public String deleteSupplierById(long id) {
         SupplierMaster bySupplierId = supplierMasterRepository.findBySupplierId(id);
@@ -159,6 +164,7 @@ public class SupplierMasterServiceImpl implements SupplierMasterService {
         return "Deleted Succesfully";
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.SUPPLIERS, allEntries = true)
     @Override
     public String activeSupplier(Long supplierId) {
         SupplierMaster bySupplierId = supplierMasterRepository.findBySupplierId(supplierId);
@@ -6,6 +6,7 @@ import com.weighbridge.admin.payloads.TransporterRequest;
 import com.weighbridge.admin.repsitories.TransporterMasterRepository;
 import com.weighbridge.admin.services.TransporterService;
 import com.weighbridge.admin.entities.TransporterMaster;
+import com.weighbridge.admin.services.MasterDataCacheService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.cache.annotation.CacheEvict;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -32,6 +34,7 @@ public class TransporterServiceImpl implements TransporterService {
     @Autowired
     private HttpServletRequest request;
 
+    @CacheEvict(cacheNames = MasterDataCacheService.TRANSPORTER_NAMES, allEntries = true)
     @Override
     public String addTransporter(TransporterRequest transporterRequest,String userId) {
         Boolean ByTransporterMaster = transporterMasterRepository.existsByTransporterName(transporterRequest.getTransporterName());
@@ -89,6 +92,7 @@ public class TransporterServiceImpl implements TransporterService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = MasterDataCacheService.TRANSPORTER_NAMES, allEntries = true)
     @Override
     public String updateTransporterById(Long transporterId, TransporterDto transporterDto,String userId) {
         log.info("Updating transporter wit ID: {}", transporterId);
@@ -119,6 +123,7 @@ public class TransporterServiceImpl implements TransporterService {
         return "Transporter details updated successfully";
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.TRANSPORTER_NAMES, allEntries = true)
     @Override
     public boolean deactivateTransporterById(Long transporterId) {
         TransporterMaster transporterMaster = getTransporterMasterById(transporterId);
@@ -131,6 +136,7 @@ public class TransporterServiceImpl implements TransporterService {
         return false;
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.TRANSPORTER_NAMES, allEntries = true)
     @Override
     public boolean activateTransporterById(Long transporterId) {
         TransporterMaster transporterMaster = getTransporterMasterById(transporterId);
@@ -0,0 +1,97 @@
+package com.weighbridge.admin.services.impls;
+
+import com.weighbridge.admin.entities.RoleMaster;
+import com.weighbridge.admin.entities.UserMaster;
+import com.weighbridge.admin.payloads.UserContext;
+import com.weighbridge.admin.repsitories.UserAuthenticationRepository;
+import com.weighbridge.admin.repsitories.UserMasterRepository;
+import com.weighbridge.admin.services.UserContextService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class UserContextServiceImpl implements UserContextService {
+
+    private static final String REQUEST_ATTRIBUTE_PREFIX = UserContextServiceImpl.class.getName() + ".";
+
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private UserMasterRepository userMasterRepository;
+    @Autowired
+    private UserAuthenticationRepository userAuthenticationRepository;
+
+    @Override
+    public Optional<UserContext> findUserContext(String userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        String attributeName = REQUEST_ATTRIBUTE_PREFIX + userId;
+        if (requestAttributes != null) {
+            Object resolved = requestAttributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST);
+            if (resolved != null) {
+                return Optional.of((UserContext) resolved);
+            }
+        }
+
+        Cache cache = getCache();
+        UserContext userContext = cache.get(userId, UserContext.class);
+        if (userContext == null) {
+            // Unknown users are not cached, so a user created right after a failed lookup is found
+            userContext = load(userId);
+            if (userContext == null) {
+                return Optional.empty();
+            }
+            cache.put(userId, userContext);
+        }
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(attributeName, userContext, RequestAttributes.SCOPE_REQUEST);
+        }
+        return Optional.of(userContext);
+    }
+
+    @Override
+    public void evict(String userId) {
+        if (userId != null) {
+            getCache().evict(userId);
+        }
+    }
+
+    private UserContext load(String userId) {
+        Optional<UserMaster> userMaster = userMasterRepository.findByUserIdWithCompanyAndSite(userId);
+        if (userMaster.isEmpty()) {
+            return null;
+        }
+        UserMaster user = userMaster.get();
+        Set<RoleMaster> roles = userAuthenticationRepository.findRolesByUserId(userId);
+        Set<String> roleNames = new LinkedHashSet<>();
+        if (roles != null) {
+            roles.stream().map(RoleMaster::getRoleName).forEach(roleNames::add);
+        }
+        return new UserContext(userId,
+                user.getSite().getSiteId(),
+                user.getSite().getSiteName(),
+                user.getCompany().getCompanyId(),
+                user.getCompany().getCompanyName(),
+                user.getUserStatus(),
+                Collections.unmodifiableSet(roleNames));
+    }
+
+    private Cache getCache() {
+        Cache cache = cacheManager.getCache(USER_CONTEXTS);
+        if (cache == null) {
+            throw new IllegalStateException("Cache is not configured: " + USER_CONTEXTS);
+        }
+        return cache;
+    }
+}
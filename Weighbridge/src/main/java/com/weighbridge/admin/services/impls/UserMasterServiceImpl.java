@@ -7,6 +7,7 @@ import com.weighbridge.admin.payloads.UpdateRequest;
 import com.weighbridge.admin.payloads.UserRequest;
 import com.weighbridge.admin.payloads.UserResponse;
 import com.weighbridge.admin.repsitories.*;
+import com.weighbridge.admin.services.UserContextService;
 import com.weighbridge.admin.services.UserMasterService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
@@ -16,6 +17,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.mindrot.jbcrypt.BCrypt;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -254,6 +256,7 @@ public class UserMasterServiceImpl implements UserMasterService {
     }
 
     @Override
+    @CacheEvict(cacheNames = UserContextService.USER_CONTEXTS, key = "#userId")
     public boolean deleteUserById(String userId,String user) {
         UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User", "userId", userId));
         LocalDateTime dateTime=LocalDateTime.now();
@@ -280,6 +283,7 @@ public class UserMasterServiceImpl implements UserMasterService {
     }
 
     @Override
+    @CacheEvict(cacheNames = UserContextService.USER_CONTEXTS, key = "#userId")
     public String updateUserById(UpdateRequest updateRequest, String userId,String user) {
         try {
             // Fetch the existing user from the database
@@ -374,6 +378,7 @@ public class UserMasterServiceImpl implements UserMasterService {
     }
 
     @Override
+    @CacheEvict(cacheNames = UserContextService.USER_CONTEXTS, key = "#userId")
     public boolean activateUser(String userId,String user) {
         UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User", "userId", userId));
         LocalDateTime localDateTime=LocalDateTime.now();
@@ -10,6 +10,7 @@ import com.weighbridge.admin.payloads.VehicleResponse;
 import com.weighbridge.admin.repsitories.TransporterMasterRepository;
 import com.weighbridge.admin.repsitories.VehicleMasterRepository;
 import com.weighbridge.admin.services.VehicleMasterService;
+import com.weighbridge.admin.services.MasterDataCacheService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.transaction.Transactional;
@@ -22,6 +23,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.cache.annotation.CacheEvict;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -46,6 +48,7 @@ public class VehicleMasterServiceImpl implements VehicleMasterService {
     @Autowired
     private HttpServletRequest httpServletRequest;
 
+    @CacheEvict(cacheNames = MasterDataCacheService.VEHICLE_NOS, allEntries = true)
     @Override
     public String addVehicle(VehicleRequest vehicleRequest, String transporterName,String userId) {
         VehicleMaster existsVehicle = vehicleMasterRepository.findByVehicleNoAndTransporterMasterTransporterName(vehicleRequest.getVehicleNo(), transporterName);
@@ -121,6 +124,7 @@ public class VehicleMasterServiceImpl implements VehicleMasterService {
         return getVehicleResponse(vehicleMaster);
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.VEHICLE_NOS, allEntries = true)
     @Override
     public String updateVehicleByVehicleNo(String vehicleNo, VehicleRequest vehicleRequest,String userId) {
         VehicleMaster vehicleMaster = vehicleMasterRepository.findByVehicleNo(vehicleNo);
@@ -149,6 +153,7 @@ public class VehicleMasterServiceImpl implements VehicleMasterService {
         return "Vehicle updated successfully";
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.VEHICLE_NOS, allEntries = true)
     @Override
     public String deleteVehicleByVehicleNo(String vehicleNo) {
         VehicleMaster vehicleMaster = vehicleMasterRepository.findByVehicleNo(vehicleNo);
@@ -190,6 +195,7 @@ public class VehicleMasterServiceImpl implements VehicleMasterService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = MasterDataCacheService.VEHICLE_NOS, allEntries = true)
     @Override
     public String updateVehicleById(Long vehicleId, VehicleMasterDto vehicleMasterDto,String userId) {
         log.info("Updating vehicle wit ID: {}", vehicleId);
@@ -222,6 +228,7 @@ public class VehicleMasterServiceImpl implements VehicleMasterService {
         return "Vehicle details updated successfully";
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.VEHICLE_NOS, allEntries = true)
     @Override
     public boolean deactivateVehicleById(Long vehicleId) {
         VehicleMaster vehicleMaster = getVehicleMasterById(vehicleId);
@@ -239,6 +246,7 @@ public class VehicleMasterServiceImpl implements VehicleMasterService {
                 .orElseThrow(() -> new ResourceNotFoundException("Transporter", "id", vehicleId.toString()));
     }
 
+    @CacheEvict(cacheNames = MasterDataCacheService.VEHICLE_NOS, allEntries = true)
     @Override
     public boolean activateVehicleById(Long vehicleId) {
         VehicleMaster vehicleMaster = getVehicleMasterById(vehicleId);
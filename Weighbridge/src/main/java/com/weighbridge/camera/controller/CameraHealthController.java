@@ -0,0 +1,38 @@
+package com.weighbridge.camera.controller;
+
+import com.weighbridge.camera.services.FrameCaptureService;
+import com.weighbridge.camera.services.FrameCaptureService.StreamState;
+import com.weighbridge.camera.services.FrameCaptureService.StreamStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A summary of the camera streams being captured. The same figures are published per stream as camera.stream.*
+ * meters on the actuator metrics endpoint.
+ */
+@RestController
+@RequestMapping("api/v1/camera")
+public class CameraHealthController {
+
+    @Autowired
+    private FrameCaptureService frameCaptureService;
+
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, Object>> getHealth() {
+        List<StreamStats> streams = frameCaptureService.getStreamStats();
+        long streaming = streams.stream().filter(stream -> stream.getState() == StreamState.STREAMING).count();
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", streaming == streams.size() ? "UP" : "DEGRADED");
+        health.put("streaming", streaming);
+        health.put("notStreaming", streams.size() - streaming);
+        health.put("streams", streams);
+        return ResponseEntity.ok(health);
+    }
+}
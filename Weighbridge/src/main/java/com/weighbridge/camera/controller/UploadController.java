@@ -2,53 +2,66 @@ package com.weighbridge.camera.controller;
 
 
 
+import com.weighbridge.admin.exceptions.ResourceNotFoundException;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.entites.ImageSize;
+import com.weighbridge.camera.services.CameraClipService;
 import com.weighbridge.camera.services.CameraViewService;
+import com.weighbridge.camera.services.ImageStore;
+import com.weighbridge.camera.services.impl.ImageDiskCache;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.FileEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+@Slf4j
 @RestController
 @RequestMapping("api/v1/camera")
 public class UploadController {
 
-    @Value("${nextcloud.base-url}")
-    private String baseUrl;
+    @Autowired
+    private CameraViewService cameraService;
 
-    @Value("${nextcloud.username}")
-    private String username;
+    @Autowired
+    private CameraClipService cameraClipService;
 
-    @Value("${nextcloud.password}")
-    private String password;
+    @Autowired
+    private ImageStore imageStore;
 
     @Autowired
-    private CameraViewService cameraService;
+    private ImageDiskCache imageDiskCache;
 
 
 
@@ -68,50 +81,137 @@ public class UploadController {
     }
     //    @PostMapping
     public String uploadFile(@RequestParam("file") MultipartFile file) throws IOException {
-        File convFile = convertMultipartFileToFile(file);
-        uploadToNextcloud(convFile, file.getOriginalFilename());
+        imageStore.put(file.getOriginalFilename(), file.getInputStream(), file.getSize());
         return "File uploaded successfully!";
     }
 
-    private File convertMultipartFileToFile(MultipartFile file) throws IOException {
-        File convFile = new File(file.getOriginalFilename());
-        try (FileOutputStream fos = new FileOutputStream(convFile)) {
-            fos.write(file.getBytes());
-        }
-        return convFile;
-    }
-
-    private void uploadToNextcloud(File file, String remoteFilePath) throws IOException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpPut httpPut = new HttpPut(baseUrl + "/remote.php/dav/files?dir=/Weighbridge/" + username + "/" + remoteFilePath);
-
-            String auth = username + ":" + password;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-            httpPut.setHeader("Authorization", "Basic " + encodedAuth);
-
-            FileEntity fileEntity = new FileEntity(file);
-            httpPut.setEntity(fileEntity);
-
-            try (CloseableHttpResponse response = httpClient.execute(httpPut)) {
-                System.out.println("Response Code: " + response.getStatusLine().getStatusCode());
-            }
-        }
-    }
     @GetMapping("/get")
     public ResponseEntity<Map<String, byte[]>> downloadImages(
             @RequestParam Integer ticketNo,
             @RequestParam String role,
             @RequestParam(required = false) String companyId,
             @RequestParam(required = false) String siteId,
-            @RequestParam(required = false) String truckStatus) {
+            @RequestParam(required = false) String truckStatus,
+            @RequestParam(required = false) String size) {
 
-        Map<String, byte[]> imagesMap = cameraService.downloadImages(ticketNo, role, companyId, siteId,truckStatus);
+        Map<String, byte[]> imagesMap = cameraService.downloadImages(ticketNo, role, companyId, siteId,truckStatus, imageSize(size));
 
 
         return ResponseEntity.ok()
                 .body(imagesMap);
     }
 
+    /**
+     * Streams all uploaded images of a ticket as one zip file, with an entry per angle, e.g. frontImg1.jpg.
+     * The images are copied one after the other from the local image cache, so only a copy buffer is held in memory.
+     */
+    @GetMapping("/{ticketNo}/images.zip")
+    public ResponseEntity<StreamingResponseBody> downloadImagesZip(
+            @PathVariable Integer ticketNo,
+            @RequestParam String role,
+            @RequestParam(required = false) String truckStatus,
+            @RequestParam(required = false) String size) {
+
+        Map<ImageAngle, String> imagePaths = cameraService.getImagePaths(ticketNo, role, truckStatus, imageSize(size));
+        StreamingResponseBody body = outputStream -> {
+            ZipOutputStream zip = new ZipOutputStream(outputStream);
+            // Camera images are already compressed JPEGs
+            zip.setLevel(Deflater.NO_COMPRESSION);
+            for (Map.Entry<ImageAngle, String> imagePath : imagePaths.entrySet()) {
+                FileChannel image;
+                try {
+                    image = imageDiskCache.open(imagePath.getValue());
+                } catch (IOException e) {
+                    log.warn("Image {} of ticket {} is left out of the zip: {}", imagePath.getKey(), ticketNo, e.getMessage());
+                    continue;
+                }
+                zip.putNextEntry(new ZipEntry(imagePath.getKey().getKey() + ".jpg"));
+                ImageDiskCache.copy(image, zip);
+                zip.closeEntry();
+            }
+            zip.finish();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(ticketNo + (truckStatus != null ? "_" + truckStatus : "") + ".zip").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Streams the video clip one camera recorded around a weighment of a ticket.
+     *
+     * @param angle       The angle key or name, e.g. frontImg1 or front.
+     * @param truckStatus ENTRY for the first weighment, EXIT for the second.
+     */
+    @GetMapping("/{ticketNo}/clips/{angle}")
+    public ResponseEntity<StreamingResponseBody> downloadClip(
+            @PathVariable Integer ticketNo,
+            @PathVariable String angle,
+            @RequestParam String truckStatus) throws IOException {
+
+        ImageAngle imageAngle = ImageAngle.fromKeyOrName(angle)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image angle: " + angle));
+        String clipLocation = cameraClipService.clipLocation(ticketNo, truckStatus, imageAngle);
+        Path clip;
+        try {
+            clip = imageDiskCache.locate(clipLocation);
+        } catch (FileNotFoundException e) {
+            throw new ResourceNotFoundException("Clip " + imageAngle.getKey() + " not recorded for ticketNo " + ticketNo);
+        }
+        // Opened by the body only, so nothing is left open if the body is never run
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("video/mp4"))
+                .contentLength(Files.size(clip))
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(30)).cachePrivate())
+                .body(outputStream -> imageDiskCache.copy(clipLocation, clip, outputStream));
+    }
+
+    /**
+     * Streams one image of a ticket.
+     * Uploaded images never change, so the ETag is derived from the stored path and a matching
+     * If-None-Match is answered with 304 without reading the image.
+     *
+     * @param angle The angle key or name, e.g. frontImg1 or front.
+     * @param size  original (the default), medium or thumbnail. Falls back to the original if the image has
+     *              no copy in that size.
+     */
+    @GetMapping("/{ticketNo}/{angle}")
+    public ResponseEntity<StreamingResponseBody> downloadImage(
+            @PathVariable Integer ticketNo,
+            @PathVariable String angle,
+            @RequestParam String role,
+            @RequestParam(required = false) String truckStatus,
+            @RequestParam(required = false) String size,
+            WebRequest webRequest) throws IOException {
+
+        ImageAngle imageAngle = ImageAngle.fromKeyOrName(angle)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image angle: " + angle));
+        String imagePath = cameraService.getImagePaths(ticketNo, role, truckStatus, imageSize(size)).get(imageAngle);
+        if (imagePath == null) {
+            throw new ResourceNotFoundException("Image " + imageAngle.getKey() + " not uploaded for ticketNo " + ticketNo);
+        }
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(imagePath.getBytes(StandardCharsets.UTF_8)) + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        // Served from the local image cache, which downloads the image from the image store on the first request
+        Path image;
+        try {
+            image = imageDiskCache.locate(imagePath);
+        } catch (FileNotFoundException e) {
+            throw new ResourceNotFoundException("Image " + imageAngle.getKey() + " not found for ticketNo " + ticketNo);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .contentLength(Files.size(image))
+                .eTag(eTag)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(30)).cachePrivate())
+                .body(outputStream -> imageDiskCache.copy(imagePath, image, outputStream));
+    }
+
 
 
 
@@ -144,4 +244,12 @@ public class UploadController {
             }
         }
     }*/
+
+    private static ImageSize imageSize(String size) {
+        if (size == null) {
+            return ImageSize.ORIGINAL;
+        }
+        return ImageSize.fromName(size)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image size: " + size));
+    }
 }
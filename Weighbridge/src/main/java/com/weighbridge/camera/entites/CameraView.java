@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 @Entity
@@ -26,4 +27,42 @@ public class CameraView {
     private LocalDate date;
     private Integer roleId;
     private String truckStatus;
+    // When the images were taken, shared by all angles of a server-side snapshot
+    private LocalDateTime capturedAt;
+
+    // Upload state of each image, null for images that were not captured
+    @Enumerated(EnumType.STRING)
+    private ImageUploadStatus frontImg1Status;
+    @Enumerated(EnumType.STRING)
+    private ImageUploadStatus backImg2Status;
+    @Enumerated(EnumType.STRING)
+    private ImageUploadStatus topImg3Status;
+    @Enumerated(EnumType.STRING)
+    private ImageUploadStatus bottomImg4Status;
+    @Enumerated(EnumType.STRING)
+    private ImageUploadStatus leftImg5Status;
+    @Enumerated(EnumType.STRING)
+    private ImageUploadStatus rightImg6Status;
+
+    // Paths of the scaled down copies of each image, null until they are generated
+    private String frontImg1Medium;
+    private String frontImg1Thumbnail;
+    private String backImg2Medium;
+    private String backImg2Thumbnail;
+    private String topImg3Medium;
+    private String topImg3Thumbnail;
+    private String bottomImg4Medium;
+    private String bottomImg4Thumbnail;
+    private String leftImg5Medium;
+    private String leftImg5Thumbnail;
+    private String rightImg6Medium;
+    private String rightImg6Thumbnail;
+
+    // SHA-256 of each uploaded image, which its stored path is derived from
+    private String frontImg1Hash;
+    private String backImg2Hash;
+    private String topImg3Hash;
+    private String bottomImg4Hash;
+    private String leftImg5Hash;
+    private String rightImg6Hash;
 }
@@ -0,0 +1,121 @@
+package com.weighbridge.camera.entites;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The six camera angles of a {@link CameraView}, with accessors for the stored paths, content hash and upload
+ * status of each angle.
+ */
+public enum ImageAngle {
+    FRONT("frontImg1", CameraView::getFrontImg1, CameraView::setFrontImg1, CameraView::getFrontImg1Status, CameraView::setFrontImg1Status,
+            CameraView::getFrontImg1Medium, CameraView::setFrontImg1Medium, CameraView::getFrontImg1Thumbnail, CameraView::setFrontImg1Thumbnail,
+            CameraView::getFrontImg1Hash, CameraView::setFrontImg1Hash),
+    BACK("backImg2", CameraView::getBackImg2, CameraView::setBackImg2, CameraView::getBackImg2Status, CameraView::setBackImg2Status,
+            CameraView::getBackImg2Medium, CameraView::setBackImg2Medium, CameraView::getBackImg2Thumbnail, CameraView::setBackImg2Thumbnail,
+            CameraView::getBackImg2Hash, CameraView::setBackImg2Hash),
+    TOP("topImg3", CameraView::getTopImg3, CameraView::setTopImg3, CameraView::getTopImg3Status, CameraView::setTopImg3Status,
+            CameraView::getTopImg3Medium, CameraView::setTopImg3Medium, CameraView::getTopImg3Thumbnail, CameraView::setTopImg3Thumbnail,
+            CameraView::getTopImg3Hash, CameraView::setTopImg3Hash),
+    BOTTOM("bottomImg4", CameraView::getBottomImg4, CameraView::setBottomImg4, CameraView::getBottomImg4Status, CameraView::setBottomImg4Status,
+            CameraView::getBottomImg4Medium, CameraView::setBottomImg4Medium, CameraView::getBottomImg4Thumbnail, CameraView::setBottomImg4Thumbnail,
+            CameraView::getBottomImg4Hash, CameraView::setBottomImg4Hash),
+    LEFT("leftImg5", CameraView::getLeftImg5, CameraView::setLeftImg5, CameraView::getLeftImg5Status, CameraView::setLeftImg5Status,
+            CameraView::getLeftImg5Medium, CameraView::setLeftImg5Medium, CameraView::getLeftImg5Thumbnail, CameraView::setLeftImg5Thumbnail,
+            CameraView::getLeftImg5Hash, CameraView::setLeftImg5Hash),
+    RIGHT("rightImg6", CameraView::getRightImg6, CameraView::setRightImg6, CameraView::getRightImg6Status, CameraView::setRightImg6Status,
+            CameraView::getRightImg6Medium, CameraView::setRightImg6Medium, CameraView::getRightImg6Thumbnail, CameraView::setRightImg6Thumbnail,
+            CameraView::getRightImg6Hash, CameraView::setRightImg6Hash);
+
+    private final String key;
+    private final Function<CameraView, String> pathGetter;
+    private final BiConsumer<CameraView, String> pathSetter;
+    private final Function<CameraView, ImageUploadStatus> statusGetter;
+    private final BiConsumer<CameraView, ImageUploadStatus> statusSetter;
+    private final Map<ImageSize, Function<CameraView, String>> derivativePathGetters = new EnumMap<>(ImageSize.class);
+    private final Map<ImageSize, BiConsumer<CameraView, String>> derivativePathSetters = new EnumMap<>(ImageSize.class);
+    private final Function<CameraView, String> hashGetter;
+    private final BiConsumer<CameraView, String> hashSetter;
+
+    ImageAngle(String key, Function<CameraView, String> pathGetter, BiConsumer<CameraView, String> pathSetter,
+               Function<CameraView, ImageUploadStatus> statusGetter, BiConsumer<CameraView, ImageUploadStatus> statusSetter,
+               Function<CameraView, String> mediumPathGetter, BiConsumer<CameraView, String> mediumPathSetter,
+               Function<CameraView, String> thumbnailPathGetter, BiConsumer<CameraView, String> thumbnailPathSetter,
+               Function<CameraView, String> hashGetter, BiConsumer<CameraView, String> hashSetter) {
+        this.key = key;
+        this.pathGetter = pathGetter;
+        this.pathSetter = pathSetter;
+        this.statusGetter = statusGetter;
+        this.statusSetter = statusSetter;
+        derivativePathGetters.put(ImageSize.MEDIUM, mediumPathGetter);
+        derivativePathSetters.put(ImageSize.MEDIUM, mediumPathSetter);
+        derivativePathGetters.put(ImageSize.THUMBNAIL, thumbnailPathGetter);
+        derivativePathSetters.put(ImageSize.THUMBNAIL, thumbnailPathSetter);
+        this.hashGetter = hashGetter;
+        this.hashSetter = hashSetter;
+    }
+
+    /**
+     * @return The name of the image in requests and responses, e.g. frontImg1.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @param value The key or the name of an angle, e.g. frontImg1 or front, in any case.
+     */
+    public static Optional<ImageAngle> fromKeyOrName(String value) {
+        for (ImageAngle angle : values()) {
+            if (angle.key.equalsIgnoreCase(value) || angle.name().equalsIgnoreCase(value)) {
+                return Optional.of(angle);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public String getPath(CameraView cameraView) {
+        return pathGetter.apply(cameraView);
+    }
+
+    public void setPath(CameraView cameraView, String path) {
+        pathSetter.accept(cameraView, path);
+    }
+
+    /**
+     * @return The path of the image in the given size, null if it is not stored in that size.
+     */
+    public String getPath(CameraView cameraView, ImageSize size) {
+        return size == ImageSize.ORIGINAL ? getPath(cameraView) : derivativePathGetters.get(size).apply(cameraView);
+    }
+
+    public void setPath(CameraView cameraView, ImageSize size, String path) {
+        if (size == ImageSize.ORIGINAL) {
+            setPath(cameraView, path);
+        } else {
+            derivativePathSetters.get(size).accept(cameraView, path);
+        }
+    }
+
+    /**
+     * @return The SHA-256 of the uploaded original image, in hex.
+     */
+    public String getHash(CameraView cameraView) {
+        return hashGetter.apply(cameraView);
+    }
+
+    public void setHash(CameraView cameraView, String hash) {
+        hashSetter.accept(cameraView, hash);
+    }
+
+    public ImageUploadStatus getStatus(CameraView cameraView) {
+        return statusGetter.apply(cameraView);
+    }
+
+    public void setStatus(CameraView cameraView, ImageUploadStatus status) {
+        statusSetter.accept(cameraView, status);
+    }
+}
@@ -0,0 +1,50 @@
+package com.weighbridge.camera.entites;
+
+import java.util.Optional;
+
+/**
+ * The sizes an image is stored in. The original is kept as captured, the derivatives are scaled down JPEGs
+ * for screens that only show previews.
+ */
+public enum ImageSize {
+    ORIGINAL(0, ""),
+    MEDIUM(1024, "_medium"),
+    THUMBNAIL(240, "_thumbnail");
+
+    private final int maxWidth;
+    private final String fileNameSuffix;
+
+    ImageSize(int maxWidth, String fileNameSuffix) {
+        this.maxWidth = maxWidth;
+        this.fileNameSuffix = fileNameSuffix;
+    }
+
+    /**
+     * @return The largest width of the image in pixels, 0 for the original.
+     */
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * @return The file name of the image in this size, e.g. front_thumbnail.jpg for front.jpg.
+     */
+    public String fileName(String originalFileName) {
+        int extension = originalFileName.lastIndexOf('.');
+        return extension > 0
+                ? originalFileName.substring(0, extension) + fileNameSuffix + originalFileName.substring(extension)
+                : originalFileName + fileNameSuffix;
+    }
+
+    /**
+     * @param value The name of a size in any case, e.g. thumbnail.
+     */
+    public static Optional<ImageSize> fromName(String value) {
+        for (ImageSize size : values()) {
+            if (size.name().equalsIgnoreCase(value)) {
+                return Optional.of(size);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,10 @@
+package com.weighbridge.camera.entites;
+
+/**
+ * Upload state of a single image of a {@link CameraView}.
+ */
+public enum ImageUploadStatus {
+    PENDING,
+    UPLOADED,
+    FAILED
+}
@@ -0,0 +1,36 @@
+package com.weighbridge.camera.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published as an application event when the vehicle detection sees a vehicle enter, come to rest on, move on or
+ * leave a weighbridge platform. Listen with {@link org.springframework.context.event.EventListener}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class VehiclePresenceEvent {
+
+    public enum Type {
+        // A vehicle drove onto the empty platform
+        ENTERED,
+        // The vehicle on the platform stopped moving. Published again each time it stops after moving.
+        SETTLED,
+        // The settled vehicle moves again
+        MOVING,
+        // The platform is empty again
+        LEFT
+    }
+
+    private final Type type;
+    // The id of the camera master record whose camera watches the platform
+    private final Long cameraId;
+    private final String companyId;
+    private final String siteId;
+    private final Integer roleId;
+    private final LocalDateTime occurredAt;
+}
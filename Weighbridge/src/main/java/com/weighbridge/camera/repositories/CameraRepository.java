@@ -2,10 +2,21 @@ package com.weighbridge.camera.repositories;
 
 
 import com.weighbridge.camera.entites.CameraView;
+import com.weighbridge.camera.entites.ImageUploadStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CameraRepository extends JpaRepository<CameraView,Long> {
     CameraView findByTicketNoAndRoleId(Integer ticketNo, int i);
 
     CameraView findByTicketNoAndRoleIdAndTruckStatus(Integer ticketNo, Integer roleId,String truckStatus);
+
+    @Query("SELECT c FROM CameraView c WHERE c.frontImg1Status IN :statuses OR c.backImg2Status IN :statuses " +
+            "OR c.topImg3Status IN :statuses OR c.bottomImg4Status IN :statuses OR c.leftImg5Status IN :statuses " +
+            "OR c.rightImg6Status IN :statuses")
+    List<CameraView> findByAnyImageStatusIn(@Param("statuses") Collection<ImageUploadStatus> statuses);
 }
@@ -0,0 +1,23 @@
+package com.weighbridge.camera.services;
+
+import com.weighbridge.camera.entites.ImageAngle;
+
+/**
+ * Keeps a short video clip of each weighment from every camera that was streaming, cut from the video the
+ * cameras sent around the moment the weight was saved.
+ */
+public interface CameraClipService {
+
+    /**
+     * Schedules clips of the cameras configured in the camera master for the company, site and role. The clips
+     * are written once the time after the weighment has been recorded, so this returns at once.
+     *
+     * @param truckStatus ENTRY for the first weight, EXIT for the second.
+     */
+    void recordClips(Integer ticketNo, String companyId, String siteId, String role, String truckStatus);
+
+    /**
+     * @return The location of a clip in the image store, whether or not it was recorded.
+     */
+    String clipLocation(Integer ticketNo, String truckStatus, ImageAngle angle);
+}
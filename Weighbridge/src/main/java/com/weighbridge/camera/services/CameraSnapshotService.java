@@ -0,0 +1,29 @@
+package com.weighbridge.camera.services;
+
+import com.weighbridge.camera.entites.ImageAngle;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Takes still images from the live camera streams on the server, so clients do not have to upload them.
+ */
+public interface CameraSnapshotService {
+
+    /**
+     * Snapshots all cameras configured in the camera master for the company, site and role at the same instant.
+     *
+     * @return The snapshot. Angles that are not configured or sent no frame in time are missing from its images.
+     */
+    Snapshot capture(String companyId, String siteId, Integer roleId);
+
+    @Getter
+    @AllArgsConstructor
+    class Snapshot {
+        private final LocalDateTime capturedAt;
+        // JPEG images by angle
+        private final Map<ImageAngle, byte[]> images;
+    }
+}
@@ -0,0 +1,63 @@
+package com.weighbridge.camera.services;
+
+import com.weighbridge.admin.entities.CameraMaster;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.services.FrameCaptureService.StreamProfile;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Resolves the RTSP URL of each camera configured in {@link CameraMaster}. A camera is identified by the id of
+ * its camera master record and its angle, and is only read from the database when it is first streamed.
+ */
+public interface CameraStreamRegistry {
+
+    /**
+     * @param cameraId The id of the camera master record.
+     * @param angle    The angle of the camera.
+     * @return The RTSP URL of the camera, or empty if the camera is not configured.
+     */
+    Optional<String> findStreamUrl(Long cameraId, ImageAngle angle);
+
+    /**
+     * @param cameraId The id of the camera master record.
+     * @param angle    The angle of the camera.
+     * @return The RTSP URL of the low resolution substream of the camera, or empty if it has none.
+     */
+    Optional<String> findSubstreamUrl(Long cameraId, ImageAngle angle);
+
+    /**
+     * The stream previews of a camera are shown from: its substream if it has one, otherwise the key frames of its
+     * main stream. Either way the frames are scaled down to weighbridge.camera.preview.max-width.
+     *
+     * @param cameraId The id of the camera master record.
+     * @param angle    The angle of the camera.
+     * @return The preview stream, or empty if the camera is not configured.
+     */
+    Optional<PreviewStream> findPreviewStream(Long cameraId, ImageAngle angle);
+
+    /**
+     * Replaces the URLs of a saved camera master record. Change listeners are notified if any URL changed.
+     */
+    void update(CameraMaster cameraMaster);
+
+    /**
+     * Forgets a deleted camera master record and notifies the change listeners.
+     */
+    void remove(Long cameraId);
+
+    /**
+     * @param listener Receives the id of each camera master record whose URLs were changed or removed.
+     */
+    void addChangeListener(Consumer<Long> listener);
+
+    @Getter
+    @AllArgsConstructor
+    class PreviewStream {
+        private final String rtspUrl;
+        private final StreamProfile profile;
+    }
+}
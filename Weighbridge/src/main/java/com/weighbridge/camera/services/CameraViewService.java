@@ -1,5 +1,7 @@
 package com.weighbridge.camera.services;
 
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.entites.ImageSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -15,7 +17,15 @@ public interface CameraViewService {
                             MultipartFile bottomImg4, MultipartFile leftImg5, MultipartFile rightImg6,
                             String role,String truckStatus) throws IOException;
 
-        Map<String, byte[]> downloadImages(Integer ticketNo, String role, String companyId, String siteId,String truckStatus);
+        Map<String, byte[]> downloadImages(Integer ticketNo, String role, String companyId, String siteId,String truckStatus,
+                                           ImageSize size);
+
+        /**
+         * @param size The wanted size. Angles without a copy in that size get the path of the original.
+         * @return The stored paths of the uploaded images of a ticket, by angle. Images that are still pending
+         *         or failed to upload are left out.
+         */
+        Map<ImageAngle, String> getImagePaths(Integer ticketNo, String role, String truckStatus, ImageSize size);
 
 
 }
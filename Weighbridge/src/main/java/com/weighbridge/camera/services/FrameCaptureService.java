@@ -1,7 +1,154 @@
 package com.weighbridge.camera.services;
 
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 public interface FrameCaptureService {
-    void streamFrames(String rtspUrl, Consumer<byte[]> frameConsumer) throws Exception;
+
+    /**
+     * Subscribes to the JPEG frames of a camera. All subscribers of the same RTSP URL share one grabber,
+     * which is started by the first subscriber and stopped when the last subscription is closed.
+     *
+     * @param rtspUrl       The RTSP URL of the camera.
+     * @param profile       How the subscriber wants the frames decoded. Subscribers with the same profile share
+     *                      each encoded frame.
+     * @param frameConsumer Receives each frame on the capture thread of the camera. The frame array is shared
+     *                      with the other subscribers and must not be modified.
+     * @return The subscription, to be closed when the subscriber no longer wants frames.
+     */
+    Subscription subscribe(String rtspUrl, StreamProfile profile, Consumer<byte[]> frameConsumer);
+
+    /**
+     * Subscribes to the decoded frames of a camera, for subscribers that analyse frames rather than send them on.
+     * The frames are not JPEG encoded for these subscribers.
+     *
+     * @param imageConsumer Receives each frame as a BGR image on the capture thread of the camera. The image is
+     *                      reused for the next frame, so it must be copied to be kept.
+     * @see #subscribe(String, StreamProfile, Consumer)
+     */
+    Subscription subscribeDecoded(String rtspUrl, StreamProfile profile, Consumer<BufferedImage> imageConsumer);
+
+    /**
+     * Subscribes to every frame of a camera at full size.
+     *
+     * @see #subscribe(String, StreamProfile, Consumer)
+     */
+    default Subscription subscribe(String rtspUrl, Consumer<byte[]> frameConsumer) {
+        return subscribe(rtspUrl, StreamProfile.FULL, frameConsumer);
+    }
+
+    /**
+     * Keeps a camera that is already being captured running while the subscription is open, without receiving
+     * frames, so the video it buffers is still there when it is read later. Only key frames are decoded for it.
+     *
+     * @param rtspUrl The RTSP URL of the camera.
+     * @return The subscription, or empty if the camera is not being captured and so has no video buffered.
+     */
+    Optional<Subscription> retain(String rtspUrl);
+
+    /**
+     * Returns a frame a camera that is already streaming sent around an instant, without connecting to it or waiting.
+     * Full size frames are preferred, a frame scaled down for the previews is returned if no full size frame is
+     * buffered that close to the instant.
+     *
+     * @param rtspUrl       The RTSP URL of the camera.
+     * @param instantMillis The instant the image should show, in epoch milliseconds.
+     * @return The frame, or empty if the camera is not streaming or has no frame within the maximum frame age.
+     */
+    Optional<CapturedFrame> bufferedFrame(String rtspUrl, long instantMillis);
+
+    /**
+     * Takes a still image from a camera. If the camera is already streaming, the buffered frame nearest to the
+     * instant is returned without waiting, see {@link #bufferedFrame}. Otherwise the camera is subscribed to until
+     * its next frame arrives, which is stamped with the time it arrived.
+     *
+     * @param rtspUrl       The RTSP URL of the camera.
+     * @param instantMillis The instant the image should show, in epoch milliseconds.
+     * @param timeout       How long to wait for a frame if none is buffered.
+     * @return The frame, or empty if the camera sent no frame within the timeout.
+     */
+    Optional<CapturedFrame> snapshot(String rtspUrl, long instantMillis, Duration timeout);
+
+    /**
+     * Writes the video a camera sent in a time window to an MP4 file, as the camera encoded it. Only cameras
+     * that are streaming keep their recent video, up to the configured buffer size and duration.
+     *
+     * @param rtspUrl    The RTSP URL of the camera.
+     * @param fromMillis The start of the window in epoch milliseconds. The clip starts at the key frame before it.
+     * @param toMillis   The end of the window in epoch milliseconds.
+     * @param target     The file to write.
+     * @return Whether any video of the window was buffered and written.
+     */
+    boolean writeClip(String rtspUrl, long fromMillis, long toMillis, Path target) throws IOException;
+
+    /**
+     * @return The state and throughput of each stream that is being captured.
+     */
+    List<StreamStats> getStreamStats();
+
+    interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * How the frames of a subscription are decoded. A stream is only fully decoded while a subscriber wants every
+     * frame, key frames alone are a fraction of the decoding work.
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    class StreamProfile {
+        public static final StreamProfile FULL = new StreamProfile(false, 0);
+
+        // Only key frames are decoded, about one frame per group of pictures
+        private final boolean keyFramesOnly;
+        // Frames wider than this are scaled down before they are encoded, 0 keeps the size of the stream
+        private final int maxWidth;
+    }
+
+    enum StreamState {
+        CONNECTING, STREAMING, RECONNECTING
+    }
+
+    @Getter
+    @AllArgsConstructor
+    class StreamStats {
+        // The RTSP URL without credentials
+        private final String stream;
+        private final StreamState state;
+        // Epoch milliseconds, null if never connected
+        private final Long connectedSinceMillis;
+        private final long reconnects;
+        private final double decodedFps;
+        // Null if no frame was decoded yet
+        private final Long lastFrameAgeMillis;
+        // How far reading lags behind the camera, an estimate of what is queued in the connection
+        private final long lagMillis;
+        private final double meanDecodeMillis;
+        private final double meanEncodeMillis;
+        private final double maxEncodeMillis;
+        private final int subscribers;
+        // Encoded video buffered for clips
+        private final long bufferedBytes;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    class CapturedFrame {
+        // Shared with the stream subscribers, must not be modified
+        private final byte[] jpeg;
+        private final long capturedAtMillis;
+    }
 }
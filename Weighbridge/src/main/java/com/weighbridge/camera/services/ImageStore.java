@@ -0,0 +1,55 @@
+package com.weighbridge.camera.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Storage of the camera images. Files are put under a relative name, e.g. images/3f/a2/3fa2...e1.jpg, and read
+ * back by the location the store returns for that name, which is what {@link com.weighbridge.camera.entites.CameraView}
+ * records. The implementation is chosen with weighbridge.image-store.type.
+ */
+public interface ImageStore {
+
+    /**
+     * Stores a file, replacing a file of the same name.
+     *
+     * @param content The file content, not closed by this method.
+     * @param length  The content length in bytes, or -1 if unknown.
+     * @return The location of the stored file.
+     */
+    String put(String name, InputStream content, long length) throws IOException;
+
+    /**
+     * @return The location a file of this name is stored at, whether or not it exists.
+     */
+    String location(String name);
+
+    boolean exists(String name) throws IOException;
+
+    /**
+     * Opens a stored file for reading. The caller must close the stream.
+     *
+     * @throws java.io.FileNotFoundException If no file is stored at the location.
+     */
+    InputStream get(String location) throws IOException;
+
+    void delete(String location) throws IOException;
+
+    /**
+     * Reads several files, in parallel where the store supports it.
+     *
+     * @param locations The locations to read, by key.
+     * @return The content of each file that could be read, by key. Failed reads are left out.
+     */
+    Map<String, byte[]> getAll(Map<String, String> locations);
+
+    /**
+     * @return The file on this host that a location refers to, or null if the store is remote. Local files are
+     *         read directly instead of through the local image cache.
+     */
+    default Path localFile(String location) {
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.weighbridge.camera.services;
+
+import com.weighbridge.camera.entites.ImageAngle;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Uploads the images of a saved {@link com.weighbridge.camera.entites.CameraView} in the background, so gate
+ * entry and weighment saves do not wait for the image storage.
+ */
+public interface ImageUploadService {
+
+    /**
+     * Spools the images to disk and queues them for upload. If a transaction is active, the images are queued once
+     * it commits and deleted if it rolls back. The path and upload status of each image are recorded on the camera
+     * view when its upload finishes.
+     *
+     * @param cameraViewId The id of the saved camera view.
+     * @param images       The images to upload, already read into memory.
+     * @throws IOException If the images could not be spooled, none of them is queued then.
+     */
+    void submit(Long cameraViewId, List<PendingImage> images) throws IOException;
+
+    @Getter
+    @AllArgsConstructor
+    class PendingImage {
+        private final ImageAngle angle;
+        private final String fileName;
+        private final byte[] content;
+    }
+}
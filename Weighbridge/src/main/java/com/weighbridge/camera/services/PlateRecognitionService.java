@@ -0,0 +1,38 @@
+package com.weighbridge.camera.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Reads the number plate of a vehicle image and matches it against the vehicle numbers in the vehicle master.
+ */
+public interface PlateRecognitionService {
+
+    /**
+     * @param image A JPEG image of the front or back of a vehicle.
+     * @return What was read. The matches are empty if no plate was found or it matches no vehicle closely enough.
+     * @throws org.springframework.web.server.ResponseStatusException If the recognition workers are busy, do not
+     *                                                                 finish in time or are not configured.
+     */
+    PlateRecognition recognize(byte[] image);
+
+    @Getter
+    @AllArgsConstructor
+    class PlateRecognition {
+        // The characters read from the plate, or null if no plate was found
+        private final String plateText;
+        // The closest vehicles first
+        private final List<VehicleMatch> matches;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    class VehicleMatch {
+        private final Long vehicleId;
+        private final String vehicleNo;
+        // How far the number is from the plate read, swaps of characters OCR confuses count as half an edit
+        private final double edits;
+    }
+}
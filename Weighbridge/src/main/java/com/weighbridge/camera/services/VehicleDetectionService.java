@@ -0,0 +1,22 @@
+package com.weighbridge.camera.services;
+
+import java.util.Map;
+
+/**
+ * Watches the weighbridge platforms through their cameras and publishes a
+ * {@link com.weighbridge.camera.events.VehiclePresenceEvent} when a vehicle enters, settles on or leaves a platform.
+ */
+public interface VehicleDetectionService {
+
+    enum PlatformState {
+        EMPTY,
+        // A vehicle is on the platform and still moving
+        MOVING,
+        SETTLED
+    }
+
+    /**
+     * @return The current state of each watched platform, by camera master id.
+     */
+    Map<Long, PlatformState> getPlatformStates();
+}
@@ -0,0 +1,170 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.admin.entities.CameraMaster;
+import com.weighbridge.admin.repsitories.CameraMasterRepository;
+import com.weighbridge.admin.repsitories.RoleMasterRepository;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.services.CameraClipService;
+import com.weighbridge.camera.services.CameraStreamRegistry;
+import com.weighbridge.camera.services.FrameCaptureService;
+import com.weighbridge.camera.services.ImageStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes weighment clips from the video buffered by {@link FrameCaptureService} on one background thread, so
+ * saving a weight never waits for a clip and writing one never holds up the live streams.
+ * Clips are stored as clips/{ticketNo}/{truckStatus}/{angle}.mp4 in the image store, cut from the main stream of
+ * the camera, or from its substream if only that was being watched. Cameras that were not streaming at the time
+ * have no buffered video and get no clip. The captures of a clip are kept running until it is written, so the clip
+ * is not lost when the last viewer leaves meanwhile.
+ */
+@Slf4j
+@Service
+public class CameraClipServiceImpl implements CameraClipService {
+
+    @Value("${weighbridge.camera.clip.enabled:true}")
+    private boolean enabled;
+
+    @Value("${weighbridge.camera.clip.before:10s}")
+    private Duration before;
+
+    @Value("${weighbridge.camera.clip.after:5s}")
+    private Duration after;
+
+    // Clips waiting to be written, beyond which new clips are dropped
+    @Value("${weighbridge.camera.clip.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Autowired
+    private CameraMasterRepository cameraMasterRepository;
+
+    @Autowired
+    private RoleMasterRepository roleMasterRepository;
+
+    @Autowired
+    private CameraStreamRegistry cameraStreamRegistry;
+
+    @Autowired
+    private FrameCaptureService frameCaptureService;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    private ScheduledThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "camera-clip-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void recordClips(Integer ticketNo, String companyId, String siteId, String role, String truckStatus) {
+        if (!enabled) {
+            return;
+        }
+        long instantMillis = System.currentTimeMillis();
+        Integer roleId = roleMasterRepository.findRoleIdByRoleName(role);
+        Optional<CameraMaster> cameraMaster = cameraMasterRepository.findFirstByCompanyIdAndSiteIdAndRoleId(companyId, siteId, roleId);
+        if (cameraMaster.isEmpty()) {
+            log.debug("No cameras configured for company {}, site {} and role {}", companyId, siteId, roleId);
+            return;
+        }
+        for (ImageAngle angle : ImageAngle.values()) {
+            String substreamUrl = cameraStreamRegistry.findSubstreamUrl(cameraMaster.get().getId(), angle).orElse(null);
+            cameraStreamRegistry.findStreamUrl(cameraMaster.get().getId(), angle).ifPresent(rtspUrl -> {
+                if (executor.getQueue().size() >= queueCapacity) {
+                    log.warn("Clip {} of ticket {} dropped, too many clips waiting", angle.getKey(), ticketNo);
+                    return;
+                }
+                List<FrameCaptureService.Subscription> retained = new ArrayList<>();
+                frameCaptureService.retain(rtspUrl).ifPresent(retained::add);
+                if (substreamUrl != null) {
+                    frameCaptureService.retain(substreamUrl).ifPresent(retained::add);
+                }
+                if (retained.isEmpty()) {
+                    log.debug("No video buffered for clip {} of ticket {}", angle.getKey(), ticketNo);
+                    return;
+                }
+                try {
+                    executor.schedule(() -> {
+                        try {
+                            writeClip(ticketNo, truckStatus, angle, rtspUrl, substreamUrl, instantMillis);
+                        } finally {
+                            retained.forEach(FrameCaptureService.Subscription::close);
+                        }
+                    }, after.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    retained.forEach(FrameCaptureService.Subscription::close);
+                    log.warn("Clip {} of ticket {} dropped, shutting down", angle.getKey(), ticketNo);
+                }
+            });
+        }
+    }
+
+    @Override
+    public String clipLocation(Integer ticketNo, String truckStatus, ImageAngle angle) {
+        return imageStore.location(clipName(ticketNo, truckStatus, angle));
+    }
+
+    private void writeClip(Integer ticketNo, String truckStatus, ImageAngle angle, String rtspUrl, String substreamUrl,
+                           long instantMillis) {
+        Path clip = null;
+        try {
+            clip = Files.createTempFile("clip-" + ticketNo + "-", ".mp4");
+            long fromMillis = instantMillis - before.toMillis();
+            long toMillis = instantMillis + after.toMillis();
+            // Without viewers of the main stream, the substream the previews were shown from is the next best clip
+            if (!frameCaptureService.writeClip(rtspUrl, fromMillis, toMillis, clip)
+                    && (substreamUrl == null || !frameCaptureService.writeClip(substreamUrl, fromMillis, toMillis, clip))) {
+                log.debug("No video buffered for clip {} of ticket {}", angle.getKey(), ticketNo);
+                return;
+            }
+            try (InputStream content = Files.newInputStream(clip)) {
+                String location = imageStore.put(clipName(ticketNo, truckStatus, angle), content, Files.size(clip));
+                log.info("Clip {} of ticket {} stored at {}", angle.getKey(), ticketNo, location);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to store clip {} of ticket {}", angle.getKey(), ticketNo, e);
+        } finally {
+            if (clip != null) {
+                try {
+                    Files.deleteIfExists(clip);
+                } catch (IOException e) {
+                    log.warn("Failed to delete {}", clip, e);
+                }
+            }
+        }
+    }
+
+    private static String clipName(Integer ticketNo, String truckStatus, ImageAngle angle) {
+        return "clips/" + ticketNo + "/" + truckStatus + "/" + angle.getKey() + ".mp4";
+    }
+}
@@ -0,0 +1,148 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.admin.entities.CameraMaster;
+import com.weighbridge.admin.repsitories.CameraMasterRepository;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.events.VehiclePresenceEvent;
+import com.weighbridge.camera.services.CameraSnapshotService;
+import com.weighbridge.camera.services.CameraStreamRegistry;
+import com.weighbridge.camera.services.FrameCaptureService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Snapshots the angles of a camera master record. Cameras whose main stream or substream is running, e.g. for
+ * previews or vehicle detection, answer from their buffered frames at once, so those angles show the same instant.
+ * Only cameras with neither stream running are connected to, in parallel, until their first frame arrives, and
+ * the snapshot is then stamped with the time its latest frame arrived.
+ * When the vehicle detection reports a vehicle settled on a platform, its cameras are snapshotted right away,
+ * and that snapshot is returned for the record until the vehicle moves or leaves, or it is older than the
+ * settled snapshot maximum age.
+ */
+@Slf4j
+@Service
+public class CameraSnapshotServiceImpl implements CameraSnapshotService {
+
+    @Value("${weighbridge.camera.snapshot.timeout:3s}")
+    private Duration timeout;
+
+    // A missed moving or left event must not keep a vehicle's still for the next vehicle
+    @Value("${weighbridge.camera.snapshot.settled-max-age:10m}")
+    private Duration settledMaxAge;
+
+    @Autowired
+    private CameraMasterRepository cameraMasterRepository;
+
+    @Autowired
+    private CameraStreamRegistry cameraStreamRegistry;
+
+    @Autowired
+    private FrameCaptureService frameCaptureService;
+
+    private ExecutorService executor;
+    // Snapshots of settled vehicles by camera master id
+    private final Map<Long, CompletableFuture<Snapshot>> settledSnapshots = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "camera-snapshot-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Snapshot capture(String companyId, String siteId, Integer roleId) {
+        long instantMillis = System.currentTimeMillis();
+        LocalDateTime capturedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(instantMillis), ZoneId.systemDefault());
+        Optional<CameraMaster> cameraMaster = cameraMasterRepository.findFirstByCompanyIdAndSiteIdAndRoleId(companyId, siteId, roleId);
+        if (cameraMaster.isEmpty()) {
+            log.debug("No cameras configured for company {}, site {} and role {}", companyId, siteId, roleId);
+            return new Snapshot(capturedAt, Collections.emptyMap());
+        }
+        CompletableFuture<Snapshot> settledSnapshot = settledSnapshots.get(cameraMaster.get().getId());
+        if (settledSnapshot != null) {
+            Snapshot snapshot = settledSnapshot.join();
+            if (snapshot.getCapturedAt().isBefore(capturedAt.minus(settledMaxAge))) {
+                settledSnapshots.remove(cameraMaster.get().getId(), settledSnapshot);
+            } else if (!snapshot.getImages().isEmpty()) {
+                return snapshot;
+            }
+        }
+        return capture(cameraMaster.get().getId(), instantMillis, capturedAt);
+    }
+
+    @EventListener
+    public void onVehiclePresence(VehiclePresenceEvent event) {
+        if (event.getType() == VehiclePresenceEvent.Type.SETTLED) {
+            long instantMillis = System.currentTimeMillis();
+            LocalDateTime capturedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(instantMillis), ZoneId.systemDefault());
+            settledSnapshots.put(event.getCameraId(),
+                    CompletableFuture.supplyAsync(() -> capture(event.getCameraId(), instantMillis, capturedAt), executor));
+        } else {
+            // Entered, moving or left, the vehicle is no longer where the snapshot shows it
+            settledSnapshots.remove(event.getCameraId());
+        }
+    }
+
+    private Snapshot capture(Long cameraId, long instantMillis, LocalDateTime capturedAt) {
+        Map<ImageAngle, CompletableFuture<Optional<FrameCaptureService.CapturedFrame>>> frames = new EnumMap<>(ImageAngle.class);
+        boolean connected = false;
+        for (ImageAngle angle : ImageAngle.values()) {
+            Optional<String> rtspUrl = cameraStreamRegistry.findStreamUrl(cameraId, angle);
+            if (rtspUrl.isEmpty()) {
+                continue;
+            }
+            Optional<FrameCaptureService.CapturedFrame> bufferedFrame = frameCaptureService.bufferedFrame(rtspUrl.get(), instantMillis)
+                    .or(() -> cameraStreamRegistry.findSubstreamUrl(cameraId, angle)
+                            .flatMap(substreamUrl -> frameCaptureService.bufferedFrame(substreamUrl, instantMillis)));
+            if (bufferedFrame.isPresent()) {
+                frames.put(angle, CompletableFuture.completedFuture(bufferedFrame));
+            } else {
+                connected = true;
+                frames.put(angle, CompletableFuture.supplyAsync(() -> frameCaptureService.snapshot(rtspUrl.get(), instantMillis, timeout), executor));
+            }
+        }
+
+        Map<ImageAngle, byte[]> images = new EnumMap<>(ImageAngle.class);
+        long latestMillis = instantMillis;
+        for (Map.Entry<ImageAngle, CompletableFuture<Optional<FrameCaptureService.CapturedFrame>>> frame : frames.entrySet()) {
+            Optional<FrameCaptureService.CapturedFrame> capturedFrame = frame.getValue().join();
+            if (capturedFrame.isPresent()) {
+                images.put(frame.getKey(), capturedFrame.get().getJpeg());
+                latestMillis = Math.max(latestMillis, capturedFrame.get().getCapturedAtMillis());
+            }
+        }
+        if (connected) {
+            // The frames of cameras connected to arrived after the instant
+            capturedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(latestMillis), ZoneId.systemDefault());
+        }
+        return new Snapshot(capturedAt, images);
+    }
+}
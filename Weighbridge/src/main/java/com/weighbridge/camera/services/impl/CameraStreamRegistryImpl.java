@@ -0,0 +1,130 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.admin.entities.CameraMaster;
+import com.weighbridge.admin.repsitories.CameraMasterRepository;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.services.CameraStreamRegistry;
+import com.weighbridge.camera.services.FrameCaptureService.StreamProfile;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class CameraStreamRegistryImpl implements CameraStreamRegistry {
+
+    // Width previews are scaled down to, about the size of a camera tile
+    @Value("${weighbridge.camera.preview.max-width:640}")
+    private int previewMaxWidth;
+
+    @Autowired
+    private CameraMasterRepository cameraMasterRepository;
+
+    private final Map<Long, StreamUrls> streamUrls = new ConcurrentHashMap<>();
+    private final List<Consumer<Long>> changeListeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Optional<String> findStreamUrl(Long cameraId, ImageAngle angle) {
+        return findStreamUrls(cameraId).map(urls -> urls.main.get(angle));
+    }
+
+    @Override
+    public Optional<String> findSubstreamUrl(Long cameraId, ImageAngle angle) {
+        return findStreamUrls(cameraId).map(urls -> urls.substream.get(angle));
+    }
+
+    @Override
+    public Optional<PreviewStream> findPreviewStream(Long cameraId, ImageAngle angle) {
+        return findStreamUrls(cameraId).map(urls -> {
+            String substreamUrl = urls.substream.get(angle);
+            if (substreamUrl != null) {
+                return new PreviewStream(substreamUrl, new StreamProfile(false, previewMaxWidth));
+            }
+            String mainUrl = urls.main.get(angle);
+            return mainUrl != null ? new PreviewStream(mainUrl, new StreamProfile(true, previewMaxWidth)) : null;
+        });
+    }
+
+    private Optional<StreamUrls> findStreamUrls(Long cameraId) {
+        StreamUrls urls = streamUrls.get(cameraId);
+        if (urls == null) {
+            // Unknown ids are not remembered, a camera configured later is found on the next lookup
+            Optional<CameraMaster> cameraMaster = cameraMasterRepository.findById(cameraId);
+            if (cameraMaster.isEmpty()) {
+                return Optional.empty();
+            }
+            urls = streamUrls.computeIfAbsent(cameraId, id -> toStreamUrls(cameraMaster.get()));
+        }
+        return Optional.of(urls);
+    }
+
+    @Override
+    public void update(CameraMaster cameraMaster) {
+        StreamUrls previous = streamUrls.put(cameraMaster.getId(), toStreamUrls(cameraMaster));
+        if (previous != null && !previous.equals(streamUrls.get(cameraMaster.getId()))) {
+            notifyChanged(cameraMaster.getId());
+        }
+    }
+
+    @Override
+    public void remove(Long cameraId) {
+        if (streamUrls.remove(cameraId) != null) {
+            notifyChanged(cameraId);
+        }
+    }
+
+    @Override
+    public void addChangeListener(Consumer<Long> listener) {
+        changeListeners.add(listener);
+    }
+
+    private void notifyChanged(Long cameraId) {
+        log.info("Stream URLs of camera {} changed", cameraId);
+        for (Consumer<Long> listener : changeListeners) {
+            try {
+                listener.accept(cameraId);
+            } catch (RuntimeException e) {
+                log.warn("Camera stream change listener failed for camera {}", cameraId, e);
+            }
+        }
+    }
+
+    private static StreamUrls toStreamUrls(CameraMaster cameraMaster) {
+        StreamUrls urls = new StreamUrls();
+        putIfConfigured(urls.main, ImageAngle.TOP, cameraMaster.getTopCamUrl1());
+        putIfConfigured(urls.main, ImageAngle.BOTTOM, cameraMaster.getBottomCamUrl2());
+        putIfConfigured(urls.main, ImageAngle.FRONT, cameraMaster.getFrontCamUrl3());
+        putIfConfigured(urls.main, ImageAngle.BACK, cameraMaster.getBackCamUrl4());
+        putIfConfigured(urls.main, ImageAngle.LEFT, cameraMaster.getLeftCamUrl5());
+        putIfConfigured(urls.main, ImageAngle.RIGHT, cameraMaster.getRightCamUrl6());
+        putIfConfigured(urls.substream, ImageAngle.TOP, cameraMaster.getTopCamSubstreamUrl1());
+        putIfConfigured(urls.substream, ImageAngle.BOTTOM, cameraMaster.getBottomCamSubstreamUrl2());
+        putIfConfigured(urls.substream, ImageAngle.FRONT, cameraMaster.getFrontCamSubstreamUrl3());
+        putIfConfigured(urls.substream, ImageAngle.BACK, cameraMaster.getBackCamSubstreamUrl4());
+        putIfConfigured(urls.substream, ImageAngle.LEFT, cameraMaster.getLeftCamSubstreamUrl5());
+        putIfConfigured(urls.substream, ImageAngle.RIGHT, cameraMaster.getRightCamSubstreamUrl6());
+        return urls;
+    }
+
+    private static void putIfConfigured(Map<ImageAngle, String> urls, ImageAngle angle, String url) {
+        if (url != null && !url.isBlank()) {
+            urls.put(angle, url.trim());
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class StreamUrls {
+        private final Map<ImageAngle, String> main = new EnumMap<>(ImageAngle.class);
+        private final Map<ImageAngle, String> substream = new EnumMap<>(ImageAngle.class);
+    }
+}
@@ -4,48 +4,54 @@ import com.weighbridge.admin.entities.RoleMaster;
 import com.weighbridge.admin.exceptions.ResourceNotFoundException;
 import com.weighbridge.admin.repsitories.RoleMasterRepository;
 import com.weighbridge.camera.entites.CameraView;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.entites.ImageSize;
+import com.weighbridge.camera.entites.ImageUploadStatus;
 import com.weighbridge.camera.repositories.CameraRepository;
+import com.weighbridge.camera.services.CameraSnapshotService;
 import com.weighbridge.camera.services.CameraViewService;
-
-
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.FileEntity;
-import org.apache.http.entity.InputStreamEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import com.weighbridge.camera.services.ImageStore;
+import com.weighbridge.camera.services.ImageUploadService;
+import com.weighbridge.gateuser.entities.GateEntryTransaction;
+import com.weighbridge.gateuser.repositories.GateEntryTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Base64;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+@Slf4j
 @Service
 public class CameraViewServiceImpl implements CameraViewService {
-    @Value("${nextcloud.base-url}")
-    private String baseUrl;
-
-    @Value("${nextcloud.username}")
-    private String username;
-
-    @Value("${nextcloud.password}")
-    private String password;
     @Autowired
     private CameraRepository cameraRepository;
     @Autowired
     private RoleMasterRepository roleMasterRepository;
+    @Autowired
+    private ImageUploadService imageUploadService;
+    @Autowired
+    private ImageStore imageStore;
+    @Autowired
+    private ImageDiskCache imageDiskCache;
+    @Autowired
+    private CameraSnapshotService cameraSnapshotService;
+    @Autowired
+    private GateEntryTransactionRepository gateEntryTransactionRepository;
+    @Value("${weighbridge.camera.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    private static final DateTimeFormatter SNAPSHOT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
     @Override
     public String saveCameraPath(String url) {
 
@@ -72,56 +78,60 @@ public class CameraViewServiceImpl implements CameraViewService {
             throw new ResourceNotFoundException("role is not found "+role);
         }
         cameraView.setRoleId(roleIdByRoleName);
-
-        // Check each MultipartFile before setting its path
-        if (frontImg1 != null && !frontImg1.isEmpty()) {
-            cameraView.setFrontImg1(uploadAndReturnFilePath(frontImg1));
-        }
-        if (backImg2 != null && !backImg2.isEmpty()) {
-            cameraView.setBackImg2(uploadAndReturnFilePath(backImg2));
-        }
-        if (topImg3 != null && !topImg3.isEmpty()) {
-            cameraView.setTopImg3(uploadAndReturnFilePath(topImg3));
-        }
-        if (bottomImg4 != null && !bottomImg4.isEmpty()) {
-            cameraView.setBottomImg4(uploadAndReturnFilePath(bottomImg4));
-        }
-        if (leftImg5 != null && !leftImg5.isEmpty()) {
-            cameraView.setLeftImg5(uploadAndReturnFilePath(leftImg5));
-        }
-        if (rightImg6 != null && !rightImg6.isEmpty()) {
-            cameraView.setRightImg6(uploadAndReturnFilePath(rightImg6));
-        }
-
-        cameraRepository.save(cameraView);
+        cameraView.setCapturedAt(LocalDateTime.now());
+
+        // Mark the captured images as pending and hand them to the background upload queue
+        List<ImageUploadService.PendingImage> pendingImages = new ArrayList<>();
+        addPendingImage(pendingImages, cameraView, ImageAngle.FRONT, frontImg1);
+        addPendingImage(pendingImages, cameraView, ImageAngle.BACK, backImg2);
+        addPendingImage(pendingImages, cameraView, ImageAngle.TOP, topImg3);
+        addPendingImage(pendingImages, cameraView, ImageAngle.BOTTOM, bottomImg4);
+        addPendingImage(pendingImages, cameraView, ImageAngle.LEFT, leftImg5);
+        addPendingImage(pendingImages, cameraView, ImageAngle.RIGHT, rightImg6);
+        if (snapshotEnabled && pendingImages.size() < ImageAngle.values().length) {
+            addSnapshotImages(pendingImages, cameraView);
+        }
+
+        CameraView savedCameraView = cameraRepository.save(cameraView);
+        imageUploadService.submit(savedCameraView.getId(), pendingImages);
         return "Upload Successfully";
     }
 
+    private void addPendingImage(List<ImageUploadService.PendingImage> pendingImages, CameraView cameraView,
+                                 ImageAngle angle, MultipartFile multipartFile) throws IOException {
+        if (multipartFile == null || multipartFile.isEmpty()) {
+            return;
+        }
+        // The multipart file is deleted when the request completes, so the content is copied now
+        pendingImages.add(new ImageUploadService.PendingImage(angle, multipartFile.getOriginalFilename(), multipartFile.getBytes()));
+        angle.setStatus(cameraView, ImageUploadStatus.PENDING);
+    }
 
-
-    private String uploadAndReturnFilePath(MultipartFile multipartFile) throws IOException {
-        String remoteFilePath = multipartFile.getOriginalFilename();
-        String uploadUrl = baseUrl + "/remote.php/dav/files/" + username + "/" + remoteFilePath;
-
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpPut httpPut = new HttpPut(uploadUrl);
-
-            String auth = username + ":" + password;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-            httpPut.setHeader("Authorization", "Basic " + encodedAuth);
-
-            InputStreamEntity reqEntity = new InputStreamEntity(multipartFile.getInputStream(), multipartFile.getSize());
-            httpPut.setEntity(reqEntity);
-
-            try (CloseableHttpResponse response = httpClient.execute(httpPut)) {
-                int statusCode = response.getStatusLine().getStatusCode();
-                if (statusCode == 201 || statusCode == 200 || statusCode == 204) {
-                    return uploadUrl;
-                } else {
-                    throw new IOException("Failed to upload file to Nextcloud. Status code: " + statusCode);
-                }
+    /**
+     * Fills the angles the client did not upload with a snapshot of the site's cameras for the role.
+     */
+    private void addSnapshotImages(List<ImageUploadService.PendingImage> pendingImages, CameraView cameraView) {
+        GateEntryTransaction gateEntryTransaction = gateEntryTransactionRepository.findById(cameraView.getTicketNo()).orElse(null);
+        if (gateEntryTransaction == null) {
+            return;
+        }
+        Set<ImageAngle> uploadedAngles = EnumSet.noneOf(ImageAngle.class);
+        pendingImages.forEach(image -> uploadedAngles.add(image.getAngle()));
+
+        CameraSnapshotService.Snapshot snapshot = cameraSnapshotService.capture(gateEntryTransaction.getCompanyId(),
+                gateEntryTransaction.getSiteId(), cameraView.getRoleId());
+        if (uploadedAngles.isEmpty()) {
+            // All images come from the snapshot, so they share its instant
+            cameraView.setCapturedAt(snapshot.getCapturedAt());
+        }
+        String time = snapshot.getCapturedAt().format(SNAPSHOT_TIME_FORMAT);
+        snapshot.getImages().forEach((angle, jpeg) -> {
+            if (!uploadedAngles.contains(angle)) {
+                String fileName = cameraView.getTicketNo() + "_" + cameraView.getTruckStatus() + "_" + angle.getKey() + "_" + time + ".jpg";
+                pendingImages.add(new ImageUploadService.PendingImage(angle, fileName, jpeg));
+                angle.setStatus(cameraView, ImageUploadStatus.PENDING);
             }
-        }
+        });
     }
 
 
@@ -134,25 +144,38 @@ public class CameraViewServiceImpl implements CameraViewService {
         return convFile;
     }*/
 
-    private void uploadToNextcloud(File file, String remoteFilePath) throws IOException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpPut httpPut = new HttpPut(baseUrl + "/remote.php/dav/files/" + username + "/" + remoteFilePath);
-
-            String auth = username + ":" + password;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-            httpPut.setHeader("Authorization", "Basic " + encodedAuth);
-
-            FileEntity fileEntity = new FileEntity(file);
-            httpPut.setEntity(fileEntity);
-
-            try (CloseableHttpResponse response = httpClient.execute(httpPut)) {
-                System.out.println("Response Code: " + response.getStatusLine().getStatusCode());
+    public Map<String, byte[]> downloadImages(Integer ticketNo, String role, String companyId, String siteId,String truckStatus,
+                                              ImageSize size) {
+        Map<String, byte[]> imagesMap = new HashMap<>();
+        Map<String, String> imageUrls = new HashMap<>();
+        for (Map.Entry<ImageAngle, String> imagePath : getImagePaths(ticketNo, role, truckStatus, size).entrySet()) {
+            byte[] cachedImage = null;
+            try {
+                cachedImage = imageDiskCache.readIfCached(imagePath.getValue());
+            } catch (IOException e) {
+                log.warn("Failed to read cached image {}: {}", imagePath.getValue(), e.getMessage());
+            }
+            if (cachedImage != null) {
+                imagesMap.put(imagePath.getKey().getKey(), cachedImage);
+            } else {
+                imageUrls.put(imagePath.getKey().getKey(), imagePath.getValue());
             }
         }
-    }
 
+        // Images that are not cached are downloaded in parallel and cached for the next request
+        imageStore.getAll(imageUrls).forEach((key, image) -> {
+            imagesMap.put(key, image);
+            try {
+                imageDiskCache.put(imageUrls.get(key), image);
+            } catch (IOException e) {
+                log.warn("Failed to cache image {}: {}", imageUrls.get(key), e.getMessage());
+            }
+        });
+        return imagesMap;
+    }
 
-    public Map<String, byte[]> downloadImages(Integer ticketNo, String role, String companyId, String siteId,String truckStatus) {
+    @Override
+    public Map<ImageAngle, String> getImagePaths(Integer ticketNo, String role, String truckStatus, ImageSize size) {
         if (role == null) {
             throw new ResourceNotFoundException("role is not given");
         }
@@ -165,61 +188,17 @@ public class CameraViewServiceImpl implements CameraViewService {
             throw new ResourceNotFoundException("CameraView not found for ticketNo and role: " + ticketNo + " and " + role);
         }
 
-        Map<String, byte[]> imagesMap = new HashMap<>();
-
-        // List of image URLs
-        Map<String, String> imageUrls = new HashMap<>();
-        imageUrls.put("frontImg1", cameraView.getFrontImg1());
-        imageUrls.put("backImg2", cameraView.getBackImg2());
-        imageUrls.put("topImg3", cameraView.getTopImg3());
-        imageUrls.put("bottomImg4", cameraView.getBottomImg4());
-        imageUrls.put("leftImg5", cameraView.getLeftImg5());
-        imageUrls.put("rightImg6", cameraView.getRightImg6());
-        // Add other images if necessary
-
-        for (Map.Entry<String, String> entry : imageUrls.entrySet()) {
-            String imageType = entry.getKey();
-            String remoteFilePath = entry.getValue();
-
-            if (remoteFilePath != null && !remoteFilePath.isEmpty()) {
-                try {
-                    // Extract only the file name from the URL
-                    String fileName = remoteFilePath.substring(remoteFilePath.lastIndexOf('/') + 1);
-                    System.out.println("Extracted file name: " + fileName);
-                    String adjustedRemoteFilePath = "remote.php/dav/files/" + username + "/" + fileName;
-
-                    // Download the file using the adjusted path
-                    byte[] fileBytes = downloadFromNextcloud(remoteFilePath);
-                    imagesMap.put(imageType, fileBytes);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    // Handle or log the exception as needed
-                }
-            } else {
-                // Handle case where remoteFilePath is null or empty
-                // You can choose to log a message or perform any other action
-                System.out.println("Skipping download for " + imageType + " because remoteFilePath is null or empty");
+        // Images that are still pending or failed to upload have no path yet and are skipped
+        Map<ImageAngle, String> imagePaths = new EnumMap<>(ImageAngle.class);
+        for (ImageAngle angle : ImageAngle.values()) {
+            String remoteFilePath = angle.getPath(cameraView, size);
+            if (remoteFilePath == null || remoteFilePath.isEmpty()) {
+                remoteFilePath = angle.getPath(cameraView);
             }
-        }
-
-        return imagesMap;
-    }
-
-
-    private byte[] downloadFromNextcloud(String remoteFilePath) throws IOException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet httpGet = new HttpGet(remoteFilePath);
-            System.out.println("Downloading from: " + remoteFilePath);
-
-            String auth = username + ":" + password;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-            httpGet.setHeader("Authorization", "Basic " + encodedAuth);
-
-            try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
-                return EntityUtils.toByteArray(response.getEntity());
+            if (remoteFilePath != null && !remoteFilePath.isEmpty()) {
+                imagePaths.put(angle, remoteFilePath);
             }
         }
+        return imagePaths;
     }
-
-
 }
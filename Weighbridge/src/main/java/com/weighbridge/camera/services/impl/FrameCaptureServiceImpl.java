@@ -1,58 +1,541 @@
 package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.camera.services.FrameCaptureService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.ffmpeg.avcodec.AVCodec;
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.avformat.AVStream;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 
-import javax.imageio.ImageIO;
+import static org.bytedeco.ffmpeg.global.avcodec.av_packet_unref;
+import static org.bytedeco.ffmpeg.global.avformat.av_find_best_stream;
+import static org.bytedeco.ffmpeg.global.avutil.AVMEDIA_TYPE_VIDEO;
+import static org.bytedeco.ffmpeg.global.avutil.AV_NOPTS_VALUE;
 
-import com.weighbridge.camera.services.FrameCaptureService;
-import org.bytedeco.javacv.FFmpegFrameGrabber;
-import org.bytedeco.javacv.Frame;
-import org.bytedeco.javacv.Java2DFrameConverter;
-import org.springframework.stereotype.Service;
+/**
+ * Runs one capture loop per RTSP URL and fans the frames out to all subscribers of that URL, so camera
+ * connections and decoding work grow with the number of cameras rather than the number of viewers.
+ * Each frame is encoded once per frame size the subscribers want, subscribers that analyse frames get them decoded
+ * without encoding, and a camera whose subscribers all want key frames only is decoded at a fraction of the cost.
+ * While a URL has subscribers, a failed or stalled camera is reconnected with exponential backoff.
+ * The last few frames of each capture loop are kept for snapshots, and the last seconds of encoded video for clips.
+ * Each capture loop reports its state and throughput in camera.stream.* meters, tagged with the URL without
+ * credentials, and in {@link #getStreamStats()}.
+ */
+@Slf4j
 @Service
 public class FrameCaptureServiceImpl implements FrameCaptureService {
 
-    public void streamFrames(String rtspUrl, Consumer<byte[]> frameConsumer) throws Exception {
-        FFmpegFrameGrabber frameGrabber = new FFmpegFrameGrabber(rtspUrl);
-        
-        frameGrabber.setOption("rtsp_transport", "tcp");
-        frameGrabber.setOption("stimeout", "3000000");
+    // Frames kept per camera for snapshots, a fraction of a second of video
+    private static final int RECENT_FRAMES = 8;
+
+    @Value("${weighbridge.camera.stream.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${weighbridge.camera.stream.reconnect-initial-backoff:1s}")
+    private Duration reconnectInitialBackoff;
+
+    @Value("${weighbridge.camera.stream.reconnect-max-backoff:30s}")
+    private Duration reconnectMaxBackoff;
+
+    @Value("${weighbridge.camera.snapshot.max-frame-age:1s}")
+    private Duration maxFrameAge;
 
-        try {
-            frameGrabber.start();
-            System.out.println("Frame grabber started successfully for URL: " + rtspUrl);
-        } catch (Exception e) {
-            System.err.println("Failed to start frame grabber: " + e.getMessage());
-            throw new Exception("Failed to start frame grabber: " + e.getMessage(), e);
+    // Encoded video kept per camera for clips, whichever limit is reached first
+    @Value("${weighbridge.camera.clip.buffer-size:16MB}")
+    private DataSize clipBufferSize;
+
+    @Value("${weighbridge.camera.clip.buffer-duration:30s}")
+    private Duration clipBufferDuration;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Guarded by this
+    private final Map<String, SharedCapture> captures = new HashMap<>();
+
+    @Override
+    public Subscription subscribe(String rtspUrl, StreamProfile profile, Consumer<byte[]> frameConsumer) {
+        return subscribe(rtspUrl, new Subscriber(profile, frameConsumer, null));
+    }
+
+    @Override
+    public Subscription subscribeDecoded(String rtspUrl, StreamProfile profile, Consumer<BufferedImage> imageConsumer) {
+        return subscribe(rtspUrl, new Subscriber(profile, null, imageConsumer));
+    }
+
+    @Override
+    public synchronized Optional<Subscription> retain(String rtspUrl) {
+        SharedCapture capture = captures.get(rtspUrl);
+        if (capture == null) {
+            return Optional.empty();
         }
+        Subscriber subscriber = new Subscriber(new StreamProfile(true, 0), null, null);
+        capture.subscribers.add(subscriber);
+        return Optional.of(() -> unsubscribe(capture, subscriber));
+    }
 
-        Java2DFrameConverter converter = new Java2DFrameConverter();
+    private synchronized Subscription subscribe(String rtspUrl, Subscriber subscriber) {
+        SharedCapture capture = captures.get(rtspUrl);
+        if (capture == null) {
+            capture = new SharedCapture(rtspUrl);
+            captures.put(rtspUrl, capture);
+            capture.start();
+        }
+        SharedCapture subscribed = capture;
+        subscribed.subscribers.add(subscriber);
+        return () -> unsubscribe(subscribed, subscriber);
+    }
 
-        try {
-            while (true) {
-                Frame frame = frameGrabber.grab();
-                if (frame == null) {
-                    System.err.println("Frame is null, stream might have ended.");
-                    throw new Exception("Frame is null, stream might have ended.");
-                }
+    @Override
+    public Optional<CapturedFrame> bufferedFrame(String rtspUrl, long instantMillis) {
+        SharedCapture capture;
+        synchronized (this) {
+            capture = captures.get(rtspUrl);
+        }
+        return capture == null ? Optional.empty() : Optional.ofNullable(capture.bufferedFrame(instantMillis));
+    }
+
+    @Override
+    public Optional<CapturedFrame> snapshot(String rtspUrl, long instantMillis, Duration timeout) {
+        Optional<CapturedFrame> bufferedFrame = bufferedFrame(rtspUrl, instantMillis);
+        if (bufferedFrame.isPresent()) {
+            return bufferedFrame;
+        }
+        // Nobody is watching the camera, or its buffered frames are stale, so wait for the next frame
+        CompletableFuture<CapturedFrame> nextFrame = new CompletableFuture<>();
+        try (Subscription ignored = subscribe(rtspUrl, frame -> nextFrame.complete(new CapturedFrame(frame, System.currentTimeMillis())))) {
+            return Optional.of(nextFrame.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException | ExecutionException e) {
+            log.warn("No frame received from {} within {}", rtspUrl, timeout);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean writeClip(String rtspUrl, long fromMillis, long toMillis, Path target) throws IOException {
+        SharedCapture capture;
+        synchronized (this) {
+            capture = captures.get(rtspUrl);
+        }
+        return capture != null && capture.packetRing.writeClip(fromMillis, toMillis, target);
+    }
+
+    @Override
+    public synchronized List<StreamStats> getStreamStats() {
+        List<StreamStats> stats = new ArrayList<>();
+        captures.values().forEach(capture -> stats.add(capture.stats()));
+        return stats;
+    }
+
+    /**
+     * @return The URL without user name and password, which are often part of camera URLs.
+     */
+    static String streamName(String rtspUrl) {
+        int scheme = rtspUrl.indexOf("://");
+        int authorityStart = scheme < 0 ? 0 : scheme + 3;
+        int pathStart = rtspUrl.indexOf('/', authorityStart);
+        int authorityEnd = pathStart < 0 ? rtspUrl.length() : pathStart;
+        // Passwords may contain @, the host follows the last one
+        int at = rtspUrl.lastIndexOf('@', authorityEnd - 1);
+        int queryStart = rtspUrl.indexOf('?', authorityEnd);
+        return rtspUrl.substring(0, authorityStart)
+                + rtspUrl.substring(Math.max(at + 1, authorityStart), queryStart < 0 ? rtspUrl.length() : queryStart);
+    }
+
+    private synchronized void unsubscribe(SharedCapture capture, Subscriber subscriber) {
+        if (capture.subscribers.remove(subscriber) && capture.subscribers.isEmpty()) {
+            capture.stop();
+            captures.remove(capture.rtspUrl, capture);
+        }
+    }
+
+    private synchronized void captureEnded(SharedCapture capture) {
+        if (captures.remove(capture.rtspUrl, capture)) {
+            capture.removeMeters();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stopAll() {
+        captures.values().forEach(SharedCapture::stop);
+        captures.clear();
+    }
+
+    private class SharedCapture implements Runnable {
+
+        private final String rtspUrl;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private volatile boolean running = true;
+        // The most recent frames, written only by the capture thread
+        private final AtomicReferenceArray<CapturedFrame> recentFrames = new AtomicReferenceArray<>(RECENT_FRAMES);
+        private int nextSlot;
+        // The latest frame scaled down for a subscriber, for snapshots between the full size key frames
+        private volatile CapturedFrame latestScaledFrame;
+        private final PacketRing packetRing = new PacketRing(clipBufferSize.toBytes(), clipBufferDuration.toMillis());
+
+        private final String streamName;
+        private final List<Meter> meters = new ArrayList<>();
+        private final Counter reconnects;
+        private final Counter decodedFrames;
+        private final Timer decodeTimer;
+        private final Timer encodeTimer;
+        private volatile StreamState state = StreamState.CONNECTING;
+        private volatile long connectedAtMillis;
+        private volatile long lastFrameAtMillis;
+        private volatile double decodedFps;
+        private volatile long lagMillis;
+        // Written only by the capture thread
+        private int framesInWindow;
+        private long windowStartMillis;
+        private long baseWallMillis;
+        private long baseStreamMillis;
+
+        SharedCapture(String rtspUrl) {
+            this.rtspUrl = rtspUrl;
+            this.streamName = streamName(rtspUrl);
+            Tags tags = Tags.of("stream", streamName);
+            reconnects = keep(Counter.builder("camera.stream.reconnects").tags(tags)
+                    .description("Times the camera failed or stalled and was connected to again").register(meterRegistry));
+            decodedFrames = keep(Counter.builder("camera.stream.frames.decoded").tags(tags).register(meterRegistry));
+            decodeTimer = keep(Timer.builder("camera.stream.decode.duration").tags(tags).register(meterRegistry));
+            encodeTimer = keep(Timer.builder("camera.stream.encode.duration").tags(tags)
+                    .description("Time to scale and JPEG encode a frame for one frame size")
+                    .publishPercentileHistogram().register(meterRegistry));
+            keep(Gauge.builder("camera.stream.connected", this, capture -> capture.state == StreamState.STREAMING ? 1 : 0)
+                    .tags(tags).register(meterRegistry));
+            keep(Gauge.builder("camera.stream.fps", this, SharedCapture::currentFps).tags(tags).register(meterRegistry));
+            keep(Gauge.builder("camera.stream.lag", this, capture -> capture.lagMillis).tags(tags).baseUnit("milliseconds")
+                    .description("How far the capture loop has fallen behind the camera, estimated from the packet timestamps")
+                    .register(meterRegistry));
+            keep(Gauge.builder("camera.stream.frame.age", this, capture -> capture.lastFrameAgeMillis() == null ? Double.NaN : capture.lastFrameAgeMillis())
+                    .tags(tags).baseUnit("milliseconds").register(meterRegistry));
+            keep(Gauge.builder("camera.stream.subscribers", subscribers, List::size).tags(tags).register(meterRegistry));
+            keep(Gauge.builder("camera.stream.buffered", packetRing, PacketRing::getTotalBytes).tags(tags).baseUnit("bytes")
+                    .register(meterRegistry));
+        }
+
+        private <M extends Meter> M keep(M meter) {
+            meters.add(meter);
+            return meter;
+        }
 
-                BufferedImage bufferedImage = converter.convert(frame);
-                if (bufferedImage != null) {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    ImageIO.write(bufferedImage, "jpeg", baos);
-                    frameConsumer.accept(baos.toByteArray());
+        void removeMeters() {
+            meters.forEach(meterRegistry::remove);
+        }
+
+        StreamStats stats() {
+            return new StreamStats(streamName, state, connectedAtMillis == 0 ? null : connectedAtMillis,
+                    (long) reconnects.count(), currentFps(), lastFrameAgeMillis(), lagMillis,
+                    decodeTimer.mean(TimeUnit.MILLISECONDS), encodeTimer.mean(TimeUnit.MILLISECONDS),
+                    encodeTimer.max(TimeUnit.MILLISECONDS), subscribers.size(), packetRing.getTotalBytes());
+        }
+
+        private double currentFps() {
+            Long lastFrameAge = lastFrameAgeMillis();
+            // The last window's rate no longer holds once the frames stop
+            return lastFrameAge == null || lastFrameAge > 2000 ? 0 : decodedFps;
+        }
+
+        private Long lastFrameAgeMillis() {
+            long lastFrameAt = lastFrameAtMillis;
+            return lastFrameAt == 0 ? null : System.currentTimeMillis() - lastFrameAt;
+        }
+
+        void start() {
+            Thread thread = new Thread(this, "frame-capture-" + rtspUrl.hashCode());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Called with the service locked, so the meters are gone before a new capture of the URL registers its own.
+         */
+        void stop() {
+            removeMeters();
+            running = false;
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+
+        @Override
+        public void run() {
+            JpegEncoder encoder = new JpegEncoder();
+            long backoff = reconnectInitialBackoff.toMillis();
+            try {
+                while (running) {
+                    if (stream(encoder)) {
+                        // The camera was healthy until it failed, so the next reconnect starts from the shortest delay
+                        backoff = reconnectInitialBackoff.toMillis();
+                    }
+                    if (!running) {
+                        break;
+                    }
+                    log.info("Reconnecting to {} in {} ms", rtspUrl, backoff);
+                    state = StreamState.RECONNECTING;
+                    reconnects.increment();
+                    synchronized (this) {
+                        if (running) {
+                            wait(backoff);
+                        }
+                    }
+                    backoff = Math.min(backoff * 2, reconnectMaxBackoff.toMillis());
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                captureEnded(this);
+                encoder.dispose();
+                packetRing.close();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-        } finally {
+        }
+
+        /**
+         * Reads video packets until the capture is stopped or the camera fails. Each packet is kept for clips as
+         * the camera encoded it, then decoded for the subscribers. While every subscriber wants key frames only,
+         * the other frames are not decoded. When a subscriber that wants every frame joins, the decoder keeps to key
+         * frames until the next one, so nobody is sent frames decoded without the frames they refer to. A camera
+         * that sends nothing for the read timeout is treated as failed.
+         *
+         * @return Whether at least one packet was received.
+         */
+        private boolean stream(JpegEncoder encoder) {
+            String timeout = String.valueOf(TimeUnit.MILLISECONDS.toMicros(readTimeout.toMillis()));
+            FFmpegFrameGrabber frameGrabber = new FFmpegFrameGrabber(rtspUrl);
+            frameGrabber.setOption("rtsp_transport", "tcp");
+            frameGrabber.setOption("stimeout", timeout);
+            frameGrabber.setOption("timeout", timeout);
+            boolean received = false;
             try {
-                frameGrabber.stop();
-                System.out.println("Frame grabber stopped for URL: " + rtspUrl);
+                if (state != StreamState.RECONNECTING) {
+                    state = StreamState.CONNECTING;
+                }
+                frameGrabber.start();
+                state = StreamState.STREAMING;
+                connectedAtMillis = System.currentTimeMillis();
+                baseWallMillis = 0;
+                log.info("Frame grabber started for URL: {}", rtspUrl);
+                int videoStream = av_find_best_stream(frameGrabber.getFormatContext(), AVMEDIA_TYPE_VIDEO, -1, -1, (AVCodec) null, 0);
+                if (videoStream < 0) {
+                    throw new IOException("No video stream in " + rtspUrl);
+                }
+                AVStream stream = frameGrabber.getFormatContext().streams(videoStream);
+                packetRing.reset(stream);
+                try (VideoDecoder decoder = new VideoDecoder(stream)) {
+                    while (running) {
+                        AVPacket packet = frameGrabber.grabPacket();
+                        if (packet == null) {
+                            log.warn("Packet is null, stream might have ended: {}", rtspUrl);
+                            break;
+                        }
+                        try {
+                            received = true;
+                            if (packet.stream_index() != videoStream) {
+                                continue;
+                            }
+                            long arrivalMillis = System.currentTimeMillis();
+                            packetRing.add(packet, arrivalMillis);
+                            updateLag(packet, stream, arrivalMillis);
+                            decoder.setKeyFramesOnly(subscribers.stream().allMatch(subscriber -> subscriber.profile.isKeyFramesOnly()));
+                            long decodeStart = System.nanoTime();
+                            if (decoder.decode(packet)) {
+                                decodeTimer.record(System.nanoTime() - decodeStart, TimeUnit.NANOSECONDS);
+                                frameDecoded(arrivalMillis);
+                                publish(decoder, encoder);
+                            }
+                        } finally {
+                            av_packet_unref(packet);
+                        }
+                    }
+                }
             } catch (Exception e) {
-                e.printStackTrace();
+                log.error("Frame capture failed for URL: {}", rtspUrl, e);
+            } finally {
+                try {
+                    frameGrabber.stop();
+                    frameGrabber.release();
+                    log.info("Frame grabber stopped for URL: {}", rtspUrl);
+                } catch (Exception e) {
+                    log.warn("Failed to stop frame grabber for URL: {}", rtspUrl, e);
+                }
+            }
+            return received;
+        }
+
+        /**
+         * Estimates how far reading has fallen behind the camera. FFmpeg does not expose how much is queued in
+         * the connection, but when packets are read later than their timestamps say they were sent, the
+         * difference is waiting in the socket. The estimate is rebased whenever packets arrive early.
+         */
+        private void updateLag(AVPacket packet, AVStream stream, long arrivalMillis) {
+            long pts = packet.pts() != AV_NOPTS_VALUE ? packet.pts() : packet.dts();
+            if (pts == AV_NOPTS_VALUE) {
+                return;
+            }
+            long streamMillis = pts * 1000 * stream.time_base().num() / stream.time_base().den();
+            long lag = (arrivalMillis - baseWallMillis) - (streamMillis - baseStreamMillis);
+            if (baseWallMillis == 0 || lag < 0) {
+                baseWallMillis = arrivalMillis;
+                baseStreamMillis = streamMillis;
+                lag = 0;
+            }
+            lagMillis = lag;
+        }
+
+        private void frameDecoded(long nowMillis) {
+            decodedFrames.increment();
+            lastFrameAtMillis = nowMillis;
+            framesInWindow++;
+            if (nowMillis - windowStartMillis >= 1000) {
+                decodedFps = windowStartMillis == 0 ? 0 : framesInWindow * 1000.0 / (nowMillis - windowStartMillis);
+                windowStartMillis = nowMillis;
+                framesInWindow = 0;
             }
         }
+
+        /**
+         * @return The full size frame nearest to the instant, or the latest scaled down frame if no full size frame
+         *         is within the maximum frame age of it, or null if neither is.
+         */
+        CapturedFrame bufferedFrame(long instantMillis) {
+            CapturedFrame nearest = null;
+            for (int i = 0; i < RECENT_FRAMES; i++) {
+                CapturedFrame frame = recentFrames.get(i);
+                if (frame != null && (nearest == null || Math.abs(frame.getCapturedAtMillis() - instantMillis)
+                        < Math.abs(nearest.getCapturedAtMillis() - instantMillis))) {
+                    nearest = frame;
+                }
+            }
+            if (nearest != null && Math.abs(nearest.getCapturedAtMillis() - instantMillis) <= maxFrameAge.toMillis()) {
+                return nearest;
+            }
+            CapturedFrame scaled = latestScaledFrame;
+            return scaled != null && Math.abs(scaled.getCapturedAtMillis() - instantMillis) <= maxFrameAge.toMillis() ? scaled : null;
+        }
+
+        /**
+         * Encodes the decoded frame once for each width the subscribers want and hands it to them. Subscribers of
+         * decoded frames get the image without encoding. Frames at the size of the stream are kept for snapshots,
+         * and key frames are encoded at that size for them even if no subscriber wants it, so every running capture
+         * has a recent still. Between key frames, the widest frame encoded for the subscribers is kept instead.
+         */
+        private void publish(VideoDecoder decoder, JpegEncoder encoder) throws IOException {
+            long capturedAtMillis = System.currentTimeMillis();
+            boolean keyFrame = decoder.isKeyFrame();
+            Map<Integer, byte[]> framesByWidth = new HashMap<>();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.profile.isKeyFramesOnly() && !keyFrame
+                        || subscriber.frameConsumer == null && subscriber.imageConsumer == null) {
+                    continue;
+                }
+                int maxWidth = subscriber.profile.getMaxWidth();
+                if (subscriber.imageConsumer != null) {
+                    try {
+                        subscriber.imageConsumer.accept(decoder.image(maxWidth));
+                    } catch (RuntimeException e) {
+                        log.warn("Frame subscriber failed for URL: {}", rtspUrl, e);
+                    }
+                    continue;
+                }
+                byte[] frameBytes = framesByWidth.get(maxWidth);
+                if (frameBytes == null) {
+                    long encodeStart = System.nanoTime();
+                    frameBytes = encoder.encode(decoder.image(maxWidth));
+                    encodeTimer.record(System.nanoTime() - encodeStart, TimeUnit.NANOSECONDS);
+                    framesByWidth.put(maxWidth, frameBytes);
+                }
+                try {
+                    subscriber.frameConsumer.accept(frameBytes);
+                } catch (RuntimeException e) {
+                    log.warn("Frame subscriber failed for URL: {}", rtspUrl, e);
+                }
+            }
+            byte[] fullSizeFrame = framesByWidth.get(0);
+            if (fullSizeFrame == null && keyFrame) {
+                long encodeStart = System.nanoTime();
+                fullSizeFrame = encoder.encode(decoder.image(0));
+                encodeTimer.record(System.nanoTime() - encodeStart, TimeUnit.NANOSECONDS);
+            }
+            if (fullSizeFrame != null) {
+                recentFrames.set(nextSlot, new CapturedFrame(fullSizeFrame, capturedAtMillis));
+                nextSlot = (nextSlot + 1) % RECENT_FRAMES;
+            } else if (!framesByWidth.isEmpty()) {
+                latestScaledFrame = new CapturedFrame(framesByWidth.get(Collections.max(framesByWidth.keySet())), capturedAtMillis);
+            }
+        }
+    }
+
+    private static class Subscriber {
+        private final StreamProfile profile;
+        // At most one of the two is set, neither for subscribers that only keep the capture running
+        private final Consumer<byte[]> frameConsumer;
+        private final Consumer<BufferedImage> imageConsumer;
+
+        Subscriber(StreamProfile profile, Consumer<byte[]> frameConsumer, Consumer<BufferedImage> imageConsumer) {
+            this.profile = profile;
+            this.frameConsumer = frameConsumer;
+            this.imageConsumer = imageConsumer;
+        }
+    }
+
+    /**
+     * Encodes frames to JPEG with one image writer and one growable buffer per capture loop. Only the final
+     * frame bytes are copied out, once per frame, and shared by all subscribers.
+     */
+    private static class JpegEncoder {
+
+        private final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * 1024);
+
+        byte[] encode(BufferedImage image) throws IOException {
+            buffer.reset();
+            try (ImageOutputStream output = new MemoryCacheImageOutputStream(buffer)) {
+                writer.setOutput(output);
+                writer.write(image);
+            }
+            return buffer.toByteArray();
+        }
+
+        void dispose() {
+            writer.dispose();
+        }
     }
-}
\ No newline at end of file
+}
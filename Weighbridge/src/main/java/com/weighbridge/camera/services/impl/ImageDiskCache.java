@@ -0,0 +1,292 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.camera.services.ImageStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Local disk cache of the images in a remote image store, keyed by the stored path. Uploaded images never change,
+ * so cached files are never revalidated. The cache is filled when an image is uploaded and when it is first read,
+ * and the least recently used files are deleted once the total size exceeds the limit.
+ *
+ * Hits and misses are counted in the image.cache.requests counter, tagged by result.
+ */
+@Slf4j
+@Component
+public class ImageDiskCache {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Value("${weighbridge.image-cache.directory:${java.io.tmpdir}/weighbridge-image-cache}")
+    private String directory;
+
+    @Value("${weighbridge.image-cache.max-size:2GB}")
+    private DataSize maxSize;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Path cacheDirectory;
+    private Counter hits;
+    private Counter misses;
+
+    // Cached file sizes by file name, least recently used first. Guarded by this.
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    @PostConstruct
+    public void start() throws IOException {
+        cacheDirectory = Files.createDirectories(Paths.get(directory));
+        hits = Counter.builder("image.cache.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("image.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("image.cache.size", this, ImageDiskCache::getTotalBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        loadEntries();
+    }
+
+    /**
+     * Opens the cached copy of an image, downloading it from the image store first if it is not cached.
+     * Images of a local store are opened in place. The channel stays readable even if the file is evicted
+     * while it is open.
+     *
+     * @param path The path stored for the image.
+     * @throws FileNotFoundException If the image does not exist in the image store.
+     */
+    public FileChannel open(String path) throws IOException {
+        return open(path, locate(path));
+    }
+
+    /**
+     * Makes sure an image is cached without opening it, downloading it from the image store if it is not cached,
+     * so a response can be answered with its size before its content is read.
+     *
+     * @param path The path stored for the image.
+     * @return The cached copy, or the image itself for a local store. The copy may be evicted before it is read,
+     *         which {@link #copy(String, Path, OutputStream)} allows for.
+     * @throws FileNotFoundException If the image does not exist in the image store.
+     */
+    public Path locate(String path) throws IOException {
+        Path localFile = imageStore.localFile(path);
+        if (localFile != null) {
+            if (!Files.exists(localFile)) {
+                throw new FileNotFoundException("Image not found: " + path);
+            }
+            return localFile;
+        }
+        String fileName = fileName(path);
+        Path cachedFile = cacheDirectory.resolve(fileName);
+        if (touch(fileName)) {
+            if (Files.exists(cachedFile)) {
+                hits.increment();
+                return cachedFile;
+            }
+            // Deleted outside the cache, treated as not cached
+            forget(fileName);
+        }
+        misses.increment();
+        download(path, fileName);
+        return cachedFile;
+    }
+
+    /**
+     * @return The cached copy of an image, or null if it is not cached.
+     */
+    public FileChannel openIfCached(String path) throws IOException {
+        String fileName = fileName(path);
+        if (touch(fileName)) {
+            try {
+                FileChannel channel = FileChannel.open(cacheDirectory.resolve(fileName), StandardOpenOption.READ);
+                hits.increment();
+                return channel;
+            } catch (NoSuchFileException e) {
+                // Deleted outside the cache, treated as not cached
+                forget(fileName);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * @return The content of the cached copy of an image, or null if it is not cached.
+     */
+    public byte[] readIfCached(String path) throws IOException {
+        FileChannel channel = openIfCached(path);
+        if (channel == null) {
+            return null;
+        }
+        try (channel) {
+            ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+            while (content.hasRemaining() && channel.read(content) >= 0) {
+                // Reads until the buffer is full
+            }
+            return content.array();
+        }
+    }
+
+    /**
+     * Caches an image that was just uploaded. Images of a local store are not cached.
+     */
+    public void put(String path, byte[] content) throws IOException {
+        if (imageStore.localFile(path) != null) {
+            return;
+        }
+        store(fileName(path), new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Copies an image found by {@link #locate} to a response stream. A cached copy evicted since it was located is
+     * downloaded again.
+     */
+    public void copy(String path, Path file, OutputStream outputStream) throws IOException {
+        copy(open(path, file), outputStream);
+    }
+
+    /**
+     * Copies a channel opened by {@link #open} to a response stream and closes the channel. A servlet response is
+     * a stream, so the content is copied through one heap buffer rather than sent from the file by the kernel.
+     */
+    public static void copy(FileChannel channel, OutputStream outputStream) throws IOException {
+        try (channel) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                outputStream.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private FileChannel open(String path, Path file) throws IOException {
+        try {
+            return FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            if (imageStore.localFile(path) != null) {
+                throw new FileNotFoundException("Image not found: " + path);
+            }
+            // Evicted since it was located
+            download(path, fileName(path));
+            return FileChannel.open(file, StandardOpenOption.READ);
+        }
+    }
+
+    private void download(String path, String fileName) throws IOException {
+        try (InputStream content = imageStore.get(path)) {
+            store(fileName, content);
+        }
+    }
+
+    private void store(String fileName, InputStream content) throws IOException {
+        // Written to a temporary file first, so readers never see a partial image
+        Path temporaryFile = Files.createTempFile(cacheDirectory, "download-", ".tmp");
+        try {
+            long size = Files.copy(content, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporaryFile, cacheDirectory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            added(fileName, size);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * @return Whether the file is cached, marking it as the most recently used.
+     */
+    private synchronized boolean touch(String fileName) {
+        return entries.get(fileName) != null;
+    }
+
+    private synchronized void forget(String fileName) {
+        Long size = entries.remove(fileName);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    private synchronized void added(String fileName, long size) {
+        Long previousSize = entries.put(fileName, size);
+        totalBytes += size - (previousSize != null ? previousSize : 0);
+        Iterator<Map.Entry<String, Long>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (totalBytes > maxSize.toBytes() && leastRecentlyUsed.hasNext()) {
+            Map.Entry<String, Long> entry = leastRecentlyUsed.next();
+            if (entry.getKey().equals(fileName)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(cacheDirectory.resolve(entry.getKey()));
+            } catch (IOException e) {
+                log.warn("Failed to evict cached image {}: {}", entry.getKey(), e.getMessage());
+            }
+            totalBytes -= entry.getValue();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the files left by the previous run, oldest first.
+     */
+    private void loadEntries() throws IOException {
+        List<Map.Entry<String, BasicFileAttributes>> cachedFiles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else {
+                    cachedFiles.add(Map.entry(file.getFileName().toString(), Files.readAttributes(file, BasicFileAttributes.class)));
+                }
+            }
+        }
+        cachedFiles.sort(Comparator.comparing(cachedFile -> cachedFile.getValue().lastModifiedTime()));
+        cachedFiles.forEach(cachedFile -> added(cachedFile.getKey(), cachedFile.getValue().size()));
+        log.info("Image cache {} holds {} files, {} bytes", cacheDirectory, cachedFiles.size(), getTotalBytes());
+    }
+
+    private static String fileName(String path) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(path.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + ".jpg";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.camera.entites.CameraView;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.entites.ImageSize;
+import com.weighbridge.camera.entites.ImageUploadStatus;
+import com.weighbridge.camera.repositories.CameraRepository;
+import com.weighbridge.camera.services.ImageStore;
+import com.weighbridge.camera.services.ImageUploadService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Uploads camera view images to the image store, and writes them through to the local image cache, on a fixed
+ * number of worker threads fed by a bounded queue. Each image is a separate task, so the images of one ticket
+ * are uploaded in parallel. Images are stored under their SHA-256, so identical images are uploaded once and client
+ * file names cannot collide. Once an image is uploaded, its medium and thumbnail sizes are generated and uploaded on
+ * a separate bounded pool.
+ *
+ * Images are written to a spool directory before {@link #submit} returns and deleted from it once uploaded, so they
+ * survive a full queue, an unreachable store and a restart. A failed attempt, or one the full queue rejects, is
+ * rescheduled with exponential backoff instead of holding a worker. After the last attempt the image is marked as
+ * failed and stays spooled, and the spool is re-driven at startup and then periodically.
+ */
+@Slf4j
+@Service
+public class ImageUploadServiceImpl implements ImageUploadService {
+
+    private static final String SPOOL_TEMPORARY_SUFFIX = ".part";
+
+    @Value("${weighbridge.image-upload.concurrency:4}")
+    private int concurrency;
+
+    @Value("${weighbridge.image-upload.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${weighbridge.image-upload.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${weighbridge.image-upload.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${weighbridge.image-upload.max-backoff:1m}")
+    private Duration maxBackoff;
+
+    @Value("${weighbridge.image-upload.folder:images}")
+    private String storeFolder;
+
+    @Value("${weighbridge.image-upload.spool-directory:${user.home}/weighbridge-image-spool}")
+    private String spoolDirectory;
+
+    @Value("${weighbridge.image-upload.redrive-interval:10m}")
+    private Duration redriveInterval;
+
+    @Value("${weighbridge.image-derivatives.concurrency:2}")
+    private int derivativeConcurrency;
+
+    @Value("${weighbridge.image-derivatives.queue-capacity:100}")
+    private int derivativeQueueCapacity;
+
+    @Autowired
+    private CameraRepository cameraRepository;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageDiskCache imageDiskCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Path spool;
+    private ThreadPoolExecutor executor;
+    // Scales uploaded images down, separate from the uploads so previews never delay the originals
+    private ThreadPoolExecutor derivativeExecutor;
+    // Runs the backoff delays and the re-drives, the attempts themselves run on the executors
+    private ScheduledExecutorService retryScheduler;
+    // Spool keys of the images that are being saved or have an attempt queued, running or scheduled
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() throws IOException {
+        spool = Files.createDirectories(Paths.get(spoolDirectory));
+        executor = newExecutor("image-upload-", concurrency, queueCapacity);
+        derivativeExecutor = newExecutor("image-derivative-", derivativeConcurrency, derivativeQueueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-upload-retry-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ThreadPoolExecutor newExecutor(String threadNamePrefix, int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Re-drives the images left in the spool by the previous run once the application is up, and then every
+     * redrive interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRedrive() {
+        retryScheduler.scheduleWithFixedDelay(this::redrive, 0, redriveInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Scheduled retries are dropped, their images are still spooled
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        derivativeExecutor.shutdownNow();
+    }
+
+    @Override
+    public void submit(Long cameraViewId, List<PendingImage> images) throws IOException {
+        if (images.isEmpty()) {
+            return;
+        }
+        List<SpooledImage> spooledImages = new ArrayList<>();
+        try {
+            for (PendingImage image : images) {
+                spooledImages.add(spool(cameraViewId, image));
+            }
+        } catch (IOException e) {
+            spooledImages.forEach(this::discard);
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The worker reads the camera view back, so it must not start before the row is committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        spooledImages.forEach(image -> dispatch(image, 1));
+                    } else {
+                        spooledImages.forEach(ImageUploadServiceImpl.this::discard);
+                    }
+                }
+            });
+        } else {
+            spooledImages.forEach(image -> dispatch(image, 1));
+        }
+    }
+
+    /**
+     * Writes the image to the spool under a name made of the camera view id and the angle, e.g. 42-FRONT.jpg. The
+     * image is written to a temporary file first, so a crash never leaves a partial image to upload.
+     */
+    private SpooledImage spool(Long cameraViewId, PendingImage image) throws IOException {
+        String key = spoolKey(cameraViewId, image.getAngle());
+        inFlight.add(key);
+        Path file = spool.resolve(key + "." + extension(image.getFileName()));
+        Path temporaryFile = spool.resolve(file.getFileName() + SPOOL_TEMPORARY_SUFFIX);
+        try {
+            Files.write(temporaryFile, image.getContent());
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            inFlight.remove(key);
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        return new SpooledImage(cameraViewId, image.getAngle(), file);
+    }
+
+    private void discard(SpooledImage image) {
+        try {
+            Files.deleteIfExists(image.file);
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled image {}: {}", image.file, e.getMessage());
+        }
+        inFlight.remove(image.key());
+    }
+
+    private void dispatch(SpooledImage image, int attempt) {
+        try {
+            executor.execute(() -> upload(image, attempt));
+        } catch (RejectedExecutionException e) {
+            log.warn("Image upload queue is full, {} is not uploaded (attempt {} of {})", image.file.getFileName(), attempt, maxAttempts);
+            retryLater(image, attempt);
+        }
+    }
+
+    private void upload(SpooledImage image, int attempt) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(image.file);
+        } catch (NoSuchFileException e) {
+            log.warn("Spooled image {} is gone, camera view {} keeps its upload state", image.file.getFileName(), image.cameraViewId);
+            inFlight.remove(image.key());
+            return;
+        } catch (IOException e) {
+            log.warn("Failed to read spooled image {} (attempt {} of {}): {}", image.file.getFileName(), attempt, maxAttempts, e.getMessage());
+            retryLater(image, attempt);
+            return;
+        }
+        String hash = sha256(content);
+        String fileName = image.file.getFileName().toString();
+        String path;
+        try {
+            path = store(contentPath(hash, fileName), content);
+        } catch (IOException e) {
+            log.warn("Upload of {} failed (attempt {} of {}): {}", fileName, attempt, maxAttempts, e.getMessage());
+            retryLater(image, attempt);
+            return;
+        }
+        cache(path, fileName, content);
+        record(image.cameraViewId, image.angle, hash, path, ImageUploadStatus.UPLOADED);
+        discard(image);
+        enqueueDerivatives(image.cameraViewId, new PendingImage(image.angle, fileName, content));
+    }
+
+    private void retryLater(SpooledImage image, int attempt) {
+        if (attempt >= maxAttempts) {
+            // The image stays spooled for the next re-drive
+            log.error("Giving up upload of {} after {} attempts until the next re-drive", image.file.getFileName(), maxAttempts);
+            record(image.cameraViewId, image.angle, null, null, ImageUploadStatus.FAILED);
+            inFlight.remove(image.key());
+            return;
+        }
+        schedule(() -> dispatch(image, attempt + 1), attempt, () -> inFlight.remove(image.key()));
+    }
+
+    /**
+     * Runs the task after the backoff of the given attempt, or the fallback if the service is stopping.
+     */
+    private void schedule(Runnable task, int attempt, Runnable fallback) {
+        try {
+            retryScheduler.schedule(task, backoff(attempt), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            fallback.run();
+        }
+    }
+
+    private long backoff(int attempt) {
+        long backoff = initialBackoff.toMillis() << Math.min(attempt - 1, 30);
+        return Math.min(backoff, maxBackoff.toMillis());
+    }
+
+    /**
+     * Queues the images in the spool whose camera view still has them pending or failed, deletes the ones that are
+     * uploaded or whose camera view no longer exists, and marks pending images that are not spooled as failed, e.g.
+     * images queued before a restart by a version that kept them in memory only.
+     *
+     * The spool is listed before the camera views are read, and an upload records its result before it deletes its
+     * spooled image, so an image that is uploaded meanwhile is never marked as failed.
+     */
+    void redrive() {
+        try {
+            Map<String, Path> spooledFiles = new HashMap<>();
+            try (Stream<Path> files = Files.list(spool)) {
+                files.forEach(file -> {
+                    String name = file.getFileName().toString();
+                    if (!name.endsWith(SPOOL_TEMPORARY_SUFFIX)) {
+                        spooledFiles.put(name.substring(0, name.indexOf('.') < 0 ? name.length() : name.indexOf('.')), file);
+                    }
+                });
+            }
+            int queued = 0;
+            for (CameraView cameraView : cameraRepository.findByAnyImageStatusIn(EnumSet.of(ImageUploadStatus.PENDING, ImageUploadStatus.FAILED))) {
+                for (ImageAngle angle : ImageAngle.values()) {
+                    ImageUploadStatus status = angle.getStatus(cameraView);
+                    if (status != ImageUploadStatus.PENDING && status != ImageUploadStatus.FAILED) {
+                        continue;
+                    }
+                    String key = spoolKey(cameraView.getId(), angle);
+                    Path file = spooledFiles.remove(key);
+                    if (!inFlight.add(key)) {
+                        continue;
+                    }
+                    if (file != null) {
+                        dispatch(new SpooledImage(cameraView.getId(), angle, file), 1);
+                        queued++;
+                    } else {
+                        if (status == ImageUploadStatus.PENDING) {
+                            log.warn("Image {} of camera view {} was never spooled, it is marked as failed", angle.getKey(), cameraView.getId());
+                            record(cameraView.getId(), angle, null, null, ImageUploadStatus.FAILED);
+                        }
+                        inFlight.remove(key);
+                    }
+                }
+            }
+            // Left over from uploads that finished or camera views that were deleted
+            for (Map.Entry<String, Path> spooledFile : spooledFiles.entrySet()) {
+                if (!inFlight.contains(spooledFile.getKey())) {
+                    Files.deleteIfExists(spooledFile.getValue());
+                }
+            }
+            if (queued > 0) {
+                log.info("Re-driving {} spooled images", queued);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to re-drive the image spool: {}", e.getMessage());
+        }
+    }
+
+    private void enqueueDerivatives(Long cameraViewId, PendingImage image) {
+        try {
+            derivativeExecutor.execute(() -> {
+                for (ImageSize size : new ImageSize[]{ImageSize.MEDIUM, ImageSize.THUMBNAIL}) {
+                    uploadDerivative(cameraViewId, image, size);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Previews fall back to the original image
+            log.warn("Image derivative queue is full, {} of camera view {} has no previews", image.getFileName(), cameraViewId);
+        }
+    }
+
+    private void uploadDerivative(Long cameraViewId, PendingImage image, ImageSize size) {
+        byte[] scaled;
+        try {
+            scaled = ImageDerivatives.scale(image.getContent(), size.getMaxWidth());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to scale {} to {}: {}", image.getFileName(), size, e.getMessage());
+            return;
+        }
+        if (scaled == null) {
+            // The original is already small enough
+            return;
+        }
+        uploadDerivative(cameraViewId, new PendingImage(image.getAngle(), size.fileName(image.getFileName()), scaled), size, 1);
+    }
+
+    private void uploadDerivative(Long cameraViewId, PendingImage derivative, ImageSize size, int attempt) {
+        String path;
+        try {
+            path = store(contentPath(sha256(derivative.getContent()), derivative.getFileName()), derivative.getContent());
+        } catch (IOException e) {
+            log.warn("Upload of {} failed (attempt {} of {}): {}", derivative.getFileName(), attempt, maxAttempts, e.getMessage());
+            if (attempt < maxAttempts) {
+                // Derivatives are not spooled, a restart or a full queue leaves the image without previews
+                schedule(() -> {
+                    try {
+                        derivativeExecutor.execute(() -> uploadDerivative(cameraViewId, derivative, size, attempt + 1));
+                    } catch (RejectedExecutionException rejected) {
+                        log.warn("Image derivative queue is full, {} is dropped", derivative.getFileName());
+                    }
+                }, attempt, () -> { });
+            }
+            return;
+        }
+        cache(path, derivative.getFileName(), derivative.getContent());
+        recordDerivative(cameraViewId, derivative, size, path);
+    }
+
+    /**
+     * Stores the content under the given path. Content that is already stored, e.g. a retried request or an
+     * unchanged camera frame, is not uploaded again.
+     *
+     * @return The file URL.
+     */
+    private String store(String fileName, byte[] content) throws IOException {
+        if (imageStore.exists(fileName)) {
+            meterRegistry.counter("image.upload.deduplicated").increment();
+            return imageStore.location(fileName);
+        }
+        return imageStore.put(fileName, new ByteArrayInputStream(content), content.length);
+    }
+
+    private static String spoolKey(Long cameraViewId, ImageAngle angle) {
+        return cameraViewId + "-" + angle.name();
+    }
+
+    /**
+     * @return The path of an image in the store, e.g. images/3f/a2/3fa2...e1.jpg. The two levels of folders keep
+     *         the number of files per folder small.
+     */
+    private String contentPath(String hash, String originalFileName) {
+        return storeFolder + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + extension(originalFileName);
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName != null ? fileName.lastIndexOf('.') : -1;
+        if (dot >= 0 && fileName.substring(dot + 1).matches("[A-Za-z0-9]{1,5}")) {
+            return fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        }
+        return "jpg";
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void cache(String url, String fileName, byte[] content) {
+        // The image is usually viewed soon after the weighment, so it is kept locally as well
+        try {
+            imageDiskCache.put(url, content);
+        } catch (IOException e) {
+            log.warn("Failed to cache uploaded image {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    private synchronized void record(Long cameraViewId, ImageAngle angle, String hash, String path, ImageUploadStatus status) {
+        // Images of the same camera view finish on different workers, so the read-modify-write is serialized
+        CameraView cameraView = cameraRepository.findById(cameraViewId).orElse(null);
+        if (cameraView == null) {
+            log.warn("Camera view {} no longer exists, upload result of {} is dropped", cameraViewId, angle.getKey());
+            return;
+        }
+        angle.setPath(cameraView, path);
+        angle.setHash(cameraView, hash);
+        angle.setStatus(cameraView, status);
+        cameraRepository.save(cameraView);
+    }
+
+    private synchronized void recordDerivative(Long cameraViewId, PendingImage derivative, ImageSize size, String path) {
+        CameraView cameraView = cameraRepository.findById(cameraViewId).orElse(null);
+        if (cameraView == null) {
+            log.warn("Camera view {} no longer exists, {} is dropped", cameraViewId, derivative.getFileName());
+            return;
+        }
+        derivative.getAngle().setPath(cameraView, size, path);
+        cameraRepository.save(cameraView);
+    }
+
+    private static class SpooledImage {
+        private final Long cameraViewId;
+        private final ImageAngle angle;
+        private final Path file;
+
+        SpooledImage(Long cameraViewId, ImageAngle angle, Path file) {
+            this.cameraViewId = cameraViewId;
+            this.angle = angle;
+            this.file = file;
+        }
+
+        String key() {
+            return spoolKey(cameraViewId, angle);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.camera.services.ImageStore;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores the images in a folder on this host, for single-site installations without Nextcloud. Locations are
+ * the names relative to the folder. Files are written through a channel and read through a memory mapping,
+ * so reading an image does not copy it onto the heap.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "weighbridge.image-store.type", havingValue = "local")
+public class LocalImageStore implements ImageStore {
+
+    @Value("${weighbridge.image-store.local.directory:${user.home}/weighbridge-images}")
+    private String directory;
+
+    private Path root;
+
+    @PostConstruct
+    public void start() throws IOException {
+        root = Files.createDirectories(Paths.get(directory)).toAbsolutePath().normalize();
+        log.info("Storing images in {}", root);
+    }
+
+    @Override
+    public String put(String name, InputStream content, long length) throws IOException {
+        Path file = resolve(name);
+        Files.createDirectories(file.getParent());
+        // Written to a temporary file first, so readers never see a partial image
+        Path temporaryFile = Files.createTempFile(file.getParent(), "upload-", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(content)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = channel.transferFrom(source, position, 64 * 1024)) > 0) {
+                    position += transferred;
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        return name;
+    }
+
+    @Override
+    public String location(String name) {
+        return name;
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return Files.isRegularFile(resolve(name));
+    }
+
+    @Override
+    public InputStream get(String location) throws IOException {
+        MappedByteBuffer mapping;
+        try (FileChannel channel = FileChannel.open(resolve(location), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("Image not found: " + location);
+        }
+        return new ByteBufferInputStream(mapping);
+    }
+
+    @Override
+    public void delete(String location) throws IOException {
+        Files.deleteIfExists(resolve(location));
+    }
+
+    @Override
+    public Map<String, byte[]> getAll(Map<String, String> locations) {
+        Map<String, byte[]> files = new HashMap<>();
+        locations.forEach((key, location) -> {
+            try (InputStream content = get(location)) {
+                files.put(key, content.readAllBytes());
+            } catch (IOException e) {
+                log.warn("Read of {} failed: {}", key, e.getMessage());
+            }
+        });
+        return files;
+    }
+
+    @Override
+    public Path localFile(String location) {
+        return resolve(location);
+    }
+
+    private Path resolve(String name) {
+        Path file = root.resolve(name).normalize();
+        if (!file.startsWith(root)) {
+            throw new IllegalArgumentException("Image name outside the image folder: " + name);
+        }
+        return file;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.camera.services.ImageStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Stores the images in Nextcloud over WebDAV. Locations are the file URLs.
+ */
+@Component
+@ConditionalOnProperty(name = "weighbridge.image-store.type", havingValue = "nextcloud", matchIfMissing = true)
+public class NextcloudImageStore implements ImageStore {
+
+    @Autowired
+    private NextcloudWebDavClient webDavClient;
+
+    @Override
+    public String put(String name, InputStream content, long length) throws IOException {
+        return webDavClient.put(name, content, length);
+    }
+
+    @Override
+    public String location(String name) {
+        return webDavClient.fileUrl(name);
+    }
+
+    @Override
+    public boolean exists(String name) throws IOException {
+        return webDavClient.exists(name);
+    }
+
+    @Override
+    public InputStream get(String location) throws IOException {
+        NextcloudWebDavClient.RemoteFile remoteFile = webDavClient.open(location);
+        // Closing the stream releases the pooled connection
+        return new FilterInputStream(remoteFile.getContent()) {
+            @Override
+            public void close() throws IOException {
+                remoteFile.close();
+            }
+        };
+    }
+
+    @Override
+    public void delete(String location) throws IOException {
+        webDavClient.delete(location);
+    }
+
+    @Override
+    public Map<String, byte[]> getAll(Map<String, String> locations) {
+        return webDavClient.getAll(locations);
+    }
+}
@@ -0,0 +1,370 @@
+package com.weighbridge.camera.services.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared WebDAV client for the Nextcloud image store.
+ *
+ * All requests go through one pooled, keep-alive HTTP client with the Basic auth header encoded once.
+ * The latency of each request is recorded in the webdav.requests timer, tagged by operation and response status.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "weighbridge.image-store.type", havingValue = "nextcloud", matchIfMissing = true)
+public class NextcloudWebDavClient {
+
+    private static final String METRIC_NAME = "webdav.requests";
+
+    @Value("${nextcloud.base-url}")
+    private String baseUrl;
+
+    @Value("${nextcloud.username}")
+    private String username;
+
+    @Value("${nextcloud.password}")
+    private String password;
+
+    @Value("${weighbridge.webdav.max-connections:24}")
+    private int maxConnections;
+
+    @Value("${weighbridge.webdav.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    @Value("${weighbridge.webdav.socket-timeout:30s}")
+    private Duration socketTimeout;
+
+    @Value("${weighbridge.webdav.connection-request-timeout:10s}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${weighbridge.webdav.idle-timeout:60s}")
+    private Duration idleTimeout;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Folders known to exist, so each is only created once per run
+    private final Set<String> createdFolders = ConcurrentHashMap.newKeySet();
+    private String authorization;
+    private CloseableHttpClient httpClient;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        // All requests go to the one Nextcloud host
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) socketTimeout.toMillis())
+                .setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis())
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(maxConnections, runnable -> {
+            Thread thread = new Thread(runnable, "webdav-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        executor.shutdownNow();
+        httpClient.close();
+    }
+
+    /**
+     * @param fileName The name of the file in the user's Nextcloud folder.
+     * @return The URL the file is stored at.
+     */
+    public String fileUrl(String fileName) {
+        return baseUrl + "/remote.php/dav/files/" + username + "/" + fileName;
+    }
+
+    /**
+     * @param fileName The name of the file in the user's Nextcloud folder.
+     * @return Whether the file exists, checked with a HEAD request.
+     */
+    public boolean exists(String fileName) throws IOException {
+        int statusCode = execute("head", new HttpHead(fileUrl(fileName)), response -> response.getStatusLine().getStatusCode());
+        if (statusCode == 200) {
+            return true;
+        }
+        if (statusCode == 404) {
+            return false;
+        }
+        throw new IOException("Failed to check file in Nextcloud. Status code: " + statusCode);
+    }
+
+    /**
+     * Uploads a file. The content is streamed to Nextcloud as it is read.
+     * Missing parent folders of the file name are created first.
+     *
+     * @param fileName The name of the file in the user's Nextcloud folder.
+     * @param content  The file content, not closed by this method.
+     * @param length   The content length in bytes, or -1 if unknown.
+     * @return The URL the file was stored at.
+     */
+    public String put(String fileName, InputStream content, long length) throws IOException {
+        createFolders(fileName);
+        String url = fileUrl(fileName);
+        HttpPut httpPut = new HttpPut(url);
+        httpPut.setEntity(new InputStreamEntity(content, length, ContentType.APPLICATION_OCTET_STREAM));
+        int statusCode = execute("put", httpPut, response -> {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        });
+        if (statusCode != 201 && statusCode != 200 && statusCode != 204) {
+            throw new IOException("Failed to upload file to Nextcloud. Status code: " + statusCode);
+        }
+        return url;
+    }
+
+    private void createFolders(String fileName) throws IOException {
+        int end = fileName.indexOf('/');
+        while (end > 0) {
+            String folder = fileName.substring(0, end);
+            if (!createdFolders.contains(folder)) {
+                int statusCode = execute("mkcol", new HttpMkcol(fileUrl(folder)), response -> {
+                    EntityUtils.consume(response.getEntity());
+                    return response.getStatusLine().getStatusCode();
+                });
+                // 405 means the folder already exists
+                if (statusCode != 201 && statusCode != 405) {
+                    throw new IOException("Failed to create folder " + folder + " in Nextcloud. Status code: " + statusCode);
+                }
+                createdFolders.add(folder);
+            }
+            end = fileName.indexOf('/', end + 1);
+        }
+    }
+
+    /**
+     * Downloads a file.
+     *
+     * @param url The URL returned by {@link #put}.
+     * @return The file content.
+     */
+    public byte[] get(String url) throws IOException {
+        HttpGet httpGet = new HttpGet(url);
+        return execute("get", httpGet, response -> {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode != 200) {
+                EntityUtils.consume(response.getEntity());
+                throw new IOException("Failed to download file from Nextcloud. Status code: " + statusCode);
+            }
+            return EntityUtils.toByteArray(response.getEntity());
+        });
+    }
+
+    /**
+     * Deletes a file. A file that does not exist is ignored.
+     *
+     * @param url The URL returned by {@link #put}.
+     */
+    public void delete(String url) throws IOException {
+        int statusCode = execute("delete", new HttpDelete(url), response -> {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        });
+        if (statusCode != 204 && statusCode != 200 && statusCode != 404) {
+            throw new IOException("Failed to delete file from Nextcloud. Status code: " + statusCode);
+        }
+    }
+
+    /**
+     * Opens a file for streaming. The connection stays leased from the pool until the returned file is closed.
+     *
+     * @param url The URL returned by {@link #put}.
+     * @throws FileNotFoundException If the file does not exist.
+     */
+    public RemoteFile open(String url) throws IOException {
+        HttpGet httpGet = new HttpGet(url);
+        httpGet.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+        long start = System.nanoTime();
+        String outcome = "error";
+        CloseableHttpResponse response = httpClient.execute(httpGet);
+        try {
+            int statusCode = response.getStatusLine().getStatusCode();
+            outcome = String.valueOf(statusCode);
+            if (statusCode == 404) {
+                throw new FileNotFoundException("File not found in Nextcloud: " + url);
+            }
+            if (statusCode != 200) {
+                throw new IOException("Failed to download file from Nextcloud. Status code: " + statusCode);
+            }
+            HttpEntity entity = response.getEntity();
+            String contentType = entity.getContentType() != null ? entity.getContentType().getValue() : null;
+            RemoteFile remoteFile = new RemoteFile(response, entity.getContent(), entity.getContentLength(), contentType);
+            response = null;
+            return remoteFile;
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+            // Measures the time to the response headers, the body is read by the caller
+            record("open", outcome, start);
+        }
+    }
+
+    /**
+     * Downloads several files in parallel.
+     *
+     * @param urls The URLs to download, by key.
+     * @return The content of each file that could be downloaded, by key. Failed downloads are left out.
+     */
+    public Map<String, byte[]> getAll(Map<String, String> urls) {
+        Map<String, CompletableFuture<byte[]>> downloads = new HashMap<>();
+        urls.forEach((key, url) -> downloads.put(key, CompletableFuture.supplyAsync(() -> {
+            try {
+                return get(url);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor)));
+
+        Map<String, byte[]> files = new HashMap<>();
+        downloads.forEach((key, download) -> {
+            try {
+                files.put(key, download.join());
+            } catch (CompletionException e) {
+                log.warn("Download of {} failed: {}", key, e.getCause().getMessage());
+            }
+        });
+        return files;
+    }
+
+    private <T> T execute(String operation, HttpRequestBase request, ResponseHandler<T> handler) throws IOException {
+        request.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+        long start = System.nanoTime();
+        String outcome = "error";
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            outcome = String.valueOf(response.getStatusLine().getStatusCode());
+            return handler.handle(response);
+        } finally {
+            record(operation, outcome, start);
+        }
+    }
+
+    private void record(String operation, String outcome, long start) {
+        Timer.builder(METRIC_NAME)
+                .tag("operation", operation)
+                .tag("status", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A file being downloaded. Closing it releases the pooled connection.
+     */
+    public static class RemoteFile implements Closeable {
+
+        private final CloseableHttpResponse response;
+        private final InputStream content;
+        private final long contentLength;
+        private final String contentType;
+
+        RemoteFile(CloseableHttpResponse response, InputStream content, long contentLength, String contentType) {
+            this.response = response;
+            this.content = content;
+            this.contentLength = contentLength;
+            this.contentType = contentType;
+        }
+
+        public InputStream getContent() {
+            return content;
+        }
+
+        /**
+         * @return The content length in bytes, or -1 if unknown.
+         */
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        /**
+         * @return The content type sent by Nextcloud, or null.
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.close();
+        }
+    }
+
+    private static class HttpMkcol extends HttpRequestBase {
+
+        HttpMkcol(String url) {
+            setURI(URI.create(url));
+        }
+
+        @Override
+        public String getMethod() {
+            return "MKCOL";
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResponseHandler<T> {
+        T handle(CloseableHttpResponse response) throws IOException;
+    }
+}
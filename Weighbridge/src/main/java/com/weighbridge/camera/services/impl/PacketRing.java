@@ -0,0 +1,220 @@
+package com.weighbridge.camera.services.impl;
+
+import org.bytedeco.ffmpeg.avcodec.AVCodecParameters;
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.avformat.AVFormatContext;
+import org.bytedeco.ffmpeg.avformat.AVStream;
+import org.bytedeco.ffmpeg.avutil.AVRational;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.bytedeco.ffmpeg.global.avcodec.AV_PKT_FLAG_KEY;
+import static org.bytedeco.ffmpeg.global.avcodec.av_packet_clone;
+import static org.bytedeco.ffmpeg.global.avcodec.av_packet_free;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_parameters_alloc;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_parameters_copy;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_parameters_free;
+import static org.bytedeco.ffmpeg.global.avformat.avformat_alloc_context;
+import static org.bytedeco.ffmpeg.global.avformat.avformat_free_context;
+import static org.bytedeco.ffmpeg.global.avformat.avformat_new_stream;
+import static org.bytedeco.ffmpeg.global.avutil.AV_NOPTS_VALUE;
+
+/**
+ * The most recent encoded video packets of one camera, bounded in bytes and in duration. Packets are kept as
+ * reference counted clones of what the camera sent, so buffering copies no video data and a clip is written
+ * without re-encoding. The ring starts over when the camera reconnects, as the timestamps of a new connection
+ * do not continue the old ones.
+ */
+class PacketRing implements AutoCloseable {
+
+    private final long maxBytes;
+    private final long maxDurationMillis;
+
+    // Guarded by this
+    private final Deque<BufferedPacket> packets = new ArrayDeque<>();
+    private long totalBytes;
+    private AVCodecParameters codecParameters;
+    private AVRational timeBase;
+
+    PacketRing(long maxBytes, long maxDurationMillis) {
+        this.maxBytes = maxBytes;
+        this.maxDurationMillis = maxDurationMillis;
+    }
+
+    /**
+     * Drops the buffered packets and takes the codec parameters of a newly connected stream.
+     */
+    synchronized void reset(AVStream stream) {
+        clear();
+        codecParameters = avcodec_parameters_alloc();
+        avcodec_parameters_copy(codecParameters, stream.codecpar());
+        timeBase = new AVRational().num(stream.time_base().num()).den(stream.time_base().den());
+    }
+
+    /**
+     * Adds a packet of the stream, then drops the oldest packets over the limits. Only whole groups of pictures
+     * are dropped, so the ring always starts with a key frame.
+     *
+     * @param packet       The packet, cloned and left to the caller.
+     * @param arrivalMillis When the packet was received, in epoch milliseconds.
+     */
+    synchronized void add(AVPacket packet, long arrivalMillis) {
+        boolean keyFrame = (packet.flags() & AV_PKT_FLAG_KEY) != 0;
+        if (codecParameters == null || (packets.isEmpty() && !keyFrame)) {
+            // Nothing before the first key frame can be decoded
+            return;
+        }
+        AVPacket clone = av_packet_clone(packet);
+        clone.stream_index(0);
+        packets.addLast(new BufferedPacket(clone, arrivalMillis, keyFrame));
+        totalBytes += clone.size();
+        while (totalBytes > maxBytes || arrivalMillis - packets.getFirst().arrivalMillis > maxDurationMillis) {
+            if (!dropFirstGroup()) {
+                break;
+            }
+        }
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Writes the packets received in a time window to an MP4 file. The clip starts at the key frame before the
+     * window. The packets are cloned under the lock and written after it, so the capture loop is never held up
+     * by the file.
+     *
+     * @return Whether the ring held any packets in the window.
+     */
+    boolean writeClip(long fromMillis, long toMillis, Path target) throws IOException {
+        List<AVPacket> clip = new ArrayList<>();
+        AVCodecParameters clipParameters;
+        AVRational clipTimeBase;
+        synchronized (this) {
+            if (codecParameters == null) {
+                return false;
+            }
+            List<BufferedPacket> window = new ArrayList<>();
+            for (BufferedPacket buffered : packets) {
+                if (buffered.arrivalMillis > toMillis) {
+                    break;
+                }
+                if (buffered.keyFrame && buffered.arrivalMillis <= fromMillis) {
+                    window.clear();
+                }
+                window.add(buffered);
+            }
+            if (window.isEmpty() || window.get(window.size() - 1).arrivalMillis < fromMillis) {
+                return false;
+            }
+            window.forEach(buffered -> clip.add(av_packet_clone(buffered.packet)));
+            clipParameters = avcodec_parameters_alloc();
+            avcodec_parameters_copy(clipParameters, codecParameters);
+            clipTimeBase = new AVRational().num(timeBase.num()).den(timeBase.den());
+        }
+        try {
+            mux(clip, clipParameters, clipTimeBase, target);
+            return true;
+        } finally {
+            clip.forEach(packet -> av_packet_free(packet));
+            avcodec_parameters_free(clipParameters);
+            clipTimeBase.close();
+        }
+    }
+
+    private static void mux(List<AVPacket> clip, AVCodecParameters parameters, AVRational timeBase, Path target) throws IOException {
+        // The recorder copies its output stream from an input context, which only needs to describe the stream
+        AVFormatContext input = avformat_alloc_context();
+        AVStream stream = avformat_new_stream(input, null);
+        avcodec_parameters_copy(stream.codecpar(), parameters);
+        stream.time_base(timeBase);
+        FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(target.toFile(), parameters.width(), parameters.height(), 0);
+        recorder.setFormat("mp4");
+        try {
+            recorder.start(input);
+            // The clip starts at time zero
+            long start = timestamp(clip.get(0));
+            for (AVPacket packet : clip) {
+                if (packet.pts() != AV_NOPTS_VALUE) {
+                    packet.pts(packet.pts() - start);
+                }
+                if (packet.dts() != AV_NOPTS_VALUE) {
+                    packet.dts(packet.dts() - start);
+                }
+                recorder.recordPacket(packet);
+            }
+            recorder.stop();
+        } finally {
+            recorder.release();
+            avformat_free_context(input);
+        }
+    }
+
+    private static long timestamp(AVPacket packet) {
+        return packet.dts() != AV_NOPTS_VALUE ? packet.dts() : packet.pts();
+    }
+
+    /**
+     * Drops the oldest key frame and the packets that depend on it.
+     *
+     * @return Whether anything was dropped. The last group of pictures is kept however large it is.
+     */
+    private boolean dropFirstGroup() {
+        Iterator<BufferedPacket> iterator = packets.iterator();
+        iterator.next();
+        boolean hasNextGroup = false;
+        while (iterator.hasNext()) {
+            if (iterator.next().keyFrame) {
+                hasNextGroup = true;
+                break;
+            }
+        }
+        if (!hasNextGroup) {
+            return false;
+        }
+        do {
+            BufferedPacket dropped = packets.removeFirst();
+            totalBytes -= dropped.packet.size();
+            av_packet_free(dropped.packet);
+        } while (!packets.getFirst().keyFrame);
+        return true;
+    }
+
+    private void clear() {
+        packets.forEach(buffered -> av_packet_free(buffered.packet));
+        packets.clear();
+        totalBytes = 0;
+        if (codecParameters != null) {
+            avcodec_parameters_free(codecParameters);
+            codecParameters = null;
+        }
+        if (timeBase != null) {
+            timeBase.close();
+            timeBase = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        clear();
+    }
+
+    private static class BufferedPacket {
+        private final AVPacket packet;
+        private final long arrivalMillis;
+        private final boolean keyFrame;
+
+        BufferedPacket(AVPacket packet, long arrivalMillis, boolean keyFrame) {
+            this.packet = packet;
+            this.arrivalMillis = arrivalMillis;
+            this.keyFrame = keyFrame;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.weighbridge.camera.services.impl;
+
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.MatVector;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.bytedeco.opencv.opencv_core.Size;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.bytedeco.opencv.global.opencv_core.CV_32F;
+import static org.bytedeco.opencv.global.opencv_core.CV_8U;
+import static org.bytedeco.opencv.global.opencv_core.NORM_MINMAX;
+import static org.bytedeco.opencv.global.opencv_core.convertScaleAbs;
+import static org.bytedeco.opencv.global.opencv_core.mean;
+import static org.bytedeco.opencv.global.opencv_core.noArray;
+import static org.bytedeco.opencv.global.opencv_core.normalize;
+import static org.bytedeco.opencv.global.opencv_imgproc.CHAIN_APPROX_SIMPLE;
+import static org.bytedeco.opencv.global.opencv_imgproc.GaussianBlur;
+import static org.bytedeco.opencv.global.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.opencv.global.opencv_imgproc.INTER_CUBIC;
+import static org.bytedeco.opencv.global.opencv_imgproc.MORPH_BLACKHAT;
+import static org.bytedeco.opencv.global.opencv_imgproc.MORPH_CLOSE;
+import static org.bytedeco.opencv.global.opencv_imgproc.MORPH_OPEN;
+import static org.bytedeco.opencv.global.opencv_imgproc.MORPH_RECT;
+import static org.bytedeco.opencv.global.opencv_imgproc.RETR_EXTERNAL;
+import static org.bytedeco.opencv.global.opencv_imgproc.Sobel;
+import static org.bytedeco.opencv.global.opencv_imgproc.THRESH_BINARY;
+import static org.bytedeco.opencv.global.opencv_imgproc.THRESH_BINARY_INV;
+import static org.bytedeco.opencv.global.opencv_imgproc.THRESH_OTSU;
+import static org.bytedeco.opencv.global.opencv_imgproc.boundingRect;
+import static org.bytedeco.opencv.global.opencv_imgproc.findContours;
+import static org.bytedeco.opencv.global.opencv_imgproc.getStructuringElement;
+import static org.bytedeco.opencv.global.opencv_imgproc.morphologyEx;
+import static org.bytedeco.opencv.global.opencv_imgproc.resize;
+import static org.bytedeco.opencv.global.opencv_imgproc.threshold;
+
+/**
+ * Finds the regions of a vehicle image that look like a number plate: a band of dense vertical edges from dark
+ * characters on a light background, with the proportions of a one or two line plate.
+ * Candidates are searched on a copy scaled down to {@link #SEARCH_WIDTH} and cut from the full size image.
+ */
+class PlateLocator {
+
+    static final int SEARCH_WIDTH = 800;
+    // Height plates are scaled to for OCR, about what Tesseract reads best
+    static final int PLATE_HEIGHT = 80;
+
+    // Proportions of the band of characters, which is longer than the plate itself
+    private static final double MIN_ASPECT_RATIO = 1.5;
+    private static final double MAX_ASPECT_RATIO = 10;
+    private static final double MIN_AREA_RATIO = 0.002;
+    private static final double MAX_AREA_RATIO = 0.15;
+
+    // Kernels sized for the search copy, in pixels
+    private static final Size TEXT_KERNEL = new Size(13, 5);
+    private static final Size PLATE_KERNEL = new Size(21, 5);
+    private static final Size NOISE_KERNEL = new Size(3, 3);
+    private static final Size EDGE_BLUR = new Size(5, 5);
+    private static final Size PLATE_BLUR = new Size(3, 3);
+
+    private final int maxCandidates;
+
+    PlateLocator(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * @param gray The vehicle image in grayscale.
+     * @return The plate candidates in the full size image, the most likely first.
+     */
+    List<Rect> locate(Mat gray) {
+        double scale = Math.min(1, (double) SEARCH_WIDTH / gray.cols());
+        List<Rect> candidates = new ArrayList<>();
+        try (Mat small = new Mat(); Mat blackHat = new Mat(); Mat gradient = new Mat(); Mat edges = new Mat();
+             Mat textKernel = getStructuringElement(MORPH_RECT, TEXT_KERNEL);
+             Mat plateKernel = getStructuringElement(MORPH_RECT, PLATE_KERNEL);
+             Mat noiseKernel = getStructuringElement(MORPH_RECT, NOISE_KERNEL);
+             MatVector contours = new MatVector(); Mat hierarchy = new Mat()) {
+            if (scale < 1) {
+                try (Size size = new Size((int) (gray.cols() * scale), (int) (gray.rows() * scale))) {
+                    resize(gray, small, size, 0, 0, INTER_AREA);
+                }
+            } else {
+                gray.copyTo(small);
+            }
+            // Dark characters on the light plate stand out of the black hat, the plate border and body do not
+            morphologyEx(small, blackHat, MORPH_BLACKHAT, textKernel);
+            Sobel(blackHat, gradient, CV_32F, 1, 0);
+            convertScaleAbs(gradient, edges);
+            normalize(edges, edges, 0, 255, NORM_MINMAX, CV_8U, noArray());
+            // Joins the characters of a line into one band
+            GaussianBlur(edges, edges, EDGE_BLUR, 0);
+            morphologyEx(edges, edges, MORPH_CLOSE, plateKernel);
+            threshold(edges, edges, 0, 255, THRESH_BINARY | THRESH_OTSU);
+            morphologyEx(edges, edges, MORPH_OPEN, noiseKernel);
+
+            findContours(edges, contours, hierarchy, RETR_EXTERNAL, CHAIN_APPROX_SIMPLE);
+            double imageArea = (double) small.cols() * small.rows();
+            for (long i = 0; i < contours.size(); i++) {
+                Rect box = boundingRect(contours.get(i));
+                double aspectRatio = (double) box.width() / box.height();
+                double areaRatio = box.area() / imageArea;
+                if (aspectRatio >= MIN_ASPECT_RATIO && aspectRatio <= MAX_ASPECT_RATIO
+                        && areaRatio >= MIN_AREA_RATIO && areaRatio <= MAX_AREA_RATIO) {
+                    candidates.add(toFullSize(box, scale, gray));
+                }
+                box.close();
+            }
+        }
+        candidates.sort(Comparator.comparingInt(Rect::area).reversed());
+        return candidates.size() > maxCandidates ? new ArrayList<>(candidates.subList(0, maxCandidates)) : candidates;
+    }
+
+    /**
+     * Cuts a plate candidate out of the image and binarizes it for OCR, with dark characters on white.
+     */
+    static Mat plateImage(Mat gray, Rect plate) {
+        Mat binary = new Mat();
+        try (Mat region = new Mat(gray, plate)) {
+            int width = Math.max(1, plate.width() * PLATE_HEIGHT / plate.height());
+            try (Size size = new Size(width, PLATE_HEIGHT)) {
+                resize(region, binary, size, 0, 0, INTER_CUBIC);
+            }
+        }
+        GaussianBlur(binary, binary, PLATE_BLUR, 0);
+        threshold(binary, binary, 0, 255, THRESH_BINARY | THRESH_OTSU);
+        if (mean(binary).get(0) < 127) {
+            // Light characters on a dark plate
+            threshold(binary, binary, 127, 255, THRESH_BINARY_INV);
+        }
+        return binary;
+    }
+
+    /**
+     * Scales a box found on the search copy to the full size image, with a margin so no character is cut off.
+     */
+    private static Rect toFullSize(Rect box, double scale, Mat gray) {
+        int marginX = box.width() / 10;
+        int marginY = box.height() * 3 / 10;
+        int x = Math.max(0, (int) ((box.x() - marginX) / scale));
+        int y = Math.max(0, (int) ((box.y() - marginY) / scale));
+        int right = Math.min(gray.cols(), (int) ((box.x() + box.width() + marginX) / scale));
+        int bottom = Math.min(gray.rows(), (int) ((box.y() + box.height() + marginY) / scale));
+        return new Rect(x, y, right - x, bottom - y);
+    }
+}
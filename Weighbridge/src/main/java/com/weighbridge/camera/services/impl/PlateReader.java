@@ -0,0 +1,59 @@
+package com.weighbridge.camera.services.impl;
+
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.tesseract.TessBaseAPI;
+
+import static org.bytedeco.tesseract.global.tesseract.PSM_SINGLE_BLOCK;
+
+/**
+ * Reads the characters of a binarized plate image with Tesseract. A Tesseract instance is not thread safe and
+ * is expensive to create, so each worker thread keeps its own reader.
+ */
+class PlateReader implements AutoCloseable {
+
+    private static final String PLATE_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private final TessBaseAPI api = new TessBaseAPI();
+
+    /**
+     * @param tessdataPath The directory holding the trained data, or null for the TESSDATA_PREFIX directory.
+     * @param language     The trained data to use, e.g. eng.
+     * @throws IllegalStateException If the trained data cannot be loaded.
+     */
+    PlateReader(String tessdataPath, String language) {
+        if (api.Init(tessdataPath, language) != 0) {
+            api.close();
+            throw new IllegalStateException("Tesseract data for " + language + " not found in "
+                    + (tessdataPath != null ? tessdataPath : "TESSDATA_PREFIX"));
+        }
+        // Two line plates are read as one block, the lines are joined after reading
+        api.SetPageSegMode(PSM_SINGLE_BLOCK);
+        api.SetVariable("tessedit_char_whitelist", PLATE_CHARACTERS);
+        api.SetVariable("load_system_dawg", "0");
+        api.SetVariable("load_freq_dawg", "0");
+    }
+
+    /**
+     * @param plate A single channel 8 bit image with dark characters on white.
+     * @return The characters read, upper case letters and digits only.
+     */
+    String read(Mat plate) {
+        api.SetImage(plate.data(), plate.cols(), plate.rows(), 1, (int) plate.step());
+        BytePointer text = api.GetUTF8Text();
+        try {
+            return text == null ? "" : VehicleNumberIndex.normalize(text.getString());
+        } finally {
+            if (text != null) {
+                text.deallocate();
+            }
+            api.Clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        api.End();
+        api.close();
+    }
+}
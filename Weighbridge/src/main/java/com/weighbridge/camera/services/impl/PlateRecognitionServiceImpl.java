@@ -0,0 +1,208 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.camera.services.PlateRecognitionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.bytedeco.opencv.global.opencv_core.CV_8U;
+import static org.bytedeco.opencv.global.opencv_imgcodecs.IMREAD_GRAYSCALE;
+import static org.bytedeco.opencv.global.opencv_imgcodecs.imdecode;
+
+/**
+ * Recognizes plates on a small pool of worker threads, each with its own Tesseract instance, so OCR never runs
+ * on a request thread and a burst of requests is turned away instead of queueing without bound.
+ * The time of each stage is recorded in the anpr.stage.duration timer, tagged by stage, and the outcome of each
+ * recognition in the anpr.recognitions counter, tagged by result.
+ */
+@Slf4j
+@Service
+public class PlateRecognitionServiceImpl implements PlateRecognitionService {
+
+    // Plates shorter than this are taken as noise rather than a partly read number
+    private static final int MIN_PLATE_LENGTH = 4;
+
+    // The tessdata directory, by default the one in the TESSDATA_PREFIX environment variable
+    @Value("${weighbridge.anpr.tessdata-path:}")
+    private String tessdataPath;
+
+    @Value("${weighbridge.anpr.language:eng}")
+    private String language;
+
+    @Value("${weighbridge.anpr.concurrency:2}")
+    private int concurrency;
+
+    @Value("${weighbridge.anpr.queue-capacity:10}")
+    private int queueCapacity;
+
+    @Value("${weighbridge.anpr.timeout:5s}")
+    private Duration timeout;
+
+    @Value("${weighbridge.anpr.max-candidates:3}")
+    private int maxCandidates;
+
+    @Value("${weighbridge.anpr.max-edits:2}")
+    private double maxEdits;
+
+    @Value("${weighbridge.anpr.max-matches:5}")
+    private int maxMatches;
+
+    @Autowired
+    private VehicleNumberIndex vehicleNumberIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private PlateLocator plateLocator;
+    private final ThreadLocal<PlateReader> plateReaders = new ThreadLocal<>();
+    // Guarded by itself, closed on shutdown
+    private final List<PlateReader> allPlateReaders = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        plateLocator = new PlateLocator(maxCandidates);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "plate-recognition-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        synchronized (allPlateReaders) {
+            allPlateReaders.forEach(PlateReader::close);
+            allPlateReaders.clear();
+        }
+    }
+
+    @Override
+    public PlateRecognition recognize(byte[] image) {
+        Future<PlateRecognition> recognition;
+        try {
+            recognition = executor.submit(() -> recognizeOnWorker(image));
+        } catch (RejectedExecutionException e) {
+            count("rejected");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Plate recognition is busy, try again");
+        }
+        try {
+            return recognition.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            recognition.cancel(true);
+            count("timeout");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Plate recognition timed out");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                count("invalid_image");
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getCause().getMessage());
+            }
+            count("failed");
+            log.error("Plate recognition failed", e.getCause());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Plate recognition failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recognition.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Plate recognition interrupted");
+        }
+    }
+
+    private PlateRecognition recognizeOnWorker(byte[] image) {
+        try (Mat gray = time("decode", () -> decode(image))) {
+            if (gray.empty()) {
+                throw new IllegalArgumentException("Image cannot be decoded");
+            }
+            List<Rect> plates = time("locate", () -> plateLocator.locate(gray));
+            PlateReader plateReader = plateReader();
+
+            String bestText = null;
+            List<VehicleMatch> bestMatches = List.of();
+            for (Rect plate : plates) {
+                String text;
+                try (plate; Mat plateImage = PlateLocator.plateImage(gray, plate)) {
+                    text = time("ocr", () -> plateReader.read(plateImage));
+                }
+                if (text.length() < MIN_PLATE_LENGTH) {
+                    continue;
+                }
+                List<VehicleMatch> matches = time("match", () -> vehicleNumberIndex.match(text, maxEdits, maxMatches));
+                if (isBetter(text, matches, bestText, bestMatches)) {
+                    bestText = text;
+                    bestMatches = matches;
+                }
+            }
+            count(bestText == null ? "no_plate" : bestMatches.isEmpty() ? "unmatched" : "matched");
+            return new PlateRecognition(bestText, bestMatches);
+        }
+    }
+
+    /**
+     * A reading with a closer match wins, without matches the longer reading wins.
+     */
+    private static boolean isBetter(String text, List<VehicleMatch> matches, String bestText, List<VehicleMatch> bestMatches) {
+        if (bestText == null) {
+            return true;
+        }
+        if (!matches.isEmpty() || !bestMatches.isEmpty()) {
+            return !matches.isEmpty() && (bestMatches.isEmpty() || matches.get(0).getEdits() < bestMatches.get(0).getEdits());
+        }
+        return text.length() > bestText.length();
+    }
+
+    private PlateReader plateReader() {
+        PlateReader plateReader = plateReaders.get();
+        if (plateReader == null) {
+            plateReader = new PlateReader(tessdataPath.isEmpty() ? null : tessdataPath, language);
+            plateReaders.set(plateReader);
+            synchronized (allPlateReaders) {
+                allPlateReaders.add(plateReader);
+            }
+        }
+        return plateReader;
+    }
+
+    private static Mat decode(byte[] image) {
+        try (BytePointer data = new BytePointer(image); Mat encoded = new Mat(1, image.length, CV_8U, data)) {
+            return imdecode(encoded, IMREAD_GRAYSCALE);
+        }
+    }
+
+    private <T> T time(String stage, Supplier<T> task) {
+        return Timer.builder("anpr.stage.duration")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(task);
+    }
+
+    private void count(String result) {
+        Counter.builder("anpr.recognitions").tag("result", result).register(meterRegistry).increment();
+    }
+}
@@ -0,0 +1,180 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.camera.events.VehiclePresenceEvent;
+import com.weighbridge.camera.services.VehicleDetectionService.PlatformState;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Size;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Optional;
+
+import static org.bytedeco.opencv.global.opencv_core.CV_32F;
+import static org.bytedeco.opencv.global.opencv_core.CV_8U;
+import static org.bytedeco.opencv.global.opencv_core.CV_8UC3;
+import static org.bytedeco.opencv.global.opencv_core.absdiff;
+import static org.bytedeco.opencv.global.opencv_core.countNonZero;
+import static org.bytedeco.opencv.global.opencv_imgproc.COLOR_BGR2GRAY;
+import static org.bytedeco.opencv.global.opencv_imgproc.GaussianBlur;
+import static org.bytedeco.opencv.global.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.opencv.global.opencv_imgproc.THRESH_BINARY;
+import static org.bytedeco.opencv.global.opencv_imgproc.accumulateWeighted;
+import static org.bytedeco.opencv.global.opencv_imgproc.cvtColor;
+import static org.bytedeco.opencv.global.opencv_imgproc.resize;
+import static org.bytedeco.opencv.global.opencv_imgproc.threshold;
+
+/**
+ * Decides from the frames of one platform camera whether a vehicle is on the platform and whether it is moving.
+ * Frames are analysed as small blurred grayscale images:
+ * <ul>
+ *     <li>Occupancy is the share of pixels that differ from the empty platform. The empty platform background is
+ *     learnt while the platform is empty, so it follows slow lighting changes.</li>
+ *     <li>Motion is the share of pixels that differ from the previous frame.</li>
+ * </ul>
+ * The native buffers are reused from frame to frame, so a detector must only be used by one thread at a time
+ * and must be closed.
+ */
+class PlatformOccupancyDetector implements AutoCloseable {
+
+    // How quickly the background follows the empty platform, per analysed frame
+    private static final double BACKGROUND_LEARNING_RATE = 0.05;
+
+    private final int analysisWidth;
+    private final double pixelThreshold;
+    private final double occupiedRatio;
+    private final double motionRatio;
+    private final long settleMillis;
+    private final int confirmFrames;
+
+    private final Mat gray = new Mat();
+    private final Mat small = new Mat();
+    private final Mat blurred = new Mat();
+    private final Mat previous = new Mat();
+    private final Mat background = new Mat();
+    private final Mat background8 = new Mat();
+    private final Mat difference = new Mat();
+    private final Size blurSize = new Size(5, 5);
+
+    private PlatformState state = PlatformState.EMPTY;
+    // Consecutive frames that disagree with the occupancy of the current state
+    private int occupancyChangeFrames;
+    private long lastMotionMillis;
+
+    /**
+     * @param analysisWidth  The width frames are scaled down to before they are analysed.
+     * @param pixelThreshold The gray level difference from which a pixel counts as changed.
+     * @param occupiedRatio  The share of changed pixels from which the platform counts as occupied.
+     * @param motionRatio    The share of pixels changed since the previous frame from which the vehicle counts as moving.
+     * @param settleMillis   How long the vehicle must not move to count as settled.
+     * @param confirmFrames  How many frames in a row must agree before the platform counts as occupied or empty.
+     */
+    PlatformOccupancyDetector(int analysisWidth, double pixelThreshold, double occupiedRatio, double motionRatio,
+                              long settleMillis, int confirmFrames) {
+        this.analysisWidth = analysisWidth;
+        this.pixelThreshold = pixelThreshold;
+        this.occupiedRatio = occupiedRatio;
+        this.motionRatio = motionRatio;
+        this.settleMillis = settleMillis;
+        this.confirmFrames = confirmFrames;
+    }
+
+    /**
+     * Analyses a decoded BGR frame, as the capture loop hands it out, usually already scaled down to the analysis
+     * width.
+     *
+     * @return The presence change the frame shows, if any.
+     */
+    Optional<VehiclePresenceEvent.Type> analyse(BufferedImage frame, long timeMillis) {
+        byte[] pixels = ((DataBufferByte) frame.getRaster().getDataBuffer()).getData();
+        try (BytePointer data = new BytePointer(pixels); Mat bgr = new Mat(frame.getHeight(), frame.getWidth(), CV_8UC3, data)) {
+            cvtColor(bgr, gray, COLOR_BGR2GRAY);
+        }
+        if (gray.cols() > analysisWidth) {
+            int height = Math.max(1, gray.rows() * analysisWidth / gray.cols());
+            try (Size size = new Size(analysisWidth, height)) {
+                resize(gray, small, size, 0, 0, INTER_AREA);
+            }
+            return update(small, timeMillis);
+        }
+        return update(gray, timeMillis);
+    }
+
+    /**
+     * Analyses a grayscale frame that is already scaled down.
+     *
+     * @return The presence change the frame shows, if any.
+     */
+    Optional<VehiclePresenceEvent.Type> update(Mat gray, long timeMillis) {
+        GaussianBlur(gray, blurred, blurSize, 0);
+        if (background.empty() || background.cols() != blurred.cols() || background.rows() != blurred.rows()) {
+            // The first frame, or the camera resolution changed. The platform is assumed to be empty.
+            blurred.convertTo(background, CV_32F);
+            blurred.copyTo(previous);
+            state = PlatformState.EMPTY;
+            occupancyChangeFrames = 0;
+            return Optional.empty();
+        }
+
+        background.convertTo(background8, CV_8U);
+        double occupancy = changedRatio(background8);
+        double motion = changedRatio(previous);
+        blurred.copyTo(previous);
+
+        boolean occupied = occupancy >= occupiedRatio;
+        if (occupied == (state != PlatformState.EMPTY)) {
+            occupancyChangeFrames = 0;
+        } else if (++occupancyChangeFrames >= confirmFrames) {
+            occupancyChangeFrames = 0;
+            lastMotionMillis = timeMillis;
+            state = occupied ? PlatformState.MOVING : PlatformState.EMPTY;
+            return Optional.of(occupied ? VehiclePresenceEvent.Type.ENTERED : VehiclePresenceEvent.Type.LEFT);
+        }
+
+        switch (state) {
+            case EMPTY:
+                if (!occupied) {
+                    accumulateWeighted(blurred, background, BACKGROUND_LEARNING_RATE);
+                }
+                break;
+            case MOVING:
+                if (motion >= motionRatio) {
+                    lastMotionMillis = timeMillis;
+                } else if (timeMillis - lastMotionMillis >= settleMillis) {
+                    state = PlatformState.SETTLED;
+                    return Optional.of(VehiclePresenceEvent.Type.SETTLED);
+                }
+                break;
+            case SETTLED:
+                if (motion >= motionRatio) {
+                    lastMotionMillis = timeMillis;
+                    state = PlatformState.MOVING;
+                    return Optional.of(VehiclePresenceEvent.Type.MOVING);
+                }
+                break;
+        }
+        return Optional.empty();
+    }
+
+    PlatformState getState() {
+        return state;
+    }
+
+    private double changedRatio(Mat reference) {
+        absdiff(blurred, reference, difference);
+        threshold(difference, difference, pixelThreshold, 255, THRESH_BINARY);
+        return (double) countNonZero(difference) / difference.total();
+    }
+
+    @Override
+    public void close() {
+        gray.close();
+        small.close();
+        blurred.close();
+        previous.close();
+        background.close();
+        background8.close();
+        difference.close();
+        blurSize.close();
+    }
+}
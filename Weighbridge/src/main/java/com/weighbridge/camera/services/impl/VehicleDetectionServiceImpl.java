@@ -0,0 +1,218 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.admin.entities.CameraMaster;
+import com.weighbridge.admin.repsitories.CameraMasterRepository;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.events.VehiclePresenceEvent;
+import com.weighbridge.camera.services.CameraStreamRegistry;
+import com.weighbridge.camera.services.FrameCaptureService;
+import com.weighbridge.camera.services.FrameCaptureService.StreamProfile;
+import com.weighbridge.camera.services.VehicleDetectionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a {@link PlatformOccupancyDetector} on one camera of each configured camera master record. The camera
+ * stream is shared with the live view, and only the latest frame is analysed at a fixed rate, so a slow
+ * analysis skips frames instead of delaying the capture loop.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "weighbridge.vehicle-detection.enabled", havingValue = "true")
+public class VehicleDetectionServiceImpl implements VehicleDetectionService {
+
+    // Camera master records whose platform is watched
+    @Value("${weighbridge.vehicle-detection.camera-ids:}")
+    private List<Long> cameraIds;
+
+    // The camera of each record that sees the whole platform
+    @Value("${weighbridge.vehicle-detection.angle:top}")
+    private String angle;
+
+    @Value("${weighbridge.vehicle-detection.analysis-interval:200ms}")
+    private Duration analysisInterval;
+
+    @Value("${weighbridge.vehicle-detection.analysis-width:320}")
+    private int analysisWidth;
+
+    @Value("${weighbridge.vehicle-detection.pixel-threshold:25}")
+    private double pixelThreshold;
+
+    @Value("${weighbridge.vehicle-detection.occupied-ratio:0.15}")
+    private double occupiedRatio;
+
+    @Value("${weighbridge.vehicle-detection.motion-ratio:0.01}")
+    private double motionRatio;
+
+    @Value("${weighbridge.vehicle-detection.settle-time:2s}")
+    private Duration settleTime;
+
+    @Value("${weighbridge.vehicle-detection.confirm-frames:3}")
+    private int confirmFrames;
+
+    @Autowired
+    private CameraMasterRepository cameraMasterRepository;
+
+    @Autowired
+    private CameraStreamRegistry cameraStreamRegistry;
+
+    @Autowired
+    private FrameCaptureService frameCaptureService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private ScheduledExecutorService executor;
+    private ImageAngle imageAngle;
+    // Guarded by this
+    private final Map<Long, PlatformMonitor> monitors = new HashMap<>();
+    private final Map<Long, PlatformState> platformStates = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        imageAngle = ImageAngle.fromKeyOrName(angle)
+                .orElseThrow(() -> new IllegalStateException("Invalid vehicle detection angle: " + angle));
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vehicle-detection-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        cameraStreamRegistry.addChangeListener(this::restart);
+    }
+
+    /**
+     * Starts watching once the application is up, so the camera master records can be read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMonitors() {
+        cameraIds.forEach(this::restart);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        monitors.values().forEach(PlatformMonitor::stop);
+        monitors.clear();
+        // Lets the queued detector closes run, periodic analyses are cancelled
+        executor.shutdown();
+    }
+
+    @Override
+    public Map<Long, PlatformState> getPlatformStates() {
+        return Map.copyOf(platformStates);
+    }
+
+    private synchronized void restart(Long cameraId) {
+        if (!cameraIds.contains(cameraId) || executor.isShutdown()) {
+            return;
+        }
+        PlatformMonitor previous = monitors.remove(cameraId);
+        if (previous != null) {
+            previous.stop();
+        }
+        platformStates.remove(cameraId);
+        Optional<CameraMaster> cameraMaster = cameraMasterRepository.findById(cameraId);
+        // The substream is cheaper to decode and has all the detail the analysis uses
+        Optional<String> rtspUrl = cameraStreamRegistry.findSubstreamUrl(cameraId, imageAngle)
+                .or(() -> cameraStreamRegistry.findStreamUrl(cameraId, imageAngle));
+        if (cameraMaster.isEmpty() || rtspUrl.isEmpty()) {
+            log.warn("Vehicle detection is off for camera {}, it has no {} camera", cameraId, imageAngle.getKey());
+            return;
+        }
+        PlatformMonitor monitor = new PlatformMonitor(cameraMaster.get());
+        monitor.start(rtspUrl.get());
+        monitors.put(cameraId, monitor);
+        log.info("Vehicle detection started for camera {} on {}", cameraId, rtspUrl.get());
+    }
+
+    private class PlatformMonitor {
+
+        private final CameraMaster cameraMaster;
+        // A copy of the latest frame the analysis has not taken yet
+        private final AtomicReference<BufferedImage> latestFrame = new AtomicReference<>();
+        private final PlatformOccupancyDetector detector = new PlatformOccupancyDetector(analysisWidth,
+                pixelThreshold, occupiedRatio, motionRatio, settleTime.toMillis(), confirmFrames);
+        private FrameCaptureService.Subscription subscription;
+        private ScheduledFuture<?> analysis;
+        private volatile boolean stopped;
+
+        PlatformMonitor(CameraMaster cameraMaster) {
+            this.cameraMaster = cameraMaster;
+        }
+
+        void start(String rtspUrl) {
+            platformStates.put(cameraMaster.getId(), PlatformState.EMPTY);
+            // Frames are scaled down to the analysis width as they are converted from the decoder, and never encoded
+            subscription = frameCaptureService.subscribeDecoded(rtspUrl, new StreamProfile(false, analysisWidth), this::frameDecoded);
+            long interval = analysisInterval.toMillis();
+            analysis = executor.scheduleAtFixedRate(this::analyse, interval, interval, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            stopped = true;
+            subscription.close();
+            analysis.cancel(false);
+            // Closed on the analysis thread, after any running analysis
+            executor.execute(detector::close);
+        }
+
+        /**
+         * Keeps a copy of the frame, on the capture thread. Frames that arrive while the analysis has not taken the
+         * previous one yet are not copied.
+         */
+        private void frameDecoded(BufferedImage image) {
+            if (latestFrame.get() != null) {
+                return;
+            }
+            BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+            byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            System.arraycopy(pixels, 0, ((DataBufferByte) copy.getRaster().getDataBuffer()).getData(), 0, pixels.length);
+            latestFrame.set(copy);
+        }
+
+        private void analyse() {
+            BufferedImage frame = latestFrame.getAndSet(null);
+            if (frame == null || stopped) {
+                return;
+            }
+            try {
+                Optional<VehiclePresenceEvent.Type> change = detector.analyse(frame, System.currentTimeMillis());
+                platformStates.replace(cameraMaster.getId(), detector.getState());
+                change.ifPresent(this::publish);
+            } catch (RuntimeException e) {
+                log.warn("Vehicle detection failed for camera {}", cameraMaster.getId(), e);
+            }
+        }
+
+        private void publish(VehiclePresenceEvent.Type type) {
+            VehiclePresenceEvent event = new VehiclePresenceEvent(type, cameraMaster.getId(), cameraMaster.getCompanyId(),
+                    cameraMaster.getSiteId(), cameraMaster.getRoleId(), LocalDateTime.now());
+            log.info("Vehicle {} platform of camera {}", type, cameraMaster.getId());
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
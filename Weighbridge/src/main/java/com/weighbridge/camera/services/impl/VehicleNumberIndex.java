@@ -0,0 +1,161 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.admin.repsitories.VehicleMasterRepository;
+import com.weighbridge.camera.services.PlateRecognitionService.VehicleMatch;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory index of the vehicle numbers in the vehicle master, for matching plates read by OCR.
+ * Numbers are compared without spaces and punctuation, and swapping characters OCR commonly confuses, like O and 0,
+ * counts as half an edit. The index is bucketed by length, so a lookup only compares numbers of a similar length.
+ * It is reloaded on the first lookup after the refresh interval, so new vehicles are found without a restart.
+ */
+@Slf4j
+@Component
+public class VehicleNumberIndex {
+
+    // Pairs of characters OCR confuses on plates
+    private static final String[] CONFUSABLE = {"O0", "D0", "Q0", "I1", "L1", "T1", "Z2", "S5", "G6", "B8", "A4"};
+    // Edit costs in half edits
+    private static final int CONFUSABLE_COST = 1;
+    private static final int EDIT_COST = 2;
+
+    private static final boolean[][] confusable = new boolean[128][128];
+
+    static {
+        for (String pair : CONFUSABLE) {
+            confusable[pair.charAt(0)][pair.charAt(1)] = true;
+            confusable[pair.charAt(1)][pair.charAt(0)] = true;
+        }
+    }
+
+    @Value("${weighbridge.anpr.index-refresh:5m}")
+    private Duration refreshInterval;
+
+    @Autowired
+    private VehicleMasterRepository vehicleMasterRepository;
+
+    private volatile Index index;
+
+    /**
+     * @param plate    The characters read from a plate.
+     * @param maxEdits The most edits a match may be away from the plate.
+     * @param limit    The most matches to return.
+     * @return The vehicles whose number is at most maxEdits away from the plate, the closest first.
+     */
+    public List<VehicleMatch> match(String plate, double maxEdits, int limit) {
+        String normalized = normalize(plate);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int maxCost = (int) Math.round(maxEdits * EDIT_COST);
+        int maxLengthChange = maxCost / EDIT_COST;
+        List<VehicleMatch> matches = new ArrayList<>();
+        Index current = current();
+        for (int length = normalized.length() - maxLengthChange; length <= normalized.length() + maxLengthChange; length++) {
+            for (Entry entry : current.byLength.getOrDefault(length, List.of())) {
+                int cost = cost(normalized, entry.normalized, maxCost);
+                if (cost <= maxCost) {
+                    matches.add(new VehicleMatch(entry.vehicleId, entry.vehicleNo, (double) cost / EDIT_COST));
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(VehicleMatch::getEdits));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * @return The number in upper case, with only letters and digits.
+     */
+    static String normalize(String vehicleNo) {
+        StringBuilder normalized = new StringBuilder(vehicleNo.length());
+        for (char c : vehicleNo.toUpperCase(Locale.ROOT).toCharArray()) {
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Weighted Levenshtein distance in half edits. Gives up once every path costs more than maxCost.
+     */
+    static int cost(String a, String b, int maxCost) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j * EDIT_COST;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i * EDIT_COST;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                char cb = b.charAt(j - 1);
+                int substitution = ca == cb ? 0 : confusable[ca & 127][cb & 127] ? CONFUSABLE_COST : EDIT_COST;
+                current[j] = Math.min(previous[j - 1] + substitution,
+                        Math.min(previous[j], current[j - 1]) + EDIT_COST);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxCost) {
+                return rowMin;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private Index current() {
+        Index current = index;
+        if (current == null || System.currentTimeMillis() - current.loadedAtMillis > refreshInterval.toMillis()) {
+            synchronized (this) {
+                current = index;
+                if (current == null || System.currentTimeMillis() - current.loadedAtMillis > refreshInterval.toMillis()) {
+                    current = load();
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Index load() {
+        Map<Integer, List<Entry>> byLength = new HashMap<>();
+        List<Object[]> vehicles = vehicleMasterRepository.findAllVehicleIdsAndNos();
+        for (Object[] vehicle : vehicles) {
+            String vehicleNo = (String) vehicle[1];
+            String normalized = normalize(vehicleNo);
+            byLength.computeIfAbsent(normalized.length(), length -> new ArrayList<>())
+                    .add(new Entry((Long) vehicle[0], vehicleNo, normalized));
+        }
+        log.info("Vehicle number index loaded with {} vehicles", vehicles.size());
+        return new Index(System.currentTimeMillis(), byLength);
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final Long vehicleId;
+        private final String vehicleNo;
+        private final String normalized;
+    }
+
+    @AllArgsConstructor
+    private static class Index {
+        private final long loadedAtMillis;
+        private final Map<Integer, List<Entry>> byLength;
+    }
+}
@@ -0,0 +1,177 @@
+package com.weighbridge.camera.services.impl;
+
+import org.bytedeco.ffmpeg.avcodec.AVCodec;
+import org.bytedeco.ffmpeg.avcodec.AVCodecContext;
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.avformat.AVStream;
+import org.bytedeco.ffmpeg.avutil.AVDictionary;
+import org.bytedeco.ffmpeg.avutil.AVFrame;
+import org.bytedeco.ffmpeg.swscale.SwsContext;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.PointerPointer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.bytedeco.ffmpeg.global.avcodec.AVDISCARD_DEFAULT;
+import static org.bytedeco.ffmpeg.global.avcodec.AVDISCARD_NONKEY;
+import static org.bytedeco.ffmpeg.global.avcodec.AV_PKT_FLAG_KEY;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_alloc_context3;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_find_decoder;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_free_context;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_open2;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_parameters_to_context;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_receive_frame;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_send_packet;
+import static org.bytedeco.ffmpeg.global.avutil.AVERROR_EAGAIN;
+import static org.bytedeco.ffmpeg.global.avutil.AVERROR_EOF;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_BGR24;
+import static org.bytedeco.ffmpeg.global.avutil.av_frame_alloc;
+import static org.bytedeco.ffmpeg.global.avutil.av_frame_free;
+import static org.bytedeco.ffmpeg.global.avutil.av_frame_move_ref;
+import static org.bytedeco.ffmpeg.global.avutil.av_frame_unref;
+import static org.bytedeco.ffmpeg.global.swscale.SWS_AREA;
+import static org.bytedeco.ffmpeg.global.swscale.sws_freeContext;
+import static org.bytedeco.ffmpeg.global.swscale.sws_getCachedContext;
+import static org.bytedeco.ffmpeg.global.swscale.sws_scale;
+
+/**
+ * Decodes the packets of one video stream into BGR images. The capture loop reads packets itself, so they can be
+ * kept for clips as they are, and decodes them here. The decoder can skip all but the key frames, and frames are
+ * scaled down in the same pass that converts them to BGR. Frames are only decoded from a key frame on, when the
+ * stream is joined and when all frames are wanted again, since the frames before it refer to frames that were not
+ * decoded. The images are reused for every frame, so they must be
+ * consumed before the next packet is decoded. Not thread safe.
+ */
+class VideoDecoder implements AutoCloseable {
+
+    private final AVCodecContext codecContext;
+    private final AVFrame received = av_frame_alloc();
+    private final AVFrame frame = av_frame_alloc();
+    // Converters of the last frame by the width they scale to
+    private final Map<Integer, Converter> converters = new HashMap<>();
+    private boolean allFramesWanted = true;
+    // Whether the frames other than key frames are skipped until the next key frame
+    private boolean waitingForKeyFrame = true;
+
+    VideoDecoder(AVStream stream) throws IOException {
+        AVCodec codec = avcodec_find_decoder(stream.codecpar().codec_id());
+        if (codec == null) {
+            throw new IOException("No decoder for codec " + stream.codecpar().codec_id());
+        }
+        codecContext = avcodec_alloc_context3(codec);
+        if (avcodec_parameters_to_context(codecContext, stream.codecpar()) < 0
+                || avcodec_open2(codecContext, codec, (AVDictionary) null) < 0) {
+            close();
+            throw new IOException("Failed to open decoder " + codec.name().getString());
+        }
+        codecContext.skip_frame(AVDISCARD_NONKEY);
+    }
+
+    /**
+     * Makes the decoder discard all but the key frames, which skips nearly all decoding work for the rest. When all
+     * frames are wanted again, they are decoded from the next key frame on.
+     */
+    void setKeyFramesOnly(boolean keyFramesOnly) {
+        allFramesWanted = !keyFramesOnly;
+        if (keyFramesOnly) {
+            waitingForKeyFrame = true;
+            codecContext.skip_frame(AVDISCARD_NONKEY);
+        }
+    }
+
+    /**
+     * @return Whether the packet completed a frame, which is then available from {@link #image(int)}.
+     * @throws IOException If the packet cannot be decoded.
+     */
+    boolean decode(AVPacket packet) throws IOException {
+        if (allFramesWanted && waitingForKeyFrame && (packet.flags() & AV_PKT_FLAG_KEY) != 0) {
+            waitingForKeyFrame = false;
+            codecContext.skip_frame(AVDISCARD_DEFAULT);
+        }
+        int result = avcodec_send_packet(codecContext, packet);
+        if (result < 0 && result != AVERROR_EAGAIN()) {
+            throw new IOException("Failed to decode packet: " + result);
+        }
+        boolean decoded = false;
+        while ((result = avcodec_receive_frame(codecContext, received)) >= 0) {
+            // Only the last frame of the packet is kept
+            av_frame_unref(frame);
+            av_frame_move_ref(frame, received);
+            decoded = true;
+        }
+        if (result != AVERROR_EAGAIN() && result != AVERROR_EOF) {
+            throw new IOException("Failed to decode frame: " + result);
+        }
+        return decoded;
+    }
+
+    boolean isKeyFrame() {
+        return frame.key_frame() != 0;
+    }
+
+    /**
+     * @param maxWidth The width to scale the frame down to if it is wider, 0 to keep its size.
+     * @return The last decoded frame.
+     */
+    BufferedImage image(int maxWidth) {
+        int width = maxWidth > 0 && maxWidth < frame.width() ? maxWidth : frame.width();
+        // Even heights suit the chroma planes of most pixel formats
+        int height = width == frame.width() ? frame.height() : Math.max(2, (int) ((long) frame.height() * width / frame.width()) & ~1);
+        return converters.computeIfAbsent(width, key -> new Converter()).convert(frame, width, height);
+    }
+
+    @Override
+    public void close() {
+        avcodec_free_context(codecContext);
+        av_frame_free(received);
+        av_frame_free(frame);
+        converters.values().forEach(Converter::close);
+        converters.clear();
+    }
+
+    /**
+     * Converts frames to BGR images of one size.
+     */
+    private static class Converter {
+
+        private SwsContext swsContext;
+        private BufferedImage image;
+        private BytePointer imageData;
+        private final PointerPointer<BytePointer> imagePlanes = new PointerPointer<>(1);
+        private final IntPointer imageLineSizes = new IntPointer(1);
+
+        BufferedImage convert(AVFrame frame, int width, int height) {
+            if (image == null || image.getWidth() != width || image.getHeight() != height) {
+                image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+                if (imageData != null) {
+                    imageData.close();
+                }
+                imageData = new BytePointer((long) width * height * 3);
+                imagePlanes.put(0, imageData);
+                imageLineSizes.put(0, width * 3);
+            }
+            swsContext = sws_getCachedContext(swsContext, frame.width(), frame.height(), frame.format(), width, height,
+                    AV_PIX_FMT_BGR24, SWS_AREA, null, null, (DoublePointer) null);
+            sws_scale(swsContext, frame.data(), frame.linesize(), 0, frame.height(), imagePlanes, imageLineSizes);
+            imageData.get(((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+            return image;
+        }
+
+        void close() {
+            if (swsContext != null) {
+                sws_freeContext(swsContext);
+            }
+            if (imageData != null) {
+                imageData.close();
+            }
+            imagePlanes.close();
+            imageLineSizes.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.weighbridge.config;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.web.socket.BinaryMessage;
+
+import java.util.function.Consumer;
+
+/**
+ * Sends camera frames to one WebSocket session.
+ *
+ * Frames above the frame rate cap are skipped. Accepted frames are handed to a {@link SessionMessageSender}, so a
+ * slow viewer skips frames and a stalled viewer is disconnected, instead of holding up the capture loop or the
+ * other viewers.
+ */
+class FrameSessionSender implements Consumer<byte[]> {
+
+    private final SessionMessageSender sender;
+    private final Counter droppedFrames;
+    private final Counter sentBytes;
+    private final long minFrameIntervalNanos;
+
+    // Guarded by this
+    private long lastAcceptedNanos;
+
+    FrameSessionSender(SessionMessageSender sender, Counter droppedFrames, Counter sentBytes, int maxFps) {
+        this.sender = sender;
+        this.droppedFrames = droppedFrames;
+        this.sentBytes = sentBytes;
+        this.minFrameIntervalNanos = maxFps > 0 ? 1_000_000_000L / maxFps : 0;
+    }
+
+    /**
+     * Called on the capture thread for every frame of the camera.
+     */
+    @Override
+    public void accept(byte[] frame) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (lastAcceptedNanos != 0 && now - lastAcceptedNanos < minFrameIntervalNanos) {
+                return;
+            }
+            lastAcceptedNanos = now;
+        }
+        if (sender.offer(new BinaryMessage(frame))) {
+            sentBytes.increment(frame.length);
+        } else {
+            droppedFrames.increment();
+        }
+    }
+
+    void close() {
+        sender.close();
+    }
+}
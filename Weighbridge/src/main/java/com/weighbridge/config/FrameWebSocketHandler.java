@@ -1,44 +1,148 @@
 package com.weighbridge.config;
 
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.services.CameraStreamRegistry;
+import com.weighbridge.camera.services.CameraStreamRegistry.PreviewStream;
 import com.weighbridge.camera.services.FrameCaptureService;
+import com.weighbridge.camera.services.FrameCaptureService.StreamProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.web.socket.CloseStatus;
-import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
-import java.util.Base64;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
-public class FrameWebSocketHandler extends TextWebSocketHandler {
+/**
+ * Streams camera frames to WebSocket sessions as binary JPEG messages. The camera is taken from the session path,
+ * {@code /ws/camera/{cameraId}/{angle}}, where cameraId is the id of the camera master record and angle is one of
+ * front, back, top, bottom, left or right. Viewers get the preview of the camera unless they ask for
+ * {@code ?profile=main}, which decodes every frame of the main stream at full size. Sessions of a camera are closed
+ * when its URLs change, so the viewers reconnect to the new stream.
+ */
+public class FrameWebSocketHandler extends BinaryWebSocketHandler {
+
+    private static final String SUBSCRIPTION_ATTRIBUTE = "frameSubscription";
+    private static final String SENDER_ATTRIBUTE = "frameSender";
+    private static final String METERS_ATTRIBUTE = "meters";
 
     private final FrameCaptureService frameCaptureService;
-    private final String rtspUrl;
+    private final CameraStreamRegistry cameraStreamRegistry;
+    private final Executor sendExecutor;
+    private final MeterRegistry meterRegistry;
+    private final int maxFps;
+    private final int queueCapacity;
+    private final Duration sendTimeLimit;
+    private final int sendBufferLimit;
+    // Open sessions, with the id of the camera master record they stream from
+    private final Map<WebSocketSession, Long> sessionCameras = new ConcurrentHashMap<>();
 
-    public FrameWebSocketHandler(FrameCaptureService frameCaptureService, String rtspUrl) {
+    public FrameWebSocketHandler(FrameCaptureService frameCaptureService, CameraStreamRegistry cameraStreamRegistry,
+                                 Executor sendExecutor, MeterRegistry meterRegistry, int maxFps, int queueCapacity,
+                                 Duration sendTimeLimit, int sendBufferLimit) {
         this.frameCaptureService = frameCaptureService;
-        this.rtspUrl = rtspUrl;
+        this.cameraStreamRegistry = cameraStreamRegistry;
+        this.sendExecutor = sendExecutor;
+        this.meterRegistry = meterRegistry;
+        this.maxFps = maxFps;
+        this.queueCapacity = queueCapacity;
+        this.sendTimeLimit = sendTimeLimit;
+        this.sendBufferLimit = sendBufferLimit;
+        cameraStreamRegistry.addChangeListener(this::closeSessions);
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        new Thread(() -> {
-            try {
-                frameCaptureService.streamFrames(rtspUrl, (frameBytes) -> {
-                    try {
-                        String base64Image = Base64.getEncoder().encodeToString(frameBytes);
-                        session.sendMessage(new TextMessage(base64Image));
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }).start();
+        String[] segments = session.getUri().getPath().split("/");
+        Long cameraId;
+        ImageAngle angle;
+        try {
+            cameraId = Long.valueOf(segments[segments.length - 2]);
+            angle = ImageAngle.valueOf(segments[segments.length - 1].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            session.close(CloseStatus.BAD_DATA.withReason("Invalid camera path"));
+            return;
+        }
+        String profile = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("profile");
+        Optional<PreviewStream> stream = findViewerStream(cameraStreamRegistry, cameraId, angle, profile);
+        if (stream.isEmpty()) {
+            session.close(CloseStatus.BAD_DATA.withReason("Camera not configured"));
+            return;
+        }
+
+        Counter droppedFrames = droppedFrames(meterRegistry, session.getId());
+        Counter sentBytes = sentBytes(meterRegistry, session.getId());
+        FrameSessionSender sender = new FrameSessionSender(new SessionMessageSender(session, sendExecutor, sendTimeLimit,
+                sendBufferLimit, queueCapacity), droppedFrames, sentBytes, maxFps);
+        session.getAttributes().put(METERS_ATTRIBUTE, List.of(droppedFrames, sentBytes));
+        session.getAttributes().put(SENDER_ATTRIBUTE, sender);
+        session.getAttributes().put(SUBSCRIPTION_ATTRIBUTE, frameCaptureService.subscribe(stream.get().getRtspUrl(),
+                stream.get().getProfile(), sender));
+        sessionCameras.put(session, cameraId);
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        // Cleanup if needed
+        sessionCameras.remove(session);
+        // Releases the shared grabber once the last viewer of the camera has left
+        Object subscription = session.getAttributes().remove(SUBSCRIPTION_ATTRIBUTE);
+        if (subscription != null) {
+            ((FrameCaptureService.Subscription) subscription).close();
+        }
+        Object sender = session.getAttributes().remove(SENDER_ATTRIBUTE);
+        if (sender != null) {
+            ((FrameSessionSender) sender).close();
+        }
+        Object meters = session.getAttributes().remove(METERS_ATTRIBUTE);
+        if (meters != null) {
+            ((List<?>) meters).forEach(meter -> meterRegistry.remove((Meter) meter));
+        }
+    }
+
+    static Counter droppedFrames(MeterRegistry meterRegistry, String sessionId) {
+        return Counter.builder("camera.frames.dropped")
+                .description("Frames skipped because the viewer could not keep up")
+                .tag("session", sessionId)
+                .register(meterRegistry);
+    }
+
+    static Counter sentBytes(MeterRegistry meterRegistry, String sessionId) {
+        return Counter.builder("camera.frames.sent")
+                .description("Frame bytes handed to the viewer's session")
+                .baseUnit("bytes")
+                .tag("session", sessionId)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param profile main for every frame of the main stream at full size, anything else for the preview.
+     * @return The stream a viewer of the camera is shown, or empty if the camera is not configured.
+     */
+    static Optional<PreviewStream> findViewerStream(CameraStreamRegistry cameraStreamRegistry, Long cameraId,
+                                                    ImageAngle angle, String profile) {
+        return "main".equalsIgnoreCase(profile)
+                ? cameraStreamRegistry.findStreamUrl(cameraId, angle).map(rtspUrl -> new PreviewStream(rtspUrl, StreamProfile.FULL))
+                : cameraStreamRegistry.findPreviewStream(cameraId, angle);
+    }
+
+    private void closeSessions(Long cameraId) {
+        sessionCameras.forEach((session, sessionCameraId) -> {
+            if (sessionCameraId.equals(cameraId)) {
+                try {
+                    session.close(CloseStatus.SERVICE_RESTARTED.withReason("Camera configuration changed"));
+                } catch (IOException e) {
+                    // The session is closed anyway, afterConnectionClosed releases it
+                }
+            }
+        });
     }
 }
@@ -0,0 +1,310 @@
+package com.weighbridge.config;
+
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.services.CameraStreamRegistry;
+import com.weighbridge.camera.services.CameraStreamRegistry.PreviewStream;
+import com.weighbridge.camera.services.FrameCaptureService;
+import com.weighbridge.camera.services.FrameCaptureService.StreamProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Streams camera frames as multipart/x-mixed-replace MJPEG, so a plain {@code <img>} tag can show a live camera.
+ * The camera is taken from the path, {@code /mjpeg/camera/{cameraId}/{angle}}, and the profile from
+ * {@code ?profile=main} as for the WebSocket stream.
+ *
+ * All viewers of a stream share one feed, which wraps each frame in its multipart headers once. Viewers write
+ * with non-blocking servlet I/O from the shared sender pool and only ever hold the latest frame, so a slow viewer
+ * skips frames instead of holding up the capture loop, the other viewers or a request thread.
+ */
+@Slf4j
+class MjpegStreamServlet extends HttpServlet {
+
+    private static final String BOUNDARY = "frame";
+    private static final byte[] PART_END = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final FrameCaptureService frameCaptureService;
+    private final CameraStreamRegistry cameraStreamRegistry;
+    private final Executor sendExecutor;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger viewerCount = new AtomicInteger();
+    private final long minFrameIntervalNanos;
+    // Guarded by this
+    private final Map<FeedKey, Feed> feeds = new HashMap<>();
+
+    MjpegStreamServlet(FrameCaptureService frameCaptureService, CameraStreamRegistry cameraStreamRegistry,
+                       Executor sendExecutor, MeterRegistry meterRegistry, int maxFps) {
+        this.frameCaptureService = frameCaptureService;
+        this.cameraStreamRegistry = cameraStreamRegistry;
+        this.sendExecutor = sendExecutor;
+        this.meterRegistry = meterRegistry;
+        this.minFrameIntervalNanos = maxFps > 0 ? 1_000_000_000L / maxFps : 0;
+        cameraStreamRegistry.addChangeListener(this::closeViewers);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String[] segments = Objects.requireNonNullElse(request.getPathInfo(), "").split("/");
+        Long cameraId;
+        ImageAngle angle;
+        try {
+            cameraId = Long.valueOf(segments[segments.length - 2]);
+            angle = ImageAngle.valueOf(segments[segments.length - 1].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid camera path");
+            return;
+        }
+        Optional<PreviewStream> stream = FrameWebSocketHandler.findViewerStream(cameraStreamRegistry, cameraId, angle,
+                request.getParameter("profile"));
+        if (stream.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Camera not configured");
+            return;
+        }
+
+        response.setContentType("multipart/x-mixed-replace; boundary=" + BOUNDARY);
+        response.setHeader("Cache-Control", "no-cache, no-store, must-revalidate");
+        response.setHeader("Pragma", "no-cache");
+        AsyncContext asyncContext = request.startAsync();
+        // The stream lasts until the viewer leaves
+        asyncContext.setTimeout(0);
+        Viewer viewer = new Viewer(cameraId, asyncContext, response.getOutputStream());
+        asyncContext.addListener(viewer);
+        response.getOutputStream().setWriteListener(viewer);
+        addViewer(new FeedKey(stream.get().getRtspUrl(), stream.get().getProfile()), viewer);
+    }
+
+    private synchronized void addViewer(FeedKey key, Viewer viewer) {
+        if (viewer.closed.get()) {
+            // Left before it was added
+            return;
+        }
+        Feed feed = feeds.get(key);
+        if (feed == null) {
+            feed = new Feed(key);
+            feeds.put(key, feed);
+            feed.subscription = frameCaptureService.subscribe(key.rtspUrl, key.profile, feed);
+        }
+        viewer.feed = feed;
+        feed.viewers.add(viewer);
+    }
+
+    private synchronized void removeViewer(Viewer viewer) {
+        Feed feed = viewer.feed;
+        if (feed != null && feed.viewers.remove(viewer) && feed.viewers.isEmpty()) {
+            // Releases the shared grabber once the last viewer of the camera has left
+            feed.subscription.close();
+            feeds.remove(feed.key, feed);
+        }
+    }
+
+    private void closeViewers(Long cameraId) {
+        viewers().stream().filter(viewer -> viewer.cameraId.equals(cameraId)).forEach(Viewer::close);
+    }
+
+    /**
+     * Closes all streams, so the container does not wait for them on shutdown.
+     */
+    @Override
+    public void destroy() {
+        viewers().forEach(Viewer::close);
+    }
+
+    private synchronized List<Viewer> viewers() {
+        // Copied, as closing a viewer removes it from its feed
+        List<Viewer> viewers = new ArrayList<>();
+        feeds.values().forEach(feed -> viewers.addAll(feed.viewers));
+        return viewers;
+    }
+
+    private static class FeedKey {
+        private final String rtspUrl;
+        private final StreamProfile profile;
+
+        FeedKey(String rtspUrl, StreamProfile profile) {
+            this.rtspUrl = rtspUrl;
+            this.profile = profile;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FeedKey other && rtspUrl.equals(other.rtspUrl) && profile.equals(other.profile);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rtspUrl, profile);
+        }
+    }
+
+    /**
+     * The frames of one stream as multipart parts, shared by all its viewers.
+     */
+    private class Feed implements Consumer<byte[]> {
+
+        private final FeedKey key;
+        private final List<Viewer> viewers = new CopyOnWriteArrayList<>();
+        private FrameCaptureService.Subscription subscription;
+
+        Feed(FeedKey key) {
+            this.key = key;
+        }
+
+        /**
+         * Called on the capture thread for every frame of the camera.
+         */
+        @Override
+        public void accept(byte[] frame) {
+            byte[] header = ("--" + BOUNDARY + "\r\nContent-Type: image/jpeg\r\nContent-Length: " + frame.length
+                    + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            byte[] part = new byte[header.length + frame.length + PART_END.length];
+            System.arraycopy(header, 0, part, 0, header.length);
+            System.arraycopy(frame, 0, part, header.length, frame.length);
+            System.arraycopy(PART_END, 0, part, header.length + frame.length, PART_END.length);
+            long now = System.nanoTime();
+            for (Viewer viewer : viewers) {
+                viewer.offer(part, now);
+            }
+        }
+    }
+
+    /**
+     * One HTTP response the frames of a feed are written to.
+     */
+    private class Viewer implements WriteListener, AsyncListener {
+
+        private final Long cameraId;
+        private final AsyncContext asyncContext;
+        private final ServletOutputStream output;
+        private final AtomicReference<byte[]> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Tagged like the WebSocket sessions, numbered as the servlet has no session ids
+        private final String meterSession = "mjpeg-" + viewerCount.incrementAndGet();
+        private final Counter droppedFrames = FrameWebSocketHandler.droppedFrames(meterRegistry, meterSession);
+        private final Counter sentBytes = FrameWebSocketHandler.sentBytes(meterRegistry, meterSession);
+        private long lastAcceptedNanos;
+        // Guarded by this
+        private boolean committed;
+        private volatile Feed feed;
+
+        Viewer(Long cameraId, AsyncContext asyncContext, ServletOutputStream output) {
+            this.cameraId = cameraId;
+            this.asyncContext = asyncContext;
+            this.output = output;
+        }
+
+        void offer(byte[] part, long nowNanos) {
+            // Only called on the capture thread, so the frame rate cap needs no lock
+            if (closed.get() || (lastAcceptedNanos != 0 && nowNanos - lastAcceptedNanos < minFrameIntervalNanos)) {
+                return;
+            }
+            lastAcceptedNanos = nowNanos;
+            if (pending.getAndSet(part) != null) {
+                droppedFrames.increment();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                sendExecutor.execute(() -> {
+                    scheduled.set(false);
+                    write();
+                });
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            write();
+        }
+
+        /**
+         * Writes the pending frame while the connection takes data without blocking. When it does not, the
+         * container calls {@link #onWritePossible()} once it does again.
+         */
+        private synchronized void write() {
+            try {
+                while (!closed.get() && output.isReady()) {
+                    byte[] part = pending.getAndSet(null);
+                    if (part == null) {
+                        if (!committed) {
+                            // Sends the headers right away, so the viewer knows the stream started before the first frame
+                            committed = true;
+                            output.flush();
+                        }
+                        return;
+                    }
+                    committed = true;
+                    output.write(part);
+                    sentBytes.increment(part.length);
+                    if (output.isReady()) {
+                        output.flush();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("MJPEG viewer of camera {} left: {}", cameraId, e.getMessage());
+                close();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                removeViewer(this);
+                pending.set(null);
+                meterRegistry.remove(droppedFrames);
+                meterRegistry.remove(sentBytes);
+                try {
+                    asyncContext.complete();
+                } catch (IllegalStateException e) {
+                    // Already completed by the container
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
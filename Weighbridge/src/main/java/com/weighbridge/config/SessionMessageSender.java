@@ -0,0 +1,100 @@
+package com.weighbridge.config;
+
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends messages to one WebSocket session from a sender pool, without ever blocking the caller.
+ *
+ * The session is wrapped in a {@link ConcurrentWebSocketSessionDecorator}. One pool thread writes to the socket
+ * while the messages sent meanwhile are buffered, and the oldest buffered messages are dropped beyond the buffer
+ * limit, so a slow session skips messages. A session whose write takes longer than the send time limit is closed,
+ * and the write itself gives up after that long, so a stalled session holds a pool thread for a bounded time. Only a
+ * few sends of a session wait for the pool at a time, so a stalled session cannot fill the pool queue either.
+ */
+@Slf4j
+class SessionMessageSender {
+
+    // Milliseconds a blocking write of the Tomcat WebSocket implementation waits for the socket
+    private static final String BLOCKING_SEND_TIMEOUT_PROPERTY = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final WebSocketSession session;
+    private final ConcurrentWebSocketSessionDecorator decoratedSession;
+    private final Executor executor;
+    private final int maxQueuedSends;
+    // Sends handed to the pool that have not returned yet
+    private final AtomicInteger queuedSends = new AtomicInteger();
+    private volatile boolean closed;
+
+    SessionMessageSender(WebSocketSession session, Executor executor, Duration sendTimeLimit, int bufferSizeLimit,
+                         int maxQueuedSends) {
+        this.session = session;
+        this.decoratedSession = new ConcurrentWebSocketSessionDecorator(session, (int) sendTimeLimit.toMillis(),
+                bufferSizeLimit, ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        this.executor = executor;
+        this.maxQueuedSends = Math.max(2, maxQueuedSends);
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            Session standardSession = nativeSession.getNativeSession(Session.class);
+            if (standardSession != null) {
+                standardSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT_PROPERTY, sendTimeLimit.toMillis());
+            }
+        }
+    }
+
+    /**
+     * @return Whether the message was handed to the pool, false if the session is closed or already has the most
+     *         sends waiting.
+     */
+    boolean offer(WebSocketMessage<?> message) {
+        if (closed) {
+            return false;
+        }
+        if (queuedSends.incrementAndGet() > maxQueuedSends) {
+            queuedSends.decrementAndGet();
+            return false;
+        }
+        try {
+            executor.execute(() -> send(message));
+            return true;
+        } catch (RejectedExecutionException e) {
+            queuedSends.decrementAndGet();
+            return false;
+        }
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    private void send(WebSocketMessage<?> message) {
+        try {
+            if (!closed && session.isOpen()) {
+                // Buffers the message and returns at once if another thread is writing to the session
+                decoratedSession.sendMessage(message);
+            }
+        } catch (SessionLimitExceededException e) {
+            log.warn("Closing session {}: {}", session.getId(), e.getMessage());
+            closed = true;
+            try {
+                decoratedSession.close(e.getStatus());
+            } catch (IOException closeFailure) {
+                // The connection is dropped anyway
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Failed to send to session {}: {}", session.getId(), e.getMessage());
+        } finally {
+            queuedSends.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.weighbridge.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService;
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService.ScaleReading;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the live weight of a machine to operator consoles as JSON text messages,
+ * {@code {"machineId":"WB1","weight":12340,"stable":true,"readAtMillis":...}}. The machine is taken from the
+ * session path, {@code /ws/weight/{machineId}}.
+ *
+ * The latest reading of each watched machine is read from its indicator reader at a fixed rate and turned into one
+ * message for all its consoles, and only when its weight or stability changed, a new reading of the same weight is
+ * not pushed again. Stable is what a weighment would record at that moment.
+ * Consoles are written to through a {@link SessionMessageSender} on a pool of their own, so a slow console skips
+ * readings and a stalled one is disconnected, instead of holding up the indicator reader, the other consoles or the
+ * camera viewers.
+ */
+@Slf4j
+public class WeightWebSocketHandler extends TextWebSocketHandler implements AutoCloseable {
+
+    private static final String SENDER_ATTRIBUTE = "weightSender";
+    // Weight messages are about a hundred bytes, so this holds far more than a console ever needs to catch up
+    private static final int SEND_BUFFER_LIMIT = 16 * 1024;
+    private static final int MAX_QUEUED_SENDS = 2;
+
+    private final ScaleIndicatorService scaleIndicatorService;
+    private final Executor sendExecutor;
+    private final Duration sendTimeLimit;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService pushExecutor;
+    // Open sessions by the machine they watch
+    private final Map<String, Set<WebSocketSession>> machineSessions = new ConcurrentHashMap<>();
+    // The weight and stability last pushed for each machine
+    private final Map<String, String> lastStates = new ConcurrentHashMap<>();
+
+    public WeightWebSocketHandler(ScaleIndicatorService scaleIndicatorService, Executor sendExecutor, int pushRate,
+                                  Duration sendTimeLimit) {
+        this.scaleIndicatorService = scaleIndicatorService;
+        this.sendExecutor = sendExecutor;
+        this.sendTimeLimit = sendTimeLimit;
+        AtomicInteger threadNumber = new AtomicInteger();
+        pushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weight-push-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = 1000L / Math.max(1, pushRate);
+        pushExecutor.scheduleAtFixedRate(this::push, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String path = session.getUri().getPath();
+        String requested = UriUtils.decode(path.substring(path.lastIndexOf('/') + 1), StandardCharsets.UTF_8);
+        // Consoles of one machine share its messages, however they spell its id
+        Optional<String> machineId = scaleIndicatorService.getMachineIds().stream()
+                .filter(candidate -> candidate.equalsIgnoreCase(requested.trim()))
+                .findFirst();
+        if (machineId.isEmpty()) {
+            session.close(CloseStatus.BAD_DATA.withReason("Unknown weighbridge machine"));
+            return;
+        }
+        session.getAttributes().put(SENDER_ATTRIBUTE, new WeightSessionSender(machineId.get(),
+                new SessionMessageSender(session, sendExecutor, sendTimeLimit, SEND_BUFFER_LIMIT, MAX_QUEUED_SENDS)));
+        machineSessions.computeIfAbsent(machineId.get(), key -> ConcurrentHashMap.newKeySet()).add(session);
+        // The new console gets the current reading with the next push
+        lastStates.remove(machineId.get());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Object sender = session.getAttributes().remove(SENDER_ATTRIBUTE);
+        if (sender != null) {
+            WeightSessionSender weightSender = (WeightSessionSender) sender;
+            weightSender.sender.close();
+            machineSessions.computeIfPresent(weightSender.machineId, (machineId, sessions) -> {
+                sessions.remove(session);
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        pushExecutor.shutdownNow();
+    }
+
+    private void push() {
+        lastStates.keySet().retainAll(machineSessions.keySet());
+        machineSessions.forEach((machineId, sessions) -> {
+            try {
+                Optional<ScaleReading> reading = scaleIndicatorService.getReading(machineId);
+                if (reading.isEmpty()) {
+                    return;
+                }
+                boolean stable = reading.get().isStable() && scaleIndicatorService.getStableWeight(machineId).isPresent();
+                String state = reading.get().getWeight() + (stable ? " stable" : "");
+                if (state.equals(lastStates.put(machineId, state))) {
+                    return;
+                }
+                Map<String, Object> message = new LinkedHashMap<>();
+                message.put("machineId", machineId);
+                message.put("weight", reading.get().getWeight());
+                message.put("stable", stable);
+                message.put("readAtMillis", reading.get().getReadAtMillis());
+                TextMessage textMessage = new TextMessage(objectMapper.writeValueAsString(message));
+                for (WebSocketSession session : sessions) {
+                    Object sender = session.getAttributes().get(SENDER_ATTRIBUTE);
+                    if (sender != null && !((WeightSessionSender) sender).sender.offer(textMessage)) {
+                        // Pushed again next time, so the console does not keep a stale reading
+                        lastStates.remove(machineId);
+                    }
+                }
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.warn("Failed to push the weight of machine {}", machineId, e);
+            }
+        });
+    }
+
+    private static class WeightSessionSender {
+        private final String machineId;
+        private final SessionMessageSender sender;
+
+        WeightSessionSender(String machineId, SessionMessageSender sender) {
+            this.machineId = machineId;
+            this.sender = sender;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.weighbridge.gateuser.payloads.GateEntryEditResponse;
 import com.weighbridge.gateuser.payloads.GateEntryTransactionPageResponse;
 import com.weighbridge.gateuser.payloads.GateEntryTransactionRequest;
 import com.weighbridge.gateuser.payloads.GateEntryTransactionResponse;
+import com.weighbridge.gateuser.payloads.VehicleRecognitionResponse;
 import com.weighbridge.gateuser.services.GateEntryTransactionService;
 import org.hibernate.query.SortDirection;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +37,7 @@ public class GateEntryTransactionController {
 
     /**
      * Save a gate entry transaction.
+     * The images are optional, angles that are not uploaded are taken from the site's cameras on the server.
      *
      *
      * @return The ID of the saved gate entry transaction.
@@ -70,6 +72,21 @@ public class GateEntryTransactionController {
         return new ResponseEntity<>(gateEntryResponse, HttpStatus.OK);
     }
 
+    /**
+     * Reads the number plate of the vehicle at the gate, to pre-fill the vehicle of a new gate entry.
+     * Without an uploaded image the site's front camera is used.
+     *
+     * @return The plate read and the matching vehicles. Answered with 503 if the recognition workers are busy.
+     */
+    @PostMapping("/recognizeVehicle")
+    public ResponseEntity<VehicleRecognitionResponse> recognizeVehicle(
+            @RequestParam("userId") String userId,
+            @RequestParam("role") String role,
+            @RequestParam(value = "frontImg1", required = false) MultipartFile frontImg1) {
+        VehicleRecognitionResponse response = gateEntryTransactionService.recognizeVehicle(userId, role, frontImg1);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Get all gate entry transactions.
      *
@@ -0,0 +1,20 @@
+package com.weighbridge.gateuser.payloads;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The vehicle read from the number plate at the gate, to pre-fill the gate entry form.
+ */
+@Data
+public class VehicleRecognitionResponse {
+
+    // The characters read from the plate, null if no plate was found
+    private String plateText;
+    // The closest registered vehicle, null if none is close enough or several are equally close
+    private String vehicle;
+    private List<String> transporters;
+    // Registered vehicles close to the plate read, the closest first
+    private List<String> candidates;
+}
@@ -6,6 +6,7 @@ import com.weighbridge.gateuser.payloads.GateEntryEditResponse;
 import com.weighbridge.gateuser.payloads.GateEntryTransactionPageResponse;
 import com.weighbridge.gateuser.payloads.GateEntryTransactionRequest;
 import com.weighbridge.gateuser.payloads.GateEntryTransactionResponse;
+import com.weighbridge.gateuser.payloads.VehicleRecognitionResponse;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -27,6 +28,14 @@ public interface GateEntryTransactionService {
                                      MultipartFile bottomImg4, MultipartFile leftImg5,
                                      MultipartFile rightImg6, String role);
 
+    /**
+     * Reads the number plate of the vehicle at the gate and finds it in the vehicle master.
+     *
+     * @param frontImg1 An image of the front of the vehicle. If null, the front camera of the site is snapshotted.
+     * @return The vehicle to pre-fill the gate entry with.
+     */
+    VehicleRecognitionResponse recognizeVehicle(String userId, String role, MultipartFile frontImg1);
+
     GateEntryEditResponse editGateEntryByTicketNo(Integer ticketNo,String userId);
 
     Integer updateGateEntryByTicketNo(GateEntryTransactionRequest gateEntryTransactionRequest,Integer ticketNo,String userId);
@@ -0,0 +1,183 @@
+package com.weighbridge.gateuser.services.impl;
+
+import com.weighbridge.admin.repsitories.VehicleMasterRepository;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import com.weighbridge.gateuser.entities.GateEntryTransaction;
+import com.weighbridge.gateuser.payloads.GateEntryTransactionResponse;
+import com.weighbridge.qualityuser.entites.QualityTransaction;
+import com.weighbridge.qualityuser.repository.QualityTransactionRepository;
+import com.weighbridge.weighbridgeoperator.entities.VehicleTransactionStatus;
+import com.weighbridge.weighbridgeoperator.repositories.VehicleTransactionStatusRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link GateEntryTransactionResponse} rows for a whole page of gate entry transactions at once.
+ * Names are taken from the master data cache and any misses are loaded with one IN query per master type,
+ * so the number of queries per page does not grow with the number of rows.
+ */
+@Component
+public class GateEntryTransactionEnricher {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+
+    @Autowired
+    private VehicleMasterRepository vehicleMasterRepository;
+    @Autowired
+    private MasterDataCacheService masterDataCacheService;
+    @Autowired
+    private VehicleTransactionStatusRepository vehicleTransactionStatusRepository;
+    @Autowired
+    private QualityTransactionRepository qualityTransactionRepository;
+
+    /**
+     * Loads the master data referenced by the given transactions.
+     *
+     * @param transactions The transactions of one page or report.
+     * @return The loaded master data, used to build the response rows.
+     */
+    public PageData load(Collection<GateEntryTransaction> transactions) {
+        Set<Long> vehicleIds = new HashSet<>();
+        Set<Long> transporterIds = new HashSet<>();
+        Set<Long> supplierIds = new HashSet<>();
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> materialIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        List<Integer> ticketNos = new ArrayList<>();
+        for (GateEntryTransaction transaction : transactions) {
+            ticketNos.add(transaction.getTicketNo());
+            vehicleIds.add(transaction.getVehicleId());
+            transporterIds.add(transaction.getTransporterId());
+            if ("Inbound".equals(transaction.getTransactionType())) {
+                supplierIds.add(transaction.getSupplierId());
+                materialIds.add(transaction.getMaterialId());
+            } else if ("Outbound".equals(transaction.getTransactionType())) {
+                customerIds.add(transaction.getCustomerId());
+                productIds.add(transaction.getMaterialId());
+            }
+        }
+
+        PageData pageData = new PageData(ticketNos);
+        pageData.vehicles = byId(vehicleIds, vehicleMasterRepository::findVehicleInfoByVehicleIdIn);
+        pageData.transporters = masterDataCacheService.getTransporterNames(transporterIds);
+        pageData.suppliers = masterDataCacheService.getSupplierNamesAndAddresses(supplierIds);
+        pageData.customers = masterDataCacheService.getCustomerNamesAndAddresses(customerIds);
+        pageData.materials = masterDataCacheService.getMaterialNames(materialIds);
+        pageData.products = masterDataCacheService.getProductNames(productIds);
+        return pageData;
+    }
+
+    private Map<Long, Object[]> byId(Set<Long> ids, Function<Collection<Long>, List<Object[]>> query) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return query.apply(ids).stream()
+                .collect(Collectors.toMap(row -> ((Number) row[0]).longValue(), Function.identity(), (first, second) -> first));
+    }
+
+    /**
+     * Master data for one page of transactions. Status codes and quality flags are loaded on first use,
+     * so pages that do not need them do not pay for the query.
+     */
+    public class PageData {
+
+        private final List<Integer> ticketNos;
+        private Map<Long, Object[]> vehicles;
+        private Map<Long, String> transporters;
+        private Map<Long, Object[]> suppliers;
+        private Map<Long, Object[]> customers;
+        private Map<Long, String> materials;
+        private Map<Long, String> products;
+        private Map<Integer, String> statusCodes;
+        private Set<Integer> qualityTicketNos;
+
+        private PageData(List<Integer> ticketNos) {
+            this.ticketNos = ticketNos;
+        }
+
+        /**
+         * @param ticketNo The ticket number of a transaction on this page.
+         * @return The current vehicle status code of the ticket, or an empty string if it has none.
+         */
+        public String statusCode(Integer ticketNo) {
+            if (statusCodes == null) {
+                statusCodes = ticketNos.isEmpty() ? Collections.emptyMap()
+                        : vehicleTransactionStatusRepository.findByTicketNoIn(ticketNos).stream()
+                        .filter(status -> status.getStatusCode() != null)
+                        .collect(Collectors.toMap(VehicleTransactionStatus::getTicketNo, VehicleTransactionStatus::getStatusCode, (first, second) -> first));
+            }
+            return statusCodes.getOrDefault(ticketNo, "");
+        }
+
+        /**
+         * @param ticketNo The ticket number of a transaction on this page.
+         * @return Whether a quality report has been recorded for the ticket.
+         */
+        public boolean hasQuality(Integer ticketNo) {
+            if (qualityTicketNos == null) {
+                qualityTicketNos = ticketNos.isEmpty() ? Collections.emptySet()
+                        : qualityTransactionRepository.findByGateEntryTransactionTicketNoIn(ticketNos).stream()
+                        .map(QualityTransaction::getGateEntryTransaction)
+                        .filter(Objects::nonNull)
+                        .map(GateEntryTransaction::getTicketNo)
+                        .collect(Collectors.toSet());
+            }
+            return qualityTicketNos.contains(ticketNo);
+        }
+
+        /**
+         * Builds the response row for a transaction from the loaded master data.
+         *
+         * @param transaction A transaction that was passed to {@link #load(Collection)}.
+         * @return The response row, without the quality flag.
+         */
+        public GateEntryTransactionResponse toResponse(GateEntryTransaction transaction) {
+            GateEntryTransactionResponse response = new GateEntryTransactionResponse();
+            response.setTicketNo(transaction.getTicketNo());
+            response.setTransactionType(transaction.getTransactionType());
+            response.setMaterialType(transaction.getMaterialType());
+
+            if ("Inbound".equals(transaction.getTransactionType())) {
+                Object[] supplierInfo = suppliers.get(transaction.getSupplierId());
+                if (supplierInfo != null) {
+                    response.setSupplier((String) supplierInfo[0]);
+                    response.setSupplierAddress((String) supplierInfo[1]);
+                }
+                response.setMaterial(materials.get(transaction.getMaterialId()));
+            } else if ("Outbound".equals(transaction.getTransactionType())) {
+                Object[] customerInfo = customers.get(transaction.getCustomerId());
+                if (customerInfo != null) {
+                    response.setCustomer((String) customerInfo[0]);
+                    response.setCustomerAddress((String) customerInfo[1]);
+                }
+                response.setMaterial(products.get(transaction.getMaterialId()));
+            }
+
+            Object[] vehicleInfo = vehicles.get(transaction.getVehicleId());
+            if (vehicleInfo != null) {
+                response.setVehicleNo((String) vehicleInfo[1]);
+                response.setVehicleType((String) vehicleInfo[2]);
+                response.setVehicleWheelsNo((Integer) vehicleInfo[3]);
+            }
+            if (transaction.getVehicleIn() != null) {
+                response.setVehicleIn(transaction.getVehicleIn().format(FORMATTER));
+            }
+            if (transaction.getVehicleOut() != null) {
+                response.setVehicleOut(transaction.getVehicleOut().format(FORMATTER));
+            }
+            response.setTransporter(transporters.get(transaction.getTransporterId()));
+            response.setPoNo(transaction.getPoNo());
+            response.setChallanNo(transaction.getChallanNo());
+            response.setTpNo(transaction.getTpNo());
+            response.setTpNetWeight(transaction.getSupplyConsignmentWeight());
+            response.setChallanDate(transaction.getChallanDate());
+            response.setTransactionDate(transaction.getTransactionDate());
+            return response;
+        }
+    }
+}
@@ -3,9 +3,8 @@ package com.weighbridge.gateuser.services.impl;
 import com.weighbridge.SalesManagement.entities.SalesProcess;
 import com.weighbridge.SalesManagement.repositories.SalesProcessRepository;
 //import com.weighbridge.admin.entities.CustomerMaster;
-import com.weighbridge.admin.entities.RoleMaster;
+import com.weighbridge.admin.entities.TransporterMaster;
 import com.weighbridge.admin.entities.UserAuthentication;
-import com.weighbridge.admin.entities.UserMaster;
 import com.weighbridge.admin.exceptions.ResourceNotFoundException;
 import com.weighbridge.admin.repsitories.*;
 import com.weighbridge.camera.entites.CameraView;
@@ -22,11 +21,6 @@ import com.weighbridge.qualityuser.repository.QualityTransactionRepository;
 import com.weighbridge.weighbridgeoperator.repositories.VehicleTransactionStatusRepository;
 import com.weighbridge.weighbridgeoperator.repositories.WeighmentTransactionRepository;
 import jakarta.servlet.http.HttpServletRequest;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.InputStreamEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cglib.core.Local;
@@ -46,22 +40,17 @@ import java.util.stream.Collectors;
 import com.weighbridge.admin.exceptions.ResourceNotFoundException;
 import com.weighbridge.admin.repsitories.RoleMasterRepository;
 import com.weighbridge.camera.entites.CameraView;
+import com.weighbridge.camera.entites.ImageSize;
 import com.weighbridge.camera.repositories.CameraRepository;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.services.CameraSnapshotService;
 import com.weighbridge.camera.services.CameraViewService;
+import com.weighbridge.camera.services.PlateRecognitionService;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import com.weighbridge.admin.payloads.UserContext;
+import com.weighbridge.admin.services.UserContextService;
 
-
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.FileEntity;
-import org.apache.http.entity.InputStreamEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import java.util.Base64;
-import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -119,16 +108,23 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
 
     @Autowired
     private CameraViewService cameraViewService;
-    @Value("${nextcloud.base-url}")
-    private String baseUrl;
 
-    @Value("${nextcloud.username}")
-    private String username;
-
-    @Value("${nextcloud.password}")
-    private String password;
+    @Autowired
+    private GateEntryTransactionEnricher gateEntryTransactionEnricher;
     @Autowired
     private CameraRepository cameraRepository;
+
+    @Autowired
+    private MasterDataCacheService masterDataCacheService;
+
+    @Autowired
+    private UserContextService userContextService;
+
+    @Autowired
+    private CameraSnapshotService cameraSnapshotService;
+
+    @Autowired
+    private PlateRecognitionService plateRecognitionService;
     
 
     /**
@@ -153,11 +149,11 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
             String userCompany = (String) Optional.ofNullable(session.getAttribute("userCompany"))
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session Expired, Login again!"));*/
 
-            UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+            UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-            String userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+            String userSite = (String) Optional.ofNullable(userContext.getSiteId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-            String userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+            String userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
 // Assign to GateEntryTransaction
             GateEntryTransaction gateEntryTransaction = new GateEntryTransaction();
@@ -363,11 +359,11 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
             } else {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session Expired, Login again !");
             }*/
-            UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+            UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-            String userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+            String userSite = (String) Optional.ofNullable(userContext.getSiteId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-            String userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+            String userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
             GateEntryTransaction gateEntryTransaction = gateEntryTransactionRepository.findByTicketNo(ticketNo);
             if (gateEntryTransaction == null) {
@@ -492,21 +488,61 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
         }
     }
 
+    @Override
+    public VehicleRecognitionResponse recognizeVehicle(String userId, String role, MultipartFile frontImg1) {
+        byte[] image;
+        if (frontImg1 != null && !frontImg1.isEmpty()) {
+            try {
+                image = frontImg1.getBytes();
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to read frontImg1", e);
+            }
+        } else {
+            UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+            Integer roleId = roleMasterRepository.findRoleIdByRoleName(role);
+            if (roleId == null) {
+                throw new ResourceNotFoundException("role is not found " + role);
+            }
+            image = cameraSnapshotService.capture(userContext.getCompanyId(), userContext.getSiteId(), roleId)
+                    .getImages().get(ImageAngle.FRONT);
+            if (image == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No image from the front camera.");
+            }
+        }
+
+        PlateRecognitionService.PlateRecognition recognition = plateRecognitionService.recognize(image);
+        List<PlateRecognitionService.VehicleMatch> matches = recognition.getMatches();
+        VehicleRecognitionResponse response = new VehicleRecognitionResponse();
+        response.setPlateText(recognition.getPlateText());
+        response.setCandidates(matches.stream().map(PlateRecognitionService.VehicleMatch::getVehicleNo).collect(Collectors.toList()));
+        // Only pre-filled if the closest match is unambiguous
+        if (!matches.isEmpty() && (matches.size() == 1 || matches.get(1).getEdits() > matches.get(0).getEdits())) {
+            String vehicleNo = matches.get(0).getVehicleNo();
+            response.setVehicle(vehicleNo);
+            response.setTransporters(vehicleMasterRepository.findTransportersByVehicleId(vehicleNo).stream()
+                    .map(TransporterMaster::getTransporterName)
+                    .collect(Collectors.toList()));
+        } else {
+            response.setTransporters(Collections.emptyList());
+        }
+        return response;
+    }
+
     @Override
     public GateEntryEditResponse editGateEntryByTicketNo(Integer ticketNo,String userId) {
         try {
-            UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+            UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-            String userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+            String userSite = (String) Optional.ofNullable(userContext.getSiteId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-            String userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+            String userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
             GateEntryTransaction transaction = gateEntryTransactionRepository.findByTicketNoAndCompanyIdAndSiteId(ticketNo, userCompany, userSite);
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
             GateEntryEditResponse response = new GateEntryEditResponse();
             // Fetching associated entity names
             Object[] vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId = vehicleMasterRepository.findDistinctVehicleInfoVehicleNoVehicleTypeFitnessByVehicleId(transaction.getVehicleId());
-            String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
+            String transporterName = masterDataCacheService.getTransporterName(transaction.getTransporterId());
 
             // Setting values to response object
             response.setTicketNo(String.valueOf(transaction.getTicketNo()));
@@ -517,22 +553,21 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
 
             // Check the transaction type and set the appropriate entity
             if ("Inbound".equals(transaction.getTransactionType())) {
-                Object[] supplierNameBySupplierId = supplierMasterRepository.findSupplierNameAndAddressBySupplierId(transaction.getSupplierId());
+                Object[] supplierInfo = masterDataCacheService.getSupplierNameAndAddress(transaction.getSupplierId());
                 // Inbound transaction
-                Object[] supplierInfo = (Object[]) supplierNameBySupplierId[0];
+
                 if (supplierInfo != null && supplierInfo.length >= 2) {
                     String supplierName = (String) supplierInfo[0];
                     String supplierAddress = (String) supplierInfo[1];
                     response.setSupplier(supplierName);
                     response.setSupplierAddressLine1(supplierAddress);
                 }
-                String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
+                String materialName = masterDataCacheService.getMaterialName(transaction.getMaterialId());
                 response.setMaterial(materialName);
             } else if ("Outbound".equals(transaction.getTransactionType())) {
-                Object[] customerNameByCustomerId = customerMasterRepository.findCustomerNameAndAddressBycustomerId(transaction.getCustomerId());
-                System.out.println(customerNameByCustomerId);
+                Object[] customerInfo = masterDataCacheService.getCustomerNameAndAddress(transaction.getCustomerId());
                 // Outbound transaction
-                Object[] customerInfo = (Object[]) customerNameByCustomerId[0];
+
                 if (customerInfo != null && customerInfo.length >= 2) {
                     String customerName = (String) customerInfo[0];
                     String customerAddress = (String) customerInfo[1];
@@ -540,7 +575,7 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
                     response.setCustomerAddressLine(customerAddress);
                 }
                 System.out.println(response);
-                String materialName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
+                String materialName = masterDataCacheService.getProductName(transaction.getMaterialId());
                 response.setMaterial(materialName);
             }
             Object[] vehicleInfo = (Object[]) vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId[0];
@@ -567,14 +602,12 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
             response.setEwayBillNo(transaction.getEwaybillNo());
             response.setDriverName(transaction.getDriverName());
             response.setDlNo(transaction.getDlNo());
-            Set<RoleMaster> rolesByUserId = userAuthenticationRepository.findRolesByUserId(userId);
-            String role = rolesByUserId.stream()
-                    .findFirst()
-                    .map(RoleMaster::getRoleName)
+            String role = userContextService.findUserContext(userId)
+                    .map(UserContext::getRole)
                     .orElseThrow(() -> new IllegalStateException("No roles found for userId: " + userId));
 
 
-            Map<String, byte[]> stringMap = cameraViewService.downloadImages(transaction.getTicketNo(), role, userSite, userCompany,"ENTRY");
+            Map<String, byte[]> stringMap = cameraViewService.downloadImages(transaction.getTicketNo(), role, userSite, userCompany,"ENTRY", ImageSize.ORIGINAL);
             response.setImagesMap(stringMap);
            /* QualityTransaction byTicketNo = qualityTransactionRepository.findByTicketNo(transaction.getTicketNo());
             if (byTicketNo != null) {
@@ -679,11 +712,11 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
             } else {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session Expired, Login again !");
             }*/
-            UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+            UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-            String userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+            String userSite = (String) Optional.ofNullable(userContext.getSiteId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-            String userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+            String userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
 
@@ -692,97 +725,15 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
             Integer totalPage = allTransactions.getTotalPages();
             Long totalElements = allTransactions.getTotalElements();
 
+            GateEntryTransactionEnricher.PageData pageData = gateEntryTransactionEnricher.load(allTransactions.getContent());
             List<GateEntryTransactionResponse> responseList = allTransactions.stream()
+                    // Skip the transaction if its vehicle has already exited (status code "GXT")
+                    .filter(transaction -> !"GXT".equals(pageData.statusCode(transaction.getTicketNo())))
                     .map(transaction -> {
-                        // Fetch status code for the current transaction ticket number
-                        VehicleTransactionStatus statusCode = vehicleTransactionStatusRepository.findByTicketNo(transaction.getTicketNo());
-                        // Skip processing and printing the transaction if its status code is "GXT"
-                        String code = statusCode != null ? statusCode.getStatusCode() : "";
-                        if ("GXT".equals(code)) {
-                            return null;
-                        }
-
-                        GateEntryTransactionResponse response = new GateEntryTransactionResponse();
-                        // Fetching associated entity names
-                        Object[] vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId = vehicleMasterRepository.findDistinctVehicleInfoByVehicleId(transaction.getVehicleId());
-                        String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
-
-                        // Setting values to response object
-                        response.setTicketNo(transaction.getTicketNo());
-                        response.setTransactionType(transaction.getTransactionType());
-                        response.setMaterialType(transaction.getMaterialType());
-
-                        // Check the transaction type and set the appropriate entity
-                        if ("Inbound".equals(transaction.getTransactionType())) {
-                            Object[] supplierNameBySupplierId = supplierMasterRepository.findSupplierNameAndAddressBySupplierId(transaction.getSupplierId());
-                            // Inbound transaction
-                            Object[] supplierInfo = (Object[]) supplierNameBySupplierId[0];
-                            if (supplierInfo != null && supplierInfo.length >= 2) {
-                                String supplierName = (String) supplierInfo[0];
-                                String supplierAddress = (String) supplierInfo[1];
-                                response.setSupplier(supplierName);
-                                response.setSupplierAddress(supplierAddress);
-                            }
-                            String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
-                            response.setMaterial(materialName);
-                        } else if ("Outbound".equals(transaction.getTransactionType())) {
-                            Object[] customerNameByCustomerId = customerMasterRepository.findCustomerNameAndAddressBycustomerId(transaction.getCustomerId());
-                            System.out.println(customerNameByCustomerId);
-                            // Outbound transaction
-                            Object[] customerInfo = (Object[]) customerNameByCustomerId[0];
-                            if (customerInfo != null && customerInfo.length >= 2) {
-                                String customerName = (String) customerInfo[0];
-                                String customerAddress = (String) customerInfo[1];
-                                response.setCustomer(customerName);
-                                response.setCustomerAddress(customerAddress);
-                            }
-                            System.out.println(response);
-                            String materialName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
-                            response.setMaterial(materialName);
-                        }
-                        Object[] vehicleInfo = (Object[]) vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId[0];
-                        if (vehicleInfo != null && vehicleInfo.length >= 3) {
-                            String vehicleNo = (String) vehicleInfo[0];
-                            String vehicleType = (String) vehicleInfo[1];
-                            Integer vehicleWheelsNo = (Integer) vehicleInfo[2];
-                            response.setVehicleNo(vehicleNo);
-                            response.setVehicleType(vehicleType);
-                            response.setVehicleWheelsNo(vehicleWheelsNo);
-                        } else {
-                            // Handle case where vehicle info is not available
-                            response.setVehicleNo(null);
-                            response.setVehicleType(null);
-                            response.setVehicleWheelsNo(null);
-                        }
-                        // Check if vehicle out transaction log exists
-                        if (transaction.getVehicleIn() != null) {
-                            // Vehicle out transaction log exists
-                            // Process the vehicle out data
-                            response.setVehicleIn(transaction.getVehicleIn().format(formatter));
-                        }
-                        // Check if vehicle out transaction log exists
-                        if (transaction.getVehicleOut() != null) {
-                            // Vehicle out transaction log exists
-                            // Process the vehicle out data
-                            response.setVehicleOut(transaction.getVehicleOut().format(formatter));
-                        }
-                        response.setPoNo(transaction.getPoNo());
-                        response.setChallanNo(transaction.getChallanNo());
-                        response.setTpNo(transaction.getTpNo());
-                        response.setTpNetWeight(transaction.getSupplyConsignmentWeight());
-                        response.setTransporter(transporterName);
-                        response.setChallanDate(transaction.getChallanDate());
-                        response.setTransactionDate(transaction.getTransactionDate());
-                        QualityTransaction byTicketNo = qualityTransactionRepository.findByTicketNo(transaction.getTicketNo());
-                        if (byTicketNo != null) {
-                            response.setQuality(true);
-                        } else {
-                            response.setQuality(false);
-                        }
-                        System.out.println("response " + response);
+                        GateEntryTransactionResponse response = pageData.toResponse(transaction);
+                        response.setQuality(pageData.hasQuality(transaction.getTicketNo()));
                         return response;
                     })
-                    .filter(Objects::nonNull)
                     .collect(Collectors.toList());
             GateEntryTransactionPageResponse gateEntryTransactionPageResponse = new GateEntryTransactionPageResponse();
             gateEntryTransactionPageResponse.setTransactions(responseList);
@@ -805,11 +756,11 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
             String userSiteAddress;
             // Set user session details
             if (companyName == null && siteName == null) {
-                UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+                UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-                userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+                userSite = (String) Optional.ofNullable(userContext.getSiteId())
                         .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-                userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+                userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                         .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
             } else if (companyName != null && !companyName.trim().isEmpty() && siteName != null && !siteName.trim().isEmpty()) {
 
@@ -848,97 +799,16 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
             LocalDate finalEndDate = endDate;
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
 
-            UserMaster user=userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("user not found"));
-            List<GateEntryTransaction> allTransactions = gateEntryTransactionRepository.findBySiteIdAndCompanyIdAndTransactionDateBetweenOrderByTransactionDateDesc(user.getSite().getSiteId(),user.getCompany().getCompanyId(), startDate, endDate);
+            UserContext user = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("user not found"));
+            List<GateEntryTransaction> allTransactions = gateEntryTransactionRepository.findBySiteIdAndCompanyIdAndTransactionDateBetweenOrderByTransactionDateDesc(user.getSiteId(),user.getCompanyId(), startDate, endDate);
             System.out.println("GateEntryTransactionServiceImpl.getAllGateEntryTransaction" + allTransactions);
-            List<GateEntryTransactionResponse> responseList = new ArrayList<>();
-            for (GateEntryTransaction transaction : allTransactions) {
-                // Fetch status code for the current transaction ticket number
-//                String statusCode = vehicleTransactionStatusRepository.findByTicketNo(transaction.getTicketNo()).getStatusCode();
-                // Skip processing and printing the transaction if its status code is "GXT"
-               /* if ("GXT".equals(statusCode)) {
-                    continue;
-                }*/
-                if (transaction.getVehicleOut() == null) {
-                    continue;
-                }
-
-                GateEntryTransactionResponse response = new GateEntryTransactionResponse();
-                // Fetching associated entity name
-                System.out.println("vehicle id" + transaction.getVehicleId());
-                Object[] vehicleNoAndVehicleTypeAndAndvehicleWheelsNoByVehicleId = vehicleMasterRepository.findDistinctVehicleInfoByVehicleId(transaction.getVehicleId());
-                System.out.println("vehicle " + vehicleNoAndVehicleTypeAndAndvehicleWheelsNoByVehicleId[0]);
-                String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
-                // Setting values to response object
-                response.setTicketNo(transaction.getTicketNo());
-                response.setTransactionType(transaction.getTransactionType());
-
-                response.setMaterialType(transaction.getMaterialType());
-                System.out.println("ticket no "+transaction.getTicketNo()+" type "+transaction.getTransactionType() );                // Check the transaction type and set the appropriate entity
-                if ("Inbound".equals(transaction.getTransactionType())) {
-                    Object[] supplierNameBySupplierId = supplierMasterRepository.findSupplierNameAndAddressBySupplierId(transaction.getSupplierId());
-                    // Inbound transaction
-                    Object[] supplierInfo = (Object[]) supplierNameBySupplierId[0];
-                    if (supplierInfo != null && supplierInfo.length >= 2) {
-                        String supplierName = (String) supplierInfo[0];
-                        String supplierAddress = (String) supplierInfo[1];
-                        response.setSupplier(supplierName);
-                        response.setSupplierAddress(supplierAddress);
-                    }
-                    String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
-                    response.setMaterial(materialName);
-                } else if ("Outbound".equals(transaction.getTransactionType())) {
-                    Object[] customerNameByCustomerId = customerMasterRepository.findCustomerNameAndAddressBycustomerId(transaction.getCustomerId());
-                    System.out.println("customer ////////"+customerNameByCustomerId);
-                    // Outbound transaction
-                    Object[] customerInfo = (Object[]) customerNameByCustomerId[0];
-                    if (customerInfo != null && customerInfo.length >= 2) {
-                        String customerName = (String) customerInfo[0];
-                        String customerAddress = (String) customerInfo[1];
-                        response.setCustomer(customerName);
-                        response.setCustomerAddress(customerAddress);
-                    }
-                    String materialName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
-                    response.setMaterial(materialName);
-                }
-
-                Object[] vehicleInfo = (Object[]) vehicleNoAndVehicleTypeAndAndvehicleWheelsNoByVehicleId[0];
-                if (vehicleInfo != null && vehicleInfo.length >= 3) {
-                    String vehicleNo = (String) vehicleInfo[0];
-                    String vehicleType = (String) vehicleInfo[1];
-                    Integer vehicleWheelsNo = (Integer) vehicleInfo[2];
-                    response.setVehicleNo(vehicleNo);
-                    response.setVehicleType(vehicleType);
-                    response.setVehicleWheelsNo(vehicleWheelsNo);
-                } else {
-                    // Handle case where vehicle info is not available
-                    response.setVehicleNo(null);
-                    response.setVehicleType(null);
-                    response.setVehicleWheelsNo(null);
-                }
-                // Check if vehicle out transaction log exists
-                if (transaction.getVehicleIn() != null) {
-                    // Vehicle out transaction log exists
-                    // Process the vehicle out data
-                    LocalDateTime vehicleIn = transaction.getVehicleIn();
-                    response.setVehicleIn(vehicleIn.format(formatter));
-
-                }
-                // Check if vehicle out transaction log exists
-                if (transaction.getVehicleOut() != null) {
-                    // Vehicle out transaction log exists
-                    // Process the vehicle out data
-                    response.setVehicleOut(transaction.getVehicleOut().format(formatter));
-                }
-                response.setPoNo(transaction.getPoNo());
-                response.setChallanNo(transaction.getChallanNo());
-                response.setTpNo(transaction.getTpNo());
-                response.setTpNetWeight(transaction.getSupplyConsignmentWeight());
-                response.setTransporter(transporterName);
-                response.setChallanDate(transaction.getChallanDate());
-                response.setTransactionDate(transaction.getTransactionDate());
-                responseList.add(response);
-            }
+            List<GateEntryTransaction> exitedTransactions = allTransactions.stream()
+                    .filter(transaction -> transaction.getVehicleOut() != null)
+                    .collect(Collectors.toList());
+            GateEntryTransactionEnricher.PageData pageData = gateEntryTransactionEnricher.load(exitedTransactions);
+            List<GateEntryTransactionResponse> responseList = exitedTransactions.stream()
+                    .map(pageData::toResponse)
+                    .collect(Collectors.toList());
             return responseList;
         } catch (Exception ex) {
             // Log the error
@@ -953,11 +823,11 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
         String userId;
         String userCompany;
         String userSite;*/
-        UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+        UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-        String userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+        String userSite = (String) Optional.ofNullable(userContext.getSiteId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-        String userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+        String userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
         try {
             /*if (session != null && session.getAttribute("userId") != null) {
@@ -972,88 +842,9 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
             Integer totalPage = allTransactions.getTotalPages();
             Long totalElements = allTransactions.getTotalElements();
 
+            GateEntryTransactionEnricher.PageData pageData = gateEntryTransactionEnricher.load(allTransactions.getContent());
             List<GateEntryTransactionResponse> responseList = allTransactions.stream()
-                    .map(transaction -> {
-                        // Fetch status code for the current transaction ticket number
-                        String statusCode = vehicleTransactionStatusRepository.findByTicketNo(transaction.getTicketNo()).getStatusCode();
-                        // Skip processing and printing the transaction if its status code is "GXT"
-                   /* if ("GXT".equals(statusCode)) {
-                        return null;
-                    }*/
-                        GateEntryTransactionResponse response = new GateEntryTransactionResponse();
-                        // Fetching associated entity names
-                        Object[] vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId = vehicleMasterRepository.findDistinctVehicleInfoByVehicleId(transaction.getVehicleId());
-                        String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
-
-                        // Setting values to response object
-                        response.setTicketNo(transaction.getTicketNo());
-                        response.setTransactionType(transaction.getTransactionType());
-                        response.setMaterialType(transaction.getMaterialType());
-
-                        // Check the transaction type and set the appropriate entity
-                        if ("Inbound".equals(transaction.getTransactionType())) {
-                            Object[] supplierNameBySupplierId = supplierMasterRepository.findSupplierNameAndAddressBySupplierId(transaction.getSupplierId());
-                            // Inbound transaction
-                            Object[] supplierInfo = (Object[]) supplierNameBySupplierId[0];
-                            if (supplierInfo != null && supplierInfo.length >= 2) {
-                                String supplierName = (String) supplierInfo[0];
-                                String supplierAddress = (String) supplierInfo[1];
-                                response.setSupplier(supplierName);
-                                response.setSupplierAddress(supplierAddress);
-                            }
-                            String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
-                            response.setMaterial(materialName);
-                        } else if ("Outbound".equals(transaction.getTransactionType())) {
-                            Object[] customerNameByCustomerId = customerMasterRepository.findCustomerNameAndAddressBycustomerId(transaction.getCustomerId());
-                            System.out.println(customerNameByCustomerId);
-                            // Outbound transaction
-                            Object[] customerInfo = (Object[]) customerNameByCustomerId[0];
-                            if (customerInfo != null && customerInfo.length >= 2) {
-                                String customerName = (String) customerInfo[0];
-                                String customerAddress = (String) customerInfo[1];
-                                response.setCustomer(customerName);
-                                response.setCustomerAddress(customerAddress);
-                            }
-                            String materialName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
-                            response.setMaterial(materialName);
-                        }
-                        Object[] vehicleInfo = (Object[]) vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId[0];
-                        if (vehicleInfo != null && vehicleInfo.length >= 3) {
-                            String vehicleNo = (String) vehicleInfo[0];
-                            String vehicleType = (String) vehicleInfo[1];
-                            Integer vehicleWheelsNo = (Integer) vehicleInfo[2];
-                            response.setVehicleNo(vehicleNo);
-                            response.setVehicleType(vehicleType);
-                            response.setVehicleWheelsNo(vehicleWheelsNo);
-                        } else {
-                            // Handle case where vehicle info is not available
-                            response.setVehicleNo(null);
-                            response.setVehicleType(null);
-                            response.setVehicleWheelsNo(null);
-                        }
-                        // Check if vehicle out transaction log exists
-                        if (transaction.getVehicleIn() != null) {
-                            // Vehicle out transaction log exists
-                            // Process the vehicle out data
-                            response.setVehicleIn(transaction.getVehicleIn().format(formatter));
-                        }
-                        // Check if vehicle out transaction log exists
-                        if (transaction.getVehicleOut() != null) {
-                            // Vehicle out transaction log exists
-                            // Process the vehicle out data
-                            response.setVehicleOut(transaction.getVehicleOut().format(formatter));
-                        }
-                        response.setPoNo(transaction.getPoNo());
-                        response.setChallanNo(transaction.getChallanNo());
-                        response.setTpNo(transaction.getTpNo());
-                        response.setTpNetWeight(transaction.getSupplyConsignmentWeight());
-                        response.setTransporter(transporterName);
-                        response.setChallanDate(transaction.getChallanDate());
-                        response.setTransactionDate(transaction.getTransactionDate());
-                        System.out.println("response " + response);
-                        return response;
-                    })
-                    .filter(Objects::nonNull)
+                    .map(pageData::toResponse)
                     .collect(Collectors.toList());
             GateEntryTransactionPageResponse gateEntryTransactionPageResponse = new GateEntryTransactionPageResponse();
             gateEntryTransactionPageResponse.setTransactions(responseList);
@@ -1074,91 +865,19 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
     public GateEntryTransactionPageResponse findTransactionsByFiltering(Integer ticketNo, String vehicleNo, LocalDate date, String supplierNameC, String transactionType, Pageable pageable, String vehicleStatus,String userId) {
         try {
             // Set user session details
-            UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+            UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-            String userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+            String userSite = (String) Optional.ofNullable(userContext.getSiteId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-            String userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+            String userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
             Page<GateEntryTransaction> gateEntryTransactionPage = gateEntryTransactionRepository.findAll(gateEntryTransactionSpecification.getTransactions(ticketNo, vehicleNo, date, supplierNameC, transactionType, vehicleStatus)
                     .and(gateEntryTransactionSpecification.filterBySiteAndCompany(userSite, userCompany)), pageable);
             // Convert Page content to List
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+            GateEntryTransactionEnricher.PageData pageData = gateEntryTransactionEnricher.load(gateEntryTransactionPage.getContent());
             List<GateEntryTransactionResponse> transactionResponses = gateEntryTransactionPage.getContent().stream()
-                    .map(transaction -> {
-                        // Set all fields from transaction to response
-                        GateEntryTransactionResponse response = new GateEntryTransactionResponse();
-                        // Fetching associated entity names
-                        Object[] vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId = vehicleMasterRepository.findDistinctVehicleInfoByVehicleId(transaction.getVehicleId());
-                        String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
-
-                        // Setting values to response object
-                        response.setTicketNo(transaction.getTicketNo());
-                        response.setTransactionType(transaction.getTransactionType());
-                        response.setMaterialType(transaction.getMaterialType());
-
-                        // Check the transaction type and set the appropriate entity
-                        if ("Inbound".equals(transaction.getTransactionType())) {
-                            Object[] supplierNameBySupplierId = supplierMasterRepository.findSupplierNameAndAddressBySupplierId(transaction.getSupplierId());
-                            // Inbound transaction
-                            Object[] supplierInfo = (Object[]) supplierNameBySupplierId[0];
-                            if (supplierInfo != null && supplierInfo.length >= 2) {
-                                String supplierName = (String) supplierInfo[0];
-                                String supplierAddress = (String) supplierInfo[1];
-                                response.setSupplier(supplierName);
-                                response.setSupplierAddress(supplierAddress);
-                            }
-                            String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
-                            response.setMaterial(materialName);
-                        } else if ("Outbound".equals(transaction.getTransactionType())) {
-                            Object[] customerNameByCustomerId = customerMasterRepository.findCustomerNameAndAddressBycustomerId(transaction.getCustomerId());
-                            // Outbound transaction
-                            Object[] customerInfo = (Object[]) customerNameByCustomerId[0];
-                            if (customerInfo != null && customerInfo.length >= 2) {
-                                String customerName = (String) customerInfo[0];
-                                String customerAddress = (String) customerInfo[1];
-                                response.setCustomer(customerName);
-                                response.setCustomerAddress(customerAddress);
-                            }
-                            String materialName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
-                            response.setMaterial(materialName);
-                        }
-                        Object[] vehicleInfo = (Object[]) vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId[0];
-                        if (vehicleInfo != null && vehicleInfo.length >= 3) {
-                            String vehicleNoGet = (String) vehicleInfo[0];
-                            String vehicleType = (String) vehicleInfo[1];
-                            Integer vehicleWheelsNo = (Integer) vehicleInfo[2];
-                            response.setVehicleNo(vehicleNoGet);
-                            response.setVehicleType(vehicleType);
-                            response.setVehicleWheelsNo(vehicleWheelsNo);
-                        } else {
-                            // Handle case where vehicle info is not available
-                            response.setVehicleNo(null);
-                            response.setVehicleType(null);
-                            response.setVehicleWheelsNo(null);
-                        }
-                        // Check if vehicle out transaction log exists
-                        if (transaction.getVehicleIn() != null) {
-                            // Vehicle out transaction log exists
-                            // Process the vehicle out data
-                            response.setVehicleIn(transaction.getVehicleIn().format(formatter));
-                        }
-                        // Check if vehicle out transaction log exists
-                        if (transaction.getVehicleOut() != null) {
-                            // Vehicle out transaction log exists
-                            // Process the vehicle out data
-                            response.setVehicleOut(transaction.getVehicleOut().format(formatter));
-                        }
-                        response.setPoNo(transaction.getPoNo());
-                        response.setChallanNo(transaction.getChallanNo());
-                        response.setTpNo(transaction.getTpNo());
-                        response.setTpNetWeight(transaction.getSupplyConsignmentWeight());
-                        response.setTransporter(transporterName);
-                        response.setChallanDate(transaction.getChallanDate());
-                        response.setTransactionDate(transaction.getTransactionDate());
-                        System.out.println("response " + response);
-                        return response;
-                    })
+                    .map(pageData::toResponse)
                     .collect(Collectors.toList());
 
             // Populate the custom response DTO
@@ -1203,14 +922,13 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
             gateEntryPrint.setTpNetWeight(gateEntryTransaction.getSupplyConsignmentWeight());
             gateEntryPrint.setTpNo(gateEntryTransaction.getTpNo());
             gateEntryPrint.setTransactionDate(gateEntryTransaction.getTransactionDate() != null ? String.valueOf(gateEntryTransaction.getTransactionDate()) : "");
-            gateEntryPrint.setVehicleNo(vehicleMasterRepository.findVehicleNoById(gateEntryTransaction.getVehicleId()));
+            gateEntryPrint.setVehicleNo(masterDataCacheService.getVehicleNo(gateEntryTransaction.getVehicleId()));
             gateEntryPrint.setVehicleIn(gateEntryTransaction.getVehicleIn() != null ? gateEntryTransaction.getVehicleIn().format(formatter) : "");
             gateEntryPrint.setVehicleOut(gateEntryTransaction.getVehicleOut() != null ? gateEntryTransaction.getVehicleOut().format(formatter) : "");
-            gateEntryPrint.setTransporter(transporterMasterRepository.findTransporterNameByTransporterId(gateEntryTransaction.getTransporterId()));
+            gateEntryPrint.setTransporter(masterDataCacheService.getTransporterName(gateEntryTransaction.getTransporterId()));
             if (gateEntryTransaction.getTransactionType().equalsIgnoreCase("Inbound")) {
-                gateEntryPrint.setMaterial(materialMasterRepository.findMaterialNameByMaterialId(gateEntryTransaction.getMaterialId()));
-                Object[] supplierNameAndAddressBySupplierId = supplierMasterRepository.findSupplierNameAndAddressBySupplierId(gateEntryTransaction.getSupplierId());
-                Object[] supplierInfo = (Object[]) supplierNameAndAddressBySupplierId[0];
+                gateEntryPrint.setMaterial(masterDataCacheService.getMaterialName(gateEntryTransaction.getMaterialId()));
+                Object[] supplierInfo = masterDataCacheService.getSupplierNameAndAddress(gateEntryTransaction.getSupplierId());
                 if (supplierInfo != null && supplierInfo.length >= 2) {
                     String supplierName = (String) supplierInfo[0];
                     String supplierAddress = (String) supplierInfo[1];
@@ -1219,10 +937,9 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
                 }
                 gateEntryPrint.setMaterialType(gateEntryTransaction.getMaterialType());
             } else {
-                gateEntryPrint.setProductName(productMasterRepository.findProductNameByProductId(gateEntryTransaction.getMaterialId()));
+                gateEntryPrint.setProductName(masterDataCacheService.getProductName(gateEntryTransaction.getMaterialId()));
                 gateEntryPrint.setProductType(gateEntryPrint.getMaterialType());
-                Object[] customerNameAndAddressBycustomerId = customerMasterRepository.findCustomerNameAndAddressBycustomerId(gateEntryTransaction.getCustomerId());
-                Object[] customerInfo = (Object[]) customerNameAndAddressBycustomerId[0];
+                Object[] customerInfo = masterDataCacheService.getCustomerNameAndAddress(gateEntryTransaction.getCustomerId());
                 if (customerInfo != null && customerInfo.length >= 2) {
                     String customerName = (String) customerInfo[0];
                     String customerAddress = (String) customerInfo[1];
@@ -1239,11 +956,11 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
 
     @Override
     public Long countPendingGateTransactionsInbound(String userId) {
-        UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+        UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-        String userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+        String userSite = (String) Optional.ofNullable(userContext.getSiteId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-        String userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+        String userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
         Long count = gateEntryTransactionRepository.countPendingGateTransactionsInbound(userSite,userCompany);
         if (count != null) {
@@ -1254,11 +971,11 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
 
     @Override
     public Long countPendingGateTransactionsOutbound(String userId) {
-        UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+        UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-        String userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+        String userSite = (String) Optional.ofNullable(userContext.getSiteId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-        String userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+        String userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
         Long count = gateEntryTransactionRepository.countPendingGateTransactionsOutbound(userSite,userCompany);
         if (count != null) {
@@ -1269,11 +986,11 @@ public class GateEntryTransactionServiceImpl implements GateEntryTransactionServ
 
     @Override
     public Long countCompleteTransactions(String userId) {
-        UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
+        UserContext userContext = userContextService.findUserContext(userId).orElseThrow(()-> new IllegalArgumentException("User Not Found "+userId));
 
-        String userSite = (String) Optional.ofNullable(userMaster.getSite().getSiteId())
+        String userSite = (String) Optional.ofNullable(userContext.getSiteId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserSite Not Found! "));
-        String userCompany = (String) Optional.ofNullable(userMaster.getCompany().getCompanyId())
+        String userCompany = (String) Optional.ofNullable(userContext.getCompanyId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserCompany Not Found! "));
         Long count = gateEntryTransactionRepository.countCompleteGateTransaction(userSite,userCompany);
         if (count != null) {
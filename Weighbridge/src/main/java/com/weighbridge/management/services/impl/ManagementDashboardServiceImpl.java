@@ -42,6 +42,7 @@ import com.weighbridge.weighbridgeoperator.entities.VehicleTransactionStatus;
 import com.weighbridge.weighbridgeoperator.entities.WeighmentTransaction;
 import com.weighbridge.weighbridgeoperator.repositories.WeighmentTransactionRepository;
 import com.weighbridge.weighbridgeoperator.repositories.VehicleTransactionStatusRepository;
+import com.weighbridge.admin.services.MasterDataCacheService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.modelmapper.ModelMapper;
 
@@ -65,6 +66,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static com.weighbridge.weighbridgeoperator.payloads.WeightUnits.toTonnes;
+
 @Slf4j
 @Service
 public class ManagementDashboardServiceImpl implements ManagementDashboardService {
@@ -111,6 +114,9 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
     @Autowired
     private QualityRangeMasterRepository qualityRangeMasterRepository;
 
+    @Autowired
+    private MasterDataCacheService masterDataCacheService;
+
     @Override
     public MaterialProductDataResponse getMaterialProductBarChartData(ManagementPayload managementRequest) {
         LocalDate startDate = managementRequest.getFromDate();
@@ -135,27 +141,29 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
             List<String> allMaterials = materialMasterRepository.findAllMaterialNameByMaterialStatus("ACTIVE");
             List<String> allProducts = productMasterRepository.findAllProductNameByProductStatus("ACTIVE");
 
-            Map<String, Double> materialData = new HashMap<>(); // Use HashMap for dynamic material names
+            Map<String, Long> materialData = new HashMap<>(); // Use HashMap for dynamic material names
             for (String material : allMaterials) {
-                materialData.put(material, 0.0);
+                materialData.put(material, 0L);
             }
             for (String product : allProducts) {
-                materialData.put(product, 0.0);
+                materialData.put(product, 0L);
             }
             for (WeighmentTransaction weighmentTransaction : weighmentTransactionList) {
-                if (weighmentTransaction.getNetWeight() != 0.0) {
+                if (weighmentTransaction.getNetWeight() != 0) {
                     String transactionType = weighmentTransaction.getGateEntryTransaction().getTransactionType();
                     long materialOrProductId = weighmentTransaction.getGateEntryTransaction().getMaterialId();
                     String materialName;
                     if (transactionType.equals("Inbound")) {
-                        materialName = materialMasterRepository.findMaterialNameByMaterialId(materialOrProductId);
+                        materialName = masterDataCacheService.getMaterialName(materialOrProductId);
                     } else {
-                        materialName = productMasterRepository.findProductNameByProductId(materialOrProductId);
+                        materialName = masterDataCacheService.getProductName(materialOrProductId);
                     }
                     materialData.put(materialName, materialData.get(materialName) + weighmentTransaction.getNetWeight());
                 }
             }
-            materialProductData.setMaterialData(materialData);
+            Map<String, Double> materialTonnes = new HashMap<>();
+            materialData.forEach((name, kilograms) -> materialTonnes.put(name, toTonnes(kilograms)));
+            materialProductData.setMaterialData(materialTonnes);
             materialProductDataList.add(materialProductData);
         }
         response.setMaterialProductData(materialProductDataList);
@@ -271,7 +279,7 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
                 } else {
                     managementQualityDashboardResponse.setQualityType("Bad");
                 }
-                managementQualityDashboardResponse.setVehicleNo(vehicleMasterRepository.findVehicleNoById(transaction.getGateEntryTransaction().getVehicleId()));
+                managementQualityDashboardResponse.setVehicleNo(masterDataCacheService.getVehicleNo(transaction.getGateEntryTransaction().getVehicleId()));
                 managementQualityDashboardResponse.setProductOrMaterialType(transaction.getGateEntryTransaction().getMaterialType());
                 managementQualityDashboardResponse.setProductOrMaterialName(getMaterialOrProductName(transaction.getGateEntryTransaction()));
 
@@ -333,7 +341,7 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
         boolean isGoodQuality = transaction.getIsQualityGood() != null && transaction.getIsQualityGood();
         managementQualityDashboardResponse.setQualityType(isGoodQuality ? "Good" : "Bad");
 
-        managementQualityDashboardResponse.setVehicleNo(vehicleMasterRepository.findVehicleNoById(transaction.getGateEntryTransaction().getVehicleId()));
+        managementQualityDashboardResponse.setVehicleNo(masterDataCacheService.getVehicleNo(transaction.getGateEntryTransaction().getVehicleId()));
         managementQualityDashboardResponse.setProductOrMaterialType(transaction.getGateEntryTransaction().getMaterialType());
         managementQualityDashboardResponse.setProductOrMaterialName(getMaterialOrProductName(transaction.getGateEntryTransaction()));
 
@@ -378,7 +386,7 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
                             managementQualityDashboardResponse.setSupplierOrCustomerAddress(customerMaster.getCustomerAddressLine2());
                         }
                     }
-                    managementQualityDashboardResponse.setVehicleNo(vehicleMasterRepository.findVehicleNoById(transaction.getGateEntryTransaction().getVehicleId()));
+                    managementQualityDashboardResponse.setVehicleNo(masterDataCacheService.getVehicleNo(transaction.getGateEntryTransaction().getVehicleId()));
                     managementQualityDashboardResponse.setProductOrMaterialType(transaction.getGateEntryTransaction().getMaterialType());
                     managementQualityDashboardResponse.setProductOrMaterialName(getMaterialOrProductName(transaction.getGateEntryTransaction()));
                     managementQualityDashboardResponse.setQualityType(isGoodQuality ? "Good" : "Bad");
@@ -450,7 +458,7 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
         Object[] vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId = vehicleMasterRepository.findDistinctVehicleInfoByVehicleId(transaction.getVehicleId());
 
         // Set transporter name
-        String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
+        String transporterName = masterDataCacheService.getTransporterName(transaction.getTransporterId());
         response.setTransporter(transporterName);
 
         // Set timestamps for vehicle in and out
@@ -462,28 +470,28 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
         }
 
         if ("Inbound".equals(transaction.getTransactionType())) {
-            Object[] supplierNameBySupplierId = supplierMasterRepository.findSupplierNameAndAddressBySupplierId(transaction.getSupplierId());
+            Object[] supplierInfo = masterDataCacheService.getSupplierNameAndAddress(transaction.getSupplierId());
             // Inbound transaction
-            Object[] supplierInfo = (Object[]) supplierNameBySupplierId[0];
+
             if (supplierInfo != null && supplierInfo.length >= 2) {
                 String supplierName = (String) supplierInfo[0];
                 String supplierAddress = (String) supplierInfo[1];
                 response.setSupplier(supplierName);
                 response.setSupplierAddress(supplierAddress);
             }
-            String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
+            String materialName = masterDataCacheService.getMaterialName(transaction.getMaterialId());
             response.setMaterial(materialName);
         } else if ("Outbound".equals(transaction.getTransactionType())) {
-            Object[] customerNameByCustomerId = customerMasterRepository.findCustomerNameAndAddressBycustomerId(transaction.getCustomerId());
+            Object[] customerInfo = masterDataCacheService.getCustomerNameAndAddress(transaction.getCustomerId());
             // Outbound transaction
-            Object[] customerInfo = (Object[]) customerNameByCustomerId[0];
+
             if (customerInfo != null && customerInfo.length >= 2) {
                 String customerName = (String) customerInfo[0];
                 String customerAddress = (String) customerInfo[1];
                 response.setCustomer(customerName);
                 response.setCustomerAddress(customerAddress);
             }
-            String materialName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
+            String materialName = masterDataCacheService.getProductName(transaction.getMaterialId());
             response.setMaterial(materialName);
         }
         Object[] vehicleInfo = (Object[]) vehicleNoAndVehicleTypeAndVehicleWheelsNoByVehicleId[0];
@@ -523,9 +531,9 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
         // Fetch and set weighment details
         WeighmentTransaction weighmentTransaction = weighmentTransactionRepository.findByGateEntryTransactionTicketNo(transaction.getTicketNo());
         if (weighmentTransaction != null) {
-            response.setGrossWeight(weighmentTransaction.getGrossWeight());
-            response.setTareWeight(weighmentTransaction.getTareWeight());
-            response.setNetWeight(weighmentTransaction.getNetWeight());
+            response.setGrossWeight(toTonnes(weighmentTransaction.getGrossWeight()));
+            response.setTareWeight(toTonnes(weighmentTransaction.getTareWeight()));
+            response.setNetWeight(toTonnes(weighmentTransaction.getNetWeight()));
             response.setWeighmentNo(weighmentTransaction.getWeighmentNo());
         }
 
@@ -665,9 +673,9 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
         }
         String materialName;
         if ("Inbound".equalsIgnoreCase(gateEntryTransaction.getTransactionType())) {
-            materialName = materialMasterRepository.findMaterialNameByMaterialId(gateEntryTransaction.getMaterialId());
+            materialName = masterDataCacheService.getMaterialName(gateEntryTransaction.getMaterialId());
         } else {
-            materialName = productMasterRepository.findProductNameByProductId(gateEntryTransaction.getMaterialId());
+            materialName = masterDataCacheService.getProductName(gateEntryTransaction.getMaterialId());
         }
         if (materialName == null) {
             return "materialOrProductName is not found";
@@ -707,13 +715,13 @@ public class ManagementDashboardServiceImpl implements ManagementDashboardServic
             weightResponseForGraph.setTransactionDate(date != null ? date.format(formatter) : "");
             String materialNameByMaterialId;
             if (transactionType.equalsIgnoreCase("Inbound")) {
-                materialNameByMaterialId = materialMasterRepository.findMaterialNameByMaterialId((Long) result[1]);
+                materialNameByMaterialId = masterDataCacheService.getMaterialName((Long) result[1]);
             } else {
-                materialNameByMaterialId = productMasterRepository.findProductNameByProductId((Long) result[1]);
+                materialNameByMaterialId = masterDataCacheService.getProductName((Long) result[1]);
             }
 
             weightResponseForGraph.setMaterialName(materialNameByMaterialId);
-            weightResponseForGraph.setTotalQuantity((Double) result[2]);
+            weightResponseForGraph.setTotalQuantity(toTonnes((Long) result[2]));
             weightResponseForGraphs.add(weightResponseForGraph);
         }
         return weightResponseForGraphs;
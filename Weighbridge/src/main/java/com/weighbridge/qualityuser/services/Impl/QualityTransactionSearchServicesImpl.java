@@ -2,7 +2,6 @@ package com.weighbridge.qualityuser.services.Impl;
 
 import com.weighbridge.admin.entities.CustomerMaster;
 import com.weighbridge.admin.entities.SupplierMaster;
-import com.weighbridge.admin.entities.UserMaster;
 import com.weighbridge.admin.entities.VehicleMaster;
 import com.weighbridge.admin.repsitories.CompanyMasterRepository;
 import com.weighbridge.admin.repsitories.CustomerMasterRepository;
@@ -23,6 +22,9 @@ import com.weighbridge.qualityuser.payloads.QualityDashboardResponse;
 import com.weighbridge.qualityuser.repository.QualityTransactionRepository;
 import com.weighbridge.qualityuser.services.QualityTransactionSearchService;
 import com.weighbridge.weighbridgeoperator.repositories.VehicleTransactionStatusRepository;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import com.weighbridge.admin.payloads.UserContext;
+import com.weighbridge.admin.services.UserContextService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -54,8 +56,10 @@ public class QualityTransactionSearchServicesImpl implements QualityTransactionS
     private final CompanyMasterRepository companyMasterRepository;
     private final ProductMasterRepository productMasterRepository;
     private final UserMasterRepository userMasterRepository;
+    private final MasterDataCacheService masterDataCacheService;
+    private final UserContextService userContextService;
 
-    public QualityTransactionSearchServicesImpl(QualityTransactionRepository qualityTransactionRepository, GateEntryTransactionRepository gateEntryTransactionRepository, HttpServletRequest httpServletRequest, VehicleTransactionStatusRepository vehicleTransactionStatusRepository, SupplierMasterRepository supplierMasterRepository, CustomerMasterRepository customerMasterRepository, MaterialMasterRepository materialMasterRepository, TransporterMasterRepository transporterMasterRepository, VehicleMasterRepository vehicleMasterRepository, TransactionLogRepository transactionLogRepository, QualityRangeMasterRepository qualityRangeMasterRepository, CompanyMasterRepository companyMasterRepository, ProductMasterRepository productMasterRepository, UserMasterRepository userMasterRepository) {
+    public QualityTransactionSearchServicesImpl(QualityTransactionRepository qualityTransactionRepository, GateEntryTransactionRepository gateEntryTransactionRepository, HttpServletRequest httpServletRequest, VehicleTransactionStatusRepository vehicleTransactionStatusRepository, SupplierMasterRepository supplierMasterRepository, CustomerMasterRepository customerMasterRepository, MaterialMasterRepository materialMasterRepository, TransporterMasterRepository transporterMasterRepository, VehicleMasterRepository vehicleMasterRepository, TransactionLogRepository transactionLogRepository, QualityRangeMasterRepository qualityRangeMasterRepository, CompanyMasterRepository companyMasterRepository, ProductMasterRepository productMasterRepository, UserMasterRepository userMasterRepository, MasterDataCacheService masterDataCacheService, UserContextService userContextService) {
         this.qualityTransactionRepository = qualityTransactionRepository;
         this.gateEntryTransactionRepository = gateEntryTransactionRepository;
         this.httpServletRequest = httpServletRequest;
@@ -70,15 +74,17 @@ public class QualityTransactionSearchServicesImpl implements QualityTransactionS
         this.companyMasterRepository = companyMasterRepository;
         this.productMasterRepository = productMasterRepository;
         this.userMasterRepository = userMasterRepository;
+        this.masterDataCacheService = masterDataCacheService;
+        this.userContextService = userContextService;
     }
 
     @Override
     public QualityDashboardResponse searchByTicketNo(Integer ticketNo, String userId, boolean checkQualityCompleted) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
         if (ticketNo == null) {
             throw new IllegalArgumentException("Ticket number cannot be null");
         }
@@ -105,11 +111,11 @@ public class QualityTransactionSearchServicesImpl implements QualityTransactionS
     //search by supplierName and address
     @Override
 public List<QualityDashboardResponse> searchBySupplierOrCustomerNameAndAddress(String supplierOrCustomerName, String supplierOrCustomerAddress, String userId) {
-    UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+    UserContext userContext = userContextService.findUserContext(userId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-    String userSite = userMaster.getSite().getSiteId();
-    String userCompany = userMaster.getCompany().getCompanyId();
+    String userSite = userContext.getSiteId();
+    String userCompany = userContext.getCompanyId();
 
     List<QualityDashboardResponse> responses = new ArrayList<>();
 
@@ -172,11 +178,11 @@ public List<QualityDashboardResponse> searchBySupplierOrCustomerNameAndAddress(S
 
     @Override
 public List<QualityDashboardResponse> searchBySupplierOrCustomerNameAndAddressQctCompleted(String supplierOrCustomerName, String supplierOrCustomerAddress, String userId) {
-    UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+    UserContext userContext = userContextService.findUserContext(userId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-    String userSite = userMaster.getSite().getSiteId();
-    String userCompany = userMaster.getCompany().getCompanyId();
+    String userSite = userContext.getSiteId();
+    String userCompany = userContext.getCompanyId();
 
     List<QualityDashboardResponse> responses = new ArrayList<>();
 
@@ -225,11 +231,11 @@ public List<QualityDashboardResponse> searchBySupplierOrCustomerNameAndAddressQc
     public List<QualityDashboardResponse> searchByDate(String date, String userId) {
         List<QualityDashboardResponse> responses = new ArrayList<>();
         try {
-            UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+            UserContext userContext = userContextService.findUserContext(userId)
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-            String userSite = userMaster.getSite().getSiteId();
-            String userCompany = userMaster.getCompany().getCompanyId();
+            String userSite = userContext.getSiteId();
+            String userCompany = userContext.getCompanyId();
 
             LocalDate searchDate = LocalDate.parse(date);
 
@@ -261,11 +267,11 @@ public List<QualityDashboardResponse> searchBySupplierOrCustomerNameAndAddressQc
 
     @Override
     public List<QualityDashboardResponse> searchByVehicleNo(String vehicleNo, String userId) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
 
         List<QualityDashboardResponse> responses = new ArrayList<>();
         // Search by vehicleNo
@@ -310,11 +316,11 @@ public List<QualityDashboardResponse> searchBySupplierOrCustomerNameAndAddressQc
 
     @Override
     public List<QualityDashboardResponse> searchByQCTCompletedVehicleNo(String vehicleNo, String userId) {
-         UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+         UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
         
         List<QualityDashboardResponse> responses = new ArrayList<>();
         
@@ -351,12 +357,12 @@ public List<QualityDashboardResponse> searchBySupplierOrCustomerNameAndAddressQc
         qualityDashboardResponse.setTransactionType(transaction.getTransactionType());
         // Inbound transaction details
         if (transaction.getTransactionType().equals("Inbound")) {
-            supplierMasterRepository.findSupplierNameBySupplierId(transaction.getSupplierId());
+            masterDataCacheService.getSupplierName(transaction.getSupplierId());
             SupplierMaster supplierMaster = supplierMasterRepository.findById(transaction.getSupplierId()).orElseThrow(() -> new ResourceNotFoundException("Supplier", "id", String.valueOf(transaction.getSupplierId())));
             qualityDashboardResponse.setSupplierOrCustomerName(supplierMaster.getSupplierName());
             String supplierAddress = supplierMaster.getSupplierAddressLine1() + "," + supplierMaster.getSupplierAddressLine2();
             qualityDashboardResponse.setSupplierOrCustomerAddress(supplierAddress);
-            String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
+            String materialName = masterDataCacheService.getMaterialName(transaction.getMaterialId());
             if (materialName != null) {
                 qualityDashboardResponse.setMaterialName(materialName);
             }
@@ -369,17 +375,17 @@ public List<QualityDashboardResponse> searchBySupplierOrCustomerNameAndAddressQc
             qualityDashboardResponse.setSupplierOrCustomerAddress(customerAddress);
             log.info("TicketNo" + transaction.getTicketNo());
             log.info("MaterialId" + transaction.getMaterialId());
-            String productNameByProductId = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
+            String productNameByProductId = masterDataCacheService.getProductName(transaction.getMaterialId());
             if (productNameByProductId != null) {
                 qualityDashboardResponse.setMaterialName(productNameByProductId);
             }
         }
         qualityDashboardResponse.setMaterialType(transaction.getMaterialType());
-        String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
+        String transporterName = masterDataCacheService.getTransporterName(transaction.getTransporterId());
         if (transporterName != null) {
             qualityDashboardResponse.setTransporterName(transporterName);
         }
-        String vehicleNoById = vehicleMasterRepository.findVehicleNoById(transaction.getVehicleId());
+        String vehicleNoById = masterDataCacheService.getVehicleNo(transaction.getVehicleId());
         if (vehicleNoById != null) {
             qualityDashboardResponse.setVehicleNo(vehicleNoById);
         }
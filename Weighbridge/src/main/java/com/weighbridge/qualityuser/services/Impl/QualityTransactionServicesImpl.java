@@ -6,7 +6,6 @@ import com.weighbridge.admin.entities.MaterialMaster;
 import com.weighbridge.admin.entities.ProductMaster;
 import com.weighbridge.admin.entities.QualityRangeMaster;
 import com.weighbridge.admin.entities.SupplierMaster;
-import com.weighbridge.admin.entities.UserMaster;
 import com.weighbridge.admin.entities.VehicleMaster;
 import com.weighbridge.admin.exceptions.SessionExpiredException;
 import com.weighbridge.admin.repsitories.CompanyMasterRepository;
@@ -30,6 +29,9 @@ import com.weighbridge.qualityuser.payloads.ReportResponse;
 import com.weighbridge.qualityuser.repository.QualityTransactionRepository;
 import com.weighbridge.qualityuser.services.QualityTransactionService;
 import com.weighbridge.weighbridgeoperator.repositories.VehicleTransactionStatusRepository;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import com.weighbridge.admin.payloads.UserContext;
+import com.weighbridge.admin.services.UserContextService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.transaction.Transactional;
@@ -66,6 +68,8 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
     private final CompanyMasterRepository companyMasterRepository;
     private final ProductMasterRepository productMasterRepository;
     private final UserMasterRepository userMasterRepository;
+    private final MasterDataCacheService masterDataCacheService;
+    private final UserContextService userContextService;
 
     public QualityTransactionServicesImpl(QualityTransactionRepository qualityTransactionRepository,
                                           GateEntryTransactionRepository gateEntryTransactionRepository,
@@ -77,7 +81,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
                                           TransporterMasterRepository transporterMasterRepository,
                                           VehicleMasterRepository vehicleMasterRepository,
                                           TransactionLogRepository transactionLogRepository,
-                                          QualityRangeMasterRepository qualityRangeMasterRepository, CompanyMasterRepository companyMasterRepository, ProductMasterRepository productMasterRepository, UserMasterRepository userMasterRepository) {
+                                          QualityRangeMasterRepository qualityRangeMasterRepository, CompanyMasterRepository companyMasterRepository, ProductMasterRepository productMasterRepository, UserMasterRepository userMasterRepository, MasterDataCacheService masterDataCacheService, UserContextService userContextService) {
         this.qualityTransactionRepository = qualityTransactionRepository;
         this.gateEntryTransactionRepository = gateEntryTransactionRepository;
         this.httpServletRequest = httpServletRequest;
@@ -92,6 +96,8 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
         this.companyMasterRepository = companyMasterRepository;
         this.productMasterRepository = productMasterRepository;
         this.userMasterRepository = userMasterRepository;
+        this.masterDataCacheService = masterDataCacheService;
+        this.userContextService = userContextService;
     }
 
 
@@ -104,11 +110,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
      */
     public List<QualityDashboardResponse> getAllGateDetails(String userId) {
         // Find user by userId
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
 
 
         // Retrieve all transactions for the user's site and company, ordered by transaction date in descending order
@@ -138,7 +144,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
                             qualityDashboardResponse.setSupplierOrCustomerName(supplierMaster.getSupplierName());
                             qualityDashboardResponse.setSupplierOrCustomerAddress(supplierMaster.getSupplierAddressLine1() + "," + supplierMaster.getSupplierAddressLine2());
 
-                            String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
+                            String materialName = masterDataCacheService.getMaterialName(transaction.getMaterialId());
                             qualityDashboardResponse.setMaterialName(materialName);
                         } else {
                             CustomerMaster customerMaster = customerMasterRepository.findById(transaction.getCustomerId())
@@ -146,7 +152,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
                             qualityDashboardResponse.setSupplierOrCustomerName(customerMaster.getCustomerName());
                             qualityDashboardResponse.setSupplierOrCustomerAddress(customerMaster.getCustomerAddressLine1() + "," + customerMaster.getCustomerAddressLine2());
 
-                            String productName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
+                            String productName = masterDataCacheService.getProductName(transaction.getMaterialId());
                             qualityDashboardResponse.setMaterialName(productName);
                         }
                     } catch (ResourceNotFoundException e) {
@@ -157,10 +163,10 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
                     qualityDashboardResponse.setMaterialType(transaction.getMaterialType());
 
-                    String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
+                    String transporterName = masterDataCacheService.getTransporterName(transaction.getTransporterId());
                     qualityDashboardResponse.setTransporterName(transporterName);
 
-                    String vehicleNo = vehicleMasterRepository.findVehicleNoById(transaction.getVehicleId());
+                    String vehicleNo = masterDataCacheService.getVehicleNo(transaction.getVehicleId());
                     qualityDashboardResponse.setVehicleNo(vehicleNo);
 
                     if (transaction.getVehicleIn() != null) {
@@ -191,11 +197,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
     }
 
     private List<QualityDashboardResponse> getQCTCompletedByTransactionType(String userId, String transactionType) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
 
         List<GateEntryTransaction> allTransactions = gateEntryTransactionRepository.findBySiteIdAndCompanyIdOrderByTransactionDateDesc(userSite, userCompany);
         List<QualityDashboardResponse> qualityDashboardResponses = new ArrayList<>();
@@ -223,7 +229,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
                                 qualityDashboardResponse.setSupplierOrCustomerName(supplierMaster.getSupplierName());
                                 qualityDashboardResponse.setSupplierOrCustomerAddress(supplierMaster.getSupplierAddressLine1() + "," + supplierMaster.getSupplierAddressLine2());
 
-                                String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
+                                String materialName = masterDataCacheService.getMaterialName(transaction.getMaterialId());
                                 qualityDashboardResponse.setMaterialName(materialName);
                             } else {
                                 CustomerMaster customerMaster = customerMasterRepository.findById(transaction.getCustomerId())
@@ -231,7 +237,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
                                 qualityDashboardResponse.setSupplierOrCustomerName(customerMaster.getCustomerName());
                                 qualityDashboardResponse.setSupplierOrCustomerAddress(customerMaster.getCustomerAddressLine1() + "," + customerMaster.getCustomerAddressLine2());
 
-                                String productName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
+                                String productName = masterDataCacheService.getProductName(transaction.getMaterialId());
                                 qualityDashboardResponse.setMaterialName(productName);
                             }
                         } catch (ResourceNotFoundException e) {
@@ -241,10 +247,10 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
                         qualityDashboardResponse.setMaterialType(transaction.getMaterialType());
 
-                        String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
+                        String transporterName = masterDataCacheService.getTransporterName(transaction.getTransporterId());
                         qualityDashboardResponse.setTransporterName(transporterName);
 
-                        String vehicleNo = vehicleMasterRepository.findVehicleNoById(transaction.getVehicleId());
+                        String vehicleNo = masterDataCacheService.getVehicleNo(transaction.getVehicleId());
                         qualityDashboardResponse.setVehicleNo(vehicleNo);
 
                         if (transaction.getVehicleIn() != null) {
@@ -292,11 +298,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
     @Override
     public List<QualityDashboardResponse> getQCTCompleted(String userId) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
 
         // Retrieve all transactions for the user's site and company, ordered by transaction date in descending order
         List<GateEntryTransaction> allTransactions = gateEntryTransactionRepository.findBySiteIdAndCompanyIdOrderByTransactionDateDesc(userSite, userCompany);
@@ -325,7 +331,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
                             qualityDashboardResponse.setSupplierOrCustomerName(supplierMaster.getSupplierName());
                             qualityDashboardResponse.setSupplierOrCustomerAddress(supplierMaster.getSupplierAddressLine1() + "," + supplierMaster.getSupplierAddressLine2());
 
-                            String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
+                            String materialName = masterDataCacheService.getMaterialName(transaction.getMaterialId());
                             qualityDashboardResponse.setMaterialName(materialName);
                         } else {
                             CustomerMaster customerMaster = customerMasterRepository.findById(transaction.getCustomerId())
@@ -333,7 +339,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
                             qualityDashboardResponse.setSupplierOrCustomerName(customerMaster.getCustomerName());
                             qualityDashboardResponse.setSupplierOrCustomerAddress(customerMaster.getCustomerAddressLine1() + "," + customerMaster.getCustomerAddressLine2());
 
-                            String productName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
+                            String productName = masterDataCacheService.getProductName(transaction.getMaterialId());
                             qualityDashboardResponse.setMaterialName(productName);
                         }
                     } catch (ResourceNotFoundException e) {
@@ -343,10 +349,10 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
                     qualityDashboardResponse.setMaterialType(transaction.getMaterialType());
 
-                    String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
+                    String transporterName = masterDataCacheService.getTransporterName(transaction.getTransporterId());
                     qualityDashboardResponse.setTransporterName(transporterName);
 
-                    String vehicleNo = vehicleMasterRepository.findVehicleNoById(transaction.getVehicleId());
+                    String vehicleNo = masterDataCacheService.getVehicleNo(transaction.getVehicleId());
                     qualityDashboardResponse.setVehicleNo(vehicleNo);
 
                     if (transaction.getVehicleIn() != null) {
@@ -394,11 +400,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
     @Transactional
     @Override
     public String createQualityTransaction(Integer ticketNo, String userId, Map<String, Double> transactionRequest) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
 
         GateEntryTransaction gateEntryTransaction = Optional.ofNullable(gateEntryTransactionRepository.findByTicketNoAndCompanyIdAndSiteId(ticketNo, userCompany, userSite))
                 .orElseThrow(() -> new ResourceNotFoundException("Gate entry transaction is not found with ticketNo: " + ticketNo));
@@ -429,7 +435,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
     }
 
     private void handleInboundTransaction(GateEntryTransaction gateEntryTransaction, Map<String, Double> transactionRequest, StringBuilder qualityRangeIds, StringBuilder qualityValues, boolean isQualityGood) {
-        String materialName = materialMasterRepository.findMaterialNameByMaterialId(gateEntryTransaction.getMaterialId());
+        String materialName = masterDataCacheService.getMaterialName(gateEntryTransaction.getMaterialId());
         SupplierMaster supplierMaster = supplierMasterRepository.findBySupplierId(gateEntryTransaction.getSupplierId());
         String supplierAddress = supplierMaster.getSupplierAddressLine1() + "," + supplierMaster.getSupplierAddressLine2();
 
@@ -454,7 +460,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
     }
 
     private void handleOutboundTransaction(GateEntryTransaction gateEntryTransaction, Map<String, Double> transactionRequest, StringBuilder qualityRangeIds, StringBuilder qualityValues, boolean isQualityGood) {
-        String productName = productMasterRepository.findProductNameByProductId(gateEntryTransaction.getMaterialId());
+        String productName = masterDataCacheService.getProductName(gateEntryTransaction.getMaterialId());
 
         for (Map.Entry<String, Double> entry : transactionRequest.entrySet()) {
             String key = entry.getKey();
@@ -504,11 +510,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
     //Generate report for quality check
     @Override
     public ReportResponse getReportResponse(Integer ticketNo, String userId) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
 
         GateEntryTransaction gateEntryTransaction = gateEntryTransactionRepository.findByTicketNoAndCompanyIdAndSiteId(ticketNo, userCompany, userSite);
         if (gateEntryTransaction != null) {
@@ -571,11 +577,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
     @Override
     public void passQualityTransaction(Integer ticketNo, String userId) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userCompany = userMaster.getSite().getSiteId();
-        String userSite = userMaster.getCompany().getCompanyId();
+        String userCompany = userContext.getSiteId();
+        String userSite = userContext.getCompanyId();
 
         GateEntryTransaction gateEntryTransaction = Optional.ofNullable(gateEntryTransactionRepository.findByTicketNoAndCompanyIdAndSiteId(ticketNo, userSite, userCompany))
                 .orElseThrow(() -> new ResourceNotFoundException("Gate entry transaction is not found with ticketNo: " + ticketNo));
@@ -614,11 +620,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
     @Override
     public List<QualityDashboardResponse> getInboundTransaction(String userId) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
 
         // Retrieve all transactions for the user's site and company
         List<GateEntryTransaction> inboundTransaction = gateEntryTransactionRepository.findByTransactionTypeAndSiteIdAndCompanyIdOrderByTransactionDate("Inbound", userSite, userCompany);
@@ -627,11 +633,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
     @Override
     public List<QualityDashboardResponse> getOutboundTransaction(String userId) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
 
         // Retrieve all transactions for the user's site and company, ordered by transaction date in descending order
         List<GateEntryTransaction> outboundTransaction = gateEntryTransactionRepository.findByTransactionTypeAndSiteIdAndCompanyIdOrderByTransactionDate("Outbound", userSite, userCompany);
@@ -640,11 +646,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
     @Override
     public int getInboundTransactionSize(String userId) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
         // Retrieve all inbound transactions for the user's site and company
         List<GateEntryTransaction> inboundTransaction = gateEntryTransactionRepository.findByTransactionTypeAndSiteIdAndCompanyIdOrderByTransactionDate("Inbound", userSite, userCompany);
         return processTransaction(inboundTransaction).size();
@@ -652,11 +658,11 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
     @Override
     public int getOutboundTransactionSize(String userId) {
-        UserMaster userMaster = Optional.ofNullable(userMasterRepository.findByUserId(userId))
+        UserContext userContext = userContextService.findUserContext(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session timed out, Login again!"));
 
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany = userMaster.getCompany().getCompanyId();
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
         // Retrieve all outbound transactions for the user's site and company
         List<GateEntryTransaction> outboundTransaction = gateEntryTransactionRepository.findByTransactionTypeAndSiteIdAndCompanyIdOrderByTransactionDate("Outbound", userSite, userCompany);
         return processTransaction(outboundTransaction).size();
@@ -694,7 +700,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
                             qualityDashboardResponse.setSupplierOrCustomerName(supplierMaster.getSupplierName());
                             qualityDashboardResponse.setSupplierOrCustomerAddress(supplierMaster.getSupplierAddressLine1() + "," + supplierMaster.getSupplierAddressLine2());
 
-                            String materialName = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
+                            String materialName = masterDataCacheService.getMaterialName(transaction.getMaterialId());
                             qualityDashboardResponse.setMaterialName(materialName);
                         } else {
                             CustomerMaster customerMaster = customerMasterRepository.findById(transaction.getCustomerId())
@@ -702,7 +708,7 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
                             qualityDashboardResponse.setSupplierOrCustomerName(customerMaster.getCustomerName());
                             qualityDashboardResponse.setSupplierOrCustomerAddress(customerMaster.getCustomerAddressLine1() + "," + customerMaster.getCustomerAddressLine2());
 
-                            String productName = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
+                            String productName = masterDataCacheService.getProductName(transaction.getMaterialId());
                             qualityDashboardResponse.setMaterialName(productName);
                         }
                     } catch (ResourceNotFoundException e) {
@@ -712,10 +718,10 @@ public class QualityTransactionServicesImpl implements QualityTransactionService
 
                     qualityDashboardResponse.setMaterialType(transaction.getMaterialType());
 
-                    String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
+                    String transporterName = masterDataCacheService.getTransporterName(transaction.getTransporterId());
                     qualityDashboardResponse.setTransporterName(transporterName);
 
-                    String vehicleNo = vehicleMasterRepository.findVehicleNoById(transaction.getVehicleId());
+                    String vehicleNo = masterDataCacheService.getVehicleNo(transaction.getVehicleId());
                     qualityDashboardResponse.setVehicleNo(vehicleNo);
 
                     if (transaction.getVehicleIn() != null) {
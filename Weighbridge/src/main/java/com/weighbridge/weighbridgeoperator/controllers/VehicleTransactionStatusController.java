@@ -1,8 +1,8 @@
 package com.weighbridge.weighbridgeoperator.controllers;
 
-import com.weighbridge.admin.entities.UserMaster;
+import com.weighbridge.admin.payloads.UserContext;
 import com.weighbridge.admin.exceptions.ResourceNotFoundException;
-import com.weighbridge.admin.repsitories.UserMasterRepository;
+import com.weighbridge.admin.services.UserContextService;
 import com.weighbridge.weighbridgeoperator.services.VehicleTransactionStatusService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,7 +24,7 @@ public class VehicleTransactionStatusController {
 
     private final VehicleTransactionStatusService vehicleTransactionStatusService;
 
-    private final UserMasterRepository userMasterRepository;
+    private final UserContextService userContextService;
 
     /**
      * Constructor to inject the `VehicleTransactionStatusService` dependency.
@@ -32,15 +32,15 @@ public class VehicleTransactionStatusController {
      * @param vehicleTransactionStatusService - The service class responsible for accessing and manipulating
      *                                        vehicle transaction status data.
      */
-    public VehicleTransactionStatusController(VehicleTransactionStatusService vehicleTransactionStatusService, UserMasterRepository userMasterRepository) {
+    public VehicleTransactionStatusController(VehicleTransactionStatusService vehicleTransactionStatusService, UserContextService userContextService) {
         this.vehicleTransactionStatusService = vehicleTransactionStatusService;
-        this.userMasterRepository = userMasterRepository;
+        this.userContextService = userContextService;
     }
 
     @GetMapping("/pendingGross/Inbound")
     public ResponseEntity<Long> noOfInboundGrossWeight(@RequestParam String userId) {
-        UserMaster byId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("logged userId invalid"));
-        Long pending = vehicleTransactionStatusService.countInboundPendingAction(byId.getSite().getSiteId(),byId.getCompany().getCompanyId());
+        UserContext byId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("logged userId invalid"));
+        Long pending = vehicleTransactionStatusService.countInboundPendingAction(byId.getSiteId(),byId.getCompanyId());
         return ResponseEntity.ok(pending);
     }
 
@@ -51,8 +51,8 @@ public class VehicleTransactionStatusController {
      */
     @GetMapping("/pendingGross/Outbound")
     public ResponseEntity<Long> noOfOutboundGrossWeight(@RequestParam String userId) {
-        UserMaster byId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("logged userId invalid"));
-        Long pendingGross = vehicleTransactionStatusService.countOutBoundPendingGross(byId.getSite().getSiteId(),byId.getCompany().getCompanyId());
+        UserContext byId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("logged userId invalid"));
+        Long pendingGross = vehicleTransactionStatusService.countOutBoundPendingGross(byId.getSiteId(),byId.getCompanyId());
         return ResponseEntity.ok(pendingGross);
     }
 
@@ -63,8 +63,8 @@ public class VehicleTransactionStatusController {
      */
     @GetMapping("/PendingTare/Outbound")
     public ResponseEntity<Long> noOfOutboundTareWeight(@RequestParam String userId) {
-        UserMaster byId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("logged userId invalid"));
-        Long pendingTare = vehicleTransactionStatusService.countOutBoundPendingTare(byId.getSite().getSiteId(),byId.getCompany().getCompanyId());
+        UserContext byId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("logged userId invalid"));
+        Long pendingTare = vehicleTransactionStatusService.countOutBoundPendingTare(byId.getSiteId(),byId.getCompanyId());
         return ResponseEntity.ok(pendingTare);
     }
 
@@ -77,8 +77,8 @@ public class VehicleTransactionStatusController {
      */
     @GetMapping("/pendingTare/Inbound")
     public ResponseEntity<Long> noOfInboundTareWeight(@RequestParam String userId) {
-        UserMaster byId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("logged userId invalid"));
-        Long pending =vehicleTransactionStatusService.countInboundPendingTare(byId.getSite().getSiteId(),byId.getCompany().getCompanyId());
+        UserContext byId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("logged userId invalid"));
+        Long pending =vehicleTransactionStatusService.countInboundPendingTare(byId.getSiteId(),byId.getCompanyId());
         return ResponseEntity.ok(pending);
     }
 }
\ No newline at end of file
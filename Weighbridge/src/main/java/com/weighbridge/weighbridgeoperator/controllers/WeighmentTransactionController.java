@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.weighbridge.gateuser.payloads.GateEntryTransactionRequest;
 import com.weighbridge.weighbridgeoperator.payloads.*;
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService;
 import com.weighbridge.weighbridgeoperator.services.WeighbridgeOperatorPrintService;
 import com.weighbridge.weighbridgeoperator.services.WeighmentTransactionService;
 import com.weighbridge.weighbridgeoperator.services.impls.TicketImageResponse;
@@ -14,10 +15,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.util.List;
 
 
@@ -30,6 +34,9 @@ public class WeighmentTransactionController {
     @Autowired
     private WeighbridgeOperatorPrintService weighbridgeOperatorPrintService;
 
+    @Autowired
+    private ScaleIndicatorService scaleIndicatorService;
+
     @PostMapping("/measure")
     public ResponseEntity<String> measureWeight(@RequestParam("weighmentRequest") String weighmentRequest,
                                                 @RequestParam("userId") String userId,
@@ -87,6 +94,18 @@ public class WeighmentTransactionController {
         TicketImageResponse responseByTicket = weighmentTransactionService.viewResponseByTicket(ticketNo,userId);
         return ResponseEntity.ok(responseByTicket);
     }
+    /**
+     * The raw indicator samples around each weighing of a ticket, for audits and disputes.
+     */
+    @GetMapping("/samples/{ticketNo}")
+    public ResponseEntity<List<WeightSampleTrace>> getSampleTrace(@PathVariable Integer ticketNo) {
+        try {
+            return ResponseEntity.ok(scaleIndicatorService.getSampleTrace(ticketNo));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read the weight samples of ticket " + ticketNo, e);
+        }
+    }
+
     @GetMapping("/getPrintTicketWise/{ticketNo}")
     public ResponseEntity<WeighbridgeOperatorPrint> getPrintResponse(@PathVariable Integer ticketNo){
         WeighbridgeOperatorPrint printResponse = weighbridgeOperatorPrintService.getPrintResponse(ticketNo);
@@ -14,12 +14,12 @@ public class WeighmentTransaction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer weighmentNo;
-    private double grossWeight;
-    private double tareWeight;
-    private double netWeight;
+    private long grossWeight;
+    private long tareWeight;
+    private long netWeight;
     private String machineId;
 
-    private double temporaryWeight;
+    private long temporaryWeight;
 
     @OneToOne
     @JoinColumn(name="ticketNo",referencedColumnName = "ticketNo")
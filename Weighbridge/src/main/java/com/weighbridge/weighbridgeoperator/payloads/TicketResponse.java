@@ -18,9 +18,9 @@ public class TicketResponse {
     private String driverDlNo;
     private String driverName;
     private String material;
-    private double grossWeight;
-    private double tareWeight;
-    private double netWeight;
+    private long grossWeight;
+    private long tareWeight;
+    private long netWeight;
 
     private double consignmentWeight;
 
@@ -16,9 +16,9 @@ public class WeighbridgeOperatorPrint {
     private String customerName;
     private String supplierName;
     private String challanNo;
-    private double grossWeight;
-    private double tareWeight;
-    private double netWeight;
+    private long grossWeight;
+    private long tareWeight;
+    private long netWeight;
     private String grossWeightDate;
     private String grossWeightTime;
     private String tareWeightDate;
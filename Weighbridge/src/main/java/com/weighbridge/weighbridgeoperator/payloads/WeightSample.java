@@ -0,0 +1,17 @@
+package com.weighbridge.weighbridgeoperator.payloads;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WeightSample {
+    private long timestampMillis;
+    // Kilograms
+    private long weight;
+    private boolean stable;
+    // The indicator reported the scale in motion
+    private boolean motion;
+}
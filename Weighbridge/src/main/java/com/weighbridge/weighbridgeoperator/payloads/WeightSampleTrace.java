@@ -0,0 +1,22 @@
+package com.weighbridge.weighbridgeoperator.payloads;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The raw indicator samples around one weighing of a ticket.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WeightSampleTrace {
+    private String machineId;
+    // ENTRY for the first weighing, EXIT for the second
+    private String truckStatus;
+    private long fromMillis;
+    private long toMillis;
+    private List<WeightSample> samples;
+}
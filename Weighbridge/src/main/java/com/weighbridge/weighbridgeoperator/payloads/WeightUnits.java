@@ -0,0 +1,19 @@
+package com.weighbridge.weighbridgeoperator.payloads;
+
+import java.math.BigDecimal;
+
+/**
+ * Weights are kept in whole kilograms. The responses that showed tonnes before keep showing tonnes, converted here.
+ */
+public final class WeightUnits {
+
+    private WeightUnits() {
+    }
+
+    /**
+     * @return The weight in tonnes, exact to the kilogram.
+     */
+    public static double toTonnes(long kilograms) {
+        return BigDecimal.valueOf(kilograms, 3).doubleValue();
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
+import java.util.Collection;
 
 /**
  * Repository interface for accessing vehicle transaction status data.
@@ -32,6 +33,14 @@ public interface VehicleTransactionStatusRepository extends JpaRepository<Vehicl
     Long countOutboundPendingTareWeight(@Param("siteId") String siteId,@Param("companyId")String companyId);
 
     List<VehicleTransactionStatus> findByStatusCodeAndTicketNo(String gwt, Integer ticketNo);
+
+    /**
+     * Retrieves the vehicle transaction status entries for all of the given ticket numbers.
+     *
+     * @param ticketNos The ticket numbers to search for.
+     * @return The status entries found, at most one per ticket number.
+     */
+    List<VehicleTransactionStatus> findByTicketNoIn(Collection<Integer> ticketNos);
 }
 
     
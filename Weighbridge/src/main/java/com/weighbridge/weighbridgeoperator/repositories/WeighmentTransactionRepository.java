@@ -36,20 +36,20 @@ public interface WeighmentTransactionRepository extends JpaRepository<WeighmentT
             "INNER JOIN VehicleTransactionStatus ts ON ts.ticketNo = g.ticketNo " +
             "LEFT JOIN SupplierMaster s ON s.supplierId = g.supplierId " +
             "LEFT JOIN CustomerMaster c ON c.customerId = g.customerId " +
-            "WHERE g.siteId = :siteId AND g.companyId=:companyId AND (w.netWeight IS NULL OR w.netWeight = 0.0) " +
+            "WHERE g.siteId = :siteId AND g.companyId=:companyId AND (w.netWeight IS NULL OR w.netWeight = 0) " +
             "ORDER BY g.ticketNo DESC")
     Page<Object[]> getAllGateEntries(@Param("siteId") String siteId, @Param("companyId") String companyId, Pageable pageable);
 
-    @Query("FROM WeighmentTransaction wt WHERE wt.gateEntryTransaction.siteId=:userSite AND wt.gateEntryTransaction.companyId=:userCompany AND wt.netWeight!=0.0")
+    @Query("FROM WeighmentTransaction wt WHERE wt.gateEntryTransaction.siteId=:userSite AND wt.gateEntryTransaction.companyId=:userCompany AND wt.netWeight!=0")
     Page<WeighmentTransaction> findAllByUserSiteAndUserCompany(String userSite, String userCompany, Pageable pageable);
 
-    @Query("SELECT COUNT(wt.netWeight) FROM WeighmentTransaction wt WHERE wt.netWeight!=0.0")
+    @Query("SELECT COUNT(wt.netWeight) FROM WeighmentTransaction wt WHERE wt.netWeight!=0")
     long countCompletedTransactions();
 
-    @Query("SELECT COUNT(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.netWeight = 0.0 AND wt.gateEntryTransaction.transactionType = 'Inbound' AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId")
+    @Query("SELECT COUNT(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.netWeight = 0 AND wt.gateEntryTransaction.transactionType = 'Inbound' AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId")
     Long countInboundTransactionsWithZeroNetWeight(@Param("siteId")String siteId,@Param("companyId") String companyId);
 
-    @Query("SELECT COUNT(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.netWeight = 0.0 AND wt.gateEntryTransaction.transactionType = 'Outbound' AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId")
+    @Query("SELECT COUNT(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.netWeight = 0 AND wt.gateEntryTransaction.transactionType = 'Outbound' AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId")
     Long countOutBoundPendingGrossWeight(@Param("siteId") String siteId,@Param("companyId") String companyId);
 
     @Query("SELECT wt FROM WeighmentTransaction wt WHERE wt.gateEntryTransaction.companyId = :companyId AND wt.gateEntryTransaction.siteId = :siteId AND wt.gateEntryTransaction.transactionDate = :transactionDate")
@@ -63,15 +63,15 @@ public interface WeighmentTransactionRepository extends JpaRepository<WeighmentT
             "GROUP BY gt.transactionDate, gt.materialId")
     List<Object[]> findTotalNetWeightByTransactionDateAndMaterialId(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("companyId") String companyId, @Param("siteId") String siteId,@Param("transactionType")String transactionType);
 
-    @Query("SELECT count(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.tareWeight!=0.0 AND wt.gateEntryTransaction.transactionDate BETWEEN :startDate AND :endDate AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId AND wt.gateEntryTransaction.transactionType='Inbound'")
+    @Query("SELECT count(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.tareWeight!=0 AND wt.gateEntryTransaction.transactionDate BETWEEN :startDate AND :endDate AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId AND wt.gateEntryTransaction.transactionType='Inbound'")
     Long countCompletedInboundTareWeights(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("companyId") String companyId, @Param("siteId") String siteId);
 
-    @Query("SELECT count(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.temporaryWeight!=0.0 AND wt.gateEntryTransaction.transactionDate BETWEEN :startDate AND :endDate AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId AND wt.gateEntryTransaction.transactionType='Outbound'")
+    @Query("SELECT count(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.temporaryWeight!=0 AND wt.gateEntryTransaction.transactionDate BETWEEN :startDate AND :endDate AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId AND wt.gateEntryTransaction.transactionType='Outbound'")
     Long countCompletedOutboundTareWeights(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("companyId") String companyId, @Param("siteId") String siteId);
 
-    @Query("SELECT count(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.grossWeight!=0.0 AND wt.gateEntryTransaction.transactionDate BETWEEN :startDate AND :endDate AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId AND wt.gateEntryTransaction.transactionType='Outbound'")
+    @Query("SELECT count(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.grossWeight!=0 AND wt.gateEntryTransaction.transactionDate BETWEEN :startDate AND :endDate AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId AND wt.gateEntryTransaction.transactionType='Outbound'")
     Long countCompletedGrossWeightsOutbound(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("companyId") String companyId, @Param("siteId") String siteId);
 
-    @Query("SELECT count(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.temporaryWeight!=0.0 AND wt.gateEntryTransaction.transactionDate BETWEEN :startDate AND :endDate AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId AND wt.gateEntryTransaction.transactionType='Outbound'")
+    @Query("SELECT count(wt.gateEntryTransaction) FROM WeighmentTransaction wt WHERE wt.temporaryWeight!=0 AND wt.gateEntryTransaction.transactionDate BETWEEN :startDate AND :endDate AND wt.gateEntryTransaction.siteId=:siteId AND wt.gateEntryTransaction.companyId=:companyId AND wt.gateEntryTransaction.transactionType='Outbound'")
     Long countCompletedGrossWeightsInbound(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("companyId") String companyId, @Param("siteId") String siteId);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.weighbridge.weighbridgeoperator.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Optional;
+
+/**
+ * Reads the weight from one frame of the continuous output of a weight indicator. The reader splits the byte
+ * stream into frames at STX, ETX, CR and LF, so a parser only sees the content of one frame. Parsers are Spring
+ * beans, a machine picks one by its {@link #getName() name}, so another indicator protocol is one more bean.
+ */
+public interface IndicatorFrameParser {
+
+    /**
+     * @return The name machines are configured with, as in weighbridge.indicator.machines.{machineId}.protocol.
+     */
+    String getName();
+
+    /**
+     * @param frame  The frame without its delimiters. The array is reused for the next frame.
+     * @param length The length of the frame in the array.
+     * @return The weight, or empty if the frame holds no valid weight, as for overload or status frames.
+     */
+    Optional<IndicatorWeight> parse(byte[] frame, int length);
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    class IndicatorWeight {
+        // Whole kilograms
+        private final long weight;
+        // Whether the indicator itself reports the scale as in motion
+        private final boolean motion;
+    }
+}
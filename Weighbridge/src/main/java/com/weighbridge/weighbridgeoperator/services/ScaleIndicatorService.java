@@ -0,0 +1,59 @@
+package com.weighbridge.weighbridgeoperator.services;
+
+import com.weighbridge.weighbridgeoperator.payloads.WeightSampleTrace;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads the weight indicator of each configured weighbridge machine, so weighments take the weight from the
+ * scale instead of from the browser.
+ */
+public interface ScaleIndicatorService {
+
+    /**
+     * @return The machines an indicator is configured for. Empty if weights are still entered by the operator.
+     */
+    Set<String> getMachineIds();
+
+    boolean isConfigured(String machineId);
+
+    /**
+     * @return The last reading of the machine, stable or not, or empty if nothing was read yet.
+     */
+    Optional<ScaleReading> getReading(String machineId);
+
+    /**
+     * @return The weight in whole kilograms, if the scale of the machine is stable now and its indicator is still sending.
+     */
+    Optional<Long> getStableWeight(String machineId);
+
+    /**
+     * Marks the indicator samples around a weighing as the trace of the ticket. Does nothing for machines without
+     * an indicator.
+     *
+     * @param truckStatus ENTRY for the first weighing of the ticket, EXIT for the second.
+     */
+    void recordWeighing(String machineId, Integer ticketNo, String truckStatus, long weighedAtMillis);
+
+    /**
+     * @return The raw indicator samples around each weighing of the ticket, empty if it was weighed without an indicator.
+     */
+    List<WeightSampleTrace> getSampleTrace(Integer ticketNo) throws IOException;
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    class ScaleReading {
+        // Whole kilograms
+        private final long weight;
+        // Whether the last readings were within the stability tolerance
+        private final boolean stable;
+        private final long readAtMillis;
+    }
+}
@@ -0,0 +1,50 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+import com.weighbridge.weighbridgeoperator.services.IndicatorFrameParser;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the plain ASCII output most indicators can send, such as {@code ST,GS,+0012340kg} or {@code   12340 kg}.
+ * The first number of the frame is the weight, in kilograms unless a t or lb unit follows it. Frames starting with
+ * the US status are in motion, and OL frames are overloads without a weight.
+ */
+@Component
+public class AsciiWeightParser implements IndicatorFrameParser {
+
+    private static final Pattern WEIGHT = Pattern.compile("([+-]?)\\s*(\\d+(?:\\.\\d+)?)\\s*(kg|t|lb)?",
+            Pattern.CASE_INSENSITIVE);
+    private static final double KG_PER_LB = 0.45359237;
+
+    @Override
+    public String getName() {
+        return "ascii";
+    }
+
+    @Override
+    public Optional<IndicatorWeight> parse(byte[] frame, int length) {
+        String text = new String(frame, 0, length, StandardCharsets.US_ASCII).trim().toUpperCase(Locale.ROOT);
+        if (text.startsWith("OL")) {
+            return Optional.empty();
+        }
+        Matcher matcher = WEIGHT.matcher(text);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        double weight = Double.parseDouble(matcher.group(2));
+        if ("-".equals(matcher.group(1))) {
+            weight = -weight;
+        }
+        if ("T".equals(matcher.group(3))) {
+            weight *= 1000;
+        } else if ("LB".equals(matcher.group(3))) {
+            weight *= KG_PER_LB;
+        }
+        return Optional.of(new IndicatorWeight(Math.round(weight), text.startsWith("US")));
+    }
+}
@@ -0,0 +1,235 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+import com.weighbridge.weighbridgeoperator.services.IndicatorFrameParser;
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService.ScaleReading;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the continuous output of the weight indicator of one machine on its own thread. The indicator is reached
+ * over TCP, directly or through a serial server such as ser2net ({@code tcp://host:port}), or through a local serial
+ * device ({@code serial:/dev/ttyUSB0}) whose line settings are configured outside the application. A failed or
+ * silent connection is reopened with exponential backoff. Serial devices have no read timeout, so a watchdog closes
+ * them once nothing arrived for the read timeout.
+ *
+ * The last reading, with whether the scale was stable at it, is published through an atomic reference, so readers
+ * never wait for the reader thread. Every reading is also appended to the sample log of the machine.
+ */
+@Slf4j
+class IndicatorReader implements Runnable {
+
+    private static final int STX = 0x02;
+    private static final int ETX = 0x03;
+    // Longer frames are noise, not weights
+    private static final int MAX_FRAME_LENGTH = 64;
+
+    private final String machineId;
+    private final URI address;
+    private final IndicatorFrameParser parser;
+    private final WeightStabilityDetector stabilityDetector;
+    // Null once writing to it failed
+    private WeightSampleLog sampleLog;
+    private final Duration readTimeout;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final AtomicReference<ScaleReading> latest = new AtomicReference<>();
+    private volatile boolean running = true;
+    private volatile Closeable connection;
+    private volatile long lastDataAtMillis;
+    // Only for serial devices, sockets time out by themselves
+    private ScheduledExecutorService watchdog;
+
+    IndicatorReader(String machineId, URI address, IndicatorFrameParser parser, WeightStabilityDetector stabilityDetector,
+                    WeightSampleLog sampleLog, Duration readTimeout, Duration initialBackoff, Duration maxBackoff) {
+        this.machineId = machineId;
+        this.address = address;
+        this.parser = parser;
+        this.stabilityDetector = stabilityDetector;
+        this.sampleLog = sampleLog;
+        this.readTimeout = readTimeout;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    void start() {
+        if (isSerial()) {
+            watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "scale-indicator-watchdog-" + machineId);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        Thread thread = new Thread(this, "scale-indicator-" + machineId);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+        closeConnection();
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    ScaleReading getLatest() {
+        return latest.get();
+    }
+
+    @Override
+    public void run() {
+        long backoff = initialBackoff.toMillis();
+        try {
+            while (running) {
+                if (read()) {
+                    backoff = initialBackoff.toMillis();
+                }
+                if (!running) {
+                    break;
+                }
+                log.info("Reconnecting to the indicator of machine {} in {} ms", machineId, backoff);
+                synchronized (this) {
+                    if (running) {
+                        wait(backoff);
+                    }
+                }
+                backoff = Math.min(backoff * 2, maxBackoff.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (sampleLog != null) {
+                sampleLog.close();
+            }
+        }
+    }
+
+    /**
+     * Reads frames until the reader is stopped or the connection fails.
+     *
+     * @return Whether at least one weight was read.
+     */
+    private boolean read() {
+        boolean received = false;
+        byte[] buffer = new byte[1024];
+        byte[] frame = new byte[MAX_FRAME_LENGTH];
+        int frameLength = 0;
+        boolean overflow = false;
+        ScheduledFuture<?> silenceCheck = null;
+        try (InputStream input = open()) {
+            log.info("Reading the indicator of machine {} at {}", machineId, address);
+            lastDataAtMillis = System.currentTimeMillis();
+            if (watchdog != null) {
+                long period = Math.max(readTimeout.toMillis() / 2, 1);
+                silenceCheck = watchdog.scheduleWithFixedDelay(this::closeIfSilent, period, period, TimeUnit.MILLISECONDS);
+            }
+            int read;
+            while (running && (read = input.read(buffer)) >= 0) {
+                lastDataAtMillis = System.currentTimeMillis();
+                for (int i = 0; i < read; i++) {
+                    int b = buffer[i];
+                    if (b == STX || b == ETX || b == '\r' || b == '\n') {
+                        if (frameLength > 0 && !overflow) {
+                            received |= frame(frame, frameLength);
+                        }
+                        frameLength = 0;
+                        overflow = false;
+                    } else if (frameLength < MAX_FRAME_LENGTH) {
+                        frame[frameLength++] = (byte) b;
+                    } else {
+                        overflow = true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                log.warn("Reading the indicator of machine {} failed: {}", machineId, e.getMessage());
+            }
+        } finally {
+            if (silenceCheck != null) {
+                silenceCheck.cancel(false);
+            }
+            closeConnection();
+        }
+        return received;
+    }
+
+    private boolean isSerial() {
+        return "serial".equalsIgnoreCase(address.getScheme());
+    }
+
+    private InputStream open() throws IOException {
+        if (isSerial()) {
+            // Unlike a FileInputStream, closing the channel wakes a read blocked on it
+            FileChannel channel = FileChannel.open(Path.of(address.getPath()), StandardOpenOption.READ);
+            connection = channel;
+            return Channels.newInputStream(channel);
+        }
+        Socket socket = new Socket();
+        connection = socket;
+        socket.connect(new InetSocketAddress(address.getHost(), address.getPort()), (int) readTimeout.toMillis());
+        // A silent indicator counts as failed, continuous output sends several frames a second
+        socket.setSoTimeout((int) readTimeout.toMillis());
+        return socket.getInputStream();
+    }
+
+    private void closeIfSilent() {
+        if (System.currentTimeMillis() - lastDataAtMillis >= readTimeout.toMillis()) {
+            log.warn("The indicator of machine {} sent nothing for {} ms", machineId, readTimeout.toMillis());
+            closeConnection();
+        }
+    }
+
+    private void closeConnection() {
+        Closeable current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("Failed to close the indicator of machine {}", machineId, e);
+            }
+        }
+    }
+
+    private boolean frame(byte[] frame, int length) {
+        return parser.parse(frame, length).map(weight -> {
+            long now = System.currentTimeMillis();
+            boolean stable = stabilityDetector.offer(weight.getWeight(), weight.isMotion(), now);
+            latest.set(new ScaleReading(weight.getWeight(), stable, now));
+            logSample(now, weight.getWeight(), (stable ? WeightSampleLog.STABLE : 0) | (weight.isMotion() ? WeightSampleLog.MOTION : 0));
+            return true;
+        }).orElse(false);
+    }
+
+    private void logSample(long timestampMillis, long weight, int flags) {
+        if (sampleLog == null) {
+            return;
+        }
+        try {
+            sampleLog.append(timestampMillis, weight, flags);
+        } catch (IOException e) {
+            log.error("Weight samples of machine {} are no longer logged", machineId, e);
+            sampleLog.close();
+            sampleLog = null;
+        }
+    }
+}
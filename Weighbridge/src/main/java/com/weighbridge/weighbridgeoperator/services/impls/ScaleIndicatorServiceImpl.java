@@ -0,0 +1,191 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+import com.weighbridge.weighbridgeoperator.payloads.WeightSampleTrace;
+import com.weighbridge.weighbridgeoperator.services.IndicatorFrameParser;
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Starts an {@link IndicatorReader} for each machine under weighbridge.indicator.machines, for example
+ * <pre>
+ * weighbridge.indicator.machines.WB1.address=tcp://192.168.1.50:4001
+ * weighbridge.indicator.machines.WB1.protocol=toledo
+ * </pre>
+ * Machine ids are matched ignoring case, as operators enter them.
+ *
+ * Every reading is kept in the {@link WeightSampleLog} of the machine, and the window around each weighing in its
+ * {@link WeightSampleIndex}, so the trace of a ticket can be read back for disputes.
+ */
+@Slf4j
+@Service
+public class ScaleIndicatorServiceImpl implements ScaleIndicatorService {
+
+    // How many readings in a row must agree for the scale to count as stable
+    @Value("${weighbridge.indicator.stable-samples:5}")
+    private int stableSamples;
+
+    // Kilograms
+    @Value("${weighbridge.indicator.stable-tolerance:20}")
+    private long stableTolerance;
+
+    @Value("${weighbridge.indicator.stable-window:2s}")
+    private Duration stableWindow;
+
+    // A reading older than this no longer counts, the indicator has stopped sending
+    @Value("${weighbridge.indicator.max-reading-age:2s}")
+    private Duration maxReadingAge;
+
+    @Value("${weighbridge.indicator.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${weighbridge.indicator.reconnect-initial-backoff:1s}")
+    private Duration reconnectInitialBackoff;
+
+    @Value("${weighbridge.indicator.reconnect-max-backoff:30s}")
+    private Duration reconnectMaxBackoff;
+
+    @Value("${weighbridge.indicator.sample-log.directory:${user.home}/weighbridge-weight-samples}")
+    private String sampleLogDirectory;
+
+    // The samples kept in the trace of a weighing, before and after the weight was taken
+    @Value("${weighbridge.indicator.sample-log.before:30s}")
+    private Duration traceBefore;
+
+    @Value("${weighbridge.indicator.sample-log.after:15s}")
+    private Duration traceAfter;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private List<IndicatorFrameParser> parsers;
+
+    private final Map<String, IndicatorReader> readers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, WeightSampleIndex> sampleIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    @PostConstruct
+    public void start() throws IOException {
+        Map<String, IndicatorSettings> machines = Binder.get(environment)
+                .bind("weighbridge.indicator.machines", Bindable.mapOf(String.class, IndicatorSettings.class))
+                .orElse(Map.of());
+        for (Map.Entry<String, IndicatorSettings> machine : machines.entrySet()) {
+            String machineId = machine.getKey();
+            IndicatorSettings settings = machine.getValue();
+            IndicatorFrameParser parser = parsers.stream()
+                    .filter(candidate -> candidate.getName().equalsIgnoreCase(settings.getProtocol()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Unknown indicator protocol of machine " + machineId
+                            + ": " + settings.getProtocol()));
+            if (settings.getAddress() == null) {
+                throw new IllegalStateException("No indicator address for machine " + machineId);
+            }
+            Path sampleDirectory = sampleDirectory(machineId);
+            IndicatorReader reader = new IndicatorReader(machineId, URI.create(settings.getAddress()), parser,
+                    new WeightStabilityDetector(stableSamples, stableTolerance, stableWindow.toMillis()),
+                    new WeightSampleLog(sampleDirectory, zone), readTimeout, reconnectInitialBackoff, reconnectMaxBackoff);
+            readers.put(machineId, reader);
+            sampleIndexes.put(machineId, new WeightSampleIndex(sampleDirectory));
+            reader.start();
+        }
+        if (!readers.isEmpty()) {
+            log.info("Reading the weight indicators of machines {}", readers.keySet());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        readers.values().forEach(IndicatorReader::stop);
+    }
+
+    @Override
+    public Set<String> getMachineIds() {
+        return Collections.unmodifiableSet(readers.keySet());
+    }
+
+    @Override
+    public boolean isConfigured(String machineId) {
+        return machineId != null && readers.containsKey(machineId.trim());
+    }
+
+    @Override
+    public Optional<ScaleReading> getReading(String machineId) {
+        return reader(machineId).map(IndicatorReader::getLatest);
+    }
+
+    @Override
+    public Optional<Long> getStableWeight(String machineId) {
+        // Only while the scale is still stable, a stable reading from before the vehicle moved does not count
+        return getReading(machineId)
+                .filter(reading -> reading.isStable()
+                        && System.currentTimeMillis() - reading.getReadAtMillis() <= maxReadingAge.toMillis())
+                .map(ScaleReading::getWeight);
+    }
+
+    @Override
+    public void recordWeighing(String machineId, Integer ticketNo, String truckStatus, long weighedAtMillis) {
+        if (!isConfigured(machineId)) {
+            return;
+        }
+        int weighing = "EXIT".equalsIgnoreCase(truckStatus) ? WeightSampleIndex.SECOND_WEIGHING : WeightSampleIndex.FIRST_WEIGHING;
+        try {
+            sampleIndexes.get(machineId.trim()).add(ticketNo, weighing, weighedAtMillis - traceBefore.toMillis(),
+                    weighedAtMillis + traceAfter.toMillis());
+        } catch (IOException e) {
+            log.error("Failed to index the weight samples of ticket {}", ticketNo, e);
+        }
+    }
+
+    @Override
+    public List<WeightSampleTrace> getSampleTrace(Integer ticketNo) throws IOException {
+        List<WeightSampleTrace> traces = new ArrayList<>();
+        for (Map.Entry<String, WeightSampleIndex> machine : sampleIndexes.entrySet()) {
+            for (long[] window : machine.getValue().find(ticketNo)) {
+                traces.add(new WeightSampleTrace(machine.getKey(),
+                        window[0] == WeightSampleIndex.SECOND_WEIGHING ? "EXIT" : "ENTRY", window[1], window[2],
+                        WeightSampleLog.read(sampleDirectory(machine.getKey()), zone, window[1], window[2])));
+            }
+        }
+        return traces;
+    }
+
+    private Path sampleDirectory(String machineId) {
+        // Machine ids are free text, and match ignoring case
+        return Paths.get(sampleLogDirectory, machineId.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_-]", "_"));
+    }
+
+    private Optional<IndicatorReader> reader(String machineId) {
+        return isConfigured(machineId) ? Optional.of(readers.get(machineId.trim())) : Optional.empty();
+    }
+
+    @Data
+    public static class IndicatorSettings {
+        // tcp://host:port or serial:/dev/ttyUSB0
+        private String address;
+        private String protocol = "ascii";
+    }
+}
@@ -0,0 +1,56 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+import com.weighbridge.weighbridgeoperator.services.IndicatorFrameParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Reads the Mettler Toledo continuous output, {@code STX SWA SWB SWC wwwwww tttttt CR}. Status word A holds the
+ * decimal point position, status word B the sign, overload and motion bits. The six weight digits carry no decimal
+ * point, and the unit is taken to be kilograms.
+ */
+@Component
+public class ToledoContinuousParser implements IndicatorFrameParser {
+
+    private static final int WEIGHT_DIGITS = 6;
+    private static final int NEGATIVE = 0x02;
+    private static final int OVERLOAD = 0x04;
+    private static final int MOTION = 0x08;
+    // The weight factor for each decimal point code of status word A
+    private static final double[] FACTORS = {100, 10, 1, 0.1, 0.01, 0.001, 0.0001};
+
+    @Override
+    public String getName() {
+        return "toledo";
+    }
+
+    @Override
+    public Optional<IndicatorWeight> parse(byte[] frame, int length) {
+        if (length < 3 + WEIGHT_DIGITS) {
+            return Optional.empty();
+        }
+        int decimalCode = frame[0] & 0x07;
+        int statusB = frame[1];
+        if (decimalCode >= FACTORS.length || (statusB & OVERLOAD) != 0) {
+            return Optional.empty();
+        }
+        long digits = 0;
+        for (int i = 3; i < 3 + WEIGHT_DIGITS; i++) {
+            byte digit = frame[i];
+            if (digit == ' ') {
+                // Leading digits may be blanked
+                continue;
+            }
+            if (digit < '0' || digit > '9') {
+                return Optional.empty();
+            }
+            digits = digits * 10 + (digit - '0');
+        }
+        double weight = digits * FACTORS[decimalCode];
+        if ((statusB & NEGATIVE) != 0) {
+            weight = -weight;
+        }
+        return Optional.of(new IndicatorWeight(Math.round(weight), (statusB & MOTION) != 0));
+    }
+}
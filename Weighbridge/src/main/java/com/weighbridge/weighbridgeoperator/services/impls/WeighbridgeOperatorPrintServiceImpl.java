@@ -10,6 +10,7 @@ import com.weighbridge.weighbridgeoperator.entities.WeighmentTransaction;
 import com.weighbridge.weighbridgeoperator.payloads.WeighbridgeOperatorPrint;
 import com.weighbridge.weighbridgeoperator.repositories.WeighmentTransactionRepository;
 import com.weighbridge.weighbridgeoperator.services.WeighbridgeOperatorPrintService;
+import com.weighbridge.admin.services.MasterDataCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -47,6 +48,9 @@ public class WeighbridgeOperatorPrintServiceImpl implements WeighbridgeOperatorP
     @Autowired
     private TransactionLogRepository transactionLogRepository;
 
+    @Autowired
+    private MasterDataCacheService masterDataCacheService;
+
     /**
      * @return
      */
@@ -58,20 +62,20 @@ public class WeighbridgeOperatorPrintServiceImpl implements WeighbridgeOperatorP
         }
         WeighbridgeOperatorPrint weighbridgeOperatorPrint=new WeighbridgeOperatorPrint();
         weighbridgeOperatorPrint.setTicketNo(byTicketNo.getTicketNo());
-        weighbridgeOperatorPrint.setVehicleNo(vehicleMasterRepository.findVehicleNoById(byTicketNo.getVehicleId()));
+        weighbridgeOperatorPrint.setVehicleNo(masterDataCacheService.getVehicleNo(byTicketNo.getVehicleId()));
         if(byTicketNo.getTransactionType().equalsIgnoreCase("Outbound")) {
-            weighbridgeOperatorPrint.setProductName(productMasterRepository.findProductNameByProductId(byTicketNo.getMaterialId()));
-            weighbridgeOperatorPrint.setCustomerName(customerMasterRepository.findCustomerNameByCustomerId(byTicketNo.getCustomerId()));
-            weighbridgeOperatorPrint.setGrossWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getGrossWeight()*1000);
-            weighbridgeOperatorPrint.setTareWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getTemporaryWeight()*1000);
+            weighbridgeOperatorPrint.setProductName(masterDataCacheService.getProductName(byTicketNo.getMaterialId()));
+            weighbridgeOperatorPrint.setCustomerName(masterDataCacheService.getCustomerName(byTicketNo.getCustomerId()));
+            weighbridgeOperatorPrint.setGrossWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getGrossWeight());
+            weighbridgeOperatorPrint.setTareWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getTemporaryWeight());
         }
         else {
-            weighbridgeOperatorPrint.setMaterialName(materialMasterRepository.findMaterialNameByMaterialId(byTicketNo.getMaterialId()));
-            weighbridgeOperatorPrint.setSupplierName(supplierMasterRepository.findSupplierNameBySupplierId(byTicketNo.getSupplierId()));
-            weighbridgeOperatorPrint.setTareWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getTareWeight()*1000);
-           weighbridgeOperatorPrint.setGrossWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getTemporaryWeight()*1000);
+            weighbridgeOperatorPrint.setMaterialName(masterDataCacheService.getMaterialName(byTicketNo.getMaterialId()));
+            weighbridgeOperatorPrint.setSupplierName(masterDataCacheService.getSupplierName(byTicketNo.getSupplierId()));
+            weighbridgeOperatorPrint.setTareWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getTareWeight());
+           weighbridgeOperatorPrint.setGrossWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getTemporaryWeight());
         }
-        weighbridgeOperatorPrint.setTransporterName(transporterMasterRepository.findTransporterNameByTransporterId(byTicketNo.getTransporterId()));
+        weighbridgeOperatorPrint.setTransporterName(masterDataCacheService.getTransporterName(byTicketNo.getTransporterId()));
         weighbridgeOperatorPrint.setChallanNo(byTicketNo.getTpNo());
         weighbridgeOperatorPrint.setCompanyName(companyMasterRepository.findCompanyNameByCompanyId(byTicketNo.getCompanyId()));
         weighbridgeOperatorPrint.setCompanyAdress(companyMasterRepository.findCompanyAddressByCompanyId(byTicketNo.getCompanyId()));
@@ -87,7 +91,7 @@ public class WeighbridgeOperatorPrintServiceImpl implements WeighbridgeOperatorP
         String timeFormat1=twt!=null?twt.getTimestamp().format(timeFormatter):"";
         weighbridgeOperatorPrint.setTareWeightDate(dateFormat1);
         weighbridgeOperatorPrint.setTareWeightTime(timeFormat1);
-        weighbridgeOperatorPrint.setNetWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getNetWeight()*1000);
+        weighbridgeOperatorPrint.setNetWeight(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(byTicketNo.getTicketNo()).getNetWeight());
         System.out.println(weighbridgeOperatorPrint);
         return weighbridgeOperatorPrint;
     }
@@ -17,6 +17,9 @@ import com.weighbridge.weighbridgeoperator.payloads.WeighbridgeReportResponseLis
 import com.weighbridge.weighbridgeoperator.payloads.WeighmentPrintResponse;
 import com.weighbridge.weighbridgeoperator.repositories.WeighmentTransactionRepository;
 import com.weighbridge.weighbridgeoperator.services.WeighmentReportService;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import com.weighbridge.admin.payloads.UserContext;
+import com.weighbridge.admin.services.UserContextService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Tuple;
@@ -32,8 +35,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static com.weighbridge.weighbridgeoperator.payloads.WeightUnits.toTonnes;
+
 @Service
 public class WeighmentReportServiceImpl implements WeighmentReportService {
 
@@ -72,6 +78,12 @@ public class WeighmentReportServiceImpl implements WeighmentReportService {
 
     @Autowired
     private SiteMasterRepository siteMasterRepository;
+
+    @Autowired
+    private MasterDataCacheService masterDataCacheService;
+
+    @Autowired
+    private UserContextService userContextService;
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -115,49 +127,49 @@ public class WeighmentReportServiceImpl implements WeighmentReportService {
 
         weighmentPrintResponse.setTicketNo(weighmentTransaction.getGateEntryTransaction().getTicketNo());
 
-        String vehicleNo = vehicleMasterRepository.findVehicleNoById(weighmentTransaction.getGateEntryTransaction().getVehicleId());
+        String vehicleNo = masterDataCacheService.getVehicleNo(weighmentTransaction.getGateEntryTransaction().getVehicleId());
         weighmentPrintResponse.setVehicleNo(vehicleNo);
 
-        String materialName = materialMasterRepository.findMaterialNameByMaterialId(weighmentTransaction.getGateEntryTransaction().getMaterialId());
+        String materialName = masterDataCacheService.getMaterialName(weighmentTransaction.getGateEntryTransaction().getMaterialId());
         weighmentPrintResponse.setMaterialName(materialName);
 
-        String transporterName = transporterMasterRepository.findTransporterNameByTransporterId(weighmentTransaction.getGateEntryTransaction().getTransporterId());
+        String transporterName = masterDataCacheService.getTransporterName(weighmentTransaction.getGateEntryTransaction().getTransporterId());
         weighmentPrintResponse.setTransporterName(transporterName);
 
         if ("Inbound".equals(weighmentTransaction.getGateEntryTransaction().getTransactionType())) {
-            String supplierName = supplierMasterRepository.findSupplierNameBySupplierId(weighmentTransaction.getGateEntryTransaction().getSupplierId());
+            String supplierName = masterDataCacheService.getSupplierName(weighmentTransaction.getGateEntryTransaction().getSupplierId());
             weighmentPrintResponse.setSupplierOrCustomerName(supplierName);
-            weighmentPrintResponse.setTareWeight(weighmentTransaction.getTareWeight());
-            weighmentPrintResponse.setGrossWeight(weighmentTransaction.getTemporaryWeight());
+            weighmentPrintResponse.setTareWeight(toTonnes(weighmentTransaction.getTareWeight()));
+            weighmentPrintResponse.setGrossWeight(toTonnes(weighmentTransaction.getTemporaryWeight()));
         }
 
         if ("Outbound".equals(weighmentTransaction.getGateEntryTransaction().getTransactionType())) {
-            String customerName = customerMasterRepository.findCustomerNameByCustomerId(weighmentTransaction.getGateEntryTransaction().getCustomerId());
+            String customerName = masterDataCacheService.getCustomerName(weighmentTransaction.getGateEntryTransaction().getCustomerId());
             weighmentPrintResponse.setSupplierOrCustomerName(customerName);
-            weighmentPrintResponse.setTareWeight(weighmentTransaction.getTemporaryWeight());
-            weighmentPrintResponse.setGrossWeight(weighmentTransaction.getGrossWeight());
+            weighmentPrintResponse.setTareWeight(toTonnes(weighmentTransaction.getTemporaryWeight()));
+            weighmentPrintResponse.setGrossWeight(toTonnes(weighmentTransaction.getGrossWeight()));
         }
         System.out.println(weighmentPrintResponse);
 
         weighmentPrintResponse.setChallanNo(weighmentTransaction.getGateEntryTransaction().getChallanNo());
-        //  weighmentPrintResponse.setGrossWeight(weighmentTransaction.getGrossWeight());
+        //  weighmentPrintResponse.setGrossWeight(toTonnes(weighmentTransaction.getGrossWeight()));
 
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        //    weighmentPrintResponse.setGrossWeight(weighmentTransaction.getGrossWeight());
+        //    weighmentPrintResponse.setGrossWeight(toTonnes(weighmentTransaction.getGrossWeight()));
         TransactionLog gwt = transactionLogRepository.findByTicketNoAndStatusCode(weighmentTransaction.getGateEntryTransaction().getTicketNo(), "GWT");
         if (gwt != null) {
             LocalDateTime gwtTimestamp = gwt.getTimestamp();
             String formattedGwtTimestamp = gwtTimestamp.format(formatter);
             weighmentPrintResponse.setGrossWeightDateTime(formattedGwtTimestamp);
         }
-        // weighmentPrintResponse.setTareWeight(weighmentTransaction.getTareWeight());
+        // weighmentPrintResponse.setTareWeight(toTonnes(weighmentTransaction.getTareWeight()));
         TransactionLog twt = transactionLogRepository.findByTicketNoAndStatusCode(weighmentTransaction.getGateEntryTransaction().getTicketNo(), "TWT");
         if (twt != null) {
             LocalDateTime twtTimestamp = twt.getTimestamp();
             String formattedTwtTimestamp = twtTimestamp.format(formatter);
             weighmentPrintResponse.setTareWeightDateTime(formattedTwtTimestamp);
         }
-        weighmentPrintResponse.setNetWeight(weighmentTransaction.getNetWeight());
+        weighmentPrintResponse.setNetWeight(toTonnes(weighmentTransaction.getNetWeight()));
 
         UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User", "user id", userId));
         StringBuilder userName = new StringBuilder();
@@ -238,11 +250,11 @@ public class WeighmentReportServiceImpl implements WeighmentReportService {
                     System.out.println("Weighbridge Responses: " + weighbridgeResponseList);
 
                     // Calculate sums with null safety checks
-                    double ch_SumQty = weighbridgeResponseList.stream().filter(response -> response.getSupplyConsignmentWeight() != null).mapToDouble(WeighbridgeReportResponseList::getSupplyConsignmentWeight).sum();
+                    double ch_SumQty = sumTonnes(weighbridgeResponseList, WeighbridgeReportResponseList::getSupplyConsignmentWeight);
 
-                    double weight_SumQty = weighbridgeResponseList.stream().filter(response -> response.getWeighQuantity() != null).mapToDouble(WeighbridgeReportResponseList::getWeighQuantity).sum();
+                    double weight_SumQty = sumTonnes(weighbridgeResponseList, WeighbridgeReportResponseList::getWeighQuantity);
 
-                    double shtExcess_SumQty = weighbridgeResponseList.stream().filter(response -> response.getExcessQty() != null).mapToDouble(WeighbridgeReportResponseList::getExcessQty).sum();
+                    double shtExcess_SumQty = sumTonnes(weighbridgeResponseList, WeighbridgeReportResponseList::getExcessQty);
 
                     // Set the list and sums in the report
                     report.setWeighbridgeResponse2List(weighbridgeResponseList);
@@ -291,19 +303,16 @@ public class WeighmentReportServiceImpl implements WeighmentReportService {
 
         if (weighmentTransaction != null) {
 
-            // Calculate weights with null checks
-            Double supplyConsignmentWeight = gateEntryResponse.getTpNetWeight();
-            if (supplyConsignmentWeight != null) {
-
-                weighbridgeReportResponseList.setSupplyConsignmentWeight(supplyConsignmentWeight);
-            } else {
-                supplyConsignmentWeight = 0.0;
+            // The report is in tonnes like the transit pass weight, the difference is taken in kilograms
+            long supplyConsignmentWeight = 0;
+            if (gateEntryResponse.getTpNetWeight() != null) {
+                weighbridgeReportResponseList.setSupplyConsignmentWeight(gateEntryResponse.getTpNetWeight());
+                supplyConsignmentWeight = Math.round(gateEntryResponse.getTpNetWeight() * 1000);
             }
 
-            Double netWeight = (Double) weighmentTransaction.getNetWeight() != null ? weighmentTransaction.getNetWeight() : 0.0;
-            weighbridgeReportResponseList.setWeighQuantity(netWeight);
-            double excessQty = supplyConsignmentWeight - netWeight;
-            weighbridgeReportResponseList.setExcessQty(excessQty);
+            long netWeight = weighmentTransaction.getNetWeight();
+            weighbridgeReportResponseList.setWeighQuantity(toTonnes(netWeight));
+            weighbridgeReportResponseList.setExcessQty(toTonnes(supplyConsignmentWeight - netWeight));
 
 
         }
@@ -318,9 +327,9 @@ public class WeighmentReportServiceImpl implements WeighmentReportService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Session Expired, Login again !");
         }
 */
-        UserMaster userMaster = userMasterRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("user not found with " + userId));
-        String userSite = userMaster.getSite().getSiteId();
-        String userCompany =userMaster.getCompany().getCompanyId();
+        UserContext userContext = userContextService.findUserContext(userId).orElseThrow(() -> new ResourceNotFoundException("user not found with " + userId));
+        String userSite = userContext.getSiteId();
+        String userCompany = userContext.getCompanyId();
 
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
         CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
@@ -379,16 +388,16 @@ public class WeighmentReportServiceImpl implements WeighmentReportService {
                 Object value = tuple.get(fieldToExpressionMap.get(field));
                 if ("materialId".equals(field) && value != null) {
                     long materialId = (long) value;
-                    value = Optional.ofNullable(materialMasterRepository.findMaterialNameByMaterialId(materialId)).orElse("Unknown Material");
+                    value = Optional.ofNullable(masterDataCacheService.getMaterialName(materialId)).orElse("Unknown Material");
                 } else if ("supplierId".equals(field) && value != null) {
                     long supplierId = (long) value;
-                    value = Optional.ofNullable(supplierMasterRepository.findSupplierNameBySupplierId(supplierId)).orElse("");
+                    value = Optional.ofNullable(masterDataCacheService.getSupplierName(supplierId)).orElse("");
                 } else if ("customerId".equals(field) && value != null) {
                     long customerId = (long) value;
-                    value = Optional.ofNullable(customerMasterRepository.findCustomerNameByCustomerId(customerId)).orElse("");
+                    value = Optional.ofNullable(masterDataCacheService.getCustomerName(customerId)).orElse("");
                 } else if ("vehicleId".equals(field) && value != null) {
                     long vehicleId = (long) value;
-                    value = Optional.ofNullable(vehicleMasterRepository.findVehicleNoById(vehicleId)).orElse("");
+                    value = Optional.ofNullable(masterDataCacheService.getVehicleNo(vehicleId)).orElse("");
                 }
                 mappedResult.put(field, value);
             }
@@ -396,4 +405,11 @@ public class WeighmentReportServiceImpl implements WeighmentReportService {
         }
         return mappedResultList;
     }
+
+    /**
+     * Sums tonnes to the kilogram, without the rounding errors of adding up the doubles.
+     */
+    private static double sumTonnes(List<WeighbridgeReportResponseList> responses, Function<WeighbridgeReportResponseList, Double> weight) {
+        return toTonnes(responses.stream().map(weight).filter(Objects::nonNull).mapToLong(tonnes -> Math.round(tonnes * 1000)).sum());
+    }
 }
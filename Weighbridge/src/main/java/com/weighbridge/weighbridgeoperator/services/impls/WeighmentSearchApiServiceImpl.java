@@ -2,7 +2,6 @@ package com.weighbridge.weighbridgeoperator.services.impls;
 
 
 import com.weighbridge.admin.entities.MaterialMaster;
-import com.weighbridge.admin.entities.UserMaster;
 import com.weighbridge.admin.entities.VehicleMaster;
 import com.weighbridge.admin.exceptions.ResourceNotFoundException;
 import com.weighbridge.admin.exceptions.SessionExpiredException;
@@ -19,6 +18,9 @@ import com.weighbridge.weighbridgeoperator.repositories.WeighmentTransactionRepo
 import com.weighbridge.weighbridgeoperator.services.WeighmentSearchApiService;
 import com.weighbridge.weighbridgeoperator.specification.GateEntryTransactionSpecification;
 import com.weighbridge.weighbridgeoperator.specification.WeighmentTransactionSpecification;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import com.weighbridge.admin.payloads.UserContext;
+import com.weighbridge.admin.services.UserContextService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -71,6 +73,12 @@ public class WeighmentSearchApiServiceImpl implements WeighmentSearchApiService
     @Autowired
     private UserMasterRepository userMasterRepository;
 
+    @Autowired
+    private MasterDataCacheService masterDataCacheService;
+
+    @Autowired
+    private UserContextService userContextService;
+
     /**
      * @return
      */
@@ -82,10 +90,10 @@ public class WeighmentSearchApiServiceImpl implements WeighmentSearchApiService
         }
         WeighmentTransaction weight=weighmentTransactionRepository.findByGateEntryTransactionTicketNo(ticketNo);
         VehicleMaster byId = vehicleMasterRepository.findById(byWeighmentId.getVehicleId()).get();
-        String customerNameByCustomerId = customerMasterRepository.findCustomerNameByCustomerId(byWeighmentId.getCustomerId());
-        String supplierNameBySupplierIdsearchField = supplierMasterRepository.findSupplierNameBySupplierId(byWeighmentId.getSupplierId());
-        String transporterNameByTransporterId = transporterMasterRepository.findTransporterNameByTransporterId(byWeighmentId.getTransporterId());
-        if(weight!=null&&weight.getNetWeight()==0.0) {
+        String customerNameByCustomerId = masterDataCacheService.getCustomerName(byWeighmentId.getCustomerId());
+        String supplierNameBySupplierIdsearchField = masterDataCacheService.getSupplierName(byWeighmentId.getSupplierId());
+        String transporterNameByTransporterId = masterDataCacheService.getTransporterName(byWeighmentId.getTransporterId());
+        if(weight!=null&&weight.getNetWeight()==0) {
             WeighmentTransactionResponse weighmentTransactionResponse = new WeighmentTransactionResponse();
             weighmentTransactionResponse.setTicketNo(String.valueOf(byWeighmentId.getTicketNo()));
             weighmentTransactionResponse.setWeighmentNo(weight != null ? String.valueOf(weight.getWeighmentNo()) : "");
@@ -110,12 +118,12 @@ public class WeighmentSearchApiServiceImpl implements WeighmentSearchApiService
                 restTimeStamp1 = timestamp1 != null ? timestamp1.format(formatter) : "";
             }
             if (byWeighmentId.getTransactionType().equalsIgnoreCase("Inbound")) {
-                String materialNameByMaterialId = materialMasterRepository.findMaterialNameByMaterialId(byWeighmentId.getMaterialId());
+                String materialNameByMaterialId = masterDataCacheService.getMaterialName(byWeighmentId.getMaterialId());
                 weighmentTransactionResponse.setGrossWeight(String.valueOf(weight.getTemporaryWeight()) != null ? String.valueOf(weight.getTemporaryWeight()) + "/" + restTimeStamp : "");
                 weighmentTransactionResponse.setTareWeight(String.valueOf(weight.getTareWeight()) != null ? String.valueOf(weight.getTareWeight()) + "/" + restTimeStamp1 : "");
                 weighmentTransactionResponse.setMaterialName(materialNameByMaterialId != null ? materialNameByMaterialId : "");
             } else {
-                String productNameByProductId = productMasterRepository.findProductNameByProductId(byWeighmentId.getMaterialId());
+                String productNameByProductId = masterDataCacheService.getProductName(byWeighmentId.getMaterialId());
                 weighmentTransactionResponse.setTareWeight(String.valueOf(weight.getTemporaryWeight()) != null ? String.valueOf(weight.getTemporaryWeight()) + "/" + restTimeStamp1 : "");
                 weighmentTransactionResponse.setGrossWeight(String.valueOf(weight.getGrossWeight()) != null ? String.valueOf(weight.getGrossWeight()) + "/" + restTimeStamp : "");
                 weighmentTransactionResponse.setMaterialName(productNameByProductId != null ? productNameByProductId : "");
@@ -150,18 +158,18 @@ public class WeighmentSearchApiServiceImpl implements WeighmentSearchApiService
                 restTimeStamp1 = timestamp1 != null ? timestamp1.format(formatter) : "";
             }
             if (byWeighmentId.getTransactionType().equalsIgnoreCase("Inbound")) {
-                String materialNameByMaterialId = materialMasterRepository.findMaterialNameByMaterialId(byWeighmentId.getMaterialId());
-                weighmentTransactionResponse.setGrossWeight("0.0");
-                weighmentTransactionResponse.setTareWeight("0.0");
+                String materialNameByMaterialId = masterDataCacheService.getMaterialName(byWeighmentId.getMaterialId());
+                weighmentTransactionResponse.setGrossWeight("0");
+                weighmentTransactionResponse.setTareWeight("0");
                 weighmentTransactionResponse.setMaterialName(materialNameByMaterialId != null ? materialNameByMaterialId : "");
             } else {
-                String productNameByProductId = productMasterRepository.findProductNameByProductId(byWeighmentId.getMaterialId());
-                weighmentTransactionResponse.setTareWeight("0.0");
-                weighmentTransactionResponse.setGrossWeight("0.0");
+                String productNameByProductId = masterDataCacheService.getProductName(byWeighmentId.getMaterialId());
+                weighmentTransactionResponse.setTareWeight("0");
+                weighmentTransactionResponse.setGrossWeight("0");
                 weighmentTransactionResponse.setMaterialName(productNameByProductId != null ? productNameByProductId : "");
             }
             weighmentTransactionResponse.setTransactionType(byWeighmentId.getTransactionType());
-            weighmentTransactionResponse.setNetWeight("0.0");
+            weighmentTransactionResponse.setNetWeight("0");
             weighmentTransactionResponse.setTransporterName(transporterNameByTransporterId != null ? transporterNameByTransporterId : "");
             return weighmentTransactionResponse;
         }
@@ -175,9 +183,9 @@ public class WeighmentSearchApiServiceImpl implements WeighmentSearchApiService
      */
     @Override
     public WeighbridgePageResponse getAllBySearchFields(WeighbridgeOperatorSearchCriteria criteria, Pageable pageable,String userId) {
-       UserMaster byId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("user not found with"+userId));
-        criteria.setSiteId(byId.getSite().getSiteId());
-        criteria.setCompanyId(byId.getCompany().getCompanyId());
+       UserContext byId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("user not found with"+userId));
+        criteria.setSiteId(byId.getSiteId());
+        criteria.setCompanyId(byId.getCompanyId());
         criteria.setUserId(userId);
         WeighmentTransactionSpecification specification = new WeighmentTransactionSpecification(criteria,vehicleMasterRepository,materialMasterRepository,transporterMasterRepository,productMasterRepository,supplierMasterRepository,customerMasterRepository);
         Specification<WeighmentTransaction> netWeightNotNullSpec = WeighmentTransactionSpecification.netWeightNotZero();
@@ -196,9 +204,9 @@ public class WeighmentSearchApiServiceImpl implements WeighmentSearchApiService
 
     private WeighmentTransactionResponse mapToResponse(WeighmentTransaction transaction){
         VehicleMaster byId = vehicleMasterRepository.findById(transaction.getGateEntryTransaction().getVehicleId()).get();
-        String customerNameByCustomerId = customerMasterRepository.findCustomerNameByCustomerId(transaction.getGateEntryTransaction().getCustomerId());
-        String supplierNameBySupplierIdsearchField = supplierMasterRepository.findSupplierNameBySupplierId(transaction.getGateEntryTransaction().getSupplierId());
-        String transporterNameByTransporterId = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getGateEntryTransaction().getTransporterId());
+        String customerNameByCustomerId = masterDataCacheService.getCustomerName(transaction.getGateEntryTransaction().getCustomerId());
+        String supplierNameBySupplierIdsearchField = masterDataCacheService.getSupplierName(transaction.getGateEntryTransaction().getSupplierId());
+        String transporterNameByTransporterId = masterDataCacheService.getTransporterName(transaction.getGateEntryTransaction().getTransporterId());
             WeighmentTransactionResponse weighmentTransactionResponse = new WeighmentTransactionResponse();
             weighmentTransactionResponse.setTicketNo(String.valueOf(transaction.getGateEntryTransaction().getTicketNo()));
             weighmentTransactionResponse.setWeighmentNo(String.valueOf(transaction.getWeighmentNo()));
@@ -223,27 +231,27 @@ public class WeighmentSearchApiServiceImpl implements WeighmentSearchApiService
                 restTimeStamp1 = timestamp1 != null ? timestamp1.format(formatter) : "";
             }
             if (transaction.getGateEntryTransaction().getTransactionType().equalsIgnoreCase("Inbound")) {
-                String materialNameByMaterialId = materialMasterRepository.findMaterialNameByMaterialId(transaction.getGateEntryTransaction().getMaterialId());
-                weighmentTransactionResponse.setGrossWeight(String.valueOf(transaction.getTemporaryWeight()) != null ? String.valueOf(transaction.getTemporaryWeight()*1000): "");
-                weighmentTransactionResponse.setTareWeight(String.valueOf(transaction.getTareWeight()) != null ? String.valueOf(transaction.getTareWeight()*1000): "");
+                String materialNameByMaterialId = masterDataCacheService.getMaterialName(transaction.getGateEntryTransaction().getMaterialId());
+                weighmentTransactionResponse.setGrossWeight(String.valueOf(transaction.getTemporaryWeight()) != null ? String.valueOf(transaction.getTemporaryWeight()): "");
+                weighmentTransactionResponse.setTareWeight(String.valueOf(transaction.getTareWeight()) != null ? String.valueOf(transaction.getTareWeight()): "");
                 weighmentTransactionResponse.setMaterialName(materialNameByMaterialId != null ? materialNameByMaterialId : "");
             } else {
-                String productNameByProductId = productMasterRepository.findProductNameByProductId(transaction.getGateEntryTransaction().getMaterialId());
-                weighmentTransactionResponse.setTareWeight(String.valueOf(transaction.getTemporaryWeight()) != null ? String.valueOf(transaction.getTemporaryWeight()*1000): "");
-                weighmentTransactionResponse.setGrossWeight(String.valueOf(transaction.getGrossWeight()) != null ? String.valueOf(transaction.getGrossWeight()*1000): "");
+                String productNameByProductId = masterDataCacheService.getProductName(transaction.getGateEntryTransaction().getMaterialId());
+                weighmentTransactionResponse.setTareWeight(String.valueOf(transaction.getTemporaryWeight()) != null ? String.valueOf(transaction.getTemporaryWeight()): "");
+                weighmentTransactionResponse.setGrossWeight(String.valueOf(transaction.getGrossWeight()) != null ? String.valueOf(transaction.getGrossWeight()): "");
                 weighmentTransactionResponse.setMaterialName(productNameByProductId != null ? productNameByProductId : "");
             }
             weighmentTransactionResponse.setTransactionType(transaction.getGateEntryTransaction().getTransactionType());
-            weighmentTransactionResponse.setNetWeight(String.valueOf(transaction.getNetWeight()) != null ? String.valueOf(transaction.getNetWeight()*1000) : "");
+            weighmentTransactionResponse.setNetWeight(String.valueOf(transaction.getNetWeight()) != null ? String.valueOf(transaction.getNetWeight()) : "");
             weighmentTransactionResponse.setTransporterName(transporterNameByTransporterId != null ? transporterNameByTransporterId : "");
             return weighmentTransactionResponse;
     }
 
     @Override
     public WeighbridgePageResponse getAllBySearchFieldsForInprocessTransaction(WeighbridgeOperatorSearchCriteria criteria, Pageable pageable, String userId) {
-        UserMaster byId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("user not found with"+userId));
-        criteria.setSiteId(byId.getSite().getSiteId());
-        criteria.setCompanyId(byId.getCompany().getCompanyId());
+        UserContext byId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("user not found with"+userId));
+        criteria.setSiteId(byId.getSiteId());
+        criteria.setCompanyId(byId.getCompanyId());
         criteria.setUserId(userId);
         GateEntryTransactionSpecification specification = new GateEntryTransactionSpecification(criteria,vehicleMasterRepository,materialMasterRepository,transporterMasterRepository,productMasterRepository,supplierMasterRepository,customerMasterRepository,weighmentTransactionRepository);
         Specification<GateEntryTransaction> netWeightNullSpec = specification.netWeightZero();
@@ -262,9 +270,9 @@ public class WeighmentSearchApiServiceImpl implements WeighmentSearchApiService
 
     private WeighmentTransactionResponse mapToInProcessResponse(GateEntryTransaction transaction){
         VehicleMaster byId = vehicleMasterRepository.findById(transaction.getVehicleId()).get();
-        String customerNameByCustomerId = customerMasterRepository.findCustomerNameByCustomerId(transaction.getCustomerId());
-        String supplierNameBySupplierIdsearchField = supplierMasterRepository.findSupplierNameBySupplierId(transaction.getSupplierId());
-        String transporterNameByTransporterId = transporterMasterRepository.findTransporterNameByTransporterId(transaction.getTransporterId());
+        String customerNameByCustomerId = masterDataCacheService.getCustomerName(transaction.getCustomerId());
+        String supplierNameBySupplierIdsearchField = masterDataCacheService.getSupplierName(transaction.getSupplierId());
+        String transporterNameByTransporterId = masterDataCacheService.getTransporterName(transaction.getTransporterId());
         WeighmentTransaction byId1 = weighmentTransactionRepository.findByGateEntryTransactionTicketNo(transaction.getTicketNo());
         WeighmentTransactionResponse weighmentTransactionResponse = new WeighmentTransactionResponse();
         weighmentTransactionResponse.setTicketNo(String.valueOf(transaction.getTicketNo()));
@@ -290,25 +298,25 @@ public class WeighmentSearchApiServiceImpl implements WeighmentSearchApiService
         }
         if (transaction.getTransactionType().equalsIgnoreCase("Inbound")) {
             System.out.println("===============");
-            String materialNameByMaterialId = materialMasterRepository.findMaterialNameByMaterialId(transaction.getMaterialId());
+            String materialNameByMaterialId = masterDataCacheService.getMaterialName(transaction.getMaterialId());
 
                 weighmentTransactionResponse.setWeighmentNo(byId1!=null?String.valueOf(byId1.getWeighmentNo()):"");
-                weighmentTransactionResponse.setGrossWeight(byId1!=null?String.valueOf(byId1.getTemporaryWeight()*1000):"");
-                weighmentTransactionResponse.setTareWeight(byId1!=null?String.valueOf(byId1.getTareWeight()*1000):"");
+                weighmentTransactionResponse.setGrossWeight(byId1!=null?String.valueOf(byId1.getTemporaryWeight()):"");
+                weighmentTransactionResponse.setTareWeight(byId1!=null?String.valueOf(byId1.getTareWeight()):"");
 
 
             weighmentTransactionResponse.setMaterialName(materialNameByMaterialId != null ? materialNameByMaterialId : "");
         } else {
-            String productNameByProductId = productMasterRepository.findProductNameByProductId(transaction.getMaterialId());
+            String productNameByProductId = masterDataCacheService.getProductName(transaction.getMaterialId());
                 weighmentTransactionResponse.setWeighmentNo(byId1!=null?String.valueOf(byId1.getWeighmentNo()):"");
-                weighmentTransactionResponse.setTareWeight(byId1!=null?String.valueOf(byId1.getTemporaryWeight()*1000):"");
-                weighmentTransactionResponse.setGrossWeight(byId1!=null?String.valueOf(byId1.getGrossWeight()*1000):"");
+                weighmentTransactionResponse.setTareWeight(byId1!=null?String.valueOf(byId1.getTemporaryWeight()):"");
+                weighmentTransactionResponse.setGrossWeight(byId1!=null?String.valueOf(byId1.getGrossWeight()):"");
 
 
             weighmentTransactionResponse.setMaterialName(productNameByProductId != null ? productNameByProductId : "");
         }
         weighmentTransactionResponse.setTransactionType(transaction.getTransactionType());
-        weighmentTransactionResponse.setNetWeight(byId1 != null ? String.valueOf(byId1.getNetWeight()*1000) : "");
+        weighmentTransactionResponse.setNetWeight(byId1 != null ? String.valueOf(byId1.getNetWeight()) : "");
         weighmentTransactionResponse.setTransporterName(transporterNameByTransporterId != null ? transporterNameByTransporterId : "");
         return weighmentTransactionResponse;
     }
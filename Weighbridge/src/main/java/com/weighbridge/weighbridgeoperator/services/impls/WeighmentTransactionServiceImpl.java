@@ -1,16 +1,15 @@
 package com.weighbridge.weighbridgeoperator.services.impls;
 
-import com.weighbridge.SalesManagement.entities.SalesOrder;
 import com.weighbridge.SalesManagement.entities.SalesProcess;
 import com.weighbridge.SalesManagement.repositories.SalesOrderRespository;
 import com.weighbridge.SalesManagement.repositories.SalesProcessRepository;
-import com.weighbridge.admin.entities.RoleMaster;
-import com.weighbridge.admin.entities.UserMaster;
 import com.weighbridge.admin.entities.VehicleMaster;
 import com.weighbridge.admin.exceptions.ResourceNotFoundException;
 import com.weighbridge.admin.repsitories.*;
 import com.weighbridge.camera.entites.CameraView;
+import com.weighbridge.camera.entites.ImageSize;
 import com.weighbridge.camera.repositories.CameraRepository;
+import com.weighbridge.camera.services.CameraClipService;
 import com.weighbridge.camera.services.CameraViewService;
 import com.weighbridge.gateuser.entities.GateEntryTransaction;
 import com.weighbridge.gateuser.entities.TransactionLog;
@@ -26,17 +25,13 @@ import com.weighbridge.weighbridgeoperator.payloads.WeighmentRequest;
 import com.weighbridge.weighbridgeoperator.payloads.WeighmentTransactionResponse;
 import com.weighbridge.weighbridgeoperator.repositories.VehicleTransactionStatusRepository;
 import com.weighbridge.weighbridgeoperator.repositories.WeighmentTransactionRepository;
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService;
 import com.weighbridge.weighbridgeoperator.services.WeighmentTransactionService;
+import com.weighbridge.admin.services.MasterDataCacheService;
+import com.weighbridge.admin.payloads.UserContext;
+import com.weighbridge.admin.services.UserContextService;
 import jakarta.servlet.http.HttpServletRequest;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.InputStreamEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -105,19 +100,24 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
 
     @Autowired
     private CameraViewService cameraViewService;
-    @Value("${nextcloud.base-url}")
-    private String baseUrl;
 
-    @Value("${nextcloud.username}")
-    private String username;
+    @Autowired
+    private CameraClipService cameraClipService;
+
+    @Autowired
+    private MasterDataCacheService masterDataCacheService;
 
-    @Value("${nextcloud.password}")
-    private String password;
+    @Autowired
+    private UserContextService userContextService;
+
+    @Autowired
+    private ScaleIndicatorService scaleIndicatorService;
 
     @Override
     public String saveWeight(WeighmentRequest weighmentRequest,String userId, MultipartFile frontImg1, MultipartFile backImg2, MultipartFile topImg3,
                              MultipartFile bottomImg4, MultipartFile leftImg5,
                              MultipartFile rightImg6, String role) {
+        long weight = readWeight(weighmentRequest);
         GateEntryTransaction gateEntryId = gateEntryTransactionRepository.findById(weighmentRequest.getTicketNo()).get();
         WeighmentTransaction weighmentTicketNo = weighmentTransactionRepository.findByGateEntryTransactionTicketNo(weighmentRequest.getTicketNo());
         VehicleTransactionStatus byTicketNo = vehicleTransactionStatusRepository.findByTicketNo(weighmentRequest.getTicketNo());
@@ -125,8 +125,9 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
             WeighmentTransaction weighmentTransaction = new WeighmentTransaction();
             weighmentTransaction.setGateEntryTransaction(gateEntryId);
             weighmentTransaction.setMachineId(weighmentRequest.getMachineId());
-            weighmentTransaction.setTemporaryWeight(weighmentRequest.getWeight()/1000);
+            weighmentTransaction.setTemporaryWeight(weight);
             weighmentTransactionRepository.save(weighmentTransaction);
+            scaleIndicatorService.recordWeighing(weighmentRequest.getMachineId(), weighmentRequest.getTicketNo(), "ENTRY", System.currentTimeMillis());
             try {
                 System.out.println("--------------");
                 cameraViewService.uploadImages(weighmentRequest.getTicketNo(), frontImg1, backImg2, topImg3, bottomImg4, leftImg5, rightImg6, role,"ENTRY");
@@ -134,6 +135,7 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
             catch (IOException ie){
                 ie.printStackTrace();
             }
+            cameraClipService.recordClips(weighmentRequest.getTicketNo(), gateEntryId.getCompanyId(), gateEntryId.getSiteId(), role, "ENTRY");
             //History save with vehicle intime and vehicle out time
             TransactionLog transactionLog = new TransactionLog();
             transactionLog.setUserId(userId);
@@ -160,8 +162,8 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Gross Weight already saved.");
             }
 
-            double temporaryWeight = weighmentTicketNo.getTemporaryWeight();
-            double secondWeight=weighmentRequest.getWeight()/1000;
+            long temporaryWeight = weighmentTicketNo.getTemporaryWeight();
+            long secondWeight = weight;
             if (temporaryWeight > secondWeight) {
                 weighmentTicketNo.setGrossWeight(temporaryWeight);
                 weighmentTicketNo.setTareWeight(secondWeight);
@@ -169,10 +171,11 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
                 weighmentTicketNo.setTareWeight(temporaryWeight);
                 weighmentTicketNo.setGrossWeight(secondWeight);
             }
-            double netWeight = Math.abs(temporaryWeight - secondWeight);
+            long netWeight = Math.abs(temporaryWeight - secondWeight);
             weighmentTicketNo.setNetWeight(netWeight);
 
             weighmentTransactionRepository.save(weighmentTicketNo);
+            scaleIndicatorService.recordWeighing(weighmentRequest.getMachineId(), weighmentRequest.getTicketNo(), "EXIT", System.currentTimeMillis());
             try {
                 System.out.println("--------------");
                 cameraViewService.uploadImages(weighmentRequest.getTicketNo(), frontImg1, backImg2, topImg3, bottomImg4, leftImg5, rightImg6, role,"EXIT");
@@ -180,6 +183,7 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
             catch (IOException ie){
                 ie.printStackTrace();
             }
+            cameraClipService.recordClips(weighmentRequest.getTicketNo(), gateEntryId.getCompanyId(), gateEntryId.getSiteId(), role, "EXIT");
             TransactionLog transactionLog = new TransactionLog();
             transactionLog.setUserId(userId);
             transactionLog.setTicketNo(weighmentRequest.getTicketNo());
@@ -199,22 +203,33 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
 
             if (gateEntryId.getTransactionType().equalsIgnoreCase("Outbound")) {
                 SalesProcess bySalePassNo = salesProcessRepository.findBySalePassNo(gateEntryId.getTpNo());
-                SalesOrder bySaleOrderNo = salesOrderRespository.findBySaleOrderNo(bySalePassNo.getPurchaseSale().getSaleOrderNo());
-                double progressiveQty = bySaleOrderNo.getProgressiveQuantity() + netWeight;
-                double balanceQty = bySaleOrderNo.getBalanceQuantity() - progressiveQty ;
-                bySaleOrderNo.setProgressiveQuantity(progressiveQty);
-                bySaleOrderNo.setBalanceQuantity(balanceQty);
-                salesOrderRespository.save(bySaleOrderNo);
+                String saleOrderNo = bySalePassNo.getPurchaseSale().getSaleOrderNo();
+                // Incremented in the database, so trucks of one order weighed at the same time all count
+                if (salesOrderRespository.addDispatchedQuantity(saleOrderNo, netWeight) == 0) {
+                    throw new ResourceNotFoundException("SalesOrder", "saleOrderNo", saleOrderNo);
+                }
             }
             return "Second weight saved";
         }
     }
 
+    /**
+     * @return The weight in whole kilograms, from the indicator of the machine if it has one configured, otherwise as
+     * the operator entered it, so a site can bring its indicators online one machine at a time.
+     */
+    private long readWeight(WeighmentRequest weighmentRequest) {
+        String machineId = weighmentRequest.getMachineId();
+        if (!scaleIndicatorService.isConfigured(machineId)) {
+            return Math.round(weighmentRequest.getWeight());
+        }
+        return scaleIndicatorService.getStableWeight(machineId).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.CONFLICT, "Weight on machine " + machineId + " is not stable"));
+    }
 
     @Override
     public WeighbridgePageResponse getAllGateDetails(Pageable pageable,String userId) {
-        UserMaster byId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("userId not found"));
-        Page<Object[]> pageResult = weighmentTransactionRepository.getAllGateEntries(byId.getSite().getSiteId(),byId.getCompany().getCompanyId(),pageable);
+        UserContext byId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("userId not found"));
+        Page<Object[]> pageResult = weighmentTransactionRepository.getAllGateEntries(byId.getSiteId(),byId.getCompanyId(),pageable);
         List<Object[]> allUsers = pageResult.getContent();
         System.out.println(allUsers);
         List<WeighmentTransactionResponse> responses = new ArrayList<>();
@@ -246,8 +261,8 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
                     response.setVehicleIn(vehicleInDateTime.format(formatter));
                     if (((String) row[2]).equalsIgnoreCase("Inbound")) {
                         if(row[8]!=null&&row[6]!=null) {
-                            response.setGrossWeight(multiplyWeight(row[8]));
-                            response.setTareWeight(multiplyWeight(row[6]));
+                            response.setGrossWeight(String.valueOf(row[8]));
+                            response.setTareWeight(String.valueOf(row[6]));
                         }
                         else{
                             response.setGrossWeight("");
@@ -255,15 +270,15 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
                         }
                     } else {
                         if(row[8]!=null&&row[5]!=null) {
-                            response.setTareWeight(multiplyWeight(row[8]));
-                            response.setGrossWeight(multiplyWeight(row[5]));
+                            response.setTareWeight(String.valueOf(row[8]));
+                            response.setGrossWeight(String.valueOf(row[5]));
                         }
                         else{
                             response.setGrossWeight("");
                             response.setTareWeight("");
                         }
                     }
-                    response.setNetWeight(row[7] != null ? multiplyWeight(row[7]) : "");
+                    response.setNetWeight(row[7] != null ? String.valueOf(row[7]) : "");
                     response.setVehicleNo((String) row[9]);
                     response.setVehicleFitnessUpTo((LocalDate) row[10]);
                     if (((String) row[2]).equalsIgnoreCase("Inbound")) {
@@ -291,19 +306,6 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
         }
     }
 
-    private String multiplyWeight(Object weightObj) {
-        if (weightObj != null) {
-            try {
-                double weight = Double.parseDouble(String.valueOf(weightObj));
-                weight *= 1000; // Multiply by 1000
-                return String.valueOf(weight);
-            } catch (NumberFormatException e) {
-                return "";
-            }
-        }
-        return "";
-    }
-
     @Override
     public TicketResponse getResponseByTicket(Integer ticketNo) {
         GateEntryTransaction gateEntryTransaction = gateEntryTransactionRepository.findById(ticketNo).get();
@@ -316,8 +318,8 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
             ticketResponse.setPoNo(gateEntryTransaction.getPoNo());
             ticketResponse.setTpNo(gateEntryTransaction.getTpNo());
             ticketResponse.setChallanNo(gateEntryTransaction.getChallanNo());
-            ticketResponse.setMaterial(materialMasterRepository.findMaterialNameByMaterialId(gateEntryTransaction.getMaterialId()));
-            ticketResponse.setTransporter(transporterMasterRepository.findTransporterNameByTransporterId(gateEntryTransaction.getTransporterId()));
+            ticketResponse.setMaterial(masterDataCacheService.getMaterialName(gateEntryTransaction.getMaterialId()));
+            ticketResponse.setTransporter(masterDataCacheService.getTransporterName(gateEntryTransaction.getTransporterId()));
             ticketResponse.setDriverName(gateEntryTransaction.getDriverName());
             VehicleMaster vehicleMaster = vehicleMasterRepository.findById(gateEntryTransaction.getVehicleId()).orElseThrow(() -> new ResourceNotFoundException("Vehicle is not found"));
 
@@ -343,11 +345,10 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
 
             if (transactionType.equalsIgnoreCase("Inbound")) {
                 if (byGateEntryTransactionTicketNo != null) {
-                    ticketResponse.setGrossWeight(byGateEntryTransactionTicketNo.getTemporaryWeight()*1000);
-                    ticketResponse.setTareWeight(byGateEntryTransactionTicketNo.getTareWeight()*1000);
+                    ticketResponse.setGrossWeight(byGateEntryTransactionTicketNo.getTemporaryWeight());
+                    ticketResponse.setTareWeight(byGateEntryTransactionTicketNo.getTareWeight());
                 }
-                Object[] supplierInfo = supplierMasterRepository.findSupplierNameAndAddressBySupplierId(gateEntryTransaction.getSupplierId());
-                Object[] supplierData = (Object[]) supplierInfo[0];
+                Object[] supplierData = masterDataCacheService.getSupplierNameAndAddress(gateEntryTransaction.getSupplierId());
                 if (supplierData != null && supplierData.length >= 2) {
                     String supplierName = (String) supplierData[0];
                     String supplierAddress = (String) supplierData[1];
@@ -358,11 +359,10 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
             }
             if (transactionType.equalsIgnoreCase("Outbound")) {
                 if (byGateEntryTransactionTicketNo != null) {
-                    ticketResponse.setTareWeight(byGateEntryTransactionTicketNo.getTemporaryWeight()*1000);
-                    ticketResponse.setGrossWeight(byGateEntryTransactionTicketNo.getGrossWeight()*1000);
+                    ticketResponse.setTareWeight(byGateEntryTransactionTicketNo.getTemporaryWeight());
+                    ticketResponse.setGrossWeight(byGateEntryTransactionTicketNo.getGrossWeight());
                 }
-                Object[] customerInfo = customerMasterRepository.findCustomerNameAndAddressBycustomerId(gateEntryTransaction.getCustomerId());
-                Object[] customerData = (Object[]) customerInfo[0];
+                Object[] customerData = masterDataCacheService.getCustomerNameAndAddress(gateEntryTransaction.getCustomerId());
                 if (customerData != null && customerData.length >= 2) {
                     String customerName = (String) customerData[0];
                     String customerAddress = (String) customerData[1];
@@ -398,8 +398,8 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
             ticketResponse.setPoNo(gateEntryTransaction.getPoNo());
             ticketResponse.setTpNo(gateEntryTransaction.getTpNo());
             ticketResponse.setChallanNo(gateEntryTransaction.getChallanNo());
-            ticketResponse.setMaterial(materialMasterRepository.findMaterialNameByMaterialId(gateEntryTransaction.getMaterialId()));
-            ticketResponse.setTransporter(transporterMasterRepository.findTransporterNameByTransporterId(gateEntryTransaction.getTransporterId()));
+            ticketResponse.setMaterial(masterDataCacheService.getMaterialName(gateEntryTransaction.getMaterialId()));
+            ticketResponse.setTransporter(masterDataCacheService.getTransporterName(gateEntryTransaction.getTransporterId()));
             ticketResponse.setDriverName(gateEntryTransaction.getDriverName());
             VehicleMaster vehicleMaster = vehicleMasterRepository.findById(gateEntryTransaction.getVehicleId()).orElseThrow(() -> new ResourceNotFoundException("Vehicle is not found"));
 
@@ -425,11 +425,10 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
 
             if (transactionType.equalsIgnoreCase("Inbound")) {
                 if (byGateEntryTransactionTicketNo != null) {
-                    ticketResponse.setGrossWeight(byGateEntryTransactionTicketNo.getTemporaryWeight()*1000);
-                    ticketResponse.setTareWeight(byGateEntryTransactionTicketNo.getTareWeight()*1000);
+                    ticketResponse.setGrossWeight(byGateEntryTransactionTicketNo.getTemporaryWeight());
+                    ticketResponse.setTareWeight(byGateEntryTransactionTicketNo.getTareWeight());
                 }
-                Object[] supplierInfo = supplierMasterRepository.findSupplierNameAndAddressBySupplierId(gateEntryTransaction.getSupplierId());
-                Object[] supplierData = (Object[]) supplierInfo[0];
+                Object[] supplierData = masterDataCacheService.getSupplierNameAndAddress(gateEntryTransaction.getSupplierId());
                 if (supplierData != null && supplierData.length >= 2) {
                     String supplierName = (String) supplierData[0];
                     String supplierAddress = (String) supplierData[1];
@@ -440,11 +439,10 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
             }
             if (transactionType.equalsIgnoreCase("Outbound")) {
                 if (byGateEntryTransactionTicketNo != null) {
-                    ticketResponse.setTareWeight(byGateEntryTransactionTicketNo.getTemporaryWeight()*1000);
-                    ticketResponse.setGrossWeight(byGateEntryTransactionTicketNo.getGrossWeight()*1000);
+                    ticketResponse.setTareWeight(byGateEntryTransactionTicketNo.getTemporaryWeight());
+                    ticketResponse.setGrossWeight(byGateEntryTransactionTicketNo.getGrossWeight());
                 }
-                Object[] customerInfo = customerMasterRepository.findCustomerNameAndAddressBycustomerId(gateEntryTransaction.getCustomerId());
-                Object[] customerData = (Object[]) customerInfo[0];
+                Object[] customerData = masterDataCacheService.getCustomerNameAndAddress(gateEntryTransaction.getCustomerId());
                 if (customerData != null && customerData.length >= 2) {
                     String customerName = (String) customerData[0];
                     String customerAddress = (String) customerData[1];
@@ -464,15 +462,13 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
             else{
                 ticketResponse.setConsignmentWeight(0.0);
             }
-            Set<RoleMaster> rolesByUserId = userAuthenticationRepository.findRolesByUserId(userId);
-            String role = rolesByUserId.stream()
-                    .findFirst()
-                    .map(RoleMaster::getRoleName)
+            String role = userContextService.findUserContext(userId)
+                    .map(UserContext::getRole)
                     .orElseThrow(() -> new IllegalStateException("No roles found for userId: " + userId));
 
 
-            Map<String, byte[]> inMap = cameraViewService.downloadImages(ticketNo, role, gateEntryTransaction.getCompanyId(), gateEntryTransaction.getSiteId(),"IN");
-            Map<String, byte[]> outMap = cameraViewService.downloadImages(ticketNo, role, gateEntryTransaction.getCompanyId(), gateEntryTransaction.getSiteId(),"OUT");
+            Map<String, byte[]> inMap = cameraViewService.downloadImages(ticketNo, role, gateEntryTransaction.getCompanyId(), gateEntryTransaction.getSiteId(),"IN", ImageSize.ORIGINAL);
+            Map<String, byte[]> outMap = cameraViewService.downloadImages(ticketNo, role, gateEntryTransaction.getCompanyId(), gateEntryTransaction.getSiteId(),"OUT", ImageSize.ORIGINAL);
 
             TicketImageResponse ticketImageResponse = new TicketImageResponse();
             ticketImageResponse.setTicketResponse(ticketResponse);
@@ -484,8 +480,8 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
 
     @Override
     public WeighbridgePageResponse getAllCompletedTickets(Pageable pageable,String userId) {
-        UserMaster byId = userMasterRepository.findById(userId).orElseThrow(()->new ResourceNotFoundException("user not found with"+userId));
-        Page<WeighmentTransaction> all = weighmentTransactionRepository.findAllByUserSiteAndUserCompany(byId.getSite().getSiteId(),byId.getCompany().getCompanyId(),pageable);
+        UserContext byId = userContextService.findUserContext(userId).orElseThrow(()->new ResourceNotFoundException("user not found with"+userId));
+        Page<WeighmentTransaction> all = weighmentTransactionRepository.findAllByUserSiteAndUserCompany(byId.getSiteId(),byId.getCompanyId(),pageable);
         List<WeighmentTransaction> allUsers = all.getContent();
         if(allUsers==null){
             throw new ResourceNotFoundException("No response found.");
@@ -499,20 +495,20 @@ public class WeighmentTransactionServiceImpl implements WeighmentTransactionServ
             weighmentTransactionResponse.setWeighmentNo(String.valueOf(weighmentTransaction.getWeighmentNo()));
             weighmentTransactionResponse.setTicketNo(String.valueOf(weighmentTransaction.getGateEntryTransaction().getTicketNo()));
             weighmentTransactionResponse.setVehicleIn(weighmentTransaction.getGateEntryTransaction().getVehicleIn().format(formatter));
-            weighmentTransactionResponse.setNetWeight(String.valueOf(weighmentTransaction.getNetWeight()*1000));
-            weighmentTransactionResponse.setGrossWeight(String.valueOf(weighmentTransaction.getGrossWeight()*1000));
-            weighmentTransactionResponse.setTareWeight(String.valueOf(weighmentTransaction.getTareWeight()*1000));
-            weighmentTransactionResponse.setVehicleNo(vehicleMasterRepository.findVehicleNoById(weighmentTransaction.getGateEntryTransaction().getVehicleId()));
+            weighmentTransactionResponse.setNetWeight(String.valueOf(weighmentTransaction.getNetWeight()));
+            weighmentTransactionResponse.setGrossWeight(String.valueOf(weighmentTransaction.getGrossWeight()));
+            weighmentTransactionResponse.setTareWeight(String.valueOf(weighmentTransaction.getTareWeight()));
+            weighmentTransactionResponse.setVehicleNo(masterDataCacheService.getVehicleNo(weighmentTransaction.getGateEntryTransaction().getVehicleId()));
             weighmentTransactionResponse.setVehicleFitnessUpTo(vehicleMasterRepository.findVehicleFitnessById(weighmentTransaction.getGateEntryTransaction().getVehicleId()));
             if (weighmentTransaction.getGateEntryTransaction().getTransactionType().equalsIgnoreCase("Inbound")) {
-                weighmentTransactionResponse.setMaterialName(materialMasterRepository.findMaterialNameByMaterialId(weighmentTransaction.getGateEntryTransaction().getMaterialId()));
-                weighmentTransactionResponse.setSupplierName(supplierMasterRepository.findSupplierNameBySupplierId(weighmentTransaction.getGateEntryTransaction().getSupplierId()));
+                weighmentTransactionResponse.setMaterialName(masterDataCacheService.getMaterialName(weighmentTransaction.getGateEntryTransaction().getMaterialId()));
+                weighmentTransactionResponse.setSupplierName(masterDataCacheService.getSupplierName(weighmentTransaction.getGateEntryTransaction().getSupplierId()));
             } else {
-                weighmentTransactionResponse.setMaterialName(productMasterRepository.findProductNameByProductId(weighmentTransaction.getGateEntryTransaction().getMaterialId()));
-                weighmentTransactionResponse.setCustomerName(customerMasterRepository.findCustomerNameByCustomerId(weighmentTransaction.getGateEntryTransaction().getCustomerId()));
+                weighmentTransactionResponse.setMaterialName(masterDataCacheService.getProductName(weighmentTransaction.getGateEntryTransaction().getMaterialId()));
+                weighmentTransactionResponse.setCustomerName(masterDataCacheService.getCustomerName(weighmentTransaction.getGateEntryTransaction().getCustomerId()));
             }
 
-            weighmentTransactionResponse.setTransporterName(transporterMasterRepository.findTransporterNameByTransporterId(weighmentTransaction.getGateEntryTransaction().getTransporterId()));
+            weighmentTransactionResponse.setTransporterName(masterDataCacheService.getTransporterName(weighmentTransaction.getGateEntryTransaction().getTransporterId()));
             weighmentTransactionResponses.add(weighmentTransactionResponse);
 
 
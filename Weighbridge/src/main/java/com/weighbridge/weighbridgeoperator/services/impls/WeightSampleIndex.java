@@ -0,0 +1,62 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sample window of each weighing on one machine, in the append-only file {@code tickets.index} next to the
+ * sample logs of the machine. Records are {@code int ticketNo, int weighing, long fromMillis, long toMillis}, where
+ * weighing is 1 for the first weighing of a ticket and 2 for the second. A machine weighs a few thousand vehicles a
+ * year, so the whole index is read to find a ticket.
+ */
+class WeightSampleIndex {
+
+    static final int FIRST_WEIGHING = 1;
+    static final int SECOND_WEIGHING = 2;
+
+    private static final int RECORD_SIZE = 24;
+
+    private final Path file;
+
+    WeightSampleIndex(Path directory) throws IOException {
+        this.file = Files.createDirectories(directory).resolve("tickets.index");
+    }
+
+    synchronized void add(int ticketNo, int weighing, long fromMillis, long toMillis) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putInt(ticketNo).putInt(weighing).putLong(fromMillis).putLong(toMillis).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        }
+    }
+
+    /**
+     * @return The windows of the weighings of the ticket, as {weighing, fromMillis, toMillis}, in the order weighed.
+     */
+    List<long[]> find(int ticketNo) throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+        ByteBuffer records = ByteBuffer.wrap(content);
+        List<long[]> windows = new ArrayList<>();
+        for (int offset = 0; offset + RECORD_SIZE <= content.length; offset += RECORD_SIZE) {
+            if (records.getInt(offset) == ticketNo) {
+                windows.add(new long[]{records.getInt(offset + 4), records.getLong(offset + 8), records.getLong(offset + 16)});
+            }
+        }
+        return windows;
+    }
+}
@@ -0,0 +1,221 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+import com.weighbridge.weighbridgeoperator.payloads.WeightSample;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The raw indicator samples of one machine, in one append-only file per day, {@code yyyy-MM-dd.samples}.
+ * <pre>
+ * header  int magic 'WBSL', int version, int record size, int reserved, long record count, long reserved
+ * record  long timestamp millis, long weight kg, int flags, int reserved
+ * </pre>
+ * Records are written through a memory-mapped window of the file that moves on in fixed chunks, and the record
+ * count in the header is updated after each record, so a reader never sees a half written record. Appending only
+ * writes into the mapped buffers and allocates nothing until the window or the day changes.
+ *
+ * Timestamps never go back, also across restarts, so the records of a file stay in time order for the binary search
+ * of the readers. When the clock is stepped back, e.g. by NTP, records keep the last timestamp until the clock
+ * catches up, rather than going out of order or reopening the file of the previous day.
+ *
+ * Samples are appended by one thread, the indicator reader of the machine, and read from the files by any thread.
+ */
+@Slf4j
+class WeightSampleLog implements AutoCloseable {
+
+    static final int STABLE = 1;
+    static final int MOTION = 2;
+
+    private static final int MAGIC = 0x5742534C;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int COUNT_OFFSET = 16;
+    static final int RECORD_SIZE = 24;
+    // Records mapped at a time, 1.5 MB
+    private static final int CHUNK_RECORDS = 65536;
+    private static final String DAY_FILE_SUFFIX = ".samples";
+
+    private final Path directory;
+    private final ZoneId zone;
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private MappedByteBuffer chunk;
+    private long chunkFirstRecord;
+    private long count;
+    private long dayStartMillis;
+    private long nextDayStartMillis;
+    private long lastTimestampMillis;
+
+    WeightSampleLog(Path directory, ZoneId zone) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.zone = zone;
+        this.lastTimestampMillis = lastTimestamp(this.directory);
+    }
+
+    /**
+     * @param weight Kilograms.
+     * @param flags  {@link #STABLE} and {@link #MOTION}.
+     */
+    void append(long timestampMillis, long weight, int flags) throws IOException {
+        timestampMillis = Math.max(timestampMillis, lastTimestampMillis);
+        lastTimestampMillis = timestampMillis;
+        if (channel == null || timestampMillis >= nextDayStartMillis || timestampMillis < dayStartMillis) {
+            openDay(timestampMillis);
+        }
+        if (count - chunkFirstRecord >= CHUNK_RECORDS) {
+            mapChunk(count);
+        }
+        int offset = (int) (count - chunkFirstRecord) * RECORD_SIZE;
+        chunk.putLong(offset, timestampMillis);
+        chunk.putLong(offset + 8, weight);
+        chunk.putInt(offset + 16, flags);
+        count++;
+        header.putLong(COUNT_OFFSET, count);
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            chunk.force();
+            header.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close weight sample log {}", directory, e);
+            }
+            channel = null;
+        }
+    }
+
+    private void openDay(long timestampMillis) throws IOException {
+        close();
+        LocalDate day = Instant.ofEpochMilli(timestampMillis).atZone(zone).toLocalDate();
+        dayStartMillis = day.atStartOfDay(zone).toInstant().toEpochMilli();
+        nextDayStartMillis = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        channel = FileChannel.open(dayFile(directory, day), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (header.getInt(0) == MAGIC) {
+            // Reopened after a restart, appending carries on after the last complete record
+            count = header.getLong(COUNT_OFFSET);
+        } else {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, RECORD_SIZE);
+            count = 0;
+            header.putLong(COUNT_OFFSET, 0);
+        }
+        mapChunk(count);
+    }
+
+    private void mapChunk(long firstRecord) throws IOException {
+        chunkFirstRecord = firstRecord;
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + firstRecord * RECORD_SIZE,
+                (long) CHUNK_RECORDS * RECORD_SIZE);
+    }
+
+    static Path dayFile(Path directory, LocalDate day) {
+        return directory.resolve(day + DAY_FILE_SUFFIX);
+    }
+
+    /**
+     * @return The timestamp of the last record of the latest day file, 0 if nothing was logged yet.
+     */
+    private static long lastTimestamp(Path directory) throws IOException {
+        Optional<Path> latestDayFile;
+        try (Stream<Path> files = Files.list(directory)) {
+            // ISO dates sort by name
+            latestDayFile = files.filter(file -> file.getFileName().toString().endsWith(DAY_FILE_SUFFIX))
+                    .max(Comparator.naturalOrder());
+        }
+        if (latestDayFile.isEmpty()) {
+            return 0;
+        }
+        try (FileChannel dayChannel = FileChannel.open(latestDayFile.get(), StandardOpenOption.READ)) {
+            long recordCount = recordCount(dayChannel);
+            return recordCount == 0 ? 0 : timestamp(dayChannel, recordCount - 1);
+        }
+    }
+
+    /**
+     * Reads the samples of a time window from the day files of a machine.
+     */
+    static List<WeightSample> read(Path directory, ZoneId zone, long fromMillis, long toMillis) throws IOException {
+        List<WeightSample> samples = new ArrayList<>();
+        LocalDate lastDay = Instant.ofEpochMilli(toMillis).atZone(zone).toLocalDate();
+        for (LocalDate day = Instant.ofEpochMilli(fromMillis).atZone(zone).toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            try (FileChannel dayChannel = FileChannel.open(dayFile(directory, day), StandardOpenOption.READ)) {
+                readDay(dayChannel, fromMillis, toMillis, samples);
+            } catch (NoSuchFileException e) {
+                // Nothing was read from the indicator that day
+            }
+        }
+        return samples;
+    }
+
+    private static void readDay(FileChannel dayChannel, long fromMillis, long toMillis, List<WeightSample> samples) throws IOException {
+        long recordCount = recordCount(dayChannel);
+        // Records are in time order, so the window is found by binary search
+        long first = firstRecordAtOrAfter(dayChannel, recordCount, fromMillis);
+        long end = firstRecordAtOrAfter(dayChannel, recordCount, toMillis + 1);
+        if (first >= end) {
+            return;
+        }
+        ByteBuffer records = ByteBuffer.allocate((int) ((end - first) * RECORD_SIZE));
+        while (records.hasRemaining() && dayChannel.read(records, HEADER_SIZE + first * RECORD_SIZE + records.position()) >= 0) {
+            // Reads until the window is complete
+        }
+        for (int offset = 0; offset + RECORD_SIZE <= records.position(); offset += RECORD_SIZE) {
+            int flags = records.getInt(offset + 16);
+            samples.add(new WeightSample(records.getLong(offset), records.getLong(offset + 8),
+                    (flags & STABLE) != 0, (flags & MOTION) != 0));
+        }
+    }
+
+    /**
+     * @return The number of complete records, 0 if the file has no header yet.
+     */
+    private static long recordCount(FileChannel dayChannel) throws IOException {
+        ByteBuffer headerBuffer = ByteBuffer.allocate(HEADER_SIZE);
+        if (dayChannel.read(headerBuffer, 0) < HEADER_SIZE || headerBuffer.getInt(0) != MAGIC) {
+            return 0;
+        }
+        return headerBuffer.getLong(COUNT_OFFSET);
+    }
+
+    private static long timestamp(FileChannel dayChannel, long record) throws IOException {
+        ByteBuffer timestamp = ByteBuffer.allocate(8);
+        dayChannel.read(timestamp, HEADER_SIZE + record * RECORD_SIZE);
+        return timestamp.getLong(0);
+    }
+
+    private static long firstRecordAtOrAfter(FileChannel dayChannel, long recordCount, long millis) throws IOException {
+        long low = 0;
+        long high = recordCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (timestamp(dayChannel, middle) < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,55 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+/**
+ * Decides whether a scale is stable from its last readings: the last N readings must all have arrived within the
+ * time window and lie within the tolerance of each other, and the indicator must not report motion. Not thread safe.
+ */
+class WeightStabilityDetector {
+
+    private final long tolerance;
+    private final long windowMillis;
+    private final long[] weights;
+    private final long[] times;
+    private int count;
+    private int next;
+
+    /**
+     * @param samples      How many readings must agree.
+     * @param tolerance    The largest difference in kilograms between the agreeing readings.
+     * @param windowMillis How recent the agreeing readings must all be.
+     */
+    WeightStabilityDetector(int samples, long tolerance, long windowMillis) {
+        this.tolerance = tolerance;
+        this.windowMillis = windowMillis;
+        this.weights = new long[samples];
+        this.times = new long[samples];
+    }
+
+    /**
+     * @return Whether the scale is stable with this reading.
+     */
+    boolean offer(long weight, boolean motion, long nowMillis) {
+        if (motion) {
+            count = 0;
+            return false;
+        }
+        weights[next] = weight;
+        times[next] = nowMillis;
+        next = (next + 1) % weights.length;
+        count = Math.min(count + 1, weights.length);
+        if (count < weights.length) {
+            return false;
+        }
+        // The oldest reading is the one overwritten next
+        if (nowMillis - times[next] > windowMillis) {
+            return false;
+        }
+        long min = weights[0];
+        long max = weights[0];
+        for (long sample : weights) {
+            min = Math.min(min, sample);
+            max = Math.max(max, sample);
+        }
+        return max - min <= tolerance;
+    }
+}
@@ -154,7 +154,7 @@ public class GateEntryTransactionSpecification implements Specification<GateEntr
 
     public Specification<GateEntryTransaction> netWeightZero() {
         return (root, query, criteriaBuilder) -> {
-            // Subquery to fetch GateEntryTransaction IDs that are referenced in WeighmentTransaction with netWeight 0.0
+            // Subquery to fetch GateEntryTransaction IDs that are referenced in WeighmentTransaction with netWeight 0
             Subquery<Long> subquery = query.subquery(Long.class);
             Root<WeighmentTransaction> weighmentTransactionRoot = subquery.from(WeighmentTransaction.class);
             subquery.select(weighmentTransactionRoot.get("gateEntryTransaction").get("id"));
@@ -162,7 +162,7 @@ public class GateEntryTransactionSpecification implements Specification<GateEntr
                     criteriaBuilder.and(
                             criteriaBuilder.equal(weighmentTransactionRoot.get("gateEntryTransaction").get("siteId"), criteria.getSiteId()),
                             criteriaBuilder.equal(weighmentTransactionRoot.get("gateEntryTransaction").get("companyId"), criteria.getCompanyId()),
-                            criteriaBuilder.equal(weighmentTransactionRoot.get("netWeight"), 0.0)
+                            criteriaBuilder.equal(weighmentTransactionRoot.get("netWeight"), 0L)
                     )
             );
 
@@ -154,12 +154,12 @@ public class WeighmentTransactionSpecification implements Specification<Weighmen
 
     public static Specification<WeighmentTransaction> netWeightNotZero() {
         return (root, query, criteriaBuilder) ->
-                criteriaBuilder.notEqual(root.get("netWeight"), 0.0);
+                criteriaBuilder.notEqual(root.get("netWeight"), 0L);
     }
 
     public static Specification<WeighmentTransaction> netWeightZero() {
         return (root, query, criteriaBuilder) ->
-                criteriaBuilder.equal(root.get("netWeight"), 0.0);
+                criteriaBuilder.equal(root.get("netWeight"), 0L);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+-- Weights and sales order quantities were stored as tonnes in double columns, they are whole kilograms from now on
+UPDATE weighment_transaction
+SET gross_weight = ROUND(gross_weight * 1000),
+    net_weight = ROUND(net_weight * 1000),
+    tare_weight = ROUND(tare_weight * 1000),
+    temporary_weight = ROUND(temporary_weight * 1000);
+
+ALTER TABLE weighment_transaction
+    MODIFY `gross_weight` bigint NOT NULL,
+    MODIFY `net_weight` bigint NOT NULL,
+    MODIFY `tare_weight` bigint NOT NULL,
+    MODIFY `temporary_weight` bigint NOT NULL;
+
+UPDATE sales_order
+SET balance_quantity = ROUND(balance_quantity * 1000),
+    ordered_quantity = ROUND(ordered_quantity * 1000),
+    progressive_quantity = ROUND(progressive_quantity * 1000);
+
+ALTER TABLE sales_order
+    MODIFY `balance_quantity` bigint NOT NULL,
+    MODIFY `ordered_quantity` bigint NOT NULL,
+    MODIFY `progressive_quantity` bigint NOT NULL;
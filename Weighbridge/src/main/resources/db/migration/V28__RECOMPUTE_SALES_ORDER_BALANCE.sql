@@ -0,0 +1,32 @@
+-- Second weighments used to subtract the whole progressive quantity from the balance instead of the dispatched
+-- weight, so after dispatches n1..nk the balance was ordered - (k * n1 + (k - 1) * n2 + ... + nk). Only balances
+-- that still match that, give or take the rounding of the kilogram conversion, are recomputed; any other balance was
+-- changed by hand and is kept.
+CREATE TEMPORARY TABLE sales_dispatch AS
+SELECT sp.sale_order_no, wt.net_weight, tl.timestamp AS dispatched_at, wt.weighment_no
+FROM weighment_transaction wt
+         JOIN gate_entry_transaction g ON g.ticket_no = wt.ticket_no
+         JOIN sales_process sp ON sp.sale_pass_no = g.tp_no
+         JOIN transaction_log tl ON tl.ticket_no = wt.ticket_no AND tl.status_code = 'GWT'
+WHERE g.transaction_type = 'Outbound'
+  AND wt.net_weight <> 0;
+
+CREATE TEMPORARY TABLE sales_dispatch_later AS
+SELECT * FROM sales_dispatch;
+
+UPDATE sales_order so
+    JOIN (SELECT d.sale_order_no,
+                 SUM(d.net_weight * (SELECT COUNT(*)
+                                     FROM sales_dispatch_later l
+                                     WHERE l.sale_order_no = d.sale_order_no
+                                       AND (l.dispatched_at > d.dispatched_at
+                                         OR (l.dispatched_at = d.dispatched_at AND l.weighment_no >= d.weighment_no)))) AS deducted,
+                 SUM(d.net_weight) AS dispatched
+          FROM sales_dispatch d
+          GROUP BY d.sale_order_no) bad ON bad.sale_order_no = so.sale_order_no
+SET so.balance_quantity = so.ordered_quantity - so.progressive_quantity
+WHERE so.progressive_quantity = bad.dispatched
+  AND ABS(so.balance_quantity - (so.ordered_quantity - bad.deducted)) <= 1;
+
+DROP TEMPORARY TABLE sales_dispatch;
+DROP TEMPORARY TABLE sales_dispatch_later;
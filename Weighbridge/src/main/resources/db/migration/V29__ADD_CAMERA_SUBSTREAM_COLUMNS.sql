@@ -0,0 +1,32 @@
+-- Adds a column unless the table is missing, as on a new database where Hibernate creates it, or already has it, as
+-- where Hibernate added it before the column had a script. Dropped at the end, the schema keeps no procedure.
+DROP PROCEDURE IF EXISTS add_column_if_missing;
+
+DELIMITER //
+CREATE PROCEDURE add_column_if_missing(IN table_name_in VARCHAR(64), IN column_name_in VARCHAR(64),
+                                       IN definition_in VARCHAR(255))
+BEGIN
+    IF EXISTS (SELECT 1
+               FROM information_schema.tables
+               WHERE table_schema = DATABASE() AND table_name = table_name_in)
+        AND NOT EXISTS (SELECT 1
+                        FROM information_schema.columns
+                        WHERE table_schema = DATABASE() AND table_name = table_name_in AND column_name = column_name_in)
+    THEN
+        SET @add_column = CONCAT('ALTER TABLE `', table_name_in, '` ADD COLUMN `', column_name_in, '` ', definition_in);
+        PREPARE add_column FROM @add_column;
+        EXECUTE add_column;
+        DEALLOCATE PREPARE add_column;
+    END IF;
+END //
+DELIMITER ;
+
+-- Low resolution streams of the cameras of each camera master record, for previews
+CALL add_column_if_missing('camera_master', 'top_cam_substream_url1', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_master', 'bottom_cam_substream_url2', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_master', 'front_cam_substream_url3', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_master', 'back_cam_substream_url4', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_master', 'left_cam_substream_url5', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_master', 'right_cam_substream_url6', 'varchar(255) DEFAULT NULL');
+
+DROP PROCEDURE add_column_if_missing;
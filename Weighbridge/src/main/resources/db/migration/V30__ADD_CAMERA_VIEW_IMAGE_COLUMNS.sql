@@ -0,0 +1,51 @@
+-- Adds a column unless the table is missing, as on a new database where Hibernate creates it, or already has it, as
+-- where Hibernate added it before the column had a script. Dropped at the end, the schema keeps no procedure.
+DROP PROCEDURE IF EXISTS add_column_if_missing;
+
+DELIMITER //
+CREATE PROCEDURE add_column_if_missing(IN table_name_in VARCHAR(64), IN column_name_in VARCHAR(64),
+                                       IN definition_in VARCHAR(255))
+BEGIN
+    IF EXISTS (SELECT 1
+               FROM information_schema.tables
+               WHERE table_schema = DATABASE() AND table_name = table_name_in)
+        AND NOT EXISTS (SELECT 1
+                        FROM information_schema.columns
+                        WHERE table_schema = DATABASE() AND table_name = table_name_in AND column_name = column_name_in)
+    THEN
+        SET @add_column = CONCAT('ALTER TABLE `', table_name_in, '` ADD COLUMN `', column_name_in, '` ', definition_in);
+        PREPARE add_column FROM @add_column;
+        EXECUTE add_column;
+        DEALLOCATE PREPARE add_column;
+    END IF;
+END //
+DELIMITER ;
+
+-- Capture time, upload state, scaled down copies and content hash of the images of each ticket
+CALL add_column_if_missing('camera_view', 'captured_at', 'datetime(6) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'front_img1status', 'varchar(32) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'back_img2status', 'varchar(32) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'top_img3status', 'varchar(32) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'bottom_img4status', 'varchar(32) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'left_img5status', 'varchar(32) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'right_img6status', 'varchar(32) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'front_img1medium', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'back_img2medium', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'top_img3medium', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'bottom_img4medium', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'left_img5medium', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'right_img6medium', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'front_img1thumbnail', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'back_img2thumbnail', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'top_img3thumbnail', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'bottom_img4thumbnail', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'left_img5thumbnail', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'right_img6thumbnail', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'front_img1hash', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'back_img2hash', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'top_img3hash', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'bottom_img4hash', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'left_img5hash', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('camera_view', 'right_img6hash', 'varchar(255) DEFAULT NULL');
+
+DROP PROCEDURE add_column_if_missing;
@@ -0,0 +1,77 @@
+package com.weighbridge.SalesManagement.repositories;
+
+import com.weighbridge.SalesManagement.entities.SalesOrder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the dispatch increment of many weighments of one order in parallel transactions against an H2 database in
+ * MySQL mode, with a connection pool as in production.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sales-orders;MODE=MySQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesOrderRespositoryTest {
+
+    private static final int WEIGHMENTS = 100;
+    private static final long ORDERED_QUANTITY = 5_000_000;
+
+    @Autowired
+    private SalesOrderRespository salesOrderRespository;
+
+    @Test
+    void parallelDispatchesOfOneOrderLoseNoUpdate() throws Exception {
+        SalesOrder salesOrder = new SalesOrder();
+        salesOrder.setSaleOrderNo("SO-1");
+        salesOrder.setPurchaseOrderedDate(LocalDate.now());
+        salesOrder.setPurchaseOrderNo("PO-1");
+        salesOrder.setProductName("Coal");
+        salesOrder.setCompanyId("C1");
+        salesOrder.setSiteId("S1");
+        salesOrder.setOrderedQuantity(ORDERED_QUANTITY);
+        salesOrder.setBalanceQuantity(ORDERED_QUANTITY);
+        salesOrderRespository.save(salesOrder);
+
+        ExecutorService executor = Executors.newFixedThreadPool(WEIGHMENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> updates = new ArrayList<>();
+        long dispatched = 0;
+        for (int weighment = 1; weighment <= WEIGHMENTS; weighment++) {
+            long netWeight = 30_000 + weighment * 7;
+            dispatched += netWeight;
+            updates.add(executor.submit(() -> {
+                start.await();
+                return salesOrderRespository.addDispatchedQuantity("SO-1", netWeight);
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> update : updates) {
+            assertEquals(1, update.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        SalesOrder updated = salesOrderRespository.findBySaleOrderNo("SO-1");
+        assertEquals(dispatched, updated.getProgressiveQuantity());
+        assertEquals(ORDERED_QUANTITY - dispatched, updated.getBalanceQuantity());
+        assertEquals(0, salesOrderRespository.addDispatchedQuantity("SO-2", 1000));
+    }
+}
@@ -0,0 +1,94 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.admin.entities.CameraMaster;
+import com.weighbridge.admin.repsitories.CameraMasterRepository;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.services.CameraSnapshotService.Snapshot;
+import com.weighbridge.camera.services.CameraStreamRegistry;
+import com.weighbridge.camera.services.FrameCaptureService;
+import com.weighbridge.camera.services.FrameCaptureService.CapturedFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CameraSnapshotServiceImplTest {
+
+    private static final byte[] FRONT_PREVIEW = {1};
+    private static final byte[] BACK_FRAME = {2};
+
+    private final CameraMasterRepository cameraMasterRepository = mock(CameraMasterRepository.class);
+    private final CameraStreamRegistry cameraStreamRegistry = mock(CameraStreamRegistry.class);
+    private final FrameCaptureService frameCaptureService = mock(FrameCaptureService.class);
+    private final CameraSnapshotServiceImpl cameraSnapshotService = new CameraSnapshotServiceImpl();
+
+    @BeforeEach
+    void setUp() {
+        CameraMaster cameraMaster = new CameraMaster();
+        cameraMaster.setId(1L);
+        when(cameraMasterRepository.findFirstByCompanyIdAndSiteIdAndRoleId("C1", "S1", 2)).thenReturn(Optional.of(cameraMaster));
+        when(cameraStreamRegistry.findStreamUrl(eq(1L), any())).thenReturn(Optional.empty());
+        when(cameraStreamRegistry.findSubstreamUrl(eq(1L), any())).thenReturn(Optional.empty());
+        when(cameraStreamRegistry.findStreamUrl(1L, ImageAngle.FRONT)).thenReturn(Optional.of("rtsp://front"));
+        when(cameraStreamRegistry.findSubstreamUrl(1L, ImageAngle.FRONT)).thenReturn(Optional.of("rtsp://front-sub"));
+        when(cameraStreamRegistry.findStreamUrl(1L, ImageAngle.BACK)).thenReturn(Optional.of("rtsp://back"));
+        when(frameCaptureService.bufferedFrame(anyString(), anyLong())).thenReturn(Optional.empty());
+        when(frameCaptureService.bufferedFrame(eq("rtsp://front-sub"), anyLong()))
+                .thenAnswer(invocation -> Optional.of(new CapturedFrame(FRONT_PREVIEW, invocation.getArgument(1))));
+
+        ReflectionTestUtils.setField(cameraSnapshotService, "timeout", Duration.ofSeconds(3));
+        ReflectionTestUtils.setField(cameraSnapshotService, "settledMaxAge", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(cameraSnapshotService, "cameraMasterRepository", cameraMasterRepository);
+        ReflectionTestUtils.setField(cameraSnapshotService, "cameraStreamRegistry", cameraStreamRegistry);
+        ReflectionTestUtils.setField(cameraSnapshotService, "frameCaptureService", frameCaptureService);
+        cameraSnapshotService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cameraSnapshotService.stop();
+    }
+
+    @Test
+    void takesTheBufferedFramesOfRunningStreamsWithoutConnecting() {
+        when(frameCaptureService.bufferedFrame(eq("rtsp://back"), anyLong()))
+                .thenAnswer(invocation -> Optional.of(new CapturedFrame(BACK_FRAME, invocation.getArgument(1))));
+
+        Snapshot snapshot = cameraSnapshotService.capture("C1", "S1", 2);
+
+        // The front camera has only its substream running, for the previews
+        assertArrayEquals(FRONT_PREVIEW, snapshot.getImages().get(ImageAngle.FRONT));
+        assertArrayEquals(BACK_FRAME, snapshot.getImages().get(ImageAngle.BACK));
+        verify(frameCaptureService, never()).snapshot(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void stampsConnectedCamerasWithTheTimeTheirFrameArrived() {
+        long arrivedAtMillis = System.currentTimeMillis() + 2000;
+        when(frameCaptureService.snapshot(eq("rtsp://back"), anyLong(), any()))
+                .thenReturn(Optional.of(new CapturedFrame(BACK_FRAME, arrivedAtMillis)));
+
+        Snapshot snapshot = cameraSnapshotService.capture("C1", "S1", 2);
+
+        assertEquals(2, snapshot.getImages().size());
+        assertEquals(LocalDateTime.ofInstant(Instant.ofEpochMilli(arrivedAtMillis), ZoneId.systemDefault()), snapshot.getCapturedAt());
+        verify(frameCaptureService, never()).snapshot(eq("rtsp://front"), anyLong(), any());
+    }
+}
@@ -0,0 +1,116 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.camera.services.ImageStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageDiskCacheTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImageStore imageStore = mock(ImageStore.class);
+    private ImageDiskCache imageDiskCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageDiskCache = newCache();
+    }
+
+    private ImageDiskCache newCache() throws Exception {
+        ImageDiskCache cache = new ImageDiskCache();
+        ReflectionTestUtils.setField(cache, "directory", cacheDirectory.toString());
+        ReflectionTestUtils.setField(cache, "maxSize", DataSize.ofBytes(10));
+        ReflectionTestUtils.setField(cache, "imageStore", imageStore);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        cache.start();
+        return cache;
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedImagesBeyondTheSizeLimit() throws Exception {
+        imageDiskCache.put("a", new byte[4]);
+        imageDiskCache.put("b", new byte[4]);
+        assertNotNull(imageDiskCache.readIfCached("a"));
+
+        imageDiskCache.put("c", new byte[4]);
+
+        assertNotNull(imageDiskCache.readIfCached("a"));
+        assertNull(imageDiskCache.readIfCached("b"));
+        assertNotNull(imageDiskCache.readIfCached("c"));
+        assertEquals(8, imageDiskCache.getTotalBytes());
+        assertEquals(3, meterRegistry.get("image.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("image.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void downloadsOnTheFirstReadOnly() throws Exception {
+        InputStream content = spy(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        when(imageStore.get("remote/front.jpg")).thenReturn(content);
+
+        for (int i = 0; i < 2; i++) {
+            FileChannel image = imageDiskCache.open("remote/front.jpg");
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            ImageDiskCache.copy(image, response);
+            assertArrayEquals(new byte[]{1, 2, 3}, response.toByteArray());
+        }
+
+        verify(imageStore, times(1)).get("remote/front.jpg");
+        verify(content).close();
+    }
+
+    @Test
+    void downloadsAgainAnImageEvictedAfterItWasLocated() throws Exception {
+        when(imageStore.get("remote/front.jpg")).thenAnswer(invocation -> new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        Path image = imageDiskCache.locate("remote/front.jpg");
+
+        imageDiskCache.put("b", new byte[8]);
+        assertNull(imageDiskCache.readIfCached("remote/front.jpg"));
+
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        imageDiskCache.copy("remote/front.jpg", image, response);
+        assertArrayEquals(new byte[]{1, 2, 3}, response.toByteArray());
+        verify(imageStore, times(2)).get("remote/front.jpg");
+    }
+
+    @Test
+    void keepsTheCachedImagesAcrossRestarts() throws Exception {
+        imageDiskCache.put("a", new byte[]{7});
+
+        ImageDiskCache restarted = newCache();
+
+        assertArrayEquals(new byte[]{7}, restarted.readIfCached("a"));
+        assertEquals(1, restarted.getTotalBytes());
+    }
+
+    @Test
+    void reportsImagesMissingFromNextcloud() throws Exception {
+        when(imageStore.get("missing.jpg")).thenThrow(new FileNotFoundException("missing.jpg"));
+
+        assertThrows(FileNotFoundException.class, () -> imageDiskCache.open("missing.jpg"));
+        assertEquals(0, imageDiskCache.getTotalBytes());
+    }
+}
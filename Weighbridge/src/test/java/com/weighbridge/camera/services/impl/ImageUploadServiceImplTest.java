@@ -0,0 +1,261 @@
+package com.weighbridge.camera.services.impl;
+
+import com.sun.net.httpserver.HttpServer;
+import com.weighbridge.camera.entites.CameraView;
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.entites.ImageUploadStatus;
+import com.weighbridge.camera.repositories.CameraRepository;
+import com.weighbridge.camera.services.ImageUploadService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the upload queue against a local HTTP server standing in for Nextcloud WebDAV.
+ */
+class ImageUploadServiceImplTest {
+
+    private HttpServer webDav;
+    private final Map<String, byte[]> stored = new ConcurrentHashMap<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final CameraView cameraView = new CameraView();
+    private CameraRepository cameraRepository;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NextcloudWebDavClient webDavClient;
+    private NextcloudImageStore imageStore;
+    private ImageDiskCache imageDiskCache;
+    private ImageUploadServiceImpl imageUploadService;
+
+    @TempDir
+    Path cacheDirectory;
+
+    @TempDir
+    Path spoolDirectory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        webDav = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        webDav.createContext("/", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            String path = exchange.getRequestURI().getPath();
+            switch (exchange.getRequestMethod()) {
+                case "HEAD" -> exchange.sendResponseHeaders(stored.containsKey(path) ? 200 : 404, -1);
+                case "MKCOL" -> exchange.sendResponseHeaders(201, -1);
+                default -> {
+                    if (failuresLeft.getAndDecrement() > 0) {
+                        exchange.sendResponseHeaders(503, -1);
+                    } else {
+                        stored.put(path, body);
+                        exchange.sendResponseHeaders(201, -1);
+                    }
+                }
+            }
+            exchange.close();
+        });
+        webDav.start();
+
+        cameraView.setId(1L);
+        cameraView.setFrontImg1Status(ImageUploadStatus.PENDING);
+        cameraRepository = mock(CameraRepository.class);
+        when(cameraRepository.findById(1L)).thenReturn(Optional.of(cameraView));
+
+        webDavClient = new NextcloudWebDavClient();
+        ReflectionTestUtils.setField(webDavClient, "baseUrl", "http://127.0.0.1:" + webDav.getAddress().getPort());
+        ReflectionTestUtils.setField(webDavClient, "username", "admin");
+        ReflectionTestUtils.setField(webDavClient, "password", "secret");
+        ReflectionTestUtils.setField(webDavClient, "maxConnections", 4);
+        ReflectionTestUtils.setField(webDavClient, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(webDavClient, "socketTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(webDavClient, "connectionRequestTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(webDavClient, "idleTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(webDavClient, "meterRegistry", meterRegistry);
+        webDavClient.start();
+
+        imageStore = new NextcloudImageStore();
+        ReflectionTestUtils.setField(imageStore, "webDavClient", webDavClient);
+
+        imageDiskCache = new ImageDiskCache();
+        ReflectionTestUtils.setField(imageDiskCache, "directory", cacheDirectory.toString());
+        ReflectionTestUtils.setField(imageDiskCache, "maxSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(imageDiskCache, "imageStore", imageStore);
+        ReflectionTestUtils.setField(imageDiskCache, "meterRegistry", meterRegistry);
+        imageDiskCache.start();
+
+        imageUploadService = newImageUploadService(imageStore);
+    }
+
+    private ImageUploadServiceImpl newImageUploadService(NextcloudImageStore imageStore) throws Exception {
+        ImageUploadServiceImpl service = new ImageUploadServiceImpl();
+        ReflectionTestUtils.setField(service, "concurrency", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "initialBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(service, "maxBackoff", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(service, "spoolDirectory", spoolDirectory.toString());
+        ReflectionTestUtils.setField(service, "redriveInterval", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(service, "derivativeConcurrency", 1);
+        ReflectionTestUtils.setField(service, "derivativeQueueCapacity", 10);
+        ReflectionTestUtils.setField(service, "cameraRepository", cameraRepository);
+        ReflectionTestUtils.setField(service, "imageStore", imageStore);
+        ReflectionTestUtils.setField(service, "imageDiskCache", imageDiskCache);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "storeFolder", "images");
+        service.start();
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        imageUploadService.stop();
+        webDavClient.stop();
+        webDav.stop(0);
+    }
+
+    @Test
+    void retriesUntilTheUploadSucceeds() throws Exception {
+        failuresLeft.set(2);
+        byte[] content = {1, 2, 3};
+
+        imageUploadService.submit(1L, List.of(new ImageUploadService.PendingImage(ImageAngle.FRONT, "front.jpg", content)));
+
+        verify(cameraRepository, timeout(5000)).save(any(CameraView.class));
+        assertEquals(ImageUploadStatus.UPLOADED, cameraView.getFrontImg1Status());
+        String hash = "039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81";
+        assertEquals(hash, cameraView.getFrontImg1Hash());
+        String path = "/remote.php/dav/files/admin/images/03/90/" + hash + ".jpg";
+        assertEquals("http://127.0.0.1:" + webDav.getAddress().getPort() + path, cameraView.getFrontImg1());
+        assertArrayEquals(content, stored.get(path));
+        assertArrayEquals(content, imageDiskCache.readIfCached(cameraView.getFrontImg1()));
+        assertEquals(3, meterRegistry.find("webdav.requests").tag("operation", "put").timers().stream()
+                .mapToLong(timer -> timer.count()).sum());
+    }
+
+    @Test
+    void doesNotUploadAnImageThatIsAlreadyStored() throws Exception {
+        byte[] content = {4, 5, 6};
+        ImageUploadService.PendingImage image = new ImageUploadService.PendingImage(ImageAngle.FRONT, "front.jpg", content);
+
+        imageUploadService.submit(1L, List.of(image));
+        verify(cameraRepository, timeout(5000)).save(any(CameraView.class));
+        String firstPath = cameraView.getFrontImg1();
+        // A retried request saves a new camera view with the same image
+        CameraView retried = new CameraView();
+        retried.setId(2L);
+        when(cameraRepository.findById(2L)).thenReturn(Optional.of(retried));
+        imageUploadService.submit(2L, List.of(new ImageUploadService.PendingImage(ImageAngle.FRONT, "retry.jpg", content)));
+        verify(cameraRepository, timeout(5000).times(2)).save(any(CameraView.class));
+
+        assertEquals(firstPath, retried.getFrontImg1());
+        assertEquals(1, stored.size());
+        assertEquals(1, meterRegistry.get("image.upload.deduplicated").counter().count());
+    }
+
+    @Test
+    void downloadsAllImagesOfATicket() throws Exception {
+        String front = webDavClient.put("front.jpg", new ByteArrayInputStream(new byte[]{1}), 1);
+        String back = webDavClient.put("back.jpg", new ByteArrayInputStream(new byte[]{2}), 1);
+        webDav.createContext("/remote.php/dav/files/admin/", exchange -> {
+            byte[] body = stored.get(exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+
+        Map<String, byte[]> images = webDavClient.getAll(Map.of("frontImg1", front, "backImg2", back));
+
+        assertArrayEquals(new byte[]{1}, images.get("frontImg1"));
+        assertArrayEquals(new byte[]{2}, images.get("backImg2"));
+    }
+
+    @Test
+    void marksTheImageFailedWhenAllAttemptsFail() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+
+        imageUploadService.submit(1L, List.of(new ImageUploadService.PendingImage(ImageAngle.FRONT, "front.jpg", new byte[]{1})));
+
+        verify(cameraRepository, timeout(5000).times(1)).save(any(CameraView.class));
+        assertEquals(ImageUploadStatus.FAILED, cameraView.getFrontImg1Status());
+        assertNull(cameraView.getFrontImg1());
+        // Kept for the next re-drive
+        assertTrue(Files.exists(spoolDirectory.resolve("1-FRONT.jpg")));
+    }
+
+    @Test
+    void uploadsTheFailedImagesOfThePreviousRunAfterARestart() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        byte[] content = {7, 8, 9};
+        imageUploadService.submit(1L, List.of(new ImageUploadService.PendingImage(ImageAngle.FRONT, "front.jpg", content)));
+        verify(cameraRepository, timeout(5000).times(1)).save(any(CameraView.class));
+        imageUploadService.stop();
+
+        failuresLeft.set(0);
+        when(cameraRepository.findByAnyImageStatusIn(any())).thenReturn(List.of(cameraView));
+        imageUploadService = newImageUploadService(imageStore);
+        imageUploadService.redrive();
+
+        verify(cameraRepository, timeout(5000).times(2)).save(any(CameraView.class));
+        assertEquals(ImageUploadStatus.UPLOADED, cameraView.getFrontImg1Status());
+        assertEquals(1, stored.size());
+        try (Stream<Path> spooled = Files.list(spoolDirectory)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    void marksPendingImagesThatWereNeverSpooledAsFailed() {
+        when(cameraRepository.findByAnyImageStatusIn(any())).thenReturn(List.of(cameraView));
+
+        imageUploadService.redrive();
+
+        assertEquals(ImageUploadStatus.FAILED, cameraView.getFrontImg1Status());
+        assertEquals(0, stored.size());
+    }
+
+    @Test
+    void storesAThumbnailOfLargeImages() throws Exception {
+        BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", jpeg);
+
+        imageUploadService.submit(1L, List.of(new ImageUploadService.PendingImage(ImageAngle.FRONT, "front.jpg", jpeg.toByteArray())));
+
+        verify(cameraRepository, timeout(5000).times(2)).save(any(CameraView.class));
+        String thumbnailPath = cameraView.getFrontImg1Thumbnail().substring(("http://127.0.0.1:" + webDav.getAddress().getPort()).length());
+        assertTrue(thumbnailPath.startsWith("/remote.php/dav/files/admin/images/"));
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(stored.get(thumbnailPath)));
+        assertEquals(240, thumbnail.getWidth());
+        assertEquals(180, thumbnail.getHeight());
+        // The original is narrower than the medium size, so no medium copy is stored
+        assertNull(cameraView.getFrontImg1Medium());
+    }
+}
@@ -0,0 +1,69 @@
+package com.weighbridge.camera.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalImageStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private LocalImageStore imageStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageStore = new LocalImageStore();
+        ReflectionTestUtils.setField(imageStore, "directory", directory.toString());
+        imageStore.start();
+    }
+
+    @Test
+    void storesAndReadsImages() throws Exception {
+        byte[] content = new byte[200_000];
+        content[199_999] = 42;
+
+        String location = imageStore.put("images/ab/cd/abcd.jpg", new ByteArrayInputStream(content), content.length);
+
+        assertEquals("images/ab/cd/abcd.jpg", location);
+        assertTrue(imageStore.exists("images/ab/cd/abcd.jpg"));
+        try (InputStream stored = imageStore.get(location)) {
+            assertArrayEquals(content, stored.readAllBytes());
+        }
+        assertEquals(directory.resolve("images/ab/cd/abcd.jpg"), imageStore.localFile(location));
+        assertArrayEquals(content, imageStore.getAll(Map.of("frontImg1", location)).get("frontImg1"));
+        try (var files = Files.list(directory.resolve("images/ab/cd"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void deletesImages() throws Exception {
+        String location = imageStore.put("front.jpg", new ByteArrayInputStream(new byte[]{1}), 1);
+
+        imageStore.delete(location);
+
+        assertFalse(imageStore.exists("front.jpg"));
+        assertThrows(FileNotFoundException.class, () -> imageStore.get(location));
+        assertTrue(imageStore.getAll(Map.of("frontImg1", location)).isEmpty());
+    }
+
+    @Test
+    void rejectsNamesOutsideTheFolder() {
+        assertThrows(IllegalArgumentException.class, () -> imageStore.exists("../outside.jpg"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.weighbridge.camera.services.impl;
+
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.avformat.AVStream;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.Java2DFrameConverter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_MPEG4;
+import static org.bytedeco.ffmpeg.global.avcodec.av_packet_unref;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacketRingTest {
+
+    private static final int FRAMES = 100;
+    private static final int FRAME_RATE = 25;
+    private static final int FRAME_MILLIS = 1000 / FRAME_RATE;
+    private static final int GOP_SIZE = 10;
+
+    @TempDir
+    static Path tempDir;
+
+    private static Path video;
+
+    @BeforeAll
+    static void recordVideo() throws Exception {
+        video = tempDir.resolve("camera.mp4");
+        try (FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(video.toFile(), 320, 240, 0);
+             Java2DFrameConverter converter = new Java2DFrameConverter()) {
+            recorder.setFormat("mp4");
+            recorder.setVideoCodec(AV_CODEC_ID_MPEG4);
+            recorder.setFrameRate(FRAME_RATE);
+            recorder.setGopSize(GOP_SIZE);
+            recorder.start();
+            BufferedImage image = new BufferedImage(320, 240, BufferedImage.TYPE_3BYTE_BGR);
+            for (int i = 0; i < FRAMES; i++) {
+                Graphics2D graphics = image.createGraphics();
+                graphics.setColor(Color.DARK_GRAY);
+                graphics.fillRect(0, 0, 320, 240);
+                graphics.setColor(Color.YELLOW);
+                graphics.fillRect(i * 3, 100, 40, 40);
+                graphics.dispose();
+                recorder.record(converter.convert(image));
+            }
+            recorder.stop();
+        }
+    }
+
+    @Test
+    void writesTheWindowFromTheKeyFrameBeforeIt() throws Exception {
+        try (PacketRing ring = new PacketRing(Long.MAX_VALUE, Long.MAX_VALUE)) {
+            fill(ring);
+            Path clip = tempDir.resolve("clip.mp4");
+
+            // Frames 30 to 60, the key frame before is frame 30
+            assertTrue(ring.writeClip(30 * FRAME_MILLIS, 60 * FRAME_MILLIS, clip));
+            assertEquals(31, countFrames(clip));
+
+            // Frames 35 to 45 start at key frame 30
+            assertTrue(ring.writeClip(35 * FRAME_MILLIS, 45 * FRAME_MILLIS, clip));
+            assertEquals(16, countFrames(clip));
+        }
+    }
+
+    @Test
+    void dropsWholeGroupsOfPicturesOverTheDuration() throws Exception {
+        try (PacketRing ring = new PacketRing(Long.MAX_VALUE, 30 * FRAME_MILLIS)) {
+            fill(ring);
+            Path clip = tempDir.resolve("recent.mp4");
+
+            assertTrue(ring.writeClip(0, FRAMES * FRAME_MILLIS, clip));
+            // The last 30 frames at most, starting at a key frame
+            assertEquals(30, countFrames(clip));
+            assertFalse(ring.writeClip(0, 60 * FRAME_MILLIS - 1, clip));
+        }
+    }
+
+    @Test
+    void keepsTheBytesUnderTheLimit() throws Exception {
+        long maxBytes;
+        try (PacketRing ring = new PacketRing(Long.MAX_VALUE, Long.MAX_VALUE)) {
+            fill(ring);
+            maxBytes = ring.getTotalBytes() / 3;
+        }
+        try (PacketRing ring = new PacketRing(maxBytes, Long.MAX_VALUE)) {
+            fill(ring);
+            assertTrue(ring.getTotalBytes() <= maxBytes);
+            assertTrue(ring.writeClip(0, FRAMES * FRAME_MILLIS, tempDir.resolve("small.mp4")));
+        }
+    }
+
+    @Test
+    void writesNothingOutsideTheBufferedVideo() throws Exception {
+        try (PacketRing ring = new PacketRing(Long.MAX_VALUE, Long.MAX_VALUE)) {
+            assertFalse(ring.writeClip(0, FRAMES * FRAME_MILLIS, tempDir.resolve("none.mp4")));
+            fill(ring);
+            assertFalse(ring.writeClip(FRAMES * FRAME_MILLIS, 2 * FRAMES * FRAME_MILLIS, tempDir.resolve("late.mp4")));
+        }
+    }
+
+    /**
+     * Adds the packets of the test video as if frame i arrived at i * FRAME_MILLIS.
+     */
+    private static void fill(PacketRing ring) throws Exception {
+        try (FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(video.toFile())) {
+            grabber.start();
+            AVStream stream = grabber.getFormatContext().streams(grabber.getFormatContext().nb_streams() - 1);
+            ring.reset(stream);
+            AVPacket packet;
+            for (int i = 0; (packet = grabber.grabPacket()) != null; i++) {
+                ring.add(packet, (long) i * FRAME_MILLIS);
+                av_packet_unref(packet);
+            }
+            grabber.stop();
+        }
+    }
+
+    private static int countFrames(Path clip) throws Exception {
+        int frames = 0;
+        try (FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(clip.toFile())) {
+            grabber.start();
+            Frame frame;
+            while ((frame = grabber.grabImage()) != null) {
+                frames++;
+            }
+            grabber.stop();
+        }
+        return frames;
+    }
+}
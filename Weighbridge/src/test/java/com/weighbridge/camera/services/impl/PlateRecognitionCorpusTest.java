@@ -0,0 +1,140 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.admin.repsitories.VehicleMasterRepository;
+import com.weighbridge.camera.services.PlateRecognitionService.PlateRecognition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.bytedeco.opencv.global.opencv_core.CV_8U;
+import static org.bytedeco.opencv.global.opencv_imgcodecs.IMREAD_GRAYSCALE;
+import static org.bytedeco.opencv.global.opencv_imgcodecs.imdecode;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the plate recognition over the images in src/test/resources/anpr, listed in corpus.csv with their vehicle
+ * number and plate position. The plates are read with the English trained data bundled in the tess4j test
+ * dependency, and matched against the vehicle numbers of the whole corpus.
+ */
+class PlateRecognitionCorpusTest {
+
+    @TempDir
+    static Path tessdata;
+
+    @BeforeAll
+    static void extractTrainedData() throws IOException {
+        try (InputStream trainedData = resource("/tessdata/eng.traineddata")) {
+            Files.copy(trainedData, tessdata.resolve("eng.traineddata"));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/anpr/corpus.csv", numLinesToSkip = 1)
+    void locatesThePlate(String file, String vehicleNo, int x, int y, int width, int height) throws IOException {
+        try (Mat gray = decode(image(file))) {
+            List<Rect> candidates = new PlateLocator(3).locate(gray);
+
+            assertFalse(candidates.isEmpty(), "No plate candidate in " + file);
+            assertTrue(candidates.stream().anyMatch(candidate -> covers(candidate, x, y, width, height)),
+                    "No candidate covers the plate of " + file);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/anpr/corpus.csv", numLinesToSkip = 1)
+    void readsAndMatchesThePlate(String file, String vehicleNo) throws IOException {
+        PlateRecognitionServiceImpl service = service();
+        try {
+            PlateRecognition recognition = service.recognize(image(file));
+
+            assertFalse(recognition.getMatches().isEmpty(), "Plate of " + file + " read as " + recognition.getPlateText());
+            assertEquals(vehicleNo, recognition.getMatches().get(0).getVehicleNo());
+        } finally {
+            try {
+                service.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static PlateRecognitionServiceImpl service() throws IOException {
+        List<Object[]> vehicles = new ArrayList<>();
+        try (BufferedReader corpus = new BufferedReader(new InputStreamReader(resource("/anpr/corpus.csv"), StandardCharsets.UTF_8))) {
+            // Skips the header
+            corpus.lines().skip(1).filter(line -> !line.isBlank())
+                    .forEach(line -> vehicles.add(new Object[]{(long) vehicles.size() + 1, line.split(",")[1]}));
+        }
+        VehicleMasterRepository vehicleMasterRepository = mock(VehicleMasterRepository.class);
+        when(vehicleMasterRepository.findAllVehicleIdsAndNos()).thenReturn(vehicles);
+        VehicleNumberIndex index = new VehicleNumberIndex();
+        ReflectionTestUtils.setField(index, "vehicleMasterRepository", vehicleMasterRepository);
+        ReflectionTestUtils.setField(index, "refreshInterval", Duration.ofMinutes(5));
+
+        PlateRecognitionServiceImpl service = new PlateRecognitionServiceImpl();
+        ReflectionTestUtils.setField(service, "tessdataPath", tessdata.toString());
+        ReflectionTestUtils.setField(service, "language", "eng");
+        ReflectionTestUtils.setField(service, "concurrency", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.setField(service, "timeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(service, "maxCandidates", 3);
+        ReflectionTestUtils.setField(service, "maxEdits", 2.0);
+        ReflectionTestUtils.setField(service, "maxMatches", 5);
+        ReflectionTestUtils.setField(service, "vehicleNumberIndex", index);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.start();
+        return service;
+    }
+
+    /**
+     * @return Whether the candidate is centred on the plate and about as large as the characters on it.
+     */
+    private static boolean covers(Rect candidate, int x, int y, int width, int height) {
+        int centreX = candidate.x() + candidate.width() / 2;
+        int centreY = candidate.y() + candidate.height() / 2;
+        return centreX > x && centreX < x + width && centreY > y && centreY < y + height
+                && candidate.width() >= width * 7 / 10 && candidate.area() <= 2 * width * height;
+    }
+
+    private static byte[] image(String file) throws IOException {
+        try (InputStream image = resource("/anpr/" + file)) {
+            return image.readAllBytes();
+        }
+    }
+
+    private static InputStream resource(String name) throws FileNotFoundException {
+        InputStream resource = PlateRecognitionCorpusTest.class.getResourceAsStream(name);
+        if (resource == null) {
+            throw new FileNotFoundException("Test resource not found: " + name);
+        }
+        return resource;
+    }
+
+    private static Mat decode(byte[] image) {
+        try (BytePointer data = new BytePointer(image); Mat encoded = new Mat(1, image.length, CV_8U, data)) {
+            return imdecode(encoded, IMREAD_GRAYSCALE);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.camera.events.VehiclePresenceEvent;
+import com.weighbridge.camera.services.VehicleDetectionService.PlatformState;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Point;
+import org.bytedeco.opencv.opencv_core.Scalar;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.bytedeco.opencv.global.opencv_core.CV_8UC1;
+import static org.bytedeco.opencv.global.opencv_imgproc.FILLED;
+import static org.bytedeco.opencv.global.opencv_imgproc.rectangle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlatformOccupancyDetectorTest {
+
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 90;
+
+    private final PlatformOccupancyDetector detector = new PlatformOccupancyDetector(WIDTH, 25, 0.15, 0.01, 1000, 3);
+    private final List<VehiclePresenceEvent.Type> events = new ArrayList<>();
+    private long timeMillis;
+
+    @AfterEach
+    void tearDown() {
+        detector.close();
+    }
+
+    @Test
+    void reportsAVehicleEnteringSettlingAndLeaving() {
+        feed(10, -1);
+        assertTrue(events.isEmpty());
+        assertEquals(PlatformState.EMPTY, detector.getState());
+
+        // Drives on, one pixel column per frame
+        for (int x = 20; x < 40; x++) {
+            feed(1, x);
+        }
+        assertEquals(List.of(VehiclePresenceEvent.Type.ENTERED), events);
+        assertEquals(PlatformState.MOVING, detector.getState());
+
+        feed(10, 40);
+        assertEquals(List.of(VehiclePresenceEvent.Type.ENTERED, VehiclePresenceEvent.Type.SETTLED), events);
+        assertEquals(PlatformState.SETTLED, detector.getState());
+
+        // Pulls forward and stops again
+        feed(1, 45);
+        assertEquals(PlatformState.MOVING, detector.getState());
+        feed(10, 45);
+        assertEquals(List.of(VehiclePresenceEvent.Type.ENTERED, VehiclePresenceEvent.Type.SETTLED,
+                VehiclePresenceEvent.Type.MOVING, VehiclePresenceEvent.Type.SETTLED), events);
+
+        // Driving off is seen as moving before the empty platform is confirmed
+        feed(10, -1);
+        assertEquals(List.of(VehiclePresenceEvent.Type.ENTERED, VehiclePresenceEvent.Type.SETTLED,
+                VehiclePresenceEvent.Type.MOVING, VehiclePresenceEvent.Type.SETTLED, VehiclePresenceEvent.Type.MOVING,
+                VehiclePresenceEvent.Type.LEFT), events);
+        assertEquals(PlatformState.EMPTY, detector.getState());
+    }
+
+    @Test
+    void ignoresAVehicleSeenInASingleFrame() {
+        feed(5, -1);
+        feed(1, 40);
+        feed(5, -1);
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void analysesDecodedFrames() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.empty(), detector.analyse(image(-1), timeMillis += 200));
+        }
+        for (int i = 0; i < 3; i++) {
+            detector.analyse(image(40), timeMillis += 200).ifPresent(events::add);
+        }
+
+        assertEquals(List.of(VehiclePresenceEvent.Type.ENTERED), events);
+    }
+
+    /**
+     * Feeds frames 200 ms apart of the platform with a vehicle at the column, or without a vehicle if it is negative.
+     */
+    private void feed(int frames, int vehicleX) {
+        for (int i = 0; i < frames; i++) {
+            try (Mat frame = frame(vehicleX, 1)) {
+                detector.update(frame, timeMillis += 200).ifPresent(events::add);
+            }
+        }
+    }
+
+    /**
+     * @param scale How many times larger than the analysis size the frame is.
+     */
+    private static Mat frame(int vehicleX, int scale) {
+        Mat frame = new Mat(HEIGHT * scale, WIDTH * scale, CV_8UC1, new Scalar(90));
+        if (vehicleX >= 0) {
+            rectangle(frame, new Point(vehicleX * scale, 20 * scale), new Point((vehicleX + 60) * scale, 70 * scale),
+                    new Scalar(220), FILLED, 8, 0);
+        }
+        return frame;
+    }
+
+    /**
+     * @return A BGR frame as the capture loop decodes it, larger than the analysis size.
+     */
+    private static BufferedImage image(int vehicleX) {
+        int scale = 4;
+        BufferedImage image = new BufferedImage(WIDTH * scale, HEIGHT * scale, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(90, 90, 90));
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        if (vehicleX >= 0) {
+            graphics.setColor(new Color(220, 220, 220));
+            graphics.fillRect(vehicleX * scale, 20 * scale, 60 * scale, 50 * scale);
+        }
+        graphics.dispose();
+        return image;
+    }
+}
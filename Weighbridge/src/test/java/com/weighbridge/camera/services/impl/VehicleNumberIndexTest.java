@@ -0,0 +1,78 @@
+package com.weighbridge.camera.services.impl;
+
+import com.weighbridge.admin.repsitories.VehicleMasterRepository;
+import com.weighbridge.camera.services.PlateRecognitionService.VehicleMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleNumberIndexTest {
+
+    private final VehicleMasterRepository vehicleMasterRepository = mock(VehicleMasterRepository.class);
+    private final VehicleNumberIndex index = new VehicleNumberIndex();
+
+    @BeforeEach
+    void setUp() {
+        when(vehicleMasterRepository.findAllVehicleIdsAndNos()).thenReturn(List.of(
+                new Object[]{1L, "KA 01 AB 1234"},
+                new Object[]{2L, "KA01AB1284"},
+                new Object[]{3L, "MH12DE4567"},
+                new Object[]{4L, "DL8CAF0042"}));
+        ReflectionTestUtils.setField(index, "vehicleMasterRepository", vehicleMasterRepository);
+        ReflectionTestUtils.setField(index, "refreshInterval", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void matchesExactlyIgnoringSpacing() {
+        List<VehicleMatch> matches = index.match("ka01ab1234", 0, 5);
+
+        assertEquals(1, matches.size());
+        assertEquals("KA 01 AB 1234", matches.get(0).getVehicleNo());
+        assertEquals(1L, matches.get(0).getVehicleId());
+        assertEquals(0, matches.get(0).getEdits());
+    }
+
+    @Test
+    void countsCommonOcrConfusionsAsHalfAnEdit() {
+        // O for 0 and Z for 2
+        List<VehicleMatch> matches = index.match("DL8CAFO04Z", 1, 5);
+
+        assertEquals(1, matches.size());
+        assertEquals("DL8CAF0042", matches.get(0).getVehicleNo());
+        assertEquals(1, matches.get(0).getEdits());
+    }
+
+    @Test
+    void ordersMatchesByDistance() {
+        // A missing character and a wrong one
+        List<VehicleMatch> matches = index.match("KA01AB123", 2, 5);
+
+        assertEquals(List.of("KA 01 AB 1234", "KA01AB1284"), matches.stream().map(VehicleMatch::getVehicleNo).toList());
+        assertEquals(1, matches.get(0).getEdits());
+        assertEquals(2, matches.get(1).getEdits());
+    }
+
+    @Test
+    void ignoresVehiclesTooFarFromThePlate() {
+        assertTrue(index.match("TN09BC7788", 2, 5).isEmpty());
+        assertTrue(index.match("--", 2, 5).isEmpty());
+    }
+
+    @Test
+    void loadsTheVehiclesOnceWithinTheRefreshInterval() {
+        index.match("MH12DE4567", 1, 5);
+        index.match("MH12DE4567", 1, 5);
+
+        verify(vehicleMasterRepository, times(1)).findAllVehicleIdsAndNos();
+    }
+}
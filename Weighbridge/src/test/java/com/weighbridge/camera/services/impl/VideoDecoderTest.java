@@ -0,0 +1,135 @@
+package com.weighbridge.camera.services.impl;
+
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Java2DFrameConverter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_MPEG4;
+import static org.bytedeco.ffmpeg.global.avcodec.av_packet_unref;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VideoDecoderTest {
+
+    private static final int FRAMES = 50;
+    private static final int GOP_SIZE = 10;
+
+    @TempDir
+    static Path tempDir;
+
+    private static Path video;
+
+    @BeforeAll
+    static void recordVideo() throws Exception {
+        video = tempDir.resolve("camera.mp4");
+        try (FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(video.toFile(), 640, 480, 0);
+             Java2DFrameConverter converter = new Java2DFrameConverter()) {
+            recorder.setFormat("mp4");
+            recorder.setVideoCodec(AV_CODEC_ID_MPEG4);
+            recorder.setFrameRate(25);
+            recorder.setGopSize(GOP_SIZE);
+            recorder.start();
+            // Red on the left, blue on the right
+            BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setColor(Color.RED);
+            graphics.fillRect(0, 0, 320, 480);
+            graphics.setColor(Color.BLUE);
+            graphics.fillRect(320, 0, 320, 480);
+            graphics.dispose();
+            for (int i = 0; i < FRAMES; i++) {
+                recorder.record(converter.convert(image));
+            }
+            recorder.stop();
+        }
+    }
+
+    @Test
+    void decodesEveryFrameAtFullSize() throws Exception {
+        int frames = 0;
+        try (FFmpegFrameGrabber grabber = start(); VideoDecoder decoder = new VideoDecoder(grabber.getFormatContext().streams(0))) {
+            AVPacket packet;
+            while ((packet = grabber.grabPacket()) != null) {
+                if (decoder.decode(packet)) {
+                    frames++;
+                    BufferedImage image = decoder.image(0);
+                    assertEquals(640, image.getWidth());
+                    assertEquals(480, image.getHeight());
+                    assertColor(Color.RED, image.getRGB(100, 240));
+                    assertColor(Color.BLUE, image.getRGB(540, 240));
+                }
+                av_packet_unref(packet);
+            }
+        }
+        assertEquals(FRAMES, frames);
+    }
+
+    @Test
+    void decodesKeyFramesOnlyScaledDown() throws Exception {
+        int frames = 0;
+        try (FFmpegFrameGrabber grabber = start(); VideoDecoder decoder = new VideoDecoder(grabber.getFormatContext().streams(0))) {
+            decoder.setKeyFramesOnly(true);
+            AVPacket packet;
+            while ((packet = grabber.grabPacket()) != null) {
+                if (decoder.decode(packet)) {
+                    frames++;
+                    assertTrue(decoder.isKeyFrame());
+                    BufferedImage image = decoder.image(160);
+                    assertEquals(160, image.getWidth());
+                    assertEquals(120, image.getHeight());
+                    assertColor(Color.RED, image.getRGB(25, 60));
+                    assertColor(Color.BLUE, image.getRGB(135, 60));
+                }
+                av_packet_unref(packet);
+            }
+        }
+        assertEquals(FRAMES / GOP_SIZE, frames);
+    }
+
+    @Test
+    void decodesAllFramesAgainFromTheNextKeyFrame() throws Exception {
+        int frames = 0;
+        try (FFmpegFrameGrabber grabber = start(); VideoDecoder decoder = new VideoDecoder(grabber.getFormatContext().streams(0))) {
+            decoder.setKeyFramesOnly(true);
+            AVPacket packet;
+            for (int i = 0; (packet = grabber.grabPacket()) != null; i++) {
+                if (i == GOP_SIZE + GOP_SIZE / 2) {
+                    // A viewer joins in the middle of the second group of pictures
+                    decoder.setKeyFramesOnly(false);
+                }
+                if (decoder.decode(packet)) {
+                    frames++;
+                    assertTrue(i % GOP_SIZE == 0 || i >= 2 * GOP_SIZE, "Frame " + i + " was decoded without its key frame");
+                    BufferedImage image = decoder.image(0);
+                    assertColor(Color.RED, image.getRGB(100, 240));
+                    assertColor(Color.BLUE, image.getRGB(540, 240));
+                }
+                av_packet_unref(packet);
+            }
+        }
+        // The first two key frames, then every frame from the third key frame on
+        assertEquals(2 + FRAMES - 2 * GOP_SIZE, frames);
+    }
+
+    private static FFmpegFrameGrabber start() throws Exception {
+        FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(video.toFile());
+        grabber.start();
+        return grabber;
+    }
+
+    private static void assertColor(Color expected, int rgb) {
+        Color actual = new Color(rgb);
+        assertTrue(Math.abs(expected.getRed() - actual.getRed()) < 16
+                && Math.abs(expected.getGreen() - actual.getGreen()) < 16
+                && Math.abs(expected.getBlue() - actual.getBlue()) < 16, "Expected " + expected + " but was " + actual);
+    }
+}
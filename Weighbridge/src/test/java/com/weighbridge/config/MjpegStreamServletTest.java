@@ -0,0 +1,135 @@
+package com.weighbridge.config;
+
+import com.weighbridge.camera.entites.ImageAngle;
+import com.weighbridge.camera.services.CameraStreamRegistry;
+import com.weighbridge.camera.services.CameraStreamRegistry.PreviewStream;
+import com.weighbridge.camera.services.FrameCaptureService;
+import com.weighbridge.camera.services.FrameCaptureService.StreamProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MjpegStreamServletTest {
+
+    private static final String RTSP_URL = "rtsp://camera/sub";
+    private static final StreamProfile PROFILE = new StreamProfile(false, 640);
+
+    private final CameraStreamRegistry cameraStreamRegistry = mock(CameraStreamRegistry.class);
+    private final FrameCaptureService frameCaptureService = mock(FrameCaptureService.class);
+    private final ExecutorService sendExecutor = Executors.newFixedThreadPool(2);
+    private final CompletableFuture<Consumer<byte[]>> feed = new CompletableFuture<>();
+    private final CountDownLatch unsubscribed = new CountDownLatch(1);
+    private Tomcat tomcat;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        when(cameraStreamRegistry.findPreviewStream(1L, ImageAngle.FRONT))
+                .thenReturn(Optional.of(new PreviewStream(RTSP_URL, PROFILE)));
+        when(cameraStreamRegistry.findPreviewStream(2L, ImageAngle.FRONT)).thenReturn(Optional.empty());
+        when(frameCaptureService.subscribe(eq(RTSP_URL), eq(PROFILE), any())).thenAnswer(invocation -> {
+            feed.complete(invocation.getArgument(2));
+            return (FrameCaptureService.Subscription) unsubscribed::countDown;
+        });
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(System.getProperty("java.io.tmpdir"));
+        tomcat.setPort(0);
+        Context context = tomcat.addContext("", null);
+        Wrapper wrapper = Tomcat.addServlet(context, "mjpeg", new MjpegStreamServlet(frameCaptureService,
+                cameraStreamRegistry, sendExecutor, new SimpleMeterRegistry(), 0));
+        wrapper.setAsyncSupported(true);
+        context.addServletMappingDecoded("/mjpeg/camera/*", "mjpeg");
+        tomcat.getConnector();
+        tomcat.start();
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        tomcat.stop();
+        tomcat.destroy();
+        sendExecutor.shutdownNow();
+    }
+
+    @Test
+    void streamsFramesAsMultipartParts() throws Exception {
+        HttpURLConnection connection = open("/mjpeg/camera/1/front");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("multipart/x-mixed-replace; boundary=frame", connection.getContentType());
+
+        Consumer<byte[]> frames = feed.get(5, TimeUnit.SECONDS);
+        DataInputStream input = new DataInputStream(connection.getInputStream());
+        for (int i = 0; i < 3; i++) {
+            byte[] frame = ("frame " + i).getBytes(StandardCharsets.US_ASCII);
+            frames.accept(frame);
+            assertEquals("--frame", readLine(input));
+            assertEquals("Content-Type: image/jpeg", readLine(input));
+            assertEquals("Content-Length: " + frame.length, readLine(input));
+            assertEquals("", readLine(input));
+            byte[] received = new byte[frame.length];
+            input.readFully(received);
+            assertArrayEquals(frame, received);
+            assertEquals("", readLine(input));
+        }
+
+        connection.disconnect();
+        // The viewer notices it has left on the next write
+        for (int i = 0; i < 100 && !unsubscribed.await(50, TimeUnit.MILLISECONDS); i++) {
+            frames.accept(new byte[64 * 1024]);
+        }
+        assertTrue(unsubscribed.await(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsUnknownCameras() throws Exception {
+        assertEquals(404, open("/mjpeg/camera/2/front").getResponseCode());
+        assertEquals(400, open("/mjpeg/camera/x/front").getResponseCode());
+        assertEquals(400, open("/mjpeg/camera/1/sideways").getResponseCode());
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:"
+                + tomcat.getConnector().getLocalPort() + path).openConnection();
+        connection.setReadTimeout(5000);
+        return connection;
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = input.read()) != '\n') {
+            if (c == -1) {
+                throw new IOException("Stream ended");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+}
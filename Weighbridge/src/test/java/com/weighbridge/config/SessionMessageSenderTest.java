@@ -0,0 +1,77 @@
+package com.weighbridge.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionMessageSenderTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        released.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void closesASessionWhoseWriteStalls() throws Exception {
+        WebSocketSession session = stalledSession();
+        SessionMessageSender sender = new SessionMessageSender(session, executor, Duration.ofMillis(100), 1024, 2);
+
+        assertTrue(sender.offer(new BinaryMessage(new byte[]{1})));
+        Thread.sleep(200);
+        // The next message finds the first still being written
+        assertTrue(sender.offer(new BinaryMessage(new byte[]{2})));
+
+        verify(session, timeout(5000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertFalse(sender.offer(new BinaryMessage(new byte[]{3})));
+    }
+
+    @Test
+    void neverQueuesMoreThanTheLimitForAStalledSession() throws Exception {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        try {
+            WebSocketSession session = stalledSession();
+            SessionMessageSender sender = new SessionMessageSender(session, singleThread, Duration.ofMinutes(1), 1024, 2);
+
+            assertTrue(sender.offer(new BinaryMessage(new byte[]{1})));
+            verify(session, timeout(5000)).sendMessage(any());
+            // Waits behind the stalled write
+            assertTrue(sender.offer(new BinaryMessage(new byte[]{2})));
+            assertFalse(sender.offer(new BinaryMessage(new byte[]{3})));
+        } finally {
+            released.countDown();
+            singleThread.shutdownNow();
+        }
+    }
+
+    private WebSocketSession stalledSession() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getId()).thenReturn("viewer");
+        doAnswer(invocation -> {
+            released.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+}
@@ -0,0 +1,82 @@
+package com.weighbridge.config;
+
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService;
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService.ScaleReading;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WeightWebSocketHandlerTest {
+
+    private final ScaleIndicatorService scaleIndicatorService = mock(ScaleIndicatorService.class);
+    private final AtomicReference<ScaleReading> reading = new AtomicReference<>();
+    private final WeightWebSocketHandler handler;
+
+    WeightWebSocketHandlerTest() {
+        when(scaleIndicatorService.getMachineIds()).thenReturn(Set.of("WB1"));
+        when(scaleIndicatorService.getReading("WB1")).thenAnswer(invocation -> Optional.ofNullable(reading.get()));
+        when(scaleIndicatorService.getStableWeight("WB1")).thenAnswer(invocation -> Optional.ofNullable(reading.get())
+                .filter(ScaleReading::isStable).map(ScaleReading::getWeight));
+        handler = new WeightWebSocketHandler(scaleIndicatorService, Runnable::run, 20, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void close() {
+        handler.close();
+    }
+
+    @Test
+    void pushesTheLatestReadingOnlyWhenItChanges() throws Exception {
+        WebSocketSession console = session("/ws/weight/wb1");
+        handler.afterConnectionEstablished(console);
+
+        // Readings between two pushes are coalesced into the last of them
+        reading.set(new ScaleReading(12000, false, 1));
+        reading.set(new ScaleReading(12340, true, 2));
+        verify(console, timeout(1000)).sendMessage(message("{\"machineId\":\"WB1\",\"weight\":12340,\"stable\":true,\"readAtMillis\":2}"));
+        verify(console, after(200).never()).sendMessage(message("{\"machineId\":\"WB1\",\"weight\":12000,\"stable\":false,\"readAtMillis\":1}"));
+
+        // A new reading of the same weight is not pushed again
+        reading.set(new ScaleReading(12340, true, 3));
+        verify(console, after(200).never()).sendMessage(message("{\"machineId\":\"WB1\",\"weight\":12340,\"stable\":true,\"readAtMillis\":3}"));
+        verify(console, never()).close(any());
+    }
+
+    @Test
+    void closesSessionsOfUnknownMachines() throws Exception {
+        WebSocketSession console = session("/ws/weight/WB9");
+        handler.afterConnectionEstablished(console);
+        verify(console).close(argThat(status -> status.getCode() == CloseStatus.BAD_DATA.getCode()));
+    }
+
+    private static WebSocketSession session(String path) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getUri()).thenReturn(URI.create("ws://localhost" + path));
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        when(session.isOpen()).thenReturn(true);
+        when(session.getId()).thenReturn(path);
+        return session;
+    }
+
+    private static TextMessage message(String payload) {
+        return argThat(message -> message instanceof TextMessage && payload.equals(((TextMessage) message).getPayload()));
+    }
+}
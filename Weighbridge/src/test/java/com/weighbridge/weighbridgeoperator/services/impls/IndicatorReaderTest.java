@@ -0,0 +1,144 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+import com.weighbridge.weighbridgeoperator.services.IndicatorFrameParser.IndicatorWeight;
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService.ScaleReading;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the reader against a local TCP server that plays the indicator, or a named pipe in place of a serial device.
+ */
+class IndicatorReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ServerSocket simulator;
+    private IndicatorReader reader;
+
+    @BeforeEach
+    void startSimulator() throws IOException {
+        simulator = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        reader = new IndicatorReader("WB1", URI.create("tcp://127.0.0.1:" + simulator.getLocalPort()),
+                new AsciiWeightParser(), new WeightStabilityDetector(3, 20, 2000),
+                new WeightSampleLog(tempDir, ZoneOffset.UTC), Duration.ofSeconds(2), Duration.ofMillis(50), Duration.ofMillis(200));
+        reader.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        reader.stop();
+        simulator.close();
+    }
+
+    @Test
+    void becomesStableOnceTheReadingsAgree() throws Exception {
+        try (Socket indicator = simulator.accept()) {
+            OutputStream output = indicator.getOutputStream();
+            send(output, "US,GS,+0012000kg\r\n");
+            ScaleReading moving = await(reading -> reading.getWeight() == 12000);
+            assertFalse(moving.isStable());
+
+            // Noise within the tolerance, split across writes as a serial server would
+            send(output, "ST,GS,+0012340kg\r\nST,GS,+00123");
+            send(output, "50kg\r\nST,GS,+0012345kg\r\n");
+            ScaleReading stable = await(ScaleReading::isStable);
+            assertEquals(12345, stable.getWeight());
+
+            send(output, "ST,GS,+0012900kg\r\n");
+            assertFalse(await(reading -> reading.getWeight() == 12900).isStable());
+        }
+    }
+
+    @Test
+    void reconnectsWhenTheIndicatorDrops() throws Exception {
+        try (Socket indicator = simulator.accept()) {
+            send(indicator.getOutputStream(), "  5000 kg\r\n");
+            await(reading -> reading.getWeight() == 5000);
+        }
+        try (Socket indicator = simulator.accept()) {
+            send(indicator.getOutputStream(), "\u00026.5 t\u0003");
+            await(reading -> reading.getWeight() == 6500);
+        }
+    }
+
+    @Test
+    void reopensASerialDeviceThatFellSilent() throws Exception {
+        Path device = tempDir.resolve("ttyWB1");
+        assumeTrue(new ProcessBuilder("mkfifo", device.toString()).start().waitFor() == 0);
+        reader.stop();
+        reader = new IndicatorReader("WB1", URI.create("serial:" + device), new AsciiWeightParser(),
+                new WeightStabilityDetector(3, 20, 2000), new WeightSampleLog(tempDir, ZoneOffset.UTC),
+                Duration.ofMillis(300), Duration.ofMillis(50), Duration.ofMillis(200));
+        reader.start();
+        try (OutputStream indicator = new FileOutputStream(device.toFile())) {
+            send(indicator, "  5000 kg\r\n");
+            await(reading -> reading.getWeight() == 5000);
+            Object silent = ReflectionTestUtils.getField(reader, "connection");
+
+            Object reopened = silent;
+            for (int i = 0; i < 200 && (reopened == silent || reopened == null); i++) {
+                Thread.sleep(10);
+                reopened = ReflectionTestUtils.getField(reader, "connection");
+            }
+            assertNotSame(silent, reopened);
+            send(indicator, "  6500 kg\r\n");
+            await(reading -> reading.getWeight() == 6500);
+        }
+    }
+
+    @Test
+    void readsToledoContinuousOutput() {
+        ToledoContinuousParser parser = new ToledoContinuousParser();
+        // Decimal code 2 is whole units, status B 0x28 is motion, 0x22 negative
+        byte[] frame = "2  012340000000".getBytes(StandardCharsets.US_ASCII);
+        frame[1] = 0x20;
+        assertEquals(12340, parser.parse(frame, frame.length).map(IndicatorWeight::getWeight).orElseThrow());
+        frame[1] = 0x28;
+        assertTrue(parser.parse(frame, frame.length).orElseThrow().isMotion());
+        frame[1] = 0x22;
+        assertEquals(-12340, parser.parse(frame, frame.length).map(IndicatorWeight::getWeight).orElseThrow());
+        frame[0] = '3';
+        assertEquals(-1234, parser.parse(frame, frame.length).map(IndicatorWeight::getWeight).orElseThrow());
+        frame[1] = 0x24;
+        assertTrue(parser.parse(frame, frame.length).isEmpty());
+    }
+
+    private static void send(OutputStream output, String frames) throws IOException {
+        output.write(frames.getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+    }
+
+    private ScaleReading await(Predicate<ScaleReading> condition) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            ScaleReading reading = reader.getLatest();
+            if (reading != null && condition.test(reading)) {
+                return reading;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No matching reading, the last was " + reader.getLatest());
+    }
+}
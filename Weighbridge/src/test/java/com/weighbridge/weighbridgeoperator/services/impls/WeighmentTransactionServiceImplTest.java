@@ -0,0 +1,146 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+import com.weighbridge.SalesManagement.entities.SalesOrder;
+import com.weighbridge.SalesManagement.entities.SalesProcess;
+import com.weighbridge.SalesManagement.repositories.SalesOrderRespository;
+import com.weighbridge.SalesManagement.repositories.SalesProcessRepository;
+import com.weighbridge.camera.services.CameraClipService;
+import com.weighbridge.camera.services.CameraViewService;
+import com.weighbridge.gateuser.entities.GateEntryTransaction;
+import com.weighbridge.gateuser.repositories.GateEntryTransactionRepository;
+import com.weighbridge.gateuser.repositories.TransactionLogRepository;
+import com.weighbridge.weighbridgeoperator.entities.VehicleTransactionStatus;
+import com.weighbridge.weighbridgeoperator.entities.WeighmentTransaction;
+import com.weighbridge.weighbridgeoperator.payloads.WeighmentRequest;
+import com.weighbridge.weighbridgeoperator.repositories.VehicleTransactionStatusRepository;
+import com.weighbridge.weighbridgeoperator.repositories.WeighmentTransactionRepository;
+import com.weighbridge.weighbridgeoperator.services.ScaleIndicatorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Weighs many outbound trucks of one sales order at the same time and checks the service hands every net weight to
+ * the database increment instead of writing back an order it read. The repository here is a stand-in, the increment
+ * itself is run against a database in SalesOrderRespositoryTest.
+ */
+class WeighmentTransactionServiceImplTest {
+
+    private static final String SALE_ORDER_NO = "SO-1";
+    private static final int TRUCKS = 100;
+    private static final long ORDERED_QUANTITY = 5_000_000;
+
+    private final SalesOrder salesOrderRow = new SalesOrder();
+    private final GateEntryTransactionRepository gateEntryTransactionRepository = mock(GateEntryTransactionRepository.class);
+    private final WeighmentTransactionRepository weighmentTransactionRepository = mock(WeighmentTransactionRepository.class);
+    private final VehicleTransactionStatusRepository vehicleTransactionStatusRepository = mock(VehicleTransactionStatusRepository.class);
+    private final SalesProcessRepository salesProcessRepository = mock(SalesProcessRepository.class);
+    private final SalesOrderRespository salesOrderRespository = mock(SalesOrderRespository.class);
+    private final ScaleIndicatorService scaleIndicatorService = mock(ScaleIndicatorService.class);
+    private WeighmentTransactionServiceImpl weighmentTransactionService;
+
+    @BeforeEach
+    void setUp() {
+        salesOrderRow.setSaleOrderNo(SALE_ORDER_NO);
+        salesOrderRow.setOrderedQuantity(ORDERED_QUANTITY);
+        salesOrderRow.setBalanceQuantity(ORDERED_QUANTITY);
+        SalesProcess salesProcess = new SalesProcess();
+        salesProcess.setSalePassNo("SP-1");
+        salesProcess.setPurchaseSale(salesOrderRow);
+
+        when(salesProcessRepository.findBySalePassNo("SP-1")).thenReturn(salesProcess);
+        when(salesOrderRespository.findBySaleOrderNo(SALE_ORDER_NO)).thenAnswer(invocation -> copyOfRow());
+        when(salesOrderRespository.addDispatchedQuantity(eq(SALE_ORDER_NO), anyLong())).thenAnswer(invocation -> {
+            long quantity = invocation.getArgument(1);
+            synchronized (salesOrderRow) {
+                salesOrderRow.setProgressiveQuantity(salesOrderRow.getProgressiveQuantity() + quantity);
+                salesOrderRow.setBalanceQuantity(salesOrderRow.getBalanceQuantity() - quantity);
+            }
+            return 1;
+        });
+        for (int ticketNo = 1; ticketNo <= TRUCKS; ticketNo++) {
+            GateEntryTransaction gateEntry = new GateEntryTransaction();
+            gateEntry.setTicketNo(ticketNo);
+            gateEntry.setTransactionType("Outbound");
+            gateEntry.setTpNo("SP-1");
+            WeighmentTransaction tareWeighment = new WeighmentTransaction();
+            tareWeighment.setGateEntryTransaction(gateEntry);
+            tareWeighment.setTemporaryWeight(10_000 + ticketNo);
+            VehicleTransactionStatus status = new VehicleTransactionStatus();
+            status.setTicketNo(ticketNo);
+            status.setStatusCode("TWT");
+            when(gateEntryTransactionRepository.findById(ticketNo)).thenReturn(Optional.of(gateEntry));
+            when(weighmentTransactionRepository.findByGateEntryTransactionTicketNo(ticketNo)).thenReturn(tareWeighment);
+            when(vehicleTransactionStatusRepository.findByTicketNo(ticketNo)).thenReturn(status);
+        }
+
+        weighmentTransactionService = new WeighmentTransactionServiceImpl();
+        ReflectionTestUtils.setField(weighmentTransactionService, "gateEntryTransactionRepository", gateEntryTransactionRepository);
+        ReflectionTestUtils.setField(weighmentTransactionService, "weighmentTransactionRepository", weighmentTransactionRepository);
+        ReflectionTestUtils.setField(weighmentTransactionService, "vehicleTransactionStatusRepository", vehicleTransactionStatusRepository);
+        ReflectionTestUtils.setField(weighmentTransactionService, "transactionLogRepository", mock(TransactionLogRepository.class));
+        ReflectionTestUtils.setField(weighmentTransactionService, "salesProcessRepository", salesProcessRepository);
+        ReflectionTestUtils.setField(weighmentTransactionService, "salesOrderRespository", salesOrderRespository);
+        ReflectionTestUtils.setField(weighmentTransactionService, "scaleIndicatorService", scaleIndicatorService);
+        ReflectionTestUtils.setField(weighmentTransactionService, "cameraViewService", mock(CameraViewService.class));
+        ReflectionTestUtils.setField(weighmentTransactionService, "cameraClipService", mock(CameraClipService.class));
+    }
+
+    @Test
+    void parallelSecondWeighmentsIncrementTheOrderInTheDatabase() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(TRUCKS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> weighments = new ArrayList<>();
+        long dispatched = 0;
+        for (int ticketNo = 1; ticketNo <= TRUCKS; ticketNo++) {
+            WeighmentRequest request = new WeighmentRequest();
+            request.setTicketNo(ticketNo);
+            request.setMachineId("WB1");
+            request.setWeight(40_000 + ticketNo * 7);
+            dispatched += 40_000 + ticketNo * 7 - (10_000 + ticketNo);
+            weighments.add(executor.submit(() -> {
+                start.await();
+                return weighmentTransactionService.saveWeight(request, "operator", null, null, null, null, null, null, "OPERATOR");
+            }));
+        }
+        start.countDown();
+        for (Future<String> weighment : weighments) {
+            assertEquals("Second weight saved", weighment.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(dispatched, salesOrderRow.getProgressiveQuantity());
+        assertEquals(ORDERED_QUANTITY - dispatched, salesOrderRow.getBalanceQuantity());
+        // The order is never read, changed in memory and written back
+        verify(salesOrderRespository, never()).save(any(SalesOrder.class));
+    }
+
+    private SalesOrder copyOfRow() {
+        synchronized (salesOrderRow) {
+            SalesOrder copy = new SalesOrder();
+            copy.setSaleOrderNo(salesOrderRow.getSaleOrderNo());
+            copy.setOrderedQuantity(salesOrderRow.getOrderedQuantity());
+            copy.setProgressiveQuantity(salesOrderRow.getProgressiveQuantity());
+            copy.setBalanceQuantity(salesOrderRow.getBalanceQuantity());
+            return copy;
+        }
+    }
+}
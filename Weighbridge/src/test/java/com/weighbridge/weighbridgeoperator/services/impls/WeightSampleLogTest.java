@@ -0,0 +1,88 @@
+package com.weighbridge.weighbridgeoperator.services.impls;
+
+import com.weighbridge.weighbridgeoperator.payloads.WeightSample;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightSampleLogTest {
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final long DAY = LocalDate.of(2024, 3, 1).toEpochDay() * DAY_MILLIS;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsTheWindowBackAcrossChunksAndDays() throws Exception {
+        // More samples than one mapped chunk, the last of them after midnight
+        int samples = 100_000;
+        long firstMillis = DAY + DAY_MILLIS - 90_000;
+        try (WeightSampleLog log = new WeightSampleLog(tempDir, ZoneOffset.UTC)) {
+            for (int i = 0; i < samples; i++) {
+                log.append(firstMillis + i, i, i % 2 == 0 ? WeightSampleLog.STABLE : WeightSampleLog.MOTION);
+            }
+        }
+        assertTrue(Files.exists(WeightSampleLog.dayFile(tempDir, LocalDate.of(2024, 3, 2))));
+
+        List<WeightSample> window = WeightSampleLog.read(tempDir, ZoneOffset.UTC, firstMillis + 70_000, firstMillis + 90_009);
+        assertEquals(20_010, window.size());
+        assertEquals(70_000, window.get(0).getWeight());
+        assertEquals(firstMillis + 90_009, window.get(window.size() - 1).getTimestampMillis());
+        assertTrue(window.get(0).isStable());
+        assertTrue(window.get(1).isMotion());
+    }
+
+    @Test
+    void carriesOnAfterTheLastRecordWhenReopened() throws Exception {
+        try (WeightSampleLog log = new WeightSampleLog(tempDir, ZoneOffset.UTC)) {
+            log.append(DAY + 1, 100, 0);
+            log.append(DAY + 2, 200, 0);
+        }
+        try (WeightSampleLog log = new WeightSampleLog(tempDir, ZoneOffset.UTC)) {
+            log.append(DAY + 3, 300, WeightSampleLog.STABLE);
+        }
+        List<WeightSample> all = WeightSampleLog.read(tempDir, ZoneOffset.UTC, DAY, DAY + 10);
+        assertArrayEquals(new long[]{100, 200, 300}, all.stream().mapToLong(WeightSample::getWeight).toArray());
+    }
+
+    @Test
+    void keepsTheRecordsInTimeOrderWhenTheClockStepsBack() throws Exception {
+        try (WeightSampleLog log = new WeightSampleLog(tempDir, ZoneOffset.UTC)) {
+            log.append(DAY + DAY_MILLIS + 100, 100, 0);
+            // Stepped back across midnight
+            log.append(DAY + DAY_MILLIS - 500, 200, 0);
+        }
+        try (WeightSampleLog log = new WeightSampleLog(tempDir, ZoneOffset.UTC)) {
+            log.append(DAY + DAY_MILLIS + 50, 300, 0);
+            log.append(DAY + DAY_MILLIS + 200, 400, 0);
+        }
+        assertFalse(Files.exists(WeightSampleLog.dayFile(tempDir, LocalDate.of(2024, 3, 1))));
+        List<WeightSample> all = WeightSampleLog.read(tempDir, ZoneOffset.UTC, DAY, DAY + 2 * DAY_MILLIS);
+        assertArrayEquals(new long[]{DAY + DAY_MILLIS + 100, DAY + DAY_MILLIS + 100, DAY + DAY_MILLIS + 100, DAY + DAY_MILLIS + 200},
+                all.stream().mapToLong(WeightSample::getTimestampMillis).toArray());
+        assertEquals(3, WeightSampleLog.read(tempDir, ZoneOffset.UTC, DAY + DAY_MILLIS + 100, DAY + DAY_MILLIS + 100).size());
+    }
+
+    @Test
+    void findsTheWindowsOfATicket() throws Exception {
+        WeightSampleIndex index = new WeightSampleIndex(tempDir);
+        index.add(7, WeightSampleIndex.FIRST_WEIGHING, 10, 20);
+        index.add(8, WeightSampleIndex.FIRST_WEIGHING, 15, 25);
+        index.add(7, WeightSampleIndex.SECOND_WEIGHING, 30, 40);
+        List<long[]> windows = index.find(7);
+        assertEquals(2, windows.size());
+        assertArrayEquals(new long[]{WeightSampleIndex.SECOND_WEIGHING, 30, 40}, windows.get(1));
+        assertTrue(index.find(9).isEmpty());
+    }
+}